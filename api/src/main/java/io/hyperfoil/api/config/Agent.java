@@ -21,9 +21,12 @@ package io.hyperfoil.api.config;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class Agent implements Serializable {
    private static final String THREADS = "threads";
+   private static final String AFFINITY = "affinity";
 
    public final String name;
    public final String inlineConfig;
@@ -46,4 +49,33 @@ public class Agent implements Serializable {
          throw new BenchmarkDefinitionException("Cannot parse number of threads for agent " + name + ": " + threadsProperty);
       }
    }
+
+   /**
+    * CPUs the executor threads should be pinned to, in the format used by <code>taskset -c</code>
+    * (e.g. <code>0-3,8,10-11</code>).
+    *
+    * @return Sorted list of CPU indices or <code>null</code> if the affinity is not set.
+    */
+   public int[] affinity() {
+      String affinityProperty = properties.get(AFFINITY);
+      if (affinityProperty == null || affinityProperty.isBlank()) {
+         return null;
+      }
+      try {
+         return Stream.of(affinityProperty.split(",")).map(String::trim).flatMapToInt(range -> {
+            int dash = range.indexOf('-');
+            if (dash < 0) {
+               return IntStream.of(Integer.parseInt(range));
+            }
+            int from = Integer.parseInt(range.substring(0, dash).trim());
+            int to = Integer.parseInt(range.substring(dash + 1).trim());
+            if (from < 0 || to < from) {
+               throw new NumberFormatException("Invalid range " + range);
+            }
+            return IntStream.rangeClosed(from, to);
+         }).distinct().sorted().toArray();
+      } catch (NumberFormatException e) {
+         throw new BenchmarkDefinitionException("Cannot parse CPU affinity for agent " + name + ": " + affinityProperty);
+      }
+   }
 }
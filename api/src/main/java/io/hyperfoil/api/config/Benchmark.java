@@ -201,6 +201,13 @@ public class Benchmark implements Serializable {
       return threads <= 0 ? defaultThreads() : threads;
    }
 
+   public int[] affinity(int agentId) {
+      if (agents.length == 0) {
+         return null;
+      }
+      return agents()[agentId].affinity();
+   }
+
    public int totalThreads() {
       return totalThreads;
    }
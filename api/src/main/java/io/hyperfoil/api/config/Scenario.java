@@ -102,6 +102,17 @@ public class Scenario implements Serializable {
       return sequence;
    }
 
+   /**
+    * @return Keys of session variables, indexed the same way as the array returned from {@link #createVars(Session)}.
+    */
+   public Object[] variableKeys() {
+      Object[] keys = new Object[uniqueVars];
+      for (WriteAccess access : writes) {
+         keys[access.index()] = access.key();
+      }
+      return keys;
+   }
+
    public Session.Var[] createVars(Session session) {
       Session.Var[] vars = new Session.Var[uniqueVars];
       for (WriteAccess access : writes) {
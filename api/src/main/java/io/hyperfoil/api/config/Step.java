@@ -2,6 +2,7 @@ package io.hyperfoil.api.config;
 
 import java.io.Serializable;
 
+import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 
 public interface Step extends Serializable {
@@ -13,6 +14,30 @@ public interface Step extends Serializable {
     */
    boolean invoke(Session session);
 
+   /**
+    * Event-driven sessions do not re-invoke a blocked step on each run when this returns true; the step
+    * must make sure that its sequence is woken up through {@link Session#wakeUp(SequenceInstance)}
+    * or {@link Session#runTask(SequenceInstance)}. Completion of a request started
+    * by the sequence wakes it up automatically.
+    *
+    * @return True if the step is woken up explicitly when it can progress.
+    */
+   default boolean awaitsWakeUp() {
+      return false;
+   }
+
+   /**
+    * Event-driven sessions re-invoke a blocked step that returns true only after another sequence progressed
+    * or after the session was run by an event other than an explicit wake-up, e.g. completion of a request
+    * (which could have updated session variables) or a task from {@link Session#runTask()}.
+    * This fits steps that depend only on the session state, such as awaiting a variable.
+    *
+    * @return True if the step can be unblocked only by a change in session state.
+    */
+   default boolean awaitsStateChange() {
+      return false;
+   }
+
    /**
     * Marker interface that should have single implementation in other module.
     */
@@ -111,6 +111,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
       // handleEnd may indirectly call handleThrowable which calls setCompleted first
       if (status != Status.IDLE) {
          status = Status.COMPLETED;
+         session.wakeUp(completionSequence);
          completionSequence.decRefCnt(session);
          completionSequence = null;
       }
@@ -23,6 +23,16 @@ public interface GlobalData {
     */
    Element read(String key);
 
+   /**
+    * Retrieves a counter shared by all executors on all agents, creating it if it does not exist yet.
+    * Increments are applied locally and propagated to other agents in batches, periodically; therefore the value
+    * reflects increments from other executors and agents with a delay.
+    *
+    * @param key Identifier.
+    * @return Counter bound to the current executor.
+    */
+   Counter counter(String key);
+
    /**
     * This interface is typically implemented in extensions.
     */
@@ -35,6 +45,19 @@ public interface GlobalData {
       Accumulator newAccumulator();
    }
 
+   interface Counter {
+      /**
+       * @return All local increments and increments from other executors/agents known from the last synchronization.
+       */
+      long get();
+
+      /**
+       * @param delta Increment.
+       * @return Value after the increment.
+       */
+      long add(long delta);
+   }
+
    interface Accumulator {
       /**
        * Add a new element to the accumulator. The elements can be combined in arbitrary
@@ -76,6 +76,20 @@ public class SequenceInstance {
       return currentStep >= steps.length;
    }
 
+   /**
+    * @return True if the sequence is blocked in a step that is woken up explicitly.
+    */
+   public boolean awaitsWakeUp() {
+      return currentStep >= 0 && currentStep < steps.length && steps[currentStep].awaitsWakeUp();
+   }
+
+   /**
+    * @return True if the sequence is blocked in a step that depends only on session state.
+    */
+   public boolean awaitsStateChange() {
+      return currentStep >= 0 && currentStep < steps.length && steps[currentStep].awaitsStateChange();
+   }
+
    public boolean isLastStep() {
       return currentStep == steps.length - 1;
    }
@@ -8,12 +8,19 @@ import io.hyperfoil.api.connection.Request;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.netty.util.concurrent.EventExecutor;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.api.config.Phase;
 
 public interface Session {
 
    Runnable runTask();
 
+   /**
+    * @param sequence Sequence that should be woken up.
+    * @return Task that calls {@link #wakeUp(SequenceInstance)} and runs the session.
+    */
+   Runnable runTask(SequenceInstance sequence);
+
    void reserve(Scenario scenario);
 
    /**
@@ -49,6 +56,20 @@ public interface Session {
 
    Statistics statistics(int stepId, String name);
 
+   /**
+    * Resolves statistics for metric selected by request authority and path. The result of metric selector must depend
+    * only on its arguments; implementations may cache the resolved statistics.
+    *
+    * @param stepId Step ID.
+    * @param metricSelector Function selecting metric name from authority and path.
+    * @param authority Request authority (can be <code>null</code>).
+    * @param path Request path.
+    * @return Statistics.
+    */
+   default Statistics statistics(int stepId, SerializableBiFunction<String, String, String> metricSelector, String authority, String path) {
+      return statistics(stepId, metricSelector.apply(authority, path));
+   }
+
    void pruneStats(Phase phase);
 
    // Resources
@@ -76,6 +97,20 @@ public interface Session {
     */
    <R extends Session.Resource> void declareResource(ResourceKey<R> key, Supplier<R> resourceSupplier, boolean singleton);
 
+   /**
+    * Like {@link #declareResource(ResourceKey, Supplier)} but marks the resource as reusable: after
+    * {@link Resource#onSessionReset(Session)} it does not hold any session-specific state and it can be handed over
+    * to another session. The session may then create the resource only when it is used for the first time,
+    * borrowing it from a pool shared by sessions running on the same executor.
+    *
+    * @param key              Unique key (usually the step or handler itself)
+    * @param resourceSupplier Supplier creating the resource, possible multiple times.
+    * @param <R>              Resource type.
+    */
+   default <R extends Session.Resource> void declareReusableResource(ResourceKey<R> key, Supplier<R> resourceSupplier) {
+      declareResource(key, resourceSupplier);
+   }
+
    <R extends Session.Resource> void declareSingletonResource(ResourceKey<R> key, R resource);
 
    <R extends Session.Resource> R getResource(ResourceKey<R> key);
@@ -94,6 +129,14 @@ public interface Session {
     */
    void proceed();
 
+   /**
+    * Hint that the sequence could progress when the session runs again; this does not schedule the session.
+    * Sessions that are not event-driven re-check all sequences on each run and ignore this.
+    *
+    * @param sequence Running sequence.
+    */
+   void wakeUp(SequenceInstance sequence);
+
    void reset();
 
    SequenceInstance startSequence(String name, boolean forceSameIndex, ConcurrencyPolicy policy);
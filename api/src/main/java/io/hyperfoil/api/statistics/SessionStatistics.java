@@ -5,24 +5,87 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
 
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.internal.Properties;
 
 /**
  * This instance holds common statistics shared between all {@link Session sessions} (in given phase) driven by the same executor.
  */
 public class SessionStatistics {
+   // rounded up to power of 2; 0 disables the cache
+   private static final int METRIC_CACHE_SIZE = Integer.highestOneBit(Math.max(0, Properties.getInt(Properties.METRIC_CACHE_SIZE, 1024)) * 2 - 1);
+
    private Phase[] phases;
    private int[] stepIds;
    private Map<String, Statistics>[] maps;
    private int size;
 
+   // Direct-mapped cache (phase, step, selector, authority, path) -> statistics
+   private final Phase[] cachedPhases;
+   private final int[] cachedStepIds;
+   private final Object[] cachedSelectors;
+   private final String[] cachedAuthorities;
+   private final String[] cachedPaths;
+   private final Statistics[] cachedStatistics;
+   private long cacheHits;
+   private long cacheMisses;
+
    @SuppressWarnings("unchecked")
    public SessionStatistics() {
       phases = new Phase[4];
       stepIds = new int[4];
       maps = new Map[4];
+      cachedPhases = new Phase[METRIC_CACHE_SIZE];
+      cachedStepIds = new int[METRIC_CACHE_SIZE];
+      cachedSelectors = new Object[METRIC_CACHE_SIZE];
+      cachedAuthorities = new String[METRIC_CACHE_SIZE];
+      cachedPaths = new String[METRIC_CACHE_SIZE];
+      cachedStatistics = new Statistics[METRIC_CACHE_SIZE];
+   }
+
+   /**
+    * Variant of {@link #getOrCreate(Phase, int, String, long)} that memoizes the metric selection,
+    * skipping both the selector and lookup of the statistics on cache hit. Selectors are compared by identity.
+    */
+   public Statistics getOrCreate(Phase phase, int stepId, BiFunction<String, String, String> metricSelector,
+                                 String authority, String path, long startTime) {
+      if (METRIC_CACHE_SIZE == 0) {
+         return getOrCreate(phase, stepId, metricSelector.apply(authority, path), startTime);
+      }
+      int hash = 31 * (31 * stepId + Objects.hashCode(authority)) + path.hashCode();
+      int slot = (hash ^ (hash >>> 16)) & (METRIC_CACHE_SIZE - 1);
+      if (cachedPhases[slot] == phase && cachedStepIds[slot] == stepId && cachedSelectors[slot] == metricSelector &&
+            path.equals(cachedPaths[slot]) && Objects.equals(authority, cachedAuthorities[slot])) {
+         ++cacheHits;
+         return cachedStatistics[slot];
+      }
+      ++cacheMisses;
+      Statistics statistics = getOrCreate(phase, stepId, metricSelector.apply(authority, path), startTime);
+      cachedPhases[slot] = phase;
+      cachedStepIds[slot] = stepId;
+      cachedSelectors[slot] = metricSelector;
+      cachedAuthorities[slot] = authority;
+      cachedPaths[slot] = path;
+      cachedStatistics[slot] = statistics;
+      return statistics;
+   }
+
+   /**
+    * @return Number of lookups through selector that were served from the cache. Updated without synchronization.
+    */
+   public long cacheHits() {
+      return cacheHits;
+   }
+
+   /**
+    * @return Number of lookups through selector that had to invoke the selector. Updated without synchronization.
+    */
+   public long cacheMisses() {
+      return cacheMisses;
    }
 
    public Statistics getOrCreate(Phase phase, int stepId, String name, long startTime) {
@@ -69,6 +132,15 @@ public class SessionStatistics {
    }
 
    public void prune(Phase phase) {
+      for (int i = 0; i < cachedPhases.length; ++i) {
+         if (cachedPhases[i] == phase) {
+            cachedPhases[i] = null;
+            cachedSelectors[i] = null;
+            cachedAuthorities[i] = null;
+            cachedPaths[i] = null;
+            cachedStatistics[i] = null;
+         }
+      }
       int lastGood = size - 1;
       while (lastGood >= 0 && phases[lastGood] == phase) {
          lastGood--;
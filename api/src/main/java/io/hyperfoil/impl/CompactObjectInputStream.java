@@ -0,0 +1,58 @@
+package io.hyperfoil.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Counterpart to {@link CompactObjectOutputStream}.
+ */
+class CompactObjectInputStream extends ObjectInputStream {
+   private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+         "boolean", boolean.class, "byte", byte.class, "char", char.class, "short", short.class,
+         "int", int.class, "long", long.class, "float", float.class, "double", double.class, "void", void.class);
+
+   private final UnaryOperator<Object> resolver;
+
+   CompactObjectInputStream(InputStream in, UnaryOperator<Object> resolver) throws IOException {
+      super(in);
+      this.resolver = resolver;
+      if (resolver != null) {
+         enableResolveObject(true);
+      }
+   }
+
+   @Override
+   protected Object resolveObject(Object obj) {
+      return resolver.apply(obj);
+   }
+
+   @Override
+   protected void readStreamHeader() {
+      // Format is versioned by the caller
+   }
+
+   @Override
+   protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+      String name = readUTF();
+      long serialVersionUID = readLong();
+      Class<?> clazz = PRIMITIVES.get(name);
+      if (clazz == null) {
+         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+         if (classLoader == null) {
+            classLoader = CompactObjectInputStream.class.getClassLoader();
+         }
+         clazz = Class.forName(name, false, classLoader);
+      }
+      ObjectStreamClass desc = ObjectStreamClass.lookupAny(clazz);
+      if (desc.getSerialVersionUID() != serialVersionUID) {
+         throw new InvalidClassException(name, "local class incompatible: stream serialVersionUID = " + serialVersionUID +
+               ", local serialVersionUID = " + desc.getSerialVersionUID());
+      }
+      return desc;
+   }
+}
@@ -0,0 +1,43 @@
+package io.hyperfoil.impl;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Java serialization stream with smaller footprint: class descriptors are written as class name and serialVersionUID
+ * (the reader uses the local class layout) and equal strings are written only once, later occurrences become
+ * back-references.
+ */
+class CompactObjectOutputStream extends ObjectOutputStream {
+   private final Map<String, String> strings = new HashMap<>();
+
+   CompactObjectOutputStream(OutputStream out) throws IOException {
+      super(out);
+      enableReplaceObject(true);
+   }
+
+   @Override
+   protected void writeStreamHeader() throws IOException {
+      // Format is versioned by the caller
+   }
+
+   @Override
+   protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+      writeUTF(desc.getName());
+      writeLong(desc.getSerialVersionUID());
+   }
+
+   @Override
+   protected Object replaceObject(Object obj) {
+      if (obj instanceof String) {
+         String str = (String) obj;
+         String existing = strings.putIfAbsent(str, str);
+         return existing != null ? existing : str;
+      }
+      return obj;
+   }
+}
@@ -6,11 +6,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.CharBuffer;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -20,16 +16,25 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.util.AsciiString;
 
 public class Util {
    public static final CompletableFuture<Void> COMPLETED_VOID_FUTURE = CompletableFuture.completedFuture(null);
    private static final NumberFormatException NUMBER_FORMAT_EXCEPTION = new NumberFormatException();
+   private static final int COMPACT_SERIALIZATION_VERSION = 1;
+   private static final byte[] COMPACT_SERIALIZATION_HEADER = { 'H', 'F', 'B', 'C', COMPACT_SERIALIZATION_VERSION };
    private static final int[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+   private static final byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
 
    private Util() {}
 
@@ -163,27 +168,9 @@ public class Util {
    }
 
    public static ByteBuf string2byteBuf(CharSequence str, ByteBuf buffer) {
-      // TODO: allocations everywhere but at least not the bytes themselves...
-      CharBuffer input = CharBuffer.wrap(str);
-      ByteBuffer output = buffer.nioBuffer(buffer.writerIndex(), buffer.capacity() - buffer.writerIndex());
-      CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
-      int accumulatedBytes = buffer.writerIndex();
-      for (; ; ) {
-         CoderResult result = encoder.encode(input, output, true);
-         if (result.isError()) {
-            throw new RuntimeException("Cannot encode: " + result + ", string is " + str);
-         } else if (result.isUnderflow()) {
-            buffer.writerIndex(accumulatedBytes + output.position());
-            return buffer;
-         } else if (result.isOverflow()) {
-            buffer.capacity(buffer.capacity() * 2);
-            int writtenBytes = output.position();
-            accumulatedBytes += writtenBytes;
-            output = buffer.nioBuffer(accumulatedBytes, buffer.capacity() - accumulatedBytes);
-         } else {
-            throw new IllegalStateException();
-         }
-      }
+      // Encodes directly into the buffer, expanding it if needed; unpaired surrogates are written as '?'
+      ByteBufUtil.writeUtf8(buffer, str);
+      return buffer;
    }
 
    public static String explainCauses(Throwable e) {
@@ -323,18 +310,61 @@ public class Util {
       return true;
    }
 
+   /**
+    * Serializes the benchmark into compact format: deflated Java serialization stream with abbreviated class
+    * descriptors and shared strings. The format is recognized by a header so that {@link #deserialize(byte[])}
+    * still accepts plain Java serialization streams.
+    */
    public static byte[] serialize(Benchmark benchmark) throws IOException {
       ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-      try (ObjectOutputStream outputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+      byteArrayOutputStream.write(COMPACT_SERIALIZATION_HEADER);
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try (ObjectOutputStream outputStream = new CompactObjectOutputStream(new DeflaterOutputStream(byteArrayOutputStream, deflater))) {
          outputStream.writeObject(benchmark);
+      } finally {
+         deflater.end();
       }
       return byteArrayOutputStream.toByteArray();
    }
 
    public static Benchmark deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
-      try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return deserialize(bytes, null);
+   }
+
+   /**
+    * @param resolver Optional function that can substitute deserialized objects; applies only to the compact format.
+    */
+   public static Benchmark deserialize(byte[] bytes, UnaryOperator<Object> resolver) throws IOException, ClassNotFoundException {
+      if (!isCompactSerialization(bytes)) {
+         try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Benchmark) input.readObject();
+         }
+      }
+      int version = bytes[COMPACT_SERIALIZATION_HEADER.length - 1];
+      if (version != COMPACT_SERIALIZATION_VERSION) {
+         throw new IOException("Unsupported serialization format version " + version);
+      }
+      int offset = COMPACT_SERIALIZATION_HEADER.length;
+      Inflater inflater = new Inflater();
+      try (ObjectInputStream input = new CompactObjectInputStream(new InflaterInputStream(
+            new ByteArrayInputStream(bytes, offset, bytes.length - offset), inflater), resolver)) {
          return (Benchmark) input.readObject();
+      } finally {
+         inflater.end();
+      }
+   }
+
+   private static boolean isCompactSerialization(byte[] bytes) {
+      if (bytes.length < COMPACT_SERIALIZATION_HEADER.length) {
+         return false;
       }
+      // the last byte of the header is version
+      for (int i = 0; i < COMPACT_SERIALIZATION_HEADER.length - 1; ++i) {
+         if (bytes[i] != COMPACT_SERIALIZATION_HEADER[i]) {
+            return false;
+         }
+      }
+      return true;
    }
 
    private static ByteArrayOutputStream toByteArrayOutputStream(InputStream stream) throws IOException {
@@ -469,22 +499,85 @@ public class Util {
 
    }
 
-   public static void urlEncode(String string, ByteBuf buf) {
-      // TODO: more efficient implementation without allocation
-      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
-      for (byte b : bytes) {
-         if (b >= 0 && URLEncoding.DONT_NEED_ENCODING.get(b)) {
-            buf.ensureWritable(1);
-            buf.writeByte(b);
-         } else if (b == ' ') {
-            buf.ensureWritable(1);
-            buf.writeByte('+');
-         } else {
-            buf.ensureWritable(3);
-            buf.writeByte('%');
-            buf.writeByte(HEX[(b >> 4) & 0xF]);
-            buf.writeByte(HEX[b & 0xF]);
+   public static void urlEncode(CharSequence string, ByteBuf buf) {
+      int length = string.length();
+      buf.ensureWritable(length);
+      for (int i = 0; i < length; ++i) {
+         int codePoint = Character.codePointAt(string, i);
+         if (Character.isSupplementaryCodePoint(codePoint)) {
+            ++i;
+         } else if (Character.isSurrogate((char) codePoint)) {
+            // unpaired surrogate, String.getBytes() would encode it as '?'
+            codePoint = '?';
          }
+         int utf8Length = utf8Length(codePoint);
+         for (int j = 0; j < utf8Length; ++j) {
+            int b = utf8Byte(codePoint, utf8Length, j);
+            if (b < 0x80 && URLEncoding.DONT_NEED_ENCODING.get(b)) {
+               buf.writeByte(b);
+            } else if (b == ' ') {
+               buf.writeByte('+');
+            } else {
+               buf.ensureWritable(3);
+               buf.writeByte('%');
+               buf.writeByte(HEX[(b >> 4) & 0xF]);
+               buf.writeByte(HEX[b & 0xF]);
+            }
+         }
+      }
+   }
+
+   /**
+    * Writes Base64 encoding of UTF-8 representation of the string, without intermediate allocations.
+    */
+   public static void base64Encode(CharSequence string, ByteBuf buf) {
+      int length = string.length();
+      buf.ensureWritable((length + 2) / 3 * 4);
+      int acc = 0;
+      int accBytes = 0;
+      for (int i = 0; i < length; ++i) {
+         int codePoint = Character.codePointAt(string, i);
+         if (Character.isSupplementaryCodePoint(codePoint)) {
+            ++i;
+         } else if (Character.isSurrogate((char) codePoint)) {
+            codePoint = '?';
+         }
+         int utf8Length = utf8Length(codePoint);
+         for (int j = 0; j < utf8Length; ++j) {
+            acc = (acc << 8) | utf8Byte(codePoint, utf8Length, j);
+            if (++accBytes == 3) {
+               buf.ensureWritable(4);
+               buf.writeByte(BASE64[(acc >> 18) & 0x3F]);
+               buf.writeByte(BASE64[(acc >> 12) & 0x3F]);
+               buf.writeByte(BASE64[(acc >> 6) & 0x3F]);
+               buf.writeByte(BASE64[acc & 0x3F]);
+               acc = 0;
+               accBytes = 0;
+            }
+         }
+      }
+      if (accBytes > 0) {
+         acc <<= 8 * (3 - accBytes);
+         buf.ensureWritable(4);
+         buf.writeByte(BASE64[(acc >> 18) & 0x3F]);
+         buf.writeByte(BASE64[(acc >> 12) & 0x3F]);
+         buf.writeByte(accBytes == 2 ? BASE64[(acc >> 6) & 0x3F] : '=');
+         buf.writeByte('=');
+      }
+   }
+
+   private static int utf8Length(int codePoint) {
+      return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+   }
+
+   private static int utf8Byte(int codePoint, int length, int index) {
+      if (length == 1) {
+         return codePoint;
+      } else if (index == 0) {
+         // 110xxxxx, 1110xxxx or 11110xxx
+         return ((0xF00 >> length) & 0xFF) | (codePoint >> (6 * (length - 1)));
+      } else {
+         return 0x80 | ((codePoint >> (6 * (length - 1 - index))) & 0x3F);
       }
    }
 
@@ -3,11 +3,13 @@ package io.hyperfoil.internal;
 import java.util.function.Function;
 
 public interface Properties {
+   String AGENT_CDS = "io.hyperfoil.agent.cds";
    String AGENT_DEBUG_PORT = "io.hyperfoil.agent.debug.port";
    String AGENT_DEBUG_SUSPEND = "io.hyperfoil.agent.debug.suspend";
    String AGENT_JAVA_EXECUTABLE = "io.hyperfoil.agent.java.executable";
    String AGENT_NAME = "io.hyperfoil.agent.name";
    String BENCHMARK_DIR = "io.hyperfoil.benchmarkdir";
+   String CONTROLLER_BENCHMARK_CACHE_SIZE = "io.hyperfoil.controller.benchmark.cache.size";
    String CONTROLLER_CLUSTER_IP = "io.hyperfoil.controller.cluster.ip";
    String CONTROLLER_CLUSTER_PORT = "io.hyperfoil.controller.cluster.port";
    String CONTROLLER_EXTERNAL_URI = "io.hyperfoil.controller.external.uri";
@@ -21,20 +23,34 @@ public interface Properties {
    String CONTROLLER_LOG = "io.hyperfoil.controller.log.file";
    String CONTROLLER_LOG_LEVEL = "io.hyperfoil.controller.log.level";
    String CONTROLLER_PORT = "io.hyperfoil.controller.port";
+   String CONTROLLER_SPILL_SERIES = "io.hyperfoil.controller.spill.series";
+   String CONTROLLER_WARM_AGENTS = "io.hyperfoil.controller.warm.agents";
+   String CONTROLLER_WARM_AGENTS_PRESTART = "io.hyperfoil.controller.warm.agents.prestart";
    String CPU_WATCHDOG_PERIOD = "io.hyperfoil.cpu.watchdog.period";
    String CPU_WATCHDOG_IDLE_THRESHOLD = "io.hyperfoil.cpu.watchdog.idle.threshold";
+   String CPU_WATCHDOG_EXECUTOR_THRESHOLD = "io.hyperfoil.cpu.watchdog.executor.threshold";
    String DEPLOYER = "io.hyperfoil.deployer";
    String DEPLOY_TIMEOUT = "io.hyperfoil.deploy.timeout";
    String DIST_DIR = "io.hyperfoil.distdir";
+   String GLOBAL_COUNTER_SYNC_PERIOD = "io.hyperfoil.global.counter.sync.period";
+   String HTTP_RECORDER_FAILURES = "io.hyperfoil.http.recorder.failures";
+   String HTTP_RECORDER_MAX_BYTES = "io.hyperfoil.http.recorder.max.bytes";
+   String HTTP_RECORDER_SAMPLING = "io.hyperfoil.http.recorder.sampling";
+   String HTTP_RECORDER_SIZE = "io.hyperfoil.http.recorder.size";
+   String JIT_WARMUP_MAX_DURATION = "io.hyperfoil.jit.warmup.max.duration";
+   String JIT_WARMUP_SESSIONS = "io.hyperfoil.jit.warmup.sessions";
    String JITTER_WATCHDOG_PERIOD = "io.hyperfoil.jitter.watchdog.period";
    String JITTER_WATCHDOG_THRESHOLD = "io.hyperfoil.jitter.watchdog.threshold";
    String LOG4J2_CONFIGURATION_FILE = "log4j.configurationFile";
    String LOAD_DIR = "io.hyperfoil.loaddir";
    String MAX_IN_MEMORY_RUNS = "io.hyperfoil.max.in.memory.runs";
+   String METRIC_CACHE_SIZE = "io.hyperfoil.metric.cache.size";
    String NETTY_TRANSPORT = "io.hyperfoil.netty.transport";
    String ROOT_DIR = "io.hyperfoil.rootdir";
    String RUN_DIR = "io.hyperfoil.rundir";
    String RUN_ID = "io.hyperfoil.runid";
+   String SESSION_EVENT_DRIVEN = "io.hyperfoil.session.event.driven";
+   String SESSION_LAZY_RESOURCES = "io.hyperfoil.session.lazy.resources";
    String TRIGGER_URL = "io.hyperfoil.trigger.url";
    String CLI_REQUEST_TIMEOUT = "io.hyperfoil.cli.request.timeout";
 
@@ -0,0 +1,103 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Model;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+
+public class SessionStatisticsTest {
+   // more keys than slots in the default cache so that these must collide
+   private static final int PATHS = 5000;
+
+   @Test
+   public void testCollisions() {
+      Phase phase = phase("test");
+      SessionStatistics stats = new SessionStatistics();
+      AtomicInteger selections = new AtomicInteger();
+      BiFunction<String, String, String> selector = (authority, path) -> {
+         selections.incrementAndGet();
+         return authority + path;
+      };
+      BiFunction<String, String, String> constant = (authority, path) -> "constant";
+      for (int round = 0; round < 2; ++round) {
+         for (int i = 0; i < PATHS; ++i) {
+            String path = "/path/" + i;
+            for (String authority : new String[]{ "a:8080", "b:8080", null }) {
+               assertSame(stats.getOrCreate(phase, 0, authority + path, 0),
+                     stats.getOrCreate(phase, 0, selector, authority, path, 0));
+               // different step
+               assertSame(stats.getOrCreate(phase, 1, authority + path, 0),
+                     stats.getOrCreate(phase, 1, selector, authority, path, 0));
+               // different selector with the same key
+               assertSame(stats.getOrCreate(phase, 0, "constant", 0),
+                     stats.getOrCreate(phase, 0, constant, authority, path, 0));
+            }
+         }
+      }
+      assertEquals(2, stats.size());
+      assertEquals(3 * PATHS + 1, stats.stats(0).size());
+      assertEquals(3 * PATHS, stats.stats(1).size());
+      // evicted entries had to be selected again
+      assertTrue(selections.get() > 2 * 3 * PATHS);
+   }
+
+   @Test
+   public void testRepeatedLookup() {
+      Phase phase = phase("test");
+      SessionStatistics stats = new SessionStatistics();
+      AtomicInteger selections = new AtomicInteger();
+      BiFunction<String, String, String> selector = (authority, path) -> {
+         selections.incrementAndGet();
+         return path;
+      };
+      Statistics first = stats.getOrCreate(phase, 0, selector, "host", "/foo", 0);
+      for (int i = 0; i < 10; ++i) {
+         assertSame(first, stats.getOrCreate(phase, 0, selector, "host", "/foo", 0));
+      }
+      assertEquals(1, selections.get());
+      assertEquals(10, stats.cacheHits());
+      assertEquals(1, stats.cacheMisses());
+      assertNotSame(first, stats.getOrCreate(phase, 0, selector, "host", "/bar", 0));
+      assertNotSame(first, stats.getOrCreate(phase, 0, selector, "other", "/bar", 0));
+   }
+
+   @Test
+   public void testPrune() {
+      Phase phase1 = phase("phase1");
+      Phase phase2 = phase("phase2");
+      SessionStatistics stats = new SessionStatistics();
+      BiFunction<String, String, String> selector = (authority, path) -> path;
+      Statistics s1 = stats.getOrCreate(phase1, 0, selector, "host", "/foo", 0);
+      Statistics s2 = stats.getOrCreate(phase2, 0, selector, "host", "/foo", 0);
+      assertNotSame(s1, s2);
+      assertEquals(2, stats.size());
+
+      stats.prune(phase1);
+      assertEquals(1, stats.size());
+      assertSame(phase2, stats.phase(0));
+      assertSame(s2, stats.getOrCreate(phase2, 0, selector, "host", "/foo", 0));
+
+      // The pruned phase must not return the statistics from cache
+      Statistics s1b = stats.getOrCreate(phase1, 0, selector, "host", "/foo", 0);
+      assertNotSame(s1, s1b);
+      assertSame(s1b, stats.stats(1).get("/foo"));
+      assertSame(s1b, stats.getOrCreate(phase1, 0, "/foo", 0));
+   }
+
+   private static Phase phase(String name) {
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[0], 16, 16);
+      return new Phase(() -> null, 0, 0, name, scenario, 0, Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyList(), 0, -1, null, false, new Model.AtOnce(1, 0, 0), Collections.emptyMap());
+   }
+}
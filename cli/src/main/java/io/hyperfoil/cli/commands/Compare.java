@@ -17,11 +17,25 @@ import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.cli.Table;
 import io.hyperfoil.cli.context.HyperfoilCommandInvocation;
 import io.hyperfoil.controller.Client;
+import io.hyperfoil.controller.model.MetricComparison;
 import io.hyperfoil.controller.model.RequestStatisticsResponse;
 import io.hyperfoil.controller.model.RequestStats;
+import io.hyperfoil.controller.model.RunComparison;
+import io.hyperfoil.impl.Util;
+import io.vertx.core.json.Json;
 
-@CommandDefinition(name = "compare", description = "Compare results from two runs")
+@CommandDefinition(name = "compare", description = "Compare results from two runs, or compare the last run against baseline runs using bootstrap confidence intervals.")
 public class Compare extends ServerCommand {
+   private static final Table<MetricComparison> BOOTSTRAP_TABLE = new Table<MetricComparison>()
+         .column("PHASE", c -> c.phase)
+         .column("METRIC", c -> c.metric)
+         .column("STATISTIC", c -> c.statistic == null ? "" : c.statistic)
+         .column("BASELINE", c -> formatValue(c, c.baseline), Table.Align.RIGHT)
+         .column("CANDIDATE", c -> formatValue(c, c.candidate), Table.Align.RIGHT)
+         .column("CHANGE", c -> formatChange(c, c.change), Table.Align.RIGHT)
+         .column("INTERVAL", c -> c.statistic == null ? "" : formatChange(c, c.changeLow) + " .. " + formatChange(c, c.changeHigh), Table.Align.RIGHT)
+         .column("VERDICT", Compare::formatVerdict);
+
    private final Table<Comparison> TABLE = new Table<Comparison>()
          .column("PHASE", c -> c.phase)
          .column("METRIC", c -> c.metric)
@@ -42,6 +56,20 @@ public class Compare extends ServerCommand {
    @Option(shortName = 'w', description = "Include statistics from warm-up phases.", hasValue = false)
    private boolean warmup;
 
+   @Option(shortName = 'b', description = "Compare the last run (candidate) against all preceding (baseline) runs using bootstrap " +
+         "confidence intervals computed from histograms; the threshold is used as tolerated relative change. " +
+         "The command fails when a regression is found.", hasValue = false)
+   private boolean bootstrap;
+
+   @Option(description = "Confidence level for bootstrap comparison.", defaultValue = "0.95")
+   private double confidence;
+
+   @Option(description = "Number of iterations for bootstrap comparison.", defaultValue = "1000")
+   private int iterations;
+
+   @Option(description = "Print the bootstrap comparison as JSON.", hasValue = false)
+   private boolean json;
+
    private String compare(Comparison c, ToIntFunction<StatisticsSummary> f) {
       if (c.first == null || c.second == null) {
          return "N/A";
@@ -95,6 +123,8 @@ public class Compare extends ServerCommand {
       if (runIds.size() < 2) {
          invocation.println("Two run IDs required for comparison.");
          return CommandResult.FAILURE;
+      } else if (bootstrap) {
+         return compareBootstrap(invocation);
       } else if (runIds.size() > 2) {
          invocation.println("This command can compare only two run IDs; ignoring others.");
       }
@@ -124,6 +154,50 @@ public class Compare extends ServerCommand {
       return CommandResult.SUCCESS;
    }
 
+   private CommandResult compareBootstrap(HyperfoilCommandInvocation invocation) throws CommandException {
+      Client.RunRef candidate = ensureComplete(invocation, runIds.get(runIds.size() - 1));
+      List<String> baseline = new ArrayList<>();
+      for (String runId : runIds.subList(0, runIds.size() - 1)) {
+         baseline.add(ensureComplete(invocation, runId).id());
+      }
+      RunComparison comparison = candidate.compare(baseline, threshold, confidence, iterations, warmup);
+      if (json) {
+         invocation.println(Json.encodePrettily(comparison));
+      } else {
+         invocation.println("Comparing run " + candidate.id() + " against " + String.join(", ", baseline));
+         BOOTSTRAP_TABLE.print(invocation, comparison.comparisons.stream());
+         invocation.println("Verdict: " + comparison.verdict);
+      }
+      return "PASS".equals(comparison.verdict) ? CommandResult.SUCCESS : CommandResult.FAILURE;
+   }
+
+   private static String formatValue(MetricComparison c, double value) {
+      if (c.statistic == null) {
+         return "";
+      } else if ("throughput".equals(c.statistic)) {
+         return String.format("%.2f req/s", value);
+      } else {
+         return Util.prettyPrintNanos((long) value);
+      }
+   }
+
+   private static String formatChange(MetricComparison c, double change) {
+      return c.statistic == null ? "" : String.format("%+.2f%%", change * 100);
+   }
+
+   private static String formatVerdict(MetricComparison c) {
+      switch (c.verdict) {
+         case "REGRESSION":
+            return ANSI.RED_TEXT + c.verdict + ANSI.RESET;
+         case "IMPROVEMENT":
+            return ANSI.GREEN_TEXT + c.verdict + ANSI.RESET;
+         case "MISSING":
+            return ANSI.YELLOW_TEXT + c.verdict + ANSI.RESET;
+         default:
+            return c.verdict;
+      }
+   }
+
    private Client.RunRef ensureComplete(HyperfoilCommandInvocation invocation, String runId) throws CommandException {
       Client.RunRef firstRun = invocation.context().client().run(runId);
       if (firstRun.get().terminated == null) {
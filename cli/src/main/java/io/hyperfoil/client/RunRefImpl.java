@@ -19,12 +19,14 @@ import io.hyperfoil.controller.Client;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStatisticsResponse;
 import io.hyperfoil.controller.model.Run;
+import io.hyperfoil.controller.model.RunComparison;
 import io.hyperfoil.impl.Util;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.jackson.JacksonCodec;
+import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 
 public class RunRefImpl implements Client.RunRef {
@@ -181,6 +183,22 @@ public class RunRefImpl implements Client.RunRef {
             response -> JacksonCodec.decodeValue(response.body(), new TypeReference<>() {}));
    }
 
+   @Override
+   public RunComparison compare(List<String> baseline, double tolerance, double confidence, int iterations, boolean warmup) {
+      return client.sync(handler -> {
+               HttpRequest<Buffer> request = client.request(HttpMethod.GET, "/run/" + id + "/compare")
+                     .addQueryParam("tolerance", String.valueOf(tolerance))
+                     .addQueryParam("confidence", String.valueOf(confidence))
+                     .addQueryParam("iterations", String.valueOf(iterations))
+                     .addQueryParam("warmup", String.valueOf(warmup));
+               for (String runId : baseline) {
+                  request.addQueryParam("baseline", runId);
+               }
+               request.putHeader(HttpHeaders.ACCEPT.toString(), "application/json").send(handler);
+            }, 200,
+            response -> Json.decodeValue(response.body(), RunComparison.class));
+   }
+
    @Override
    public byte[] file(String filename) {
       return client.sync(
@@ -189,6 +207,14 @@ public class RunRefImpl implements Client.RunRef {
       );
    }
 
+   @Override
+   public byte[] recordings() {
+      return client.sync(
+            handler -> client.request(HttpMethod.GET, "/run/" + id + "/recordings").send(handler), 200,
+            response -> response.body().getBytes()
+      );
+   }
+
    @Override
    public byte[] report(String source) {
       String path = "/run/" + id + "/report" + (source != null && !source.isEmpty() ? "?source=" + source : "");
@@ -3,6 +3,7 @@ package io.hyperfoil.clustering;
 import java.util.HashMap;
 import java.util.Map;
 
+import io.hyperfoil.api.config.Agent;
 import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.session.PhaseInstance;
 
@@ -14,6 +15,8 @@ class AgentInfo {
    Status status = Status.STARTING;
    Map<String, PhaseInstance.Status> phases = new HashMap<>();
    DeployedAgent deployedAgent;
+   // definition used to deploy the agent, set when the agent can be kept warm
+   Agent definition;
 
    public AgentInfo(String name, int id) {
       this.name = name;
@@ -2,7 +2,11 @@ package io.hyperfoil.clustering;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import io.hyperfoil.Hyperfoil;
 import io.hyperfoil.api.config.Benchmark;
@@ -11,10 +15,14 @@ import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.GlobalCountersMessage;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.impl.SimulationRunner;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.messages.RecordingMessage;
+import io.hyperfoil.clustering.messages.SessionFootprintMessage;
+import io.hyperfoil.clustering.messages.SessionInitProgressMessage;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.internal.Properties;
 import io.vertx.core.AbstractVerticle;
@@ -114,6 +122,10 @@ public class AgentVerticle extends AbstractVerticle {
          case INITIALIZE:
             log.info("Initializing agent");
             try {
+               if (controlMessage.runId() != null) {
+                  // warm agent reused for another run
+                  runId = controlMessage.runId();
+               }
                initBenchmark(controlMessage.benchmark(), controlMessage.agentId());
                message.reply("OK");
             } catch (Throwable e) {
@@ -127,10 +139,14 @@ public class AgentVerticle extends AbstractVerticle {
             try {
                if (statsTimerId >= 0) {
                   vertx.cancelTimer(statsTimerId);
+                  statsTimerId = -1;
                }
+               boolean keepWarm = controlMessage.keepWarm();
                CountDown completion = new CountDown(result -> {
                   message.reply(result.succeeded() ? "OK" : result.cause());
-                  if (vertx.isClustered()) {
+                  if (keepWarm) {
+                     log.info("{} Run {} completed, agent stays registered for next runs.", deploymentId, runId);
+                  } else if (vertx.isClustered()) {
                      // Give the message some time to be sent
                      vertx.setTimer(1000, id -> Hyperfoil.shutdownVertx(vertx));
                   } else {
@@ -143,6 +159,7 @@ public class AgentVerticle extends AbstractVerticle {
                   requestStatsSender.send(completion);
                   requestStatsSender.sendPhaseComplete(null, completion);
                   runner.shutdown();
+                  sendRecordings(runner.recordings(), completion);
                }
                if (controlFeedConsumer != null) {
                   controlFeedConsumer.unregister();
@@ -189,6 +206,53 @@ public class AgentVerticle extends AbstractVerticle {
       }
    }
 
+   private void sendRecordings(List<Path> recordings, CountDown completion) {
+      if (recordings.isEmpty()) {
+         return;
+      }
+      // The agent can be kept warm for next runs so we cannot leave the cleanup to JVM exit
+      completion.increment();
+      CountDown sent = new CountDown(result -> vertx.executeBlocking(future -> {
+         SimulationRunner.deleteRecordings(recordings);
+         future.complete();
+      }, false, deleted -> completion.countDown()), recordings.size());
+      for (Path path : recordings) {
+         vertx.fileSystem().readFile(path.toString(), result -> {
+            if (result.succeeded()) {
+               log.info("Sending recording {} to controller", path);
+               eb.send(Feeds.RESPONSE, new RecordingMessage(deploymentId, runId, String.valueOf(path.getFileName()), result.result().getBytes()));
+            } else {
+               log.error("Cannot read recording {}", path, result.cause());
+            }
+            sent.countDown();
+         });
+      }
+   }
+
+   private void scheduleGlobalCounterSync(Context context, SimulationRunner runner) {
+      vertx.setTimer(SimulationRunner.GLOBAL_COUNTER_SYNC_PERIOD, timerId -> {
+         if (this.runner != runner) {
+            return;
+         }
+         runner.syncGlobalCounters(deltas -> {
+            CompletableFuture<Map<String, Long>> future = new CompletableFuture<>();
+            eb.request(Feeds.RESPONSE, new GlobalCountersMessage(deploymentId, runId, deltas), reply -> {
+               if (reply.succeeded()) {
+                  future.complete(((GlobalCountersMessage) reply.result().body()).counters());
+               } else {
+                  future.completeExceptionally(reply.cause());
+               }
+            });
+            return future;
+         }).whenComplete((nil, e) -> {
+            if (e != null) {
+               log.warn("Failed to synchronize global counters", e);
+            }
+            context.runOnContext(v -> scheduleGlobalCounterSync(context, runner));
+         });
+      });
+   }
+
    private MessageConsumer<Object> listenOnControl() {
       return eb.consumer(Feeds.CONTROL, message -> {
          PhaseControlMessage controlMessage = (PhaseControlMessage) message.body();
@@ -216,6 +280,7 @@ public class AgentVerticle extends AbstractVerticle {
    public void stop() {
       if (runner != null) {
          runner.shutdown();
+         SimulationRunner.deleteRecordings(runner.recordings());
       }
    }
 
@@ -238,7 +303,8 @@ public class AgentVerticle extends AbstractVerticle {
          log.debug("{} changed phase {} to {}", deploymentId, phase, status);
          log.debug("New global data is {}", globalData);
          String cpuUsage = runner.getCpuUsage(phase.name());
-         eb.send(Feeds.RESPONSE, new PhaseChangeMessage(deploymentId, runId, phase.name(), status, sessionLimitExceeded, cpuUsage, error, globalData));
+         String saturatedExecutors = runner.getSaturatedExecutors(phase.name());
+         eb.send(Feeds.RESPONSE, new PhaseChangeMessage(deploymentId, runId, phase.name(), status, sessionLimitExceeded, cpuUsage, saturatedExecutors, error, globalData));
          if (status == PhaseInstance.Status.TERMINATED) {
             context.runOnContext(nil -> {
                if (runner != null) {
@@ -250,24 +316,44 @@ public class AgentVerticle extends AbstractVerticle {
          }
          return Util.COMPLETED_VOID_FUTURE;
       });
-      runner.init();
-
-      assert context.isEventLoopContext();
-      statsTimerId = vertx.setPeriodic(benchmark.statisticsCollectionPeriod(), timerId -> {
-         runner.visitStatistics(requestStatsSender);
-         requestStatsSender.send(statisticsCountDown);
-         runner.visitSessionPoolStats(sessionStatsSender);
-         sessionStatsSender.send();
-         runner.visitConnectionStats(connectionStatsSender);
-         connectionStatsSender.send();
-      });
-
-      runner.openConnections(result -> {
-         if (result.succeeded()) {
-            eb.send(Feeds.RESPONSE, new AgentReadyMessage(deploymentID(), runId));
-         } else {
-            eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentID(), runId, result.cause(), true));
+      runner.setInitProgressListener((phase, created, total) ->
+            eb.send(Feeds.RESPONSE, new SessionInitProgressMessage(deploymentId, runId, phase, created, total)));
+      // Creating sessions can take a while; run it off the event loop to keep the agent responsive
+      // and let the progress messages through.
+      vertx.executeBlocking(promise -> {
+         runner.init();
+         promise.complete();
+      }, false, result -> {
+         if (runner == null) {
+            log.info("Agent was stopped during initialization.");
+            return;
+         } else if (result.failed()) {
+            log.error("Failed to initialize sessions", result.cause());
+            eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentId, runId, result.cause(), true));
+            return;
          }
+         assert context.isEventLoopContext();
+         eb.send(Feeds.RESPONSE, new SessionFootprintMessage(deploymentId, runId, runner.sessionFootprints()));
+         statsTimerId = vertx.setPeriodic(benchmark.statisticsCollectionPeriod(), timerId -> {
+            runner.visitStatistics(requestStatsSender);
+            requestStatsSender.send(statisticsCountDown);
+            runner.visitSessionPoolStats(sessionStatsSender);
+            sessionStatsSender.send();
+            runner.visitConnectionStats(connectionStatsSender);
+            connectionStatsSender.send();
+         });
+         scheduleGlobalCounterSync(context, runner);
+
+         // With JIT warm-up enabled the handler is invoked from the warm-up thread
+         runner.openConnections(result2 -> context.runOnContext(nil -> {
+            if (runner == null) {
+               log.info("Agent was stopped while opening connections.");
+            } else if (result2.succeeded()) {
+               eb.send(Feeds.RESPONSE, new AgentReadyMessage(deploymentID(), runId, runner.jitWarmupReport()));
+            } else {
+               eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentID(), runId, result2.cause(), true));
+            }
+         }));
       });
    }
 }
@@ -0,0 +1,201 @@
+package io.hyperfoil.clustering;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.Version;
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkSource;
+import io.hyperfoil.core.api.Plugin;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.impl.Util;
+
+/**
+ * Cache of benchmarks built from {@link BenchmarkSource sources}, mostly useful for templates that are run
+ * repeatedly with the same parameters. Entries are keyed by hash of the source (including its files), template
+ * parameters and versions of Hyperfoil and plugins, so that any change results in a miss. Least recently used
+ * entries are evicted when the number of entries exceeds the limit; all entries are persisted in the cache directory
+ * and loaded lazily after restart.
+ */
+class BenchmarkCache {
+   private static final Logger log = LogManager.getLogger(BenchmarkCache.class);
+   private static final String SUFFIX = ".serialized";
+
+   private final Path dir;
+   private final int maxSize;
+   private final String fingerprint;
+   private final Map<String, Benchmark> entries;
+
+   BenchmarkCache(Path dir, int maxSize) {
+      this.dir = dir;
+      this.maxSize = maxSize;
+      this.fingerprint = fingerprint();
+      this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Benchmark> eldest) {
+            if (size() > BenchmarkCache.this.maxSize) {
+               delete(eldest.getKey());
+               return true;
+            }
+            return false;
+         }
+      };
+      if (maxSize > 0) {
+         prune();
+      }
+   }
+
+   Benchmark build(BenchmarkSource source, Map<String, String> params) throws ParserException {
+      if (maxSize <= 0) {
+         return BenchmarkParser.instance().buildBenchmark(source, params);
+      }
+      String key = key(source, params);
+      synchronized (this) {
+         Benchmark benchmark = entries.get(key);
+         if (benchmark == null) {
+            benchmark = load(key, source);
+            if (benchmark != null) {
+               entries.put(key, benchmark);
+            }
+         }
+         if (benchmark != null) {
+            log.debug("Using cached benchmark {} with params {}", source.name, params);
+            return benchmark;
+         }
+      }
+      long startTime = System.nanoTime();
+      Benchmark benchmark = BenchmarkParser.instance().buildBenchmark(source, params);
+      log.debug("Built benchmark {} with params {} in {} ms", source.name, params,
+            (System.nanoTime() - startTime) / 1_000_000);
+      synchronized (this) {
+         store(key, benchmark);
+         entries.put(key, benchmark);
+      }
+      return benchmark;
+   }
+
+   private Benchmark load(String key, BenchmarkSource source) {
+      File file = dir.resolve(key + SUFFIX).toFile();
+      if (!file.exists()) {
+         return null;
+      }
+      try {
+         // Source is not serialized with its data; the current one has the same content (it's part of the key)
+         Benchmark benchmark = Util.deserialize(Files.readAllBytes(file.toPath()),
+               obj -> obj instanceof BenchmarkSource ? source : obj);
+         //noinspection ResultOfMethodCallIgnored
+         file.setLastModified(System.currentTimeMillis());
+         return benchmark;
+      } catch (IOException | ClassNotFoundException | RuntimeException e) {
+         log.warn("Cannot load cached benchmark from {}, removing.", file, e);
+         delete(key);
+         return null;
+      }
+   }
+
+   private void store(String key, Benchmark benchmark) {
+      Path path = dir.resolve(key + SUFFIX);
+      try {
+         Files.createDirectories(dir);
+         Files.write(path, Util.serialize(benchmark));
+      } catch (IOException e) {
+         log.error("Cannot persist cached benchmark {} to {}", benchmark.name(), path, e);
+      }
+   }
+
+   private void delete(String key) {
+      File file = dir.resolve(key + SUFFIX).toFile();
+      if (file.exists() && !file.delete()) {
+         log.warn("Cannot delete cached benchmark {}", file);
+      }
+   }
+
+   private void prune() {
+      File[] files = dir.toFile().listFiles((d, name) -> name.endsWith(SUFFIX));
+      if (files == null || files.length <= maxSize) {
+         return;
+      }
+      Stream.of(files).sorted(Comparator.comparingLong(File::lastModified).reversed()).skip(maxSize).forEach(file -> {
+         if (!file.delete()) {
+            log.warn("Cannot delete cached benchmark {}", file);
+         }
+      });
+   }
+
+   private String key(BenchmarkSource source, Map<String, String> params) {
+      MessageDigest digest = sha256();
+      update(digest, fingerprint);
+      update(digest, source.name);
+      update(digest, source.yaml);
+      for (Map.Entry<String, byte[]> file : new TreeMap<>(source.data.files()).entrySet()) {
+         update(digest, file.getKey());
+         digest.update(file.getValue());
+      }
+      for (Map.Entry<String, String> param : new TreeMap<>(params).entrySet()) {
+         update(digest, param.getKey());
+         update(digest, param.getValue());
+      }
+      StringBuilder sb = new StringBuilder();
+      for (byte b : digest.digest()) {
+         sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return sb.toString();
+   }
+
+   private static void update(MessageDigest digest, String value) {
+      byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+      // length prefix prevents ambiguity of concatenated values
+      digest.update((byte) (bytes.length >> 24));
+      digest.update((byte) (bytes.length >> 16));
+      digest.update((byte) (bytes.length >> 8));
+      digest.update((byte) bytes.length);
+      digest.update(bytes);
+   }
+
+   private static MessageDigest sha256() {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   /**
+    * Versions of Hyperfoil and all plugins; snapshot builds are distinguished by modification time of the jars.
+    */
+   private static String fingerprint() {
+      StringBuilder sb = new StringBuilder(Version.VERSION).append('/').append(Version.COMMIT_ID);
+      Stream.<Class<?>>concat(Stream.of(Version.class, BenchmarkParser.class),
+                  ServiceLoader.load(Plugin.class).stream().map(ServiceLoader.Provider::type)
+                        .sorted(Comparator.comparing(Class::getName)))
+            .forEach(type -> {
+               sb.append(';').append(type.getName()).append('/').append(type.getPackage().getImplementationVersion());
+               CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+               if (codeSource != null && codeSource.getLocation() != null) {
+                  try {
+                     sb.append('/').append(new File(codeSource.getLocation().toURI()).lastModified());
+                  } catch (URISyntaxException | IllegalArgumentException e) {
+                     sb.append('/').append(codeSource.getLocation());
+                  }
+               }
+            });
+      return sb.toString();
+   }
+}
@@ -9,11 +9,15 @@ import io.hyperfoil.clustering.messages.AuxiliaryHello;
 import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
 import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.GlobalCountersMessage;
 import io.hyperfoil.clustering.messages.ObjectCodec;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
+import io.hyperfoil.clustering.messages.RecordingMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.clustering.messages.SessionFootprintMessage;
+import io.hyperfoil.clustering.messages.SessionInitProgressMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
@@ -32,10 +36,14 @@ public final class Codecs {
       eb.registerDefaultCodec(ConnectionStatsMessage.class, new ConnectionStatsMessage.Codec());
       eb.registerDefaultCodec(DelayStatsCompletionMessage.class, new DelayStatsCompletionMessage.Codec());
       eb.registerDefaultCodec(ErrorMessage.class, new ErrorMessage.Codec());
+      eb.registerDefaultCodec(GlobalCountersMessage.class, new GlobalCountersMessage.Codec());
       eb.registerDefaultCodec(PhaseChangeMessage.class, new PhaseChangeMessage.Codec());
       eb.registerDefaultCodec(PhaseControlMessage.class, new PhaseControlMessage.Codec());
       eb.registerDefaultCodec(PhaseStatsCompleteMessage.class, new PhaseStatsCompleteMessage.Codec());
+      eb.registerDefaultCodec(RecordingMessage.class, new RecordingMessage.Codec());
       eb.registerDefaultCodec(RequestStatsMessage.class, new RequestStatsMessage.Codec());
+      eb.registerDefaultCodec(SessionFootprintMessage.class, new SessionFootprintMessage.Codec());
+      eb.registerDefaultCodec(SessionInitProgressMessage.class, new SessionInitProgressMessage.Codec());
       eb.registerDefaultCodec(SessionStatsMessage.class, new SessionStatsMessage.Codec());
    }
 }
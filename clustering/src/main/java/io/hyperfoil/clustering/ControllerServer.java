@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -45,9 +46,12 @@ import io.hyperfoil.clustering.util.PersistedBenchmarkData;
 import io.hyperfoil.clustering.webcli.WebCLI;
 import io.hyperfoil.controller.ApiService;
 import io.hyperfoil.controller.Client;
+import io.hyperfoil.controller.OpenMetricsWriter;
+import io.hyperfoil.controller.RunComparator;
 import io.hyperfoil.controller.StatisticsStore;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
+import io.hyperfoil.controller.model.RunComparison;
 import io.hyperfoil.controller.router.ApiRouter;
 import io.hyperfoil.core.impl.LocalBenchmarkData;
 import io.hyperfoil.core.impl.ProvidedBenchmarkData;
@@ -92,6 +96,7 @@ class ControllerServer implements ApiService {
    private static final String MIME_TYPE_SERIALIZED = "application/java-serialized-object";
    private static final String MIME_TYPE_TEXT_PLAIN = "text/plain";
    private static final String MIME_TYPE_YAML = "text/vnd.yaml";
+   private static final int SERIES_CHUNK_SIZE = 65536;
 
    private static final String KEYSTORE_PATH = Properties.get(Properties.CONTROLLER_KEYSTORE_PATH, null);
    private static final String KEYSTORE_PASSWORD = Properties.get(Properties.CONTROLLER_KEYSTORE_PASSWORD, null);
@@ -530,11 +535,14 @@ class ControllerServer implements ApiService {
             ctx.response().setStatusCode(HttpResponseStatus.NOT_FOUND.code()).end("Benchmark not found");
             return;
          }
-         benchmark = templateToBenchmark(ctx, template, templateParam);
-         if (benchmark == null) {
-            return;
-         }
+         templateToBenchmark(ctx, template, templateParam,
+               built -> startBenchmark(ctx, built, name, desc, xTriggerJob, runId, validate));
+      } else {
+         startBenchmark(ctx, benchmark, name, desc, xTriggerJob, runId, validate);
       }
+   }
+
+   private void startBenchmark(RoutingContext ctx, Benchmark benchmark, String name, String desc, String xTriggerJob, String runId, boolean validate) {
       String triggerUrl = benchmark.triggerUrl() != null ? benchmark.triggerUrl() : TRIGGER_URL;
       if (triggerUrl != null) {
          if (xTriggerJob == null) {
@@ -576,7 +584,7 @@ class ControllerServer implements ApiService {
       }
    }
 
-   private Benchmark templateToBenchmark(RoutingContext ctx, BenchmarkSource template, List<String> templateParam) {
+   private void templateToBenchmark(RoutingContext ctx, BenchmarkSource template, List<String> templateParam, Consumer<Benchmark> consumer) {
       Map<String, String> paramMap = new HashMap<>();
       for (String item : templateParam) {
          int index = item.indexOf("=");
@@ -589,22 +597,31 @@ class ControllerServer implements ApiService {
       List<String> missingParams = template.paramsWithDefaults.entrySet().stream()
             .filter(entry -> entry.getValue() == null).map(Map.Entry::getKey)
             .filter(param -> !paramMap.containsKey(param)).collect(Collectors.toList());
-      if (missingParams.isEmpty()) {
+      if (!missingParams.isEmpty()) {
+         ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code()).end(
+               "Benchmark " + template.name + " is missing these mandatory parameters: " + missingParams);
+         return;
+      }
+      // Building the benchmark or loading it from the cache on disk is blocking
+      controller.getVertx().<Benchmark>executeBlocking(promise -> {
          try {
-            return BenchmarkParser.instance().buildBenchmark(template, paramMap);
-         } catch (BenchmarkData.MissingFileException e) {
+            promise.complete(controller.buildBenchmark(template, paramMap));
+         } catch (ParserException e) {
+            promise.fail(e);
+         }
+      }, false, result -> {
+         if (result.succeeded()) {
+            consumer.accept(result.result());
+         } else if (result.cause() instanceof BenchmarkData.MissingFileException) {
             ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code())
                   .end("This benchmark is a template; external files are not uploaded for templates and the run command must append them when the benchmark is first run.");
-            return null;
-         } catch (ParserException | BenchmarkDefinitionException e) {
-            ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code()).end(Util.explainCauses(e));
-            return null;
+         } else if (result.cause() instanceof ParserException || result.cause() instanceof BenchmarkDefinitionException) {
+            ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code()).end(Util.explainCauses(result.cause()));
+         } else {
+            log.error("Failed to build benchmark {}", template.name, result.cause());
+            ctx.response().setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code()).end(Util.explainCauses(result.cause()));
          }
-      } else {
-         ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code()).end(
-               "Benchmark " + template.name + " is missing these mandatory parameters: " + missingParams);
-         return null;
-      }
+      });
    }
 
    @Override
@@ -615,16 +632,12 @@ class ControllerServer implements ApiService {
          if (template == null) {
             ctx.response().setStatusCode(HttpResponseStatus.NOT_FOUND.code()).end("No benchmark or template'" + name + "'.");
          } else {
-            String content = null;
-            if (!templateParam.isEmpty()) {
-               benchmark = templateToBenchmark(ctx, template, templateParam);
-               if (benchmark == null) {
-                  return;
-               } else {
-                  content = createStructure(maxCollectionSize, benchmark);
-               }
+            if (templateParam.isEmpty()) {
+               respondWithJson(ctx, false, new Client.BenchmarkStructure(template.paramsWithDefaults, null));
+            } else {
+               templateToBenchmark(ctx, template, templateParam, built -> respondWithJson(ctx, false,
+                     new Client.BenchmarkStructure(template.paramsWithDefaults, createStructure(maxCollectionSize, built))));
             }
-            respondWithJson(ctx, false, new Client.BenchmarkStructure(template.paramsWithDefaults, content));
          }
       } else {
          String content = createStructure(maxCollectionSize, benchmark);
@@ -870,6 +883,36 @@ class ControllerServer implements ApiService {
       });
    }
 
+   @Override
+   public void getSessionFootprint(RoutingContext ctx, String runId) {
+      withRun(ctx, runId, run -> {
+         JsonObject reply = new JsonObject();
+         run.sessionFootprints.forEach((agent, phases) -> phases.forEach((phase, items) -> {
+            JsonObject phaseFootprint = reply.getJsonObject(phase);
+            if (phaseFootprint == null) {
+               reply.put(phase, phaseFootprint = new JsonObject());
+            }
+            JsonObject itemsJson = new JsonObject();
+            items.forEach(itemsJson::put);
+            phaseFootprint.put(agent, new JsonObject()
+                  .put("total", items.values().stream().mapToLong(Long::longValue).sum())
+                  .put("items", itemsJson));
+         }));
+         respondWithJson(ctx, reply);
+      });
+   }
+
+   @Override
+   public void getRecordings(RoutingContext ctx, String runId) {
+      withTerminatedRun(ctx, runId, run -> {
+         Path dir = controller.getRunDir(run).resolve(ControllerVerticle.RECORDINGS_DIR);
+         if (!dir.toFile().isDirectory()) {
+            ctx.response().setStatusCode(HttpResponseStatus.NOT_FOUND.code()).end("No recordings in run " + run.id);
+         } else {
+            new Zipper(ctx.response(), dir).run();
+         }
+      });
+   }
 
    @Override
    public void listConnections(RoutingContext ctx, String runId) {
@@ -972,8 +1015,91 @@ class ControllerServer implements ApiService {
    @Override
    public void getSeries(RoutingContext ctx, String runId, String phase, int stepId, String metric) {
       withStats(ctx, runId, run -> {
-         List<StatisticsSummary> series = run.statisticsStore().series(phase, stepId, metric);
-         respondWithJson(ctx, false, series);
+         // The series might be read from a file in the run directory; encode it incrementally
+         // rather than building whole array (and its string representation) in memory.
+         HttpServerResponse response = ctx.response();
+         controller.getVertx().<Boolean>executeBlocking(promise -> {
+            try (Stream<StatisticsSummary> series = run.statisticsStore().series(phase, stepId, metric)) {
+               if (series == null) {
+                  promise.complete(false);
+                  return;
+               }
+               response.putHeader(HttpHeaders.CONTENT_TYPE, MIME_TYPE_JSON).setChunked(true);
+               Buffer buffer = Buffer.buffer().appendByte((byte) '[');
+               Iterator<StatisticsSummary> it = series.iterator();
+               boolean first = true;
+               while (it.hasNext()) {
+                  if (!first) {
+                     buffer.appendByte((byte) ',');
+                  }
+                  first = false;
+                  buffer.appendString(Json.encode(it.next()));
+                  if (buffer.length() >= SERIES_CHUNK_SIZE) {
+                     response.write(buffer);
+                     buffer = Buffer.buffer();
+                  }
+               }
+               response.end(buffer.appendByte((byte) ']'));
+               promise.complete(true);
+            }
+         }, false, result -> {
+            if (result.failed()) {
+               log.error("Cannot read series {}/{}/{} in run {}", phase, stepId, metric, runId, result.cause());
+               if (!response.headWritten()) {
+                  response.setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code()).end();
+               } else {
+                  response.reset();
+               }
+            } else if (!result.result()) {
+               respondWithJson(ctx, false, null);
+            }
+         });
+      });
+   }
+
+   @Override
+   public void compareRuns(RoutingContext ctx, String runId, List<String> baseline, double tolerance, double confidence, int iterations, boolean warmup) {
+      RunComparator comparator;
+      try {
+         comparator = new RunComparator(tolerance, confidence, iterations, 0);
+      } catch (IllegalArgumentException e) {
+         ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code()).end(e.getMessage());
+         return;
+      }
+      if (baseline.isEmpty()) {
+         ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code()).end("No baseline runs.");
+         return;
+      }
+      withStats(ctx, runId, candidate -> {
+         List<Run> runs = new ArrayList<>();
+         runs.add(candidate);
+         for (String id : baseline) {
+            Run run = controller.run(id);
+            if (run == null || run.statisticsStore() == null) {
+               ctx.response().setStatusCode(HttpResponseStatus.NOT_FOUND.code()).end("Run " + id + " was not found.");
+               return;
+            }
+            runs.add(run);
+         }
+         for (Run run : runs) {
+            if (!run.terminateTime.future().isComplete()) {
+               ctx.response().setStatusCode(HttpResponseStatus.BAD_REQUEST.code()).end("Run " + run.id + " did not complete yet.");
+               return;
+            }
+         }
+         // Extract the data in this thread as statistics store is not thread-safe
+         List<RunComparator.RunData> baselineData = runs.stream().skip(1)
+               .map(run -> RunComparator.runData(run.id, run.statisticsStore(), warmup)).collect(Collectors.toList());
+         RunComparator.RunData candidateData = RunComparator.runData(candidate.id, candidate.statisticsStore(), warmup);
+         controller.getVertx().<RunComparison>executeBlocking(
+               promise -> promise.complete(comparator.compare(baselineData, candidateData)), false, result -> {
+                  if (result.succeeded()) {
+                     respondWithJson(ctx, true, result.result());
+                  } else {
+                     log.error("Failed to compare runs", result.cause());
+                     ctx.response().setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code()).end(result.cause().toString());
+                  }
+               });
       });
    }
 
@@ -1176,6 +1302,27 @@ class ControllerServer implements ApiService {
       ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, "text/plain; charset=utf-8").end(BEARER_TOKEN);
    }
 
+   @Override
+   public void getMetrics$application_openmetrics_text(RoutingContext ctx) {
+      respondWithMetrics(ctx, true);
+   }
+
+   @Override
+   public void getMetrics$text_plain(RoutingContext ctx) {
+      respondWithMetrics(ctx, false);
+   }
+
+   private void respondWithMetrics(RoutingContext ctx, boolean openMetrics) {
+      OpenMetricsWriter writer = new OpenMetricsWriter(openMetrics);
+      controller.runs.values().stream()
+            .filter(run -> run.startTime > Long.MIN_VALUE && !run.terminateTime.future().isComplete() && run.isLoaded())
+            .sorted(Comparator.comparing(run -> run.id))
+            .forEach(run -> writer.addRun(run.id, run.benchmark.name(), run.statisticsStore()));
+      ctx.response()
+            .putHeader(HttpHeaders.CONTENT_TYPE, openMetrics ? OpenMetricsWriter.OPENMETRICS_CONTENT_TYPE : OpenMetricsWriter.PROMETHEUS_CONTENT_TYPE)
+            .end(writer.write());
+   }
+
    @Override
    public void getVersion(RoutingContext ctx) {
       respondWithJson(ctx, true, new io.hyperfoil.controller.model.Version(Version.VERSION, Version.COMMIT_ID, controller.deploymentID(), new Date()));
@@ -25,10 +25,14 @@ import io.hyperfoil.clustering.messages.AuxiliaryHello;
 import io.hyperfoil.clustering.messages.ConnectionStatsMessage;
 import io.hyperfoil.clustering.messages.DelayStatsCompletionMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
+import io.hyperfoil.clustering.messages.GlobalCountersMessage;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
+import io.hyperfoil.clustering.messages.RecordingMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.clustering.messages.SessionFootprintMessage;
+import io.hyperfoil.clustering.messages.SessionInitProgressMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
 import io.hyperfoil.clustering.messages.StatsMessage;
 import io.hyperfoil.clustering.util.PersistenceUtil;
@@ -43,12 +47,15 @@ import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.util.LowHigh;
 import io.hyperfoil.internal.Controller;
 import io.hyperfoil.internal.Properties;
+import io.hyperfoil.impl.Util;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.ReplyException;
@@ -88,7 +95,11 @@ import java.util.stream.Collectors;
 public class ControllerVerticle extends AbstractVerticle implements NodeListener {
    private static final Logger log = LogManager.getLogger(ControllerVerticle.class);
    private static final int MAX_IN_MEMORY_RUNS = Properties.getInt(Properties.MAX_IN_MEMORY_RUNS, 20);
+   private static final boolean SPILL_SERIES = Properties.getBoolean(Properties.CONTROLLER_SPILL_SERIES);
+   private static final int BENCHMARK_CACHE_SIZE = Properties.getInt(Properties.CONTROLLER_BENCHMARK_CACHE_SIZE, 32);
    static final String DEFAULT_STATS_JSON = "all.json";
+   static final String RECORDINGS_DIR = "recordings";
+   static final String BENCHMARK_CACHE_DIR = ".cache";
 
    private EventBus eb;
    private ControllerServer server;
@@ -96,6 +107,9 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
    private final AtomicInteger runIds = new AtomicInteger();
    private final Map<String, Benchmark> benchmarks = new HashMap<>();
    private final Map<String, BenchmarkSource> templates = new HashMap<>();
+   private BenchmarkCache benchmarkCache;
+   private WorkerExecutor spillExecutor;
+   private final WarmAgentPool warmAgents = WarmAgentPool.fromProperties();
    private long timerId = -1;
 
    Map<String, Run> runs = new HashMap<>();
@@ -105,6 +119,9 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       log.info("Starting in directory {}...", Controller.ROOT_DIR);
       CountDown startCountDown = new CountDown(future, 2);
       server = new ControllerServer(this, startCountDown);
+      if (SPILL_SERIES) {
+         spillExecutor = vertx.createSharedWorkerExecutor("hyperfoil-series-spill", 1);
+      }
       vertx.exceptionHandler(throwable -> log.error("Uncaught error: ", throwable));
       if (Files.exists(Controller.RUN_DIR)) {
          try {
@@ -156,7 +173,23 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                agent.status = AgentInfo.Status.FAILED;
                stopSimulation(run);
             }
+         } else if (msg instanceof SessionInitProgressMessage) {
+            SessionInitProgressMessage progress = (SessionInitProgressMessage) msg;
+            log.info("{} Agent {} created {}/{} sessions for phase {}", run.id, agent.name,
+                  progress.created(), progress.total(), progress.phase());
+         } else if (msg instanceof SessionFootprintMessage) {
+            run.sessionFootprints.put(agent.name, ((SessionFootprintMessage) msg).footprints());
+         } else if (msg instanceof GlobalCountersMessage) {
+            Map<String, Long> others = mergeGlobalCounters(run, agent, ((GlobalCountersMessage) msg).counters());
+            message.reply(new GlobalCountersMessage(deploymentID(), run.id, others));
+         } else if (msg instanceof RecordingMessage) {
+            storeRecording(run, agent, (RecordingMessage) msg);
          } else if (msg instanceof AgentReadyMessage) {
+            Map<String, Long> jitWarmup = ((AgentReadyMessage) msg).jitWarmup();
+            if (jitWarmup != null) {
+               log.info("{} Agent {} completed JIT warm-up in {} ms ({} sessions, compilation took {} ms)", run.id, agent.name,
+                     jitWarmup.get("duration"), jitWarmup.get("sessions"), jitWarmup.get("compilationTime"));
+            }
             if (!run.validation) {
                agent.status = AgentInfo.Status.READY;
                if (run.agents.stream().allMatch(a -> a.status == AgentInfo.Status.READY)) {
@@ -260,11 +293,13 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             ClusterManager clusterManager = ((VertxInternal) vertx).getClusterManager();
             clusterManager.nodeListener(this);
          }
+         prestartWarmAgents();
       }
 
       if (!Controller.BENCHMARK_DIR.toFile().exists() && !Controller.BENCHMARK_DIR.toFile().mkdirs()) {
          log.error("Failed to create benchmark directory: {}", Controller.BENCHMARK_DIR);
       }
+      benchmarkCache = new BenchmarkCache(Controller.BENCHMARK_DIR.resolve(BENCHMARK_CACHE_DIR), BENCHMARK_CACHE_SIZE);
       startCountDown.increment();
       loadBenchmarks(startCountDown);
       startCountDown.countDown();
@@ -289,8 +324,63 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
    }
 
+   private void prestartWarmAgents() {
+      List<Agent> definitions = WarmAgentPool.prestartDefinitions();
+      if (definitions.isEmpty()) {
+         return;
+      } else if (!warmAgents.isEnabled()) {
+         log.warn("Ignoring {}: warm agents are disabled, set {} to the number of agents kept warm.",
+               Properties.CONTROLLER_WARM_AGENTS_PRESTART, Properties.CONTROLLER_WARM_AGENTS);
+         return;
+      }
+      //noinspection ResultOfMethodCallIgnored
+      Controller.RUN_DIR.resolve(WarmAgentPool.WARM_RUN_ID).toFile().mkdirs();
+      Benchmark placeholder = Benchmark.empty(WarmAgentPool.WARM_RUN_ID, Collections.emptyMap());
+      for (Agent agent : definitions) {
+         AgentInfo agentInfo = new AgentInfo(agent.name, -1);
+         agentInfo.definition = agent;
+         warmAgents.addStarting(agentInfo);
+         log.info("Pre-starting warm agent {}", agent.name);
+         vertx.executeBlocking(future -> agentInfo.deployedAgent = deployer.start(agent, WarmAgentPool.WARM_RUN_ID, placeholder, exception -> {
+            log.error("Failed to deploy warm agent " + agent.name, exception);
+            vertx.runOnContext(nil -> warmAgents.removeStarting(agentInfo));
+         }), false, result -> {
+            if (result.failed()) {
+               log.error("Failed to start warm agent " + agent.name, result.cause());
+               warmAgents.removeStarting(agentInfo);
+            }
+         });
+      }
+   }
+
+   private void handleWarmAgentHello(Message<Object> message, AgentHello hello) {
+      AgentInfo agentInfo = warmAgents.findStarting(hello.name());
+      if (agentInfo == null) {
+         log.error("Unknown warm agent {} ({}/{})", hello.name(), hello.nodeId(), hello.deploymentId());
+         message.fail(1, "Unknown agent");
+         return;
+      }
+      log.debug("Registering warm agent {} ({}/{})", hello.name(), hello.nodeId(), hello.deploymentId());
+      agentInfo.nodeId = hello.nodeId();
+      agentInfo.deploymentId = hello.deploymentId();
+      agentInfo.status = AgentInfo.Status.REGISTERED;
+      message.reply("Registered");
+      if (!warmAgents.offer(agentInfo)) {
+         log.info("Warm agent pool is full, stopping {}", agentInfo);
+         eb.request(agentInfo.deploymentId, AgentControlMessage.stop(-1, false), reply -> {
+            if (agentInfo.deployedAgent != null) {
+               vertx.setTimer(3000, timerId -> agentInfo.deployedAgent.stop());
+            }
+         });
+      }
+   }
+
    private void handleAgentHello(Message<Object> message, AgentHello hello) {
       String runId = hello.runId();
+      if (WarmAgentPool.WARM_RUN_ID.equals(runId)) {
+         handleWarmAgentHello(message, hello);
+         return;
+      }
       Run run = runs.get(runId);
       if (run == null) {
          log.error("Unknown run ID " + runId);
@@ -332,6 +422,10 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       if (phaseChange.cpuUsage() != null) {
          run.statisticsStore().recordCpuUsage(phaseChange.phase(), agent.name, phaseChange.cpuUsage());
       }
+      if (phaseChange.saturatedExecutors() != null) {
+         log.warn("{} Agent {} had saturated executor(s) in phase {}, results might be skewed: {}",
+               run.id, agent.name, phase, phaseChange.saturatedExecutors());
+      }
       if (phaseChange.sessionLimitExceeded()) {
          Phase def = controllerPhase.definition();
          SessionLimitPolicy sessionLimitPolicy = def.model instanceof Model.OpenModel ?
@@ -362,6 +456,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
    @Override
    public void nodeLeft(String nodeID) {
+      warmAgents.nodeLeft(nodeID);
       for (Run run : runs.values()) {
          if (run.terminateTime.future().isComplete()) {
             continue;
@@ -441,12 +536,27 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
    @Override
    public void stop(Promise<Void> stopFuture) throws Exception {
+      for (AgentInfo agent : warmAgents.drain()) {
+         if (agent.deployedAgent != null) {
+            agent.deployedAgent.stop();
+         }
+      }
       if (deployer != null) {
          deployer.close();
       }
+      if (spillExecutor != null) {
+         spillExecutor.close();
+      }
       server.stop(stopFuture);
    }
 
+   private void spill(Runnable task) {
+      spillExecutor.executeBlocking(promise -> {
+         task.run();
+         promise.complete();
+      }, false);
+   }
+
    private void tryProgressStatus(Run run, String phase) {
       PhaseInstance.Status minStatus = PhaseInstance.Status.TERMINATED;
       for (AgentInfo a : run.agents) {
@@ -499,7 +609,8 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       runDir.toFile().mkdirs();
       Run run = new Run(runId, runDir, benchmark, validate);
       run.initStore(new StatisticsStore(benchmark, failure -> log.warn("Failed verify SLA(s) for {}/{}: {}",
-            failure.phase(), failure.metric(), failure.message())));
+            failure.phase(), failure.metric(), failure.message()),
+            SPILL_SERIES ? runDir.resolve("series") : null, this::spill));
       run.description = description;
       runs.put(run.id, run);
       if (run.benchmark.source() != null) {
@@ -563,6 +674,18 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          for (Agent agent : run.benchmark.agents()) {
             AgentInfo agentInfo = new AgentInfo(agent.name, agentCounter++);
             run.agents.add(agentInfo);
+            if (warmAgents.isEnabled()) {
+               agentInfo.definition = agent;
+               AgentInfo warm = warmAgents.take(agent);
+               if (warm != null) {
+                  log.debug("Reusing warm agent {}", warm);
+                  agentInfo.nodeId = warm.nodeId;
+                  agentInfo.deploymentId = warm.deploymentId;
+                  agentInfo.deployedAgent = warm.deployedAgent;
+                  agentInfo.status = AgentInfo.Status.REGISTERED;
+                  continue;
+               }
+            }
             log.debug("Starting agent {}", agent.name);
             vertx.executeBlocking(future -> agentInfo.deployedAgent = deployer.start(agent, run.id, run.benchmark, exception -> {
                if (agentInfo.status.ordinal() < AgentInfo.Status.STOPPING.ordinal()) {
@@ -585,6 +708,10 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          run.errors.add(new Run.Error(null, new BenchmarkExecutionException("Deployment timed out.")));
          stopSimulation(run);
       });
+      if (run.agents.stream().allMatch(a -> a.status == AgentInfo.Status.REGISTERED)) {
+         // all agents were taken from the warm pool
+         vertx.runOnContext(nil -> handleAgentsStarted(run));
+      }
 
       return null;
    }
@@ -594,11 +721,21 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
       log.info("Starting benchmark {} - run {}", run.benchmark.name(), run.id);
 
+      // Serialize the benchmark just once rather than for each agent
+      byte[] serializedBenchmark;
+      try {
+         serializedBenchmark = Util.serialize(run.benchmark);
+      } catch (IOException e) {
+         log.error("{} Failed to serialize benchmark", run.id, e);
+         run.errors.add(new Run.Error(null, new BenchmarkExecutionException("Failed to serialize benchmark", e)));
+         stopSimulation(run);
+         return;
+      }
       for (AgentInfo agent : run.agents) {
          if (agent.status != AgentInfo.Status.REGISTERED) {
             log.error("{} Agent {}({}) already initializing, status is {}!", run.id, agent.name, agent.deploymentId, agent.status);
          } else {
-            eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, run.benchmark), reply -> {
+            eb.request(agent.deploymentId, AgentControlMessage.initialize(agent.id, run.id, run.benchmark, serializedBenchmark), reply -> {
                Throwable cause;
                if (reply.failed()) {
                   cause = reply.cause();
@@ -726,12 +863,20 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             }
             continue;
          }
+         boolean keepWarm = agent.definition != null && agent.deployedAgent != null && agent.status != AgentInfo.Status.FAILED;
          agent.status = AgentInfo.Status.STOPPING;
-         eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.STOP, agent.id, null), reply -> {
+         eb.request(agent.deploymentId, AgentControlMessage.stop(agent.id, keepWarm), reply -> {
             if (reply.succeeded() && !(reply.result() instanceof Throwable)) {
                agent.status = AgentInfo.Status.STOPPED;
                checkAgentsStopped(run);
                log.debug("Agent {}/{} stopped.", agent.name, agent.deploymentId);
+               if (keepWarm) {
+                  if (!warmAgents.offer(agent)) {
+                     log.info("Warm agent pool is full, stopping {}", agent);
+                     agent.deployedAgent.stop();
+                  }
+                  return;
+               }
             } else {
                agent.status = AgentInfo.Status.FAILED;
                log.error("Agent {}/{} failed to stop", agent.name, agent.deploymentId);
@@ -967,7 +1112,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                      if (source.isTemplate()) {
                         templates.put(source.name, source);
                      } else {
-                        Benchmark benchmark = BenchmarkParser.instance().buildBenchmark(source, Collections.emptyMap());
+                        Benchmark benchmark = benchmarkCache.build(source, Collections.emptyMap());
                         benchmarks.put(benchmark.name(), benchmark);
                      }
                   }
@@ -1080,6 +1225,13 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       });
    }
 
+   /**
+    * Builds the benchmark from source, or retrieves it from cache if it was built before with the same parameters.
+    */
+   public Benchmark buildBenchmark(BenchmarkSource source, Map<String, String> params) throws ParserException {
+      return benchmarkCache.build(source, params);
+   }
+
    public Benchmark ensureBenchmark(Run run) throws ParserException {
       if (run.benchmark.source() == null) {
          File yamlSource = Controller.RUN_DIR.resolve(run.id).resolve(run.benchmark.name() + ".yaml").toFile();
@@ -1109,6 +1261,33 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       return server.httpServer.actualPort();
    }
 
+   /**
+    * @return Sum of increments from all agents except the sender.
+    */
+   private Map<String, Long> mergeGlobalCounters(Run run, AgentInfo agent, Map<String, Long> deltas) {
+      Map<String, Long> contributed = run.globalCounters.computeIfAbsent(agent.name, a -> new HashMap<>());
+      deltas.forEach((key, delta) -> contributed.merge(key, delta, Long::sum));
+      Map<String, Long> others = new HashMap<>();
+      run.globalCounters.forEach((name, counters) -> {
+         if (!name.equals(agent.name)) {
+            counters.forEach((key, value) -> others.merge(key, value, Long::sum));
+         }
+      });
+      return others;
+   }
+
+   private void storeRecording(Run run, AgentInfo agent, RecordingMessage msg) {
+      Path dir = getRunDir(run).resolve(RECORDINGS_DIR);
+      Path file = dir.resolve(agent.name + "-" + msg.name());
+      vertx.fileSystem().mkdirs(dir.toString(), mkdirs -> vertx.fileSystem().writeFile(file.toString(), Buffer.buffer(msg.data()), result -> {
+         if (result.succeeded()) {
+            log.info("{} Stored recording from agent {} in {}", run.id, agent.name, file);
+         } else {
+            log.error("{} Cannot store recording from agent {} in {}", run.id, agent.name, file, result.cause());
+         }
+      }));
+   }
+
    public Path getRunDir(Run run) {
       return Controller.RUN_DIR.resolve(run.id);
    }
@@ -34,6 +34,10 @@ class Run {
    Supplier<StatisticsStore> statsSupplier;
    private StatisticsStore statisticsStore;
    Map<String, GlobalData.Element> newGlobalData = new HashMap<>();
+   // agent name -> phase -> item -> estimated bytes per session
+   final Map<String, Map<String, Map<String, Long>>> sessionFootprints = new HashMap<>();
+   // agent -> counter -> sum of increments
+   final Map<String, Map<String, Long>> globalCounters = new HashMap<>();
 
    Run(String id, Path dir, Benchmark benchmark) {
       this (id, dir, benchmark, false);
@@ -0,0 +1,143 @@
+package io.hyperfoil.clustering;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.Agent;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.internal.Properties;
+
+/**
+ * Agents that stay registered with the controller between runs. When a run completes its agents are reset
+ * rather than shut down and a subsequent run with the same agent definition (name, inline config and properties)
+ * reuses them, skipping the deployment and starting with JIT-compiled code. Agents can be also pre-started
+ * when the controller starts.
+ */
+class WarmAgentPool {
+   private static final Logger log = LogManager.getLogger(WarmAgentPool.class);
+   static final String WARM_RUN_ID = "warm";
+
+   private final int maxIdle;
+   private final List<AgentInfo> idle = new ArrayList<>();
+   private final List<AgentInfo> starting = new ArrayList<>();
+
+   WarmAgentPool(int maxIdle) {
+      this.maxIdle = maxIdle;
+   }
+
+   static WarmAgentPool fromProperties() {
+      return new WarmAgentPool(Properties.getInt(Properties.CONTROLLER_WARM_AGENTS, 0));
+   }
+
+   /**
+    * Parses agents that should be started with the controller, in the format
+    * <code>name[=inline-config],name2[=inline-config2],...</code>, e.g. <code>agent-a=user@host-a:22,agent-b</code>.
+    */
+   static List<Agent> prestartDefinitions() {
+      String prestart = Properties.get(Properties.CONTROLLER_WARM_AGENTS_PRESTART, "");
+      List<Agent> agents = new ArrayList<>();
+      for (String item : prestart.split(",")) {
+         item = item.trim();
+         if (item.isEmpty()) {
+            continue;
+         }
+         int eq = item.indexOf('=');
+         String name = eq < 0 ? item : item.substring(0, eq).trim();
+         String inlineConfig = eq < 0 ? null : item.substring(eq + 1).trim();
+         if (name.isEmpty()) {
+            throw new BenchmarkDefinitionException("Invalid agent definition in " + Properties.CONTROLLER_WARM_AGENTS_PRESTART + ": " + item);
+         }
+         agents.add(new Agent(name, inlineConfig, null));
+      }
+      return agents;
+   }
+
+   boolean isEnabled() {
+      return maxIdle > 0;
+   }
+
+   int idle() {
+      return idle.size();
+   }
+
+   void addStarting(AgentInfo agent) {
+      starting.add(agent);
+   }
+
+   /**
+    * @return Pre-started agent with this name that has not registered yet, or <code>null</code>.
+    */
+   AgentInfo findStarting(String name) {
+      return starting.stream().filter(a -> a.name.equals(name)).findFirst().orElse(null);
+   }
+
+   void removeStarting(AgentInfo agent) {
+      starting.remove(agent);
+   }
+
+   /**
+    * Moves the agent to idle agents.
+    *
+    * @return False if the pool is full and the agent should be stopped.
+    */
+   boolean offer(AgentInfo agent) {
+      starting.remove(agent);
+      if (idle.size() >= maxIdle) {
+         return false;
+      }
+      AgentInfo warm = new AgentInfo(agent.name, -1);
+      warm.definition = agent.definition;
+      warm.nodeId = agent.nodeId;
+      warm.deploymentId = agent.deploymentId;
+      warm.deployedAgent = agent.deployedAgent;
+      warm.status = AgentInfo.Status.REGISTERED;
+      idle.add(warm);
+      log.info("Agent {} is kept warm ({} idle agents)", warm, idle.size());
+      return true;
+   }
+
+   /**
+    * @return Idle agent matching the definition, removed from the pool, or <code>null</code>.
+    */
+   AgentInfo take(Agent definition) {
+      for (Iterator<AgentInfo> it = idle.iterator(); it.hasNext(); ) {
+         AgentInfo agent = it.next();
+         if (matches(agent.definition, definition)) {
+            it.remove();
+            return agent;
+         }
+      }
+      return null;
+   }
+
+   void nodeLeft(String nodeId) {
+      idle.removeIf(agent -> {
+         if (Objects.equals(agent.nodeId, nodeId)) {
+            log.info("Warm agent {} left the cluster", agent);
+            return true;
+         }
+         return false;
+      });
+   }
+
+   /**
+    * Removes all idle agents from the pool.
+    */
+   List<AgentInfo> drain() {
+      List<AgentInfo> agents = new ArrayList<>(idle);
+      agents.addAll(starting);
+      idle.clear();
+      starting.clear();
+      return agents;
+   }
+
+   private static boolean matches(Agent a1, Agent a2) {
+      return a1 != null && a2 != null && a1.name.equals(a2.name) && Objects.equals(a1.inlineConfig, a2.inlineConfig)
+            && a1.properties.equals(a2.properties);
+   }
+}
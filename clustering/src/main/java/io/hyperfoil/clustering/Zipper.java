@@ -49,6 +49,7 @@ public class Zipper {
             } finally {
                response.end();
             }
+            return;
          }
          if (file.isDirectory()) {
             files.addAll(Arrays.asList(file.listFiles()));
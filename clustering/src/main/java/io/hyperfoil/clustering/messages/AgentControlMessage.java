@@ -1,13 +1,18 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.impl.Util;
 
 public class AgentControlMessage implements Serializable {
    private Command command;
    private int agentId;
+   private String runId;
    private Object param;
+   // Benchmark is sent pre-serialized in param; this is set only for local delivery
+   private transient Benchmark benchmark;
 
    public AgentControlMessage(Command command, int agentId, Object param) {
       this.command = command;
@@ -15,18 +20,50 @@ public class AgentControlMessage implements Serializable {
       this.param = param;
    }
 
+   /**
+    * @param serializedBenchmark Benchmark serialized through {@link Util#serialize(Benchmark)}; the same bytes
+    *                            can be shared by messages to all agents.
+    */
+   public static AgentControlMessage initialize(int agentId, String runId, Benchmark benchmark, byte[] serializedBenchmark) {
+      AgentControlMessage message = new AgentControlMessage(Command.INITIALIZE, agentId, serializedBenchmark);
+      message.runId = runId;
+      message.benchmark = benchmark;
+      return message;
+   }
+
+   /**
+    * @param keepWarm Reset the agent and keep it running for subsequent runs rather than shutting it down.
+    */
+   public static AgentControlMessage stop(int agentId, boolean keepWarm) {
+      return new AgentControlMessage(Command.STOP, agentId, keepWarm);
+   }
+
    public Command command() {
       return command;
    }
 
-   public Benchmark benchmark() {
-      return (Benchmark) param;
+   public Benchmark benchmark() throws IOException, ClassNotFoundException {
+      if (benchmark == null) {
+         benchmark = Util.deserialize((byte[]) param);
+      }
+      return benchmark;
    }
 
    public boolean includeInactive() {
       return (Boolean) param;
    }
 
+   public boolean keepWarm() {
+      return Boolean.TRUE.equals(param);
+   }
+
+   /**
+    * @return Run the agent is initialized for; agents kept warm between runs receive new run ID with each benchmark.
+    */
+   public String runId() {
+      return runId;
+   }
+
    public int agentId() {
       return agentId;
    }
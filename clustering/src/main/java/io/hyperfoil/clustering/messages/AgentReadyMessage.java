@@ -1,8 +1,18 @@
 package io.hyperfoil.clustering.messages;
 
+import java.util.Map;
+
 public class AgentReadyMessage extends AgentStatusMessage {
-   public AgentReadyMessage(String senderId, String runId) {
+   // duration, sessions, compilation time...; null if there was no JIT warm-up
+   private final Map<String, Long> jitWarmup;
+
+   public AgentReadyMessage(String senderId, String runId, Map<String, Long> jitWarmup) {
       super(senderId, runId);
+      this.jitWarmup = jitWarmup;
+   }
+
+   public Map<String, Long> jitWarmup() {
+      return jitWarmup;
    }
 
    public static class Codec extends ObjectCodec<AgentReadyMessage> {}
@@ -0,0 +1,19 @@
+package io.hyperfoil.clustering.messages;
+
+import java.util.Map;
+
+public class GlobalCountersMessage extends AgentStatusMessage {
+   // Increments from the sender agent, or sum of increments from other agents in the reply
+   private final Map<String, Long> counters;
+
+   public GlobalCountersMessage(String senderId, String runId, Map<String, Long> counters) {
+      super(senderId, runId);
+      this.counters = counters;
+   }
+
+   public Map<String, Long> counters() {
+      return counters;
+   }
+
+   public static class Codec extends ObjectCodec<GlobalCountersMessage> {}
+}
@@ -0,0 +1,22 @@
+package io.hyperfoil.clustering.messages;
+
+public class RecordingMessage extends AgentStatusMessage {
+   private final String name;
+   private final byte[] data;
+
+   public RecordingMessage(String senderId, String runId, String name, byte[] data) {
+      super(senderId, runId);
+      this.name = name;
+      this.data = data;
+   }
+
+   public String name() {
+      return name;
+   }
+
+   public byte[] data() {
+      return data;
+   }
+
+   public static class Codec extends ObjectCodec<RecordingMessage> {}
+}
@@ -0,0 +1,19 @@
+package io.hyperfoil.clustering.messages;
+
+import java.util.Map;
+
+public class SessionFootprintMessage extends AgentStatusMessage {
+   // phase -> item -> bytes
+   private final Map<String, Map<String, Long>> footprints;
+
+   public SessionFootprintMessage(String senderId, String runId, Map<String, Map<String, Long>> footprints) {
+      super(senderId, runId);
+      this.footprints = footprints;
+   }
+
+   public Map<String, Map<String, Long>> footprints() {
+      return footprints;
+   }
+
+   public static class Codec extends ObjectCodec<SessionFootprintMessage> {}
+}
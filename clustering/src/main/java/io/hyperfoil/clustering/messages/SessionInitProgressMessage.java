@@ -0,0 +1,28 @@
+package io.hyperfoil.clustering.messages;
+
+public class SessionInitProgressMessage extends AgentStatusMessage {
+   private final String phase;
+   private final int created;
+   private final int total;
+
+   public SessionInitProgressMessage(String senderId, String runId, String phase, int created, int total) {
+      super(senderId, runId);
+      this.phase = phase;
+      this.created = created;
+      this.total = total;
+   }
+
+   public String phase() {
+      return phase;
+   }
+
+   public int created() {
+      return created;
+   }
+
+   public int total() {
+      return total;
+   }
+
+   public static class Codec extends ObjectCodec<SessionInitProgressMessage> {}
+}
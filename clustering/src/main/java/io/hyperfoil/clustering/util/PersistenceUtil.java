@@ -92,7 +92,7 @@ public class PersistenceUtil {
          }
       } else if (filename.endsWith(".serialized")) {
          log.debug("Serialized benchmarks are not used anymore, ignoring {}", filename);
-      } else if (file.toFile().isDirectory() && filename.endsWith(".data")) {
+      } else if (file.toFile().isDirectory() && (filename.endsWith(".data") || filename.startsWith("."))) {
          log.debug("Ignoring directory {}", filename);
       } else {
          log.warn("Unknown benchmark file format: {}", file);
@@ -9,7 +9,6 @@ import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -193,27 +192,31 @@ public class CsvWriter {
       return phase.replaceAll(File.separator, "_");
    }
 
-   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, List<StatisticsSummary> series) throws FileNotFoundException {
+   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, Series series) throws FileNotFoundException {
       if (total != null) {
          try (PrintStream stream = new PrintStream(new FileOutputStream(filePrefix + ".histogram.csv"))) {
             total.histogram.outputPercentileDistribution(stream, 5, 1000_000.0, true);
          }
       }
       if (series != null) {
-         String[] extensionHeaders = getHeaders(series.stream().map(ss -> ss.extensions));
-         try (PrintWriter writer = new PrintWriter(filePrefix + ".series.csv")) {
+         String[] extensionHeaders;
+         try (Stream<StatisticsSummary> summaries = series.stream()) {
+            extensionHeaders = getHeaders(summaries.map(ss -> ss.extensions));
+         }
+         try (PrintWriter writer = new PrintWriter(filePrefix + ".series.csv");
+              Stream<StatisticsSummary> summaries = series.stream()) {
             writer.print("Start,End,");
             StatisticsSummary.printHeader(writer, StatisticsStore.PERCENTILES);
             printExtensionHeaders(writer, extensionHeaders);
             writer.println();
-            for (StatisticsSummary summary : series) {
+            summaries.forEach(summary -> {
                writer.print(summary.startTime);
                writer.print(',');
                writer.print(summary.endTime);
                writer.print(',');
                summary.printTo(writer, extensionHeaders);
                writer.println();
-            }
+            });
          }
       }
    }
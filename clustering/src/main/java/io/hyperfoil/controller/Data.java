@@ -1,8 +1,6 @@
 package io.hyperfoil.controller;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
@@ -30,8 +28,13 @@ final class Data {
    final StatisticsSnapshot total = new StatisticsSnapshot();
    final Map<String, StatisticsSnapshot> perAgent = new HashMap<>();
    final Map<String, IntObjectMap<StatisticsSnapshot>> lastStats = new HashMap<>();
-   final List<StatisticsSummary> series = new ArrayList<>();
-   final Map<String, List<StatisticsSummary>> agentSeries = new HashMap<>();
+   final Series series;
+   final Map<String, Series> agentSeries = new HashMap<>();
+   // for live monitoring; these are updated when the statistics are recorded
+   long responseTimeSum;
+   StatisticsSummary recent;
+   private int recentSequenceId = -1;
+   private final Map<String, Integer> agentSequenceIds = new HashMap<>();
    // floating statistics for SLAs
    private final Map<SLA, StatisticsStore.Window> windowSlas;
    private final SLA[] totalSlas;
@@ -46,6 +49,7 @@ final class Data {
       this.metric = metric;
       this.windowSlas = periodSlas;
       this.totalSlas = totalSlas;
+      this.series = statisticsStore.newSeries(this, null);
    }
 
    boolean record(String agentName, StatisticsSnapshot stats) {
@@ -54,6 +58,7 @@ final class Data {
          return false;
       }
       total.add(stats);
+      responseTimeSum += (long) (stats.histogram.getMean() * stats.histogram.getTotalCount());
       perAgent.computeIfAbsent(agentName, a -> new StatisticsSnapshot()).add(stats);
       IntObjectMap<StatisticsSnapshot> partialSnapshots = lastStats.computeIfAbsent(agentName, a -> new IntObjectHashMap<>());
       StatisticsSnapshot partialSnapshot = partialSnapshots.get(stats.sequenceId);
@@ -62,6 +67,17 @@ final class Data {
       } else {
          partialSnapshot.add(stats);
       }
+      agentSequenceIds.merge(agentName, stats.sequenceId, Math::max);
+      // An agent has reported an interval completely only when it sends statistics for a later one;
+      // we publish the most recent interval that all agents have completed.
+      int completeSequenceId = Integer.MAX_VALUE;
+      for (int sequenceId : agentSequenceIds.values()) {
+         completeSequenceId = Math.min(completeSequenceId, sequenceId - 1);
+      }
+      if (completeSequenceId > recentSequenceId) {
+         recentSequenceId = completeSequenceId;
+         updateRecent(completeSequenceId);
+      }
       while (stats.sequenceId > highestSequenceId) {
          ++highestSequenceId;
          int mergedSequenceId = highestSequenceId - MERGE_DELAY;
@@ -73,13 +89,26 @@ final class Data {
       return true;
    }
 
+   private void updateRecent(int sequenceId) {
+      StatisticsSnapshot sum = new StatisticsSnapshot();
+      for (IntObjectMap<StatisticsSnapshot> snapshots : lastStats.values()) {
+         StatisticsSnapshot snapshot = snapshots.get(sequenceId);
+         if (snapshot != null) {
+            sum.add(snapshot);
+         }
+      }
+      if (!sum.isEmpty()) {
+         recent = sum.summary(StatisticsStore.PERCENTILES);
+      }
+   }
+
    private void mergeSnapshots(int sequenceId) {
       StatisticsSnapshot sum = new StatisticsSnapshot();
       for (Map.Entry<String, IntObjectMap<StatisticsSnapshot>> entry : lastStats.entrySet()) {
          StatisticsSnapshot snapshot = entry.getValue().remove(sequenceId);
          if (snapshot != null) {
             sum.add(snapshot);
-            agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>()).add(snapshot.summary(StatisticsStore.PERCENTILES));
+            agentSeries.computeIfAbsent(entry.getKey(), a -> statisticsStore.newSeries(this, a)).add(snapshot.summary(StatisticsStore.PERCENTILES));
          }
       }
       if (!sum.isEmpty()) {
@@ -103,11 +132,13 @@ final class Data {
       for (int i = Math.max(0, highestSequenceId - MERGE_DELAY); i <= highestSequenceId; ++i) {
          mergeSnapshots(i);
       }
+      series.flush();
+      agentSeries.values().forEach(Series::flush);
       // Just sanity checks
-      if (series.stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (series.requestCount() != total.requestCount) {
          log.error("We lost some data (series) in phase {} metric {}", phase, metric);
       }
-      if (agentSeries.values().stream().flatMap(List::stream).mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (agentSeries.values().stream().mapToLong(Series::requestCount).sum() != total.requestCount) {
          log.error("We lost some data (agent series) in phase {} metric {}", phase, metric);
       }
       if (perAgent.values().stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
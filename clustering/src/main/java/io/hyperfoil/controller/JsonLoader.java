@@ -77,7 +77,7 @@ public class JsonLoader {
             loadSnapshot(stats.getJsonObject("total"), snapshot);
             loadHistogram(stats.getJsonObject("histogram").getJsonArray("linear"), snapshot.histogram);
             data.perAgent.put(name, snapshot);
-            loadSeries(stats.getJsonArray("series"), data.agentSeries.computeIfAbsent(name, a -> new ArrayList<>()));
+            loadSeries(stats.getJsonArray("series"), data.agentSeries.computeIfAbsent(name, a -> store.newSeries(data, a)));
          }
       }
 
@@ -138,7 +138,7 @@ public class JsonLoader {
       }
    }
 
-   private static void loadSeries(JsonArray array, List<StatisticsSummary> series) {
+   private static void loadSeries(JsonArray array, Series series) {
       for (Object item : array) {
          JsonObject object = (JsonObject) item;
          long startTime = object.getLong("startTime");
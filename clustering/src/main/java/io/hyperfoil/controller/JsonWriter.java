@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class JsonWriter {
    static final String RUN_SCHEMA = "http://hyperfoil.io/run-schema/v3.0";
@@ -311,11 +312,14 @@ public class JsonWriter {
       jGenerator.writeEndObject();
    }
 
-   private static void seriesArray(JsonGenerator jGenerator, List<StatisticsSummary> series) throws IOException {
+   private static void seriesArray(JsonGenerator jGenerator, Series series) throws IOException {
       jGenerator.writeStartArray(); //series
       if (series != null) {
-         for (StatisticsSummary summary : series) {
-            jGenerator.writeObject(summary);
+         try (Stream<StatisticsSummary> summaries = series.stream()) {
+            Iterator<StatisticsSummary> it = summaries.iterator();
+            while (it.hasNext()) {
+               jGenerator.writeObject(it.next());
+            }
          }
       }
       jGenerator.writeEndArray(); //end series
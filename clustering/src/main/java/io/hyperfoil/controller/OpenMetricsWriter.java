@@ -0,0 +1,200 @@
+package io.hyperfoil.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.core.util.LowHigh;
+
+/**
+ * Writes live statistics of runs in progress in the OpenMetrics text format (or Prometheus text format
+ * version 0.0.4, which differs only in the naming of counter families). Everything here is read
+ * from values that {@link StatisticsStore} maintains while the statistics are recorded, therefore the cost
+ * of a scrape does not depend on duration of the run.
+ */
+public class OpenMetricsWriter {
+   public static final String OPENMETRICS_CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+   public static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+   private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+   private final boolean openMetrics;
+   private final List<Target> targets = new ArrayList<>();
+   private final StringBuilder sb = new StringBuilder();
+
+   public OpenMetricsWriter(boolean openMetrics) {
+      this.openMetrics = openMetrics;
+   }
+
+   public void addRun(String runId, String benchmark, StatisticsStore store) {
+      targets.add(new Target(runId, benchmark, store));
+   }
+
+   public String write() {
+      counter("hyperfoil_requests", "Number of requests sent.",
+            (t, data) -> sample("hyperfoil_requests_total", t, data, null, null, data.total.requestCount));
+      counter("hyperfoil_responses", "Number of responses received.",
+            (t, data) -> sample("hyperfoil_responses_total", t, data, null, null, data.total.responseCount));
+      counter("hyperfoil_errors", "Number of failed or invalid requests, by type of failure.", (t, data) -> {
+         sample("hyperfoil_errors_total", t, data, "type", "connection", data.total.connectionErrors);
+         sample("hyperfoil_errors_total", t, data, "type", "timeout", data.total.requestTimeouts);
+         sample("hyperfoil_errors_total", t, data, "type", "internal", data.total.internalErrors);
+         sample("hyperfoil_errors_total", t, data, "type", "invalid", data.total.invalid);
+      });
+      counter("hyperfoil_blocked_seconds", "Time spent waiting for a free connection or request slot.",
+            (t, data) -> sample("hyperfoil_blocked_seconds_total", t, data, null, null, data.total.blockedTime / NANOS_PER_SECOND));
+
+      family("hyperfoil_request_rate", "gauge", "Requests per second in the most recent statistics interval.", null, (t, data) -> {
+         StatisticsSummary recent = data.recent;
+         if (recent != null && !data.isCompleted() && recent.endTime > recent.startTime) {
+            sample("hyperfoil_request_rate", t, data, null, null, recent.requestCount * 1000d / (recent.endTime - recent.startTime));
+         }
+      });
+      family("hyperfoil_response_time_seconds", "summary",
+            "Response time; quantiles are computed from the most recent statistics interval.", "seconds", (t, data) -> {
+         StatisticsSummary recent = data.recent;
+         if (recent != null && !data.isCompleted()) {
+            for (double p : StatisticsStore.PERCENTILES) {
+               Long value = recent.percentileResponseTime.get(p * 100);
+               if (value != null) {
+                  sample("hyperfoil_response_time_seconds", t, data, "quantile", String.valueOf(p), value / NANOS_PER_SECOND);
+               }
+            }
+         }
+         sample("hyperfoil_response_time_seconds_sum", t, data, null, null, data.responseTimeSum / NANOS_PER_SECOND);
+         sample("hyperfoil_response_time_seconds_count", t, data, null, null, data.total.histogram.getTotalCount());
+      });
+
+      header("hyperfoil_sessions", "gauge", "Sessions in use in the most recent interval, summed over agents.", null);
+      for (Target t : targets) {
+         for (Map.Entry<String, StatisticsStore.SessionPoolStats> entry : t.store.sessionPoolStats.entrySet()) {
+            LowHigh sum = null;
+            for (List<StatisticsStore.SessionPoolRecord> records : entry.getValue().records.values()) {
+               if (!records.isEmpty()) {
+                  sum = LowHigh.sum(sum, records.get(records.size() - 1));
+               }
+            }
+            if (sum != null) {
+               startSample("hyperfoil_sessions", t).label("phase", entry.getKey()).label("bound", "min").value(sum.low);
+               startSample("hyperfoil_sessions", t).label("phase", entry.getKey()).label("bound", "max").value(sum.high);
+            }
+         }
+      }
+
+      header("hyperfoil_connections", "gauge", "Connections in the most recent interval, summed over agents.", null);
+      for (Target t : targets) {
+         for (var byAuthority : t.store.connectionPoolStats.entrySet()) {
+            for (var byType : byAuthority.getValue().entrySet()) {
+               LowHigh sum = null;
+               for (List<StatisticsStore.ConnectionPoolStats> records : byType.getValue().values()) {
+                  if (!records.isEmpty()) {
+                     sum = LowHigh.sum(sum, records.get(records.size() - 1));
+                  }
+               }
+               if (sum != null) {
+                  startSample("hyperfoil_connections", t).label("authority", byAuthority.getKey())
+                        .label("type", byType.getKey()).label("bound", "min").value(sum.low);
+                  startSample("hyperfoil_connections", t).label("authority", byAuthority.getKey())
+                        .label("type", byType.getKey()).label("bound", "max").value(sum.high);
+               }
+            }
+         }
+      }
+      if (openMetrics) {
+         sb.append("# EOF\n");
+      }
+      return sb.toString();
+   }
+
+   private void counter(String name, String help, BiConsumer<Target, Data> consumer) {
+      family(name, "counter", help, name.endsWith("_seconds") ? "seconds" : null, consumer);
+   }
+
+   private void family(String name, String type, String help, String unit, BiConsumer<Target, Data> consumer) {
+      header(name, type, help, unit);
+      for (Target t : targets) {
+         for (Map<String, Data> byMetric : t.store.data.values()) {
+            for (Data data : byMetric.values()) {
+               consumer.accept(t, data);
+            }
+         }
+      }
+   }
+
+   private void header(String name, String type, String help, String unit) {
+      // Prometheus 0.0.4 format expects the counter family to be named after its samples
+      String familyName = !openMetrics && "counter".equals(type) ? name + "_total" : name;
+      sb.append("# TYPE ").append(familyName).append(' ').append(type).append('\n');
+      if (openMetrics && unit != null) {
+         sb.append("# UNIT ").append(familyName).append(' ').append(unit).append('\n');
+      }
+      sb.append("# HELP ").append(familyName).append(' ').append(help).append('\n');
+   }
+
+   private void sample(String name, Target t, Data data, String labelName, String labelValue, double value) {
+      Sample sample = startSample(name, t).label("phase", data.phase).label("metric", data.metric);
+      if (labelName != null) {
+         sample.label(labelName, labelValue);
+      }
+      sample.value(value);
+   }
+
+   private Sample startSample(String name, Target t) {
+      sb.append(name).append('{');
+      return new Sample().label("run", t.runId).label("benchmark", t.benchmark);
+   }
+
+   private class Sample {
+      private boolean first = true;
+
+      Sample label(String name, String value) {
+         if (!first) {
+            sb.append(',');
+         }
+         first = false;
+         sb.append(name).append("=\"");
+         for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+               case '\\':
+                  sb.append("\\\\");
+                  break;
+               case '"':
+                  sb.append("\\\"");
+                  break;
+               case '\n':
+                  sb.append("\\n");
+                  break;
+               default:
+                  sb.append(c);
+            }
+         }
+         sb.append('"');
+         return this;
+      }
+
+      void value(double value) {
+         sb.append("} ");
+         if (value == (long) value) {
+            sb.append((long) value);
+         } else {
+            sb.append(value);
+         }
+         sb.append('\n');
+      }
+   }
+
+   private static class Target {
+      final String runId;
+      final String benchmark;
+      final StatisticsStore store;
+
+      Target(String runId, String benchmark, StatisticsStore store) {
+         this.runId = runId;
+         this.benchmark = benchmark;
+         this.store = store;
+      }
+   }
+}
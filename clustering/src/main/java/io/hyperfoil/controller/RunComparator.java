@@ -0,0 +1,404 @@
+package io.hyperfoil.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.controller.model.MetricComparison;
+import io.hyperfoil.controller.model.RunComparison;
+
+/**
+ * Compares a candidate run against one or more baseline runs using full response time histograms.
+ * <p>
+ * For each phase/metric present in the runs we compare selected percentiles of the response time and throughput.
+ * The confidence interval of the relative change is computed using hierarchical bootstrap: in each iteration
+ * the baseline runs are resampled with replacement (capturing run-to-run variance) and the statistic of each
+ * selected run (and the candidate) is resampled as well (capturing the sampling noise within the run).
+ * <p>
+ * Resampling a percentile does not require resampling the recorded values: the k-th order statistic
+ * of <code>n</code> values drawn from the empirical distribution is the empirical quantile function applied to
+ * <code>Beta(k, n - k + 1)</code>-distributed variable. Therefore each draw costs one random variate
+ * and a binary search in the cumulative histogram, regardless of the number of recorded requests.
+ * Throughput is resampled as a Poisson process with the observed rate.
+ */
+public class RunComparator {
+   public static final String PASS = "PASS";
+   public static final String FAIL = "FAIL";
+   public static final String REGRESSION = "REGRESSION";
+   public static final String IMPROVEMENT = "IMPROVEMENT";
+   public static final String NO_CHANGE = "NO_CHANGE";
+   public static final String MISSING = "MISSING";
+   static final String THROUGHPUT = "throughput";
+   static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+   // Order statistics with both parameters above this limit are drawn from normal approximation of Beta distribution
+   private static final double NORMAL_APPROXIMATION_LIMIT = 1000;
+
+   private final double tolerance;
+   private final double confidence;
+   private final int iterations;
+   private final long seed;
+
+   public RunComparator(double tolerance, double confidence, int iterations, long seed) {
+      if (tolerance < 0) {
+         throw new IllegalArgumentException("Tolerance must not be negative: " + tolerance);
+      } else if (confidence <= 0 || confidence >= 1) {
+         throw new IllegalArgumentException("Confidence must be in range (0, 1): " + confidence);
+      } else if (iterations <= 0) {
+         throw new IllegalArgumentException("Number of iterations must be positive: " + iterations);
+      }
+      this.tolerance = tolerance;
+      this.confidence = confidence;
+      this.iterations = iterations;
+      this.seed = seed;
+   }
+
+   /**
+    * Extracts data from completed run.
+    *
+    * @param runId Run ID.
+    * @param store Statistics.
+    * @param warmup Include warm-up phases.
+    * @return Input for the comparison.
+    */
+   public static RunData runData(String runId, StatisticsStore store, boolean warmup) {
+      RunData runData = new RunData(runId);
+      for (Data data : store.getData()) {
+         if (data.isWarmup && !warmup) {
+            continue;
+         }
+         runData.add(data.phase, data.metric, data.total);
+      }
+      return runData;
+   }
+
+   public RunComparison compare(List<RunData> baseline, RunData candidate) {
+      if (baseline.isEmpty()) {
+         throw new IllegalArgumentException("At least one baseline run is required.");
+      }
+      // Keep the order of first appearance, candidate first
+      Map<Key, Boolean> keys = new LinkedHashMap<>();
+      candidate.metrics.keySet().forEach(k -> keys.put(k, Boolean.TRUE));
+      baseline.forEach(b -> b.metrics.keySet().forEach(k -> keys.putIfAbsent(k, Boolean.TRUE)));
+      List<Key> keyList = new ArrayList<>(keys.keySet());
+      List<MetricComparison> comparisons = IntStream.range(0, keyList.size()).parallel()
+            .mapToObj(i -> compare(keyList.get(i), baseline, candidate))
+            .flatMap(List::stream).collect(Collectors.toList());
+      String verdict = comparisons.stream().anyMatch(c -> REGRESSION.equals(c.verdict)) ? FAIL : PASS;
+      return new RunComparison(candidate.runId, baseline.stream().map(b -> b.runId).collect(Collectors.toList()),
+            verdict, tolerance, confidence, comparisons);
+   }
+
+   private List<MetricComparison> compare(Key key, List<RunData> baseline, RunData candidateRun) {
+      Samples candidate = candidateRun.metrics.get(key);
+      Samples[] baselineSamples = baseline.stream().map(b -> b.metrics.get(key)).filter(Objects::nonNull)
+            .filter(s -> s.count > 0).toArray(Samples[]::new);
+      List<MetricComparison> result = new ArrayList<>(PERCENTILES.length + 1);
+      if (candidate == null || candidate.count == 0 || baselineSamples.length == 0) {
+         result.add(new MetricComparison(key.phase, key.metric, null, 0, 0, 0, 0, 0, MISSING));
+         return result;
+      }
+      // Deterministic seed makes the verdict reproducible regardless of parallel execution
+      Generator random = new Generator(seed ^ key.hashCode());
+      double[] changes = new double[iterations];
+      for (int i = 0; i < PERCENTILES.length; ++i) {
+         int percentileIndex = i;
+         String name = "p" + formatPercentile(PERCENTILES[i] * 100);
+         result.add(compareStatistic(key, name, changes, random, baselineSamples, candidate,
+               s -> s.quantile(PERCENTILES[percentileIndex]), (s, r) -> s.drawQuantile(percentileIndex, r), true));
+      }
+      result.add(compareStatistic(key, THROUGHPUT, changes, random, baselineSamples, candidate,
+            Samples::throughput, Samples::drawThroughput, false));
+      return result;
+   }
+
+   private MetricComparison compareStatistic(Key key, String name, double[] changes, Generator random,
+                                             Samples[] baseline, Samples candidate,
+                                             Estimator estimator, Resampler resampler, boolean higherIsWorse) {
+      double baselineValue = 0;
+      for (Samples b : baseline) {
+         baselineValue += estimator.estimate(b);
+      }
+      baselineValue /= baseline.length;
+      double candidateValue = estimator.estimate(candidate);
+      for (int i = 0; i < iterations; ++i) {
+         double sum = 0;
+         for (int j = 0; j < baseline.length; ++j) {
+            sum += resampler.draw(baseline[random.nextInt(baseline.length)], random);
+         }
+         changes[i] = relativeChange(sum / baseline.length, resampler.draw(candidate, random));
+      }
+      Arrays.sort(changes);
+      double alpha = (1 - confidence) / 2;
+      double low = changes[(int) Math.floor(alpha * (iterations - 1))];
+      double high = changes[(int) Math.ceil((1 - alpha) * (iterations - 1))];
+      String verdict;
+      if (higherIsWorse ? low > tolerance : high < -tolerance) {
+         verdict = REGRESSION;
+      } else if (higherIsWorse ? high < -tolerance : low > tolerance) {
+         verdict = IMPROVEMENT;
+      } else {
+         verdict = NO_CHANGE;
+      }
+      return new MetricComparison(key.phase, key.metric, name, baselineValue, candidateValue,
+            relativeChange(baselineValue, candidateValue), low, high, verdict);
+   }
+
+   private static double relativeChange(double baseline, double candidate) {
+      if (baseline == 0) {
+         return candidate == 0 ? 0 : Double.POSITIVE_INFINITY;
+      }
+      return (candidate - baseline) / baseline;
+   }
+
+   private static String formatPercentile(double percentile) {
+      String str = String.format("%.3f", percentile);
+      // strip trailing zeros and dot
+      int end = str.length();
+      while (str.charAt(end - 1) == '0') {
+         --end;
+      }
+      if (str.charAt(end - 1) == '.') {
+         --end;
+      }
+      return str.substring(0, end);
+   }
+
+   @FunctionalInterface
+   private interface Estimator {
+      double estimate(Samples samples);
+   }
+
+   @FunctionalInterface
+   private interface Resampler {
+      double draw(Samples samples, Generator random);
+   }
+
+   public static class RunData {
+      final String runId;
+      final Map<Key, Samples> metrics = new TreeMap<>(Comparator.comparing((Key k) -> k.phase).thenComparing(k -> k.metric));
+
+      public RunData(String runId) {
+         this.runId = runId;
+      }
+
+      public RunData add(String phase, String metric, StatisticsSnapshot snapshot) {
+         Key key = new Key(phase, metric);
+         Samples existing = metrics.get(key);
+         if (existing == null) {
+            metrics.put(key, new Samples(snapshot));
+         } else {
+            // Same metric in multiple steps
+            StatisticsSnapshot sum = existing.snapshot.clone();
+            sum.add(snapshot);
+            metrics.put(key, new Samples(sum));
+         }
+         return this;
+      }
+   }
+
+   static final class Key {
+      final String phase;
+      final String metric;
+
+      Key(String phase, String metric) {
+         this.phase = phase;
+         this.metric = metric;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         } else if (o == null || getClass() != o.getClass()) {
+            return false;
+         }
+         Key key = (Key) o;
+         return phase.equals(key.phase) && metric.equals(key.metric);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * phase.hashCode() + metric.hashCode();
+      }
+   }
+
+   /**
+    * Cumulative form of the histogram that allows fast lookup of quantiles.
+    */
+   static final class Samples {
+      final StatisticsSnapshot snapshot;
+      final long[] values;
+      final long[] cumulative;
+      final long count;
+      final double durationSeconds;
+      // Parameters of the Beta distribution of each order statistic in PERCENTILES, precomputed for the bootstrap
+      private final double[] betaA = new double[PERCENTILES.length];
+      private final double[] betaB = new double[PERCENTILES.length];
+      private final double[] betaMean = new double[PERCENTILES.length];
+      private final double[] betaStddev = new double[PERCENTILES.length];
+      // Bucket holding each percentile; the drawn order statistics fall into this or nearby buckets
+      private final int[] percentileBuckets = new int[PERCENTILES.length];
+
+      Samples(StatisticsSnapshot snapshot) {
+         this.snapshot = snapshot;
+         AbstractHistogram histogram = snapshot.histogram;
+         int buckets = 0;
+         for (HistogramIterationValue ignored : histogram.recordedValues()) {
+            ++buckets;
+         }
+         values = new long[buckets];
+         cumulative = new long[buckets];
+         int i = 0;
+         for (HistogramIterationValue value : histogram.recordedValues()) {
+            values[i] = histogram.highestEquivalentValue(value.getValueIteratedTo());
+            cumulative[i] = value.getTotalCountToThisValue();
+            ++i;
+         }
+         count = buckets == 0 ? 0 : cumulative[buckets - 1];
+         long durationMillis = histogram.getEndTimeStamp() - histogram.getStartTimeStamp();
+         durationSeconds = Math.max(durationMillis, 1) / 1000d;
+         for (int p = 0; p < PERCENTILES.length; ++p) {
+            double a = Math.max(1, Math.ceil(PERCENTILES[p] * count));
+            double b = count - a + 1;
+            double sum = a + b;
+            betaA[p] = a;
+            betaB[p] = b;
+            betaMean[p] = a / sum;
+            betaStddev[p] = Math.sqrt(a * b / (sum * sum * (sum + 1)));
+            percentileBuckets[p] = bucketAtRank((long) a);
+         }
+      }
+
+      double quantile(double q) {
+         return values[bucketAtRank(Math.max(1, (long) Math.ceil(q * count)))];
+      }
+
+      private int bucketAtRank(long rank) {
+         int index = Arrays.binarySearch(cumulative, rank);
+         if (index < 0) {
+            index = -index - 1;
+         }
+         return Math.max(0, Math.min(index, values.length - 1));
+      }
+
+      // Linear search from the bucket of the percentile is cheaper than binary search for ranks close to it
+      private double valueAtRank(long rank, int bucket) {
+         int index = bucket;
+         while (index > 0 && cumulative[index - 1] >= rank) {
+            --index;
+         }
+         while (index < cumulative.length - 1 && cumulative[index] < rank) {
+            ++index;
+         }
+         return values[index];
+      }
+
+      double drawQuantile(int percentileIndex, Generator random) {
+         double a = betaA[percentileIndex];
+         double b = betaB[percentileIndex];
+         double u;
+         if (a > NORMAL_APPROXIMATION_LIMIT && b > NORMAL_APPROXIMATION_LIMIT) {
+            u = Math.min(1, Math.max(0, betaMean[percentileIndex] + betaStddev[percentileIndex] * random.nextGaussian()));
+         } else {
+            u = drawBeta(a, b, random);
+         }
+         return valueAtRank(Math.max(1, (long) Math.ceil(u * count)), percentileBuckets[percentileIndex]);
+      }
+
+      double throughput() {
+         return snapshot.responseCount / durationSeconds;
+      }
+
+      double drawThroughput(Generator random) {
+         double n = snapshot.responseCount;
+         if (n == 0) {
+            return 0;
+         }
+         return Math.max(0, n + Math.sqrt(n) * random.nextGaussian()) / durationSeconds;
+      }
+   }
+
+   static double drawBeta(double a, double b, Generator random) {
+      if (a > NORMAL_APPROXIMATION_LIMIT && b > NORMAL_APPROXIMATION_LIMIT) {
+         double sum = a + b;
+         double mean = a / sum;
+         double stddev = Math.sqrt(a * b / (sum * sum * (sum + 1)));
+         return Math.min(1, Math.max(0, mean + stddev * random.nextGaussian()));
+      }
+      double x = drawGamma(a, random);
+      double y = drawGamma(b, random);
+      return x / (x + y);
+   }
+
+   // Marsaglia & Tsang: A Simple Method for Generating Gamma Variables; requires shape >= 1
+   static double drawGamma(double shape, Generator random) {
+      double d = shape - 1d / 3;
+      double c = 1 / Math.sqrt(9 * d);
+      for (; ; ) {
+         double x;
+         double v;
+         do {
+            x = random.nextGaussian();
+            v = 1 + c * x;
+         } while (v <= 0);
+         v = v * v * v;
+         double u = random.nextDouble();
+         if (u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) {
+            return d * v;
+         }
+      }
+   }
+
+   /**
+    * SplittableRandom does not provide nextGaussian() in Java 11; this uses the polar method
+    * and keeps the second variate for the next call as {@link java.util.Random} does.
+    */
+   static final class Generator {
+      private final SplittableRandom random;
+      private double nextGaussian;
+      private boolean haveNextGaussian;
+
+      Generator(long seed) {
+         random = new SplittableRandom(seed);
+      }
+
+      int nextInt(int bound) {
+         return random.nextInt(bound);
+      }
+
+      double nextDouble() {
+         return random.nextDouble();
+      }
+
+      double nextGaussian() {
+         if (haveNextGaussian) {
+            haveNextGaussian = false;
+            return nextGaussian;
+         }
+         double v1;
+         double v2;
+         double s;
+         do {
+            v1 = 2 * random.nextDouble() - 1;
+            v2 = 2 * random.nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+         } while (s >= 1 || s == 0);
+         double multiplier = Math.sqrt(-2 * Math.log(s) / s);
+         nextGaussian = v2 * multiplier;
+         haveNextGaussian = true;
+         return v1 * multiplier;
+      }
+   }
+}
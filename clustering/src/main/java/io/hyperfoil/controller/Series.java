@@ -0,0 +1,56 @@
+package io.hyperfoil.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+
+/**
+ * Ordered sequence of per-interval summaries for single phase/step/metric (and possibly agent).
+ */
+abstract class Series {
+   private long requestCount;
+
+   final void add(StatisticsSummary summary) {
+      requestCount += summary.requestCount;
+      append(summary);
+   }
+
+   abstract void append(StatisticsSummary summary);
+
+   /**
+    * Make sure that all summaries added so far are visible to readers of the persistent storage.
+    */
+   void flush() {
+   }
+
+   /**
+    * The stream might be backed by an open file and reading it can block: close the stream
+    * (preferably using try-with-resources) and don't call this from an event loop.
+    *
+    * @return Summaries in the order these were added.
+    */
+   abstract Stream<StatisticsSummary> stream();
+
+   /**
+    * @return Sum of request counts in all summaries; this does not need to read the series.
+    */
+   long requestCount() {
+      return requestCount;
+   }
+
+   static final class InMemory extends Series {
+      private final List<StatisticsSummary> list = new ArrayList<>();
+
+      @Override
+      void append(StatisticsSummary summary) {
+         list.add(summary);
+      }
+
+      @Override
+      Stream<StatisticsSummary> stream() {
+         return list.stream();
+      }
+   }
+}
@@ -0,0 +1,107 @@
+package io.hyperfoil.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.hyperfoil.api.statistics.StatisticsSummary;
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+/**
+ * Series that keeps only few most recent summaries in memory; the rest is appended to a file
+ * (one JSON-encoded summary per line) and read back lazily when the series is streamed.
+ * Appends run in the executor passed to the constructor so that they don't block the caller;
+ * the stream waits until all summaries added before are written and holds the file open until it is closed.
+ */
+final class SpilledSeries extends Series {
+   private static final Logger log = LogManager.getLogger(SpilledSeries.class);
+   static final int FLUSH_THRESHOLD = 16;
+   private static final ObjectMapper MAPPER;
+
+   static {
+      StatsExtension.registerSubtypes();
+      MAPPER = DatabindCodec.mapper();
+   }
+
+   private final Path file;
+   private final Executor executor;
+   private List<StatisticsSummary> pending = new ArrayList<>(FLUSH_THRESHOLD);
+   private CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+
+   SpilledSeries(Path file, Executor executor) {
+      this.file = file;
+      this.executor = executor;
+   }
+
+   @Override
+   synchronized void append(StatisticsSummary summary) {
+      pending.add(summary);
+      if (pending.size() >= FLUSH_THRESHOLD) {
+         flush();
+      }
+   }
+
+   @Override
+   synchronized void flush() {
+      if (pending.isEmpty()) {
+         return;
+      }
+      List<StatisticsSummary> batch = pending;
+      pending = new ArrayList<>(FLUSH_THRESHOLD);
+      written = written.thenRunAsync(() -> write(batch), executor);
+   }
+
+   private void write(List<StatisticsSummary> batch) {
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+         for (StatisticsSummary summary : batch) {
+            writer.write(MAPPER.writeValueAsString(summary));
+            writer.newLine();
+         }
+      } catch (IOException e) {
+         log.error("Cannot append {} summaries to {}", batch.size(), file, e);
+      }
+   }
+
+   @Override
+   Stream<StatisticsSummary> stream() {
+      CompletableFuture<Void> written;
+      synchronized (this) {
+         flush();
+         written = this.written;
+      }
+      written.join();
+      if (!Files.exists(file)) {
+         return Stream.empty();
+      }
+      try {
+         return Files.lines(file, StandardCharsets.UTF_8).map(this::decode);
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot read series from " + file, e);
+      }
+   }
+
+   private StatisticsSummary decode(String line) {
+      try {
+         return MAPPER.readValue(line, StatisticsSummary.class);
+      } catch (JsonProcessingException e) {
+         throw new UncheckedIOException("Cannot decode series entry in " + file, e);
+      }
+   }
+}
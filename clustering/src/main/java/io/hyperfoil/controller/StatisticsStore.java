@@ -9,6 +9,10 @@ import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.core.util.LowHigh;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -19,12 +23,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 public class StatisticsStore {
+   private static final Logger log = LogManager.getLogger(StatisticsStore.class);
    static final double[] PERCENTILES = new double[]{ 0.5, 0.9, 0.99, 0.999, 0.9999 };
    private static final Comparator<RequestStats> REQUEST_STATS_COMPARATOR =
          Comparator.<RequestStats, Long>comparing(rs -> rs.summary.startTime)
@@ -39,10 +48,31 @@ public class StatisticsStore {
    final Map<String, SessionPoolStats> sessionPoolStats = new HashMap<>();
    final Map<String, Map<String, Map<String, List<ConnectionPoolStats>>>> connectionPoolStats = new HashMap<>();
    final Map<String, Map<String, String>> cpuUsage = new HashMap<>();
+   // When set the series are appended to files in this directory rather than kept in memory
+   private final Path seriesDir;
+   private final Executor spillExecutor;
+   private int seriesCounter;
 
    public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+      this(benchmark, failureHandler, null, null);
+   }
+
+   /**
+    * @param seriesDir Directory for spilled series, or <code>null</code> to keep the series in memory.
+    * @param spillExecutor Executor running the appends to spilled series; must run the tasks in order.
+    */
+   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler, Path seriesDir, Executor spillExecutor) {
       this.benchmark = benchmark;
       this.failureHandler = failureHandler;
+      this.seriesDir = seriesDir;
+      this.spillExecutor = spillExecutor;
+      if (seriesDir != null) {
+         try {
+            Files.createDirectories(seriesDir);
+         } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create directory for series: " + seriesDir, e);
+         }
+      }
       this.slaProviders = benchmark.steps()
             .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
             .collect(Collectors.toMap(SLA.Provider::id, Function.identity(), (s1, s2) -> {
@@ -173,12 +203,25 @@ public class StatisticsStore {
       return HistogramConverter.convert(phase, metric, data.total.histogram);
    }
 
-   public List<StatisticsSummary> series(String phase, int stepId, String metric) {
+   /**
+    * The series might be read from a file: the caller must close the stream and should not call this from an event loop.
+    */
+   public Stream<StatisticsSummary> series(String phase, int stepId, String metric) {
       Data data = getData(phase, stepId, metric);
       if (data == null) {
          return null;
       }
-      return data.series;
+      return data.series.stream();
+   }
+
+   Series newSeries(Data data, String agent) {
+      if (seriesDir == null) {
+         return new Series.InMemory();
+      }
+      Path file = seriesDir.resolve(seriesCounter++ + ".jsonl");
+      log.debug("Spilling series for {}/{}/{} ({}) into {}", data.phase, data.stepId, data.metric,
+            agent == null ? "total" : agent, file);
+      return new SpilledSeries(file, spillExecutor);
    }
 
    private Data getData(String phase, int stepId, String metric) {
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
 import org.apache.sshd.client.channel.ChannelShell;
 import org.apache.sshd.client.channel.ClientChannel;
@@ -44,6 +45,8 @@ public class SshDeployedAgent implements DeployedAgent {
    private static final String DEBUG_ADDRESS = Properties.get(Properties.AGENT_DEBUG_PORT, null);
    private static final String DEBUG_SUSPEND = Properties.get(Properties.AGENT_DEBUG_SUSPEND, "n");
    private static final String AGENTLIB = "/agentlib";
+   private static final String CDS = "/cds";
+   private static final boolean USE_CDS = Properties.get(Properties.AGENT_CDS, Boolean::valueOf, true);
 
    final String name;
    final String runId;
@@ -150,7 +153,7 @@ public class SshDeployedAgent implements DeployedAgent {
       });
       runCommand("unset PROMPT_COMMAND; export PS1='" + PROMPT + "'", true);
 
-      runCommand("mkdir -p " + dir + AGENTLIB, true);
+      runCommand("mkdir -p " + dir + AGENTLIB + " " + dir + CDS, true);
 
       Map<String, String> remoteMd5 = getRemoteMd5();
       Map<String, String> localMd5 = getLocalMd5();
@@ -163,7 +166,11 @@ public class SshDeployedAgent implements DeployedAgent {
          startAgentCommmand.append("taskset -c ").append(cpu).append(' ');
       }
       String java = Properties.get(Properties.AGENT_JAVA_EXECUTABLE, "java");
-      startAgentCommmand.append(java).append(" -cp ");
+      startAgentCommmand.append(java);
+      if (USE_CDS) {
+         appendCdsOptions(startAgentCommmand, java, localMd5);
+      }
+      startAgentCommmand.append(" -cp ");
 
       for (Map.Entry<String, String> entry : localMd5.entrySet()) {
          int lastSlash = entry.getKey().lastIndexOf("/");
@@ -227,6 +234,29 @@ public class SshDeployedAgent implements DeployedAgent {
             () -> exceptionHandler.accept(new BenchmarkExecutionException("Agent process terminated prematurely. Hint: type 'log " + name + "' to see agent output.")));
    }
 
+   /**
+    * The first agent started with given JVM and classpath dumps loaded classes into a class data sharing archive
+    * when it exits; subsequent agents map the archive and start faster. This requires Java 13+ on the agent host.
+    */
+   private void appendCdsOptions(StringBuilder startAgentCommand, String java, Map<String, String> localMd5) {
+      String jvmInfo = runCommand(java + " -XX:+PrintFlagsFinal -version 2>&1 | grep -e ArchiveClassesAtExit -e 'build '", true);
+      if (jvmInfo == null || !jvmInfo.contains("ArchiveClassesAtExit")) {
+         log.debug("JVM on {} does not support dynamic class data sharing archives.", hostname);
+         return;
+      }
+      CRC32 crc = new CRC32();
+      crc.update(jvmInfo.getBytes(StandardCharsets.UTF_8));
+      // classpath order follows the iteration order of this map
+      for (String md5 : localMd5.values()) {
+         crc.update(md5.getBytes(StandardCharsets.UTF_8));
+      }
+      String archive = dir + CDS + "/agent-" + name + "-" + Long.toHexString(crc.getValue()) + ".jsa";
+      startAgentCommand.append(" $([ -f ").append(archive).append(" ] && echo -XX:SharedArchiveFile=").append(archive)
+            .append(" || echo -XX:ArchiveClassesAtExit=").append(archive).append(')');
+      // Skipped classes are reported as warnings when the archive is dumped
+      startAgentCommand.append(" -Xlog:cds=off -Xlog:cds+dynamic=off");
+   }
+
    private void onPrompt(StringBuilder sb, ByteArrayBuffer buffer, Runnable completion) {
       buffer.clear(false);
       shellChannel.getAsyncOut().read(buffer).addListener(future -> {
@@ -14,6 +14,7 @@ import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStatisticsResponse;
 import io.hyperfoil.controller.model.Run;
+import io.hyperfoil.controller.model.RunComparison;
 import io.hyperfoil.controller.model.Version;
 
 /**
@@ -122,8 +123,25 @@ public interface Client {
 
       List<StatisticsSummary> series(String phase, int stepId, String metric);
 
+      /**
+       * Compares this run (as the candidate) against baseline runs using bootstrap confidence intervals.
+       *
+       * @param baseline Baseline run IDs.
+       * @param tolerance Tolerated relative change.
+       * @param confidence Confidence level.
+       * @param iterations Number of bootstrap iterations.
+       * @param warmup Include warm-up phases.
+       * @return Comparison with PASS/FAIL verdict.
+       */
+      RunComparison compare(List<String> baseline, double tolerance, double confidence, int iterations, boolean warmup);
+
       byte[] file(String filename);
 
+      /**
+       * @return ZIP archive with recordings of HTTP exchanges from all agents.
+       */
+      byte[] recordings();
+
       byte[] report(String source);
 
       Map<String, Map<String, String>> agentCpu();
@@ -1,11 +1,14 @@
 package io.hyperfoil.core.api;
 
+import java.nio.file.Path;
 import java.time.Clock;
 import java.util.function.Consumer;
 
+import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Scenario;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.impl.ConnectionStatsConsumer;
+import io.netty.channel.EventLoop;
 import io.vertx.core.Future;
 
 public interface PluginRunData {
@@ -19,4 +22,23 @@ public interface PluginRunData {
    void visitConnectionStats(ConnectionStatsConsumer consumer);
 
    void shutdown();
+
+   /**
+    * Files with diagnostic recordings of the run (on the agent's filesystem), to be sent to the controller
+    * after {@link #shutdown()}.
+    */
+   default void visitRecordings(Consumer<Path> consumer) {
+   }
+
+   /**
+    * Creates run data used for JIT warm-up of the agent before the benchmark starts. Sessions initialized by
+    * this instance must not reach the system under test: the plugin should rather start in-process stub servers
+    * in {@link #openConnections(Consumer)} (or in this method) and connect to those. The stubs are stopped
+    * in {@link #shutdown()}.
+    *
+    * @return Run data connected to stub servers, or <code>null</code> if the plugin does not support warm-up.
+    */
+   default PluginRunData createWarmupRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
+      return null;
+   }
 }
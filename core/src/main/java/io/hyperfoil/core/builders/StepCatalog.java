@@ -129,7 +129,8 @@ public class StepCatalog implements Step.Catalog, ServiceLoadedBuilderProvider.O
    // general
 
    /**
-    * Block current sequence until condition becomes true.
+    * Block current sequence until condition becomes true. The condition is re-evaluated whenever the session runs,
+    * so it may depend on state outside session variables.
     *
     * @param condition Condition predicate.
     * @return This sequence.
@@ -0,0 +1,123 @@
+package io.hyperfoil.core.connection;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.net.ssl.SSLException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.api.PluginRunData;
+import io.hyperfoil.core.impl.ConnectionStatsConsumer;
+import io.netty.channel.EventLoop;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+/**
+ * Run data for plugins with fixed number of connections to each endpoint. The connections are split among
+ * executors: each executor owns one {@link ExecutorConnectionPool} per endpoint and these pools are exposed
+ * to the sessions through {@link ExecutorConnectionPools} resource.
+ *
+ * @param <E> Endpoint type.
+ * @param <P> Connection pool type.
+ * @param <S> Type of the resource holding pools in single executor.
+ */
+public class ConnectionPoolsRunData<E extends PooledEndpoint, P extends ExecutorConnectionPool<E, ?>, S extends ExecutorConnectionPools<P>>
+      implements PluginRunData {
+   private static final Logger log = LogManager.getLogger(ConnectionPoolsRunData.class);
+
+   private final Session.ResourceKey<S> key;
+   private final List<S> pools = new ArrayList<>();
+
+   public ConnectionPoolsRunData(Benchmark benchmark, EventLoop[] executors, int agentId, E[] endpoints,
+                                 PoolFactory<E, P> poolFactory, Function<List<P>, S> poolsFactory, Session.ResourceKey<S> key) {
+      this.key = key;
+      List<List<P>> byExecutor = new ArrayList<>();
+      for (int i = 0; i < executors.length; ++i) {
+         byExecutor.add(new ArrayList<>());
+      }
+      for (E endpoint : endpoints) {
+         // Same split as in session -> executor assignment
+         int connections = benchmark.slice(endpoint.connections(), agentId);
+         if (endpoint.connections() == 0) {
+            connections = executors.length;
+         } else if (connections < executors.length) {
+            log.warn("Number of connections to {} ({}) is too small: the event loop has {} executors. Opening {} connections.",
+                  endpoint.url(), connections, executors.length, executors.length);
+            connections = executors.length;
+         }
+         SslContext sslContext = endpoint.secure() ? createSslContext(endpoint) : null;
+         int share = connections / executors.length;
+         int remainder = connections - share * executors.length;
+         for (int i = 0; i < executors.length; ++i) {
+            byExecutor.get(i).add(poolFactory.create(endpoint, sslContext, executors[i], share + (i < remainder ? 1 : 0)));
+         }
+      }
+      for (List<P> executorPools : byExecutor) {
+         pools.add(poolsFactory.apply(executorPools));
+      }
+   }
+
+   private static SslContext createSslContext(PooledEndpoint endpoint) {
+      try {
+         // Like HTTP endpoints without configured trust manager we accept any certificate
+         return SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build();
+      } catch (SSLException e) {
+         throw new IllegalStateException("Failed creating SSL context for " + endpoint.url(), e);
+      }
+   }
+
+   @Override
+   public void initSession(Session session, int executorId, Scenario scenario, Clock clock) {
+      session.declareSingletonResource(key, pools.get(executorId));
+   }
+
+   @Override
+   public void openConnections(Consumer<Future<Void>> promiseCollector) {
+      for (S executorPools : pools) {
+         for (P pool : executorPools.pools()) {
+            Promise<Void> promise = Promise.promise();
+            promiseCollector.accept(promise.future());
+            pool.start(promise);
+         }
+      }
+   }
+
+   @Override
+   public void listConnections(Consumer<String> connectionCollector) {
+      // Pools should be accessed only from the executor, but since we're only publishing stats...
+      for (S executorPools : pools) {
+         for (P pool : executorPools.pools()) {
+            connectionCollector.accept(pool.describe());
+         }
+      }
+   }
+
+   @Override
+   public void visitConnectionStats(ConnectionStatsConsumer consumer) {
+   }
+
+   @Override
+   public void shutdown() {
+      for (S executorPools : pools) {
+         for (P pool : executorPools.pools()) {
+            pool.shutdown();
+         }
+      }
+   }
+
+   @FunctionalInterface
+   public interface PoolFactory<E extends PooledEndpoint, P> {
+      P create(E endpoint, SslContext sslContext, EventLoop executor, int size);
+   }
+}
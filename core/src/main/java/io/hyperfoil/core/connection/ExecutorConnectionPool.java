@@ -0,0 +1,216 @@
+package io.hyperfoil.core.connection;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.core.impl.EventLoopFactory;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import io.vertx.core.Promise;
+
+/**
+ * Fixed-size pool of connections to single endpoint, owned by one executor. The pool opens all connections
+ * when started and replaces connections that are closed until it is shut down.
+ * All methods but {@link #start(Promise)} and {@link #shutdown()} must be invoked from the executor's thread.
+ *
+ * @param <E> Endpoint type.
+ * @param <C> Connection type.
+ */
+public abstract class ExecutorConnectionPool<E extends PooledEndpoint, C extends ExecutorConnectionPool.Connection> {
+   private static final Logger log = LogManager.getLogger(ExecutorConnectionPool.class);
+   private static final long RECONNECT_DELAY_MS = 1000;
+
+   protected final E endpoint;
+   protected final EventLoop executor;
+   protected final List<C> connections = new ArrayList<>();
+   private final SslContext sslContext;
+   private final int size;
+   private Promise<Void> startPromise;
+   private int pending;
+   private volatile boolean shutdown;
+
+   /**
+    * @param sslContext Context for TLS connections; <code>null</code> unless the endpoint is {@link PooledEndpoint#secure() secure}.
+    */
+   protected ExecutorConnectionPool(E endpoint, SslContext sslContext, EventLoop executor, int size) {
+      this.endpoint = endpoint;
+      this.sslContext = sslContext;
+      this.executor = executor;
+      this.size = size;
+   }
+
+   /**
+    * @return New connection; this is the last handler in the channel pipeline.
+    */
+   protected abstract C newConnection();
+
+   /**
+    * @return Human-readable state of the pool. This is invoked outside of the executor, only for informational purposes.
+    */
+   public abstract String describe();
+
+   public E endpoint() {
+      return endpoint;
+   }
+
+   public EventLoop executor() {
+      return executor;
+   }
+
+   public int connections() {
+      return connections.size();
+   }
+
+   public void start(Promise<Void> promise) {
+      executor.execute(() -> {
+         startPromise = promise;
+         pending = size;
+         if (size == 0) {
+            completeStart(null);
+         }
+         for (int i = 0; i < size; ++i) {
+            connect();
+         }
+      });
+   }
+
+   public void shutdown() {
+      shutdown = true;
+      executor.execute(() -> {
+         for (C connection : new ArrayList<>(connections)) {
+            connection.close();
+         }
+         if (startPromise != null) {
+            completeStart(new IllegalStateException("Connection pool has been shut down."));
+         }
+      });
+   }
+
+   private void connect() {
+      if (shutdown) {
+         return;
+      }
+      C connection = newConnection();
+      Bootstrap bootstrap = new Bootstrap();
+      bootstrap.channel(EventLoopFactory.INSTANCE.socketChannel());
+      bootstrap.group(executor);
+      bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
+      bootstrap.option(ChannelOption.SO_REUSEADDR, true);
+      bootstrap.option(ChannelOption.TCP_NODELAY, true);
+      bootstrap.handler(new ChannelInitializer<>() {
+         @Override
+         protected void initChannel(Channel ch) {
+            if (sslContext != null) {
+               ch.pipeline().addLast(sslContext.newHandler(ch.alloc(), endpoint.host(), endpoint.port()));
+               ch.pipeline().addLast(new TlsHandshakeHandler());
+            }
+            ch.pipeline().addLast(connection);
+         }
+      });
+
+      ChannelFuture future = bootstrap.connect(new InetSocketAddress(endpoint.host(), endpoint.port()));
+      future.addListener(f -> {
+         if (!f.isSuccess()) {
+            onFailure(f.cause());
+         }
+      });
+   }
+
+   /**
+    * Must be called by the connection when it is ready to be used.
+    */
+   public void onOpened(C connection) {
+      connections.add(connection);
+      if (startPromise != null && --pending == 0) {
+         completeStart(null);
+      }
+   }
+
+   /**
+    * Must be called by the connection when the protocol-level handshake fails.
+    */
+   public void onHandshakeFailed(C connection, String message) {
+      connection.close();
+      onFailure(new IllegalStateException("Connection to " + endpoint.url() + " failed: " + message));
+   }
+
+   /**
+    * Must be called by the connection when its channel becomes inactive.
+    *
+    * @param wasOpen True if {@link #onOpened(Connection)} was called for this connection.
+    */
+   public void onClosed(C connection, boolean wasOpen) {
+      if (!wasOpen) {
+         // failures before the handshake completed are handled elsewhere
+         return;
+      }
+      connections.remove(connection);
+      if (!shutdown) {
+         log.debug("Connection to {} closed, reconnecting.", endpoint.url());
+         connect();
+      }
+   }
+
+   private void onFailure(Throwable cause) {
+      if (startPromise != null) {
+         completeStart(cause);
+      } else if (!shutdown) {
+         log.warn("Failed to connect to {}, retrying in {} ms", endpoint.url(), RECONNECT_DELAY_MS, cause);
+         executor.schedule(this::connect, RECONNECT_DELAY_MS, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private void completeStart(Throwable cause) {
+      Promise<Void> promise = startPromise;
+      startPromise = null;
+      if (cause == null) {
+         promise.complete();
+      } else {
+         promise.fail(cause);
+      }
+   }
+
+   /**
+    * Delays the activation of the connection until the TLS handshake completes, so that the connection
+    * does not need to know about TLS at all.
+    */
+   private class TlsHandshakeHandler extends ChannelInboundHandlerAdapter {
+      @Override
+      public void channelActive(ChannelHandlerContext ctx) {
+      }
+
+      @Override
+      public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+         if (evt instanceof SslHandshakeCompletionEvent) {
+            SslHandshakeCompletionEvent completion = (SslHandshakeCompletionEvent) evt;
+            if (completion.isSuccess()) {
+               ctx.pipeline().remove(this);
+               ctx.fireChannelActive();
+            } else {
+               ctx.close();
+               onFailure(completion.cause());
+            }
+         } else {
+            ctx.fireUserEventTriggered(evt);
+         }
+      }
+   }
+
+   public interface Connection extends ChannelHandler {
+      void close();
+   }
+}
@@ -0,0 +1,47 @@
+package io.hyperfoil.core.connection;
+
+import java.util.List;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.session.Session;
+
+/**
+ * Connection pools for all endpoints in single executor, shared by all sessions running there.
+ * Plugins should subclass this to define their own {@link Session.ResourceKey}.
+ */
+public class ExecutorConnectionPools<P extends ExecutorConnectionPool<?, ?>> implements Session.Resource {
+   private final String protocol;
+   private final List<P> pools;
+
+   /**
+    * @param protocol Name of the protocol used in error messages.
+    * @param pools    Pool for each endpoint.
+    */
+   protected ExecutorConnectionPools(String protocol, List<P> pools) {
+      this.protocol = protocol;
+      this.pools = pools;
+   }
+
+   /**
+    * @param url Endpoint URL or <code>null</code> if there's only single endpoint.
+    * @return Connection pool.
+    */
+   public P pool(String url) {
+      if (url == null) {
+         if (pools.size() != 1) {
+            throw new BenchmarkDefinitionException("There are multiple " + protocol + " endpoints, select one using the url.");
+         }
+         return pools.get(0);
+      }
+      for (P pool : pools) {
+         if (pool.endpoint().url().equals(url)) {
+            return pool;
+         }
+      }
+      throw new BenchmarkDefinitionException("There is no " + protocol + " endpoint " + url);
+   }
+
+   public List<P> pools() {
+      return pools;
+   }
+}
@@ -0,0 +1,23 @@
+package io.hyperfoil.core.connection;
+
+/**
+ * Endpoint with fixed number of connections per agent; these are split among executors,
+ * see {@link ConnectionPoolsRunData}.
+ */
+public interface PooledEndpoint {
+   String url();
+
+   String host();
+
+   int port();
+
+   /**
+    * @return Number of connections for the whole benchmark, or 0 to open one connection per executor.
+    */
+   int connections();
+
+   /**
+    * @return True if the connections use TLS.
+    */
+   boolean secure();
+}
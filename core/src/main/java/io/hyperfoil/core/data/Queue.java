@@ -42,6 +42,13 @@ public class Queue implements Session.Resource {
       return concurrency;
    }
 
+   /**
+    * @return Number of sequences currently processing values from this queue.
+    */
+   public int active() {
+      return active;
+   }
+
    @Override
    public void onSessionReset(Session session) {
       reset(session);
@@ -17,6 +17,7 @@ import io.hyperfoil.api.config.Visitor;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.processor.Transformer;
 import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.impl.Util;
@@ -25,13 +26,45 @@ import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.function.SerializableFunction;
 import io.netty.buffer.ByteBuf;
 
-public class Pattern implements SerializableFunction<Session, String>, SerializableBiConsumer<Session, ByteBuf>, Transformer {
+/**
+ * Formats session variables into a string or buffer. Components that transform the value (encoding,
+ * replacement or integer formatting) keep the last result in a session-local cache and write it again
+ * if the variable has not changed. Caches and the builder used to create strings are reserved as a session
+ * resource; if the pattern was not reserved in the session it works without them.
+ */
+public class Pattern implements SerializableFunction<Session, String>, SerializableBiConsumer<Session, ByteBuf>, Transformer,
+      ResourceUtilizer, Session.ResourceKey<Pattern.Context> {
    private static final int VAR_LENGTH_ESTIMATE = 32;
    private static final String REPLACE = "replace";
+   private static final Format URL_ENCODE = new Format() {
+      @Override
+      public String apply(String value) {
+         return urlEncode(value);
+      }
+
+      @Override
+      public void encode(CharSequence value, ByteBuf buf) {
+         Util.urlEncode(value, buf);
+      }
+   };
+   private static final Format BASE64_ENCODE = new Format() {
+      @Override
+      public String apply(String value) {
+         return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+      }
+
+      @Override
+      public void encode(CharSequence value, ByteBuf buf) {
+         Util.base64Encode(value, buf);
+      }
+   };
+   private static final Format BASE64_DECODE = value -> new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
    private final Component[] components;
    @Visitor.Ignore
    private int lengthEstimate;
    private final boolean urlEncode;
+   @Visitor.Ignore
+   private int cacheSlots;
 
    public Pattern(String str, boolean urlEncode) {
       this(str, urlEncode, false);
@@ -64,18 +97,16 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
             if (colon >= 0 && colon < closePar) {
                String format = str.substring(openPar + 2, colon).trim();
                ReadAccess key = SessionFactory.readAccess(str.substring(colon + 1, closePar).trim());
-               // TODO: we can't pre-allocate formatters here but we could cache them in the session
                // TODO: find a better place for this hack
                if (format.equalsIgnoreCase("urlencode")) {
                   if (urlEncode) {
                      throw new BenchmarkDefinitionException("It seems you're trying to URL-encode value twice.");
                   }
-                  components.add(new VarComponent(key, allowUnset, Pattern::urlEncode));
-                  // TODO: More efficient encoding/decoding: we're converting object to string, then to byte array and then allocating another string
+                  components.add(new VarComponent(key, allowUnset, URL_ENCODE, cacheSlots++));
                } else if (format.equalsIgnoreCase("base64encode")) {
-                  components.add(new VarComponent(key, allowUnset, s -> Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8))));
+                  components.add(new VarComponent(key, allowUnset, BASE64_ENCODE, cacheSlots++));
                } else if (format.equalsIgnoreCase("base64decode")) {
-                  components.add(new VarComponent(key, allowUnset, s -> new String(Base64.getDecoder().decode(s), StandardCharsets.UTF_8)));
+                  components.add(new VarComponent(key, allowUnset, BASE64_DECODE, cacheSlots++));
                } else if (format.startsWith(REPLACE)) {
                   if (format.length() == REPLACE.length()) {
                      throw new BenchmarkDefinitionException(wrongReplaceSyntax(str, format));
@@ -98,12 +129,12 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
                      }
                   }
                   if (all) {
-                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceAll(replacement)));
+                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceAll(replacement), cacheSlots++));
                   } else {
-                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceFirst(replacement)));
+                     components.add(new VarComponent(key, allowUnset, value -> regex.matcher(value).replaceFirst(replacement), cacheSlots++));
                   }
                } else if (format.endsWith("d") || format.endsWith("o") || format.endsWith("x") || format.endsWith("X")) {
-                  components.add(new FormatIntComponent(format, key));
+                  components.add(new FormatIntComponent(format, key, cacheSlots++));
                } else {
                   throw new IllegalArgumentException("Cannot use format string '" + format + "', only integers are supported");
                }
@@ -111,7 +142,11 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
                throw new BenchmarkDefinitionException("Missing closing parentheses (}) in '" + str + "'");
             } else {
                ReadAccess key = SessionFactory.readAccess(str.substring(openPar + 2, closePar).trim());
-               components.add(new VarComponent(key, allowUnset, urlEncode ? Pattern::urlEncode : null));
+               if (urlEncode) {
+                  components.add(new VarComponent(key, allowUnset, URL_ENCODE, cacheSlots++));
+               } else {
+                  components.add(new VarComponent(key, allowUnset, null, -1));
+               }
             }
             lastSearch = last = closePar + 1;
          }
@@ -133,22 +168,42 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
       }
    }
 
+   private boolean isConstant() {
+      return components.length == 1 && components[0] instanceof StringComponent;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      if (!isConstant()) {
+         // The caches only depend on variable values so these can be shared by concurrent sequences
+         session.declareResource(this, () -> new Context(cacheSlots), true);
+      }
+   }
+
    @Override
    public String apply(Session session) {
-      if (components.length == 1 && components[0] instanceof StringComponent) {
+      if (isConstant()) {
          return ((StringComponent) components[0]).substring;
       }
-      StringBuilder sb = new StringBuilder(lengthEstimate);
+      Context ctx = session.getResource(this);
+      StringBuilder sb;
+      if (ctx == null) {
+         sb = new StringBuilder(lengthEstimate);
+      } else {
+         sb = ctx.builder;
+         sb.setLength(0);
+      }
       for (Component c : components) {
-         c.accept(session, sb);
+         c.accept(session, sb, ctx);
       }
       return sb.toString();
    }
 
    @Override
    public void accept(Session session, ByteBuf byteBuf) {
+      Context ctx = isConstant() ? null : session.getResource(this);
       for (Component c : components) {
-         c.accept(session, byteBuf);
+         c.accept(session, byteBuf, ctx);
       }
    }
 
@@ -164,9 +219,85 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
    }
 
    interface Component extends Serializable {
-      void accept(Session session, StringBuilder sb);
+      void accept(Session session, StringBuilder sb, Context ctx);
+
+      void accept(Session session, ByteBuf buf, Context ctx);
+   }
+
+   interface Format extends Serializable {
+      String apply(String value);
+
+      default void encode(CharSequence value, ByteBuf buf) {
+         Util.string2byteBuf(apply(value.toString()), buf);
+      }
+   }
+
+   public static class Context implements Session.Resource {
+      private final StringBuilder builder = new StringBuilder();
+      private final CachedValue[] cache;
 
-      void accept(Session session, ByteBuf buf);
+      Context(int cacheSlots) {
+         cache = new CachedValue[cacheSlots];
+         for (int i = 0; i < cacheSlots; ++i) {
+            cache[i] = new CachedValue();
+         }
+      }
+   }
+
+   /**
+    * Last formatted value of a component. Only immutable values (strings and integers) are cached.
+    */
+   private static class CachedValue {
+      private static final byte[] EMPTY = new byte[0];
+      private Object value;
+      private int intValue;
+      private boolean intSet;
+      private String string;
+      private byte[] bytes = EMPTY;
+      private int length = -1;
+
+      static CachedValue get(Context ctx, int slot) {
+         return ctx == null || slot < 0 ? null : ctx.cache[slot];
+      }
+
+      boolean update(Object value) {
+         if (this.value == value || (this.value != null && this.value.equals(value))) {
+            return true;
+         }
+         this.value = value;
+         intSet = false;
+         string = null;
+         length = -1;
+         return false;
+      }
+
+      boolean update(int value) {
+         if (intSet && intValue == value) {
+            return true;
+         }
+         this.value = null;
+         intValue = value;
+         intSet = true;
+         string = null;
+         length = -1;
+         return false;
+      }
+
+      boolean writeTo(ByteBuf buf) {
+         if (length < 0) {
+            return false;
+         }
+         buf.writeBytes(bytes, 0, length);
+         return true;
+      }
+
+      void store(ByteBuf buf, int start) {
+         length = buf.writerIndex() - start;
+         if (bytes.length < length) {
+            bytes = new byte[Math.max(length, 2 * bytes.length)];
+         }
+         buf.getBytes(start, bytes, 0, length);
+      }
    }
 
    private static class Generator implements SerializableBiFunction<Session, Connection, ByteBuf> {
@@ -198,12 +329,12 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
       }
 
       @Override
-      public void accept(Session s, StringBuilder sb) {
+      public void accept(Session s, StringBuilder sb, Context ctx) {
          sb.append(substring);
       }
 
       @Override
-      public void accept(Session session, ByteBuf buf) {
+      public void accept(Session session, ByteBuf buf, Context ctx) {
          buf.writeBytes(bytes);
       }
    }
@@ -211,46 +342,68 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
    private class FormatIntComponent implements Component {
       private final String format;
       private final ReadAccess key;
+      private final int cacheSlot;
 
-      FormatIntComponent(String format, ReadAccess key) {
+      FormatIntComponent(String format, ReadAccess key, int cacheSlot) {
          this.format = format;
          this.key = key;
+         this.cacheSlot = cacheSlot;
       }
 
-      private String string(Session session) {
-         return String.format(this.format, key.getInt(session));
+      private String string(int value) {
+         String str = String.format(this.format, value);
+         return urlEncode ? urlEncode(str) : str;
       }
 
       @Override
-      public void accept(Session s, StringBuilder sb) {
-         String str = string(s);
-         sb.append(urlEncode ? urlEncode(str) : str);
+      public void accept(Session s, StringBuilder sb, Context ctx) {
+         int value = key.getInt(s);
+         CachedValue cached = CachedValue.get(ctx, cacheSlot);
+         if (cached == null) {
+            sb.append(string(value));
+         } else {
+            if (!cached.update(value) || cached.string == null) {
+               cached.string = string(value);
+            }
+            sb.append(cached.string);
+         }
       }
 
       @Override
-      public void accept(Session session, ByteBuf buf) {
-         String str = string(session);
+      public void accept(Session session, ByteBuf buf, Context ctx) {
+         int value = key.getInt(session);
+         CachedValue cached = CachedValue.get(ctx, cacheSlot);
+         if (cached != null && cached.update(value) && cached.writeTo(buf)) {
+            return;
+         }
+         int start = buf.writerIndex();
+         String str = String.format(this.format, value);
          if (urlEncode) {
             Util.urlEncode(str, buf);
          } else {
             Util.string2byteBuf(str, buf);
          }
+         if (cached != null) {
+            cached.store(buf, start);
+         }
       }
    }
 
    private static class VarComponent implements Component {
       private final ReadAccess key;
       private final boolean allowUnset;
-      private final SerializableFunction<String, String> transform;
+      private final Format format;
+      private final int cacheSlot;
 
-      VarComponent(ReadAccess key, boolean allowUnset, SerializableFunction<String, String> transform) {
+      VarComponent(ReadAccess key, boolean allowUnset, Format format, int cacheSlot) {
          this.key = key;
          this.allowUnset = allowUnset;
-         this.transform = transform;
+         this.format = format;
+         this.cacheSlot = cacheSlot;
       }
 
       @Override
-      public void accept(Session session, StringBuilder sb) {
+      public void accept(Session session, StringBuilder sb, Context ctx) {
          Session.Var var = key.getVar(session);
          if (!var.isSet()) {
             if (allowUnset) {
@@ -261,11 +414,24 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
          } else {
             switch (var.type()) {
                case OBJECT:
-                  String str = Util.prettyPrintObject(var.objectValue(session));
-                  if (transform != null) {
-                     str = transform.apply(str);
+                  Object o = var.objectValue(session);
+                  if (format == null) {
+                     if (o instanceof CharSequence) {
+                        sb.append((CharSequence) o);
+                     } else {
+                        sb.append(Util.prettyPrintObject(o));
+                     }
+                     break;
+                  }
+                  CachedValue cached = o instanceof String ? CachedValue.get(ctx, cacheSlot) : null;
+                  if (cached == null) {
+                     sb.append(format.apply(Util.prettyPrintObject(o)));
+                  } else {
+                     if (!cached.update(o) || cached.string == null) {
+                        cached.string = format.apply((String) o);
+                     }
+                     sb.append(cached.string);
                   }
-                  sb.append(str);
                   break;
                case INTEGER:
                   sb.append(var.intValue(session));
@@ -277,7 +443,7 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
       }
 
       @Override
-      public void accept(Session session, ByteBuf buf) {
+      public void accept(Session session, ByteBuf buf, Context ctx) {
          Session.Var var = key.getVar(session);
          if (!var.isSet()) {
             throw new IllegalArgumentException("Variable " + key + " is not set!");
@@ -285,14 +451,23 @@ public class Pattern implements SerializableFunction<Session, String>, Serializa
             switch (var.type()) {
                case OBJECT:
                   Object o = var.objectValue(session);
-                  if (o != null) {
-                     CharSequence str = o instanceof CharSequence ? (CharSequence) o : Util.prettyPrintObject(o);
-                     if (transform != null) {
-                        str = transform.apply(str.toString());
-                     }
-                     Util.string2byteBuf(str, buf);
-                  } else {
+                  if (o == null) {
                      Util.string2byteBuf("null", buf);
+                     break;
+                  }
+                  CharSequence str = o instanceof CharSequence ? (CharSequence) o : Util.prettyPrintObject(o);
+                  if (format == null) {
+                     Util.string2byteBuf(str, buf);
+                     break;
+                  }
+                  CachedValue cached = o instanceof String ? CachedValue.get(ctx, cacheSlot) : null;
+                  if (cached != null && cached.update(o) && cached.writeTo(buf)) {
+                     break;
+                  }
+                  int start = buf.writerIndex();
+                  format.encode(str, buf);
+                  if (cached != null) {
+                     cached.store(buf, start);
                   }
                   break;
                case INTEGER:
@@ -61,7 +61,7 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, InflaterResource::new);
+      session.declareReusableResource(this, InflaterResource::new);
    }
 
    public class InflaterResource implements Session.Resource {
@@ -84,6 +84,13 @@ public class GzipInflatorProcessor extends MultiProcessor implements ResourceUti
          output.release();
       }
 
+      @Override
+      public void onSessionReset(Session session) {
+         state = State.UNINITIALIZED;
+         bufSize = 0;
+         inflater.reset();
+      }
+
       public void process(Session session, ByteBuf data, int offset, int length) {
          int read;
          while (length > 0) {
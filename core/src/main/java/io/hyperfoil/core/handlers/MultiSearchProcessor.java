@@ -0,0 +1,296 @@
+package io.hyperfoil.core.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.MappingListBuilder;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
+import io.hyperfoil.core.util.AhoCorasick;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Searches for any number of begin-end pairs in single pass using {@link AhoCorasick} automaton; the data between
+ * begin and end is passed to the pattern's processor. As with {@link SearchHandler}, after a begin is found
+ * only the end is looked up, and the search restarts after each end.
+ * Does not handle the intricacies of UTF-8 mapping same strings to different bytes.
+ */
+public class MultiSearchProcessor implements Processor, ResourceUtilizer, Session.ResourceKey<MultiSearchProcessor.Context> {
+   private static final int MAX_PARTS = 16;
+
+   // keyword 2 * i is begin and 2 * i + 1 is end of i-th pattern
+   private final AhoCorasick automaton;
+   private final Processor[] processors;
+
+   public MultiSearchProcessor(String[] begins, String[] ends, Processor[] processors) {
+      assert begins.length == ends.length && begins.length == processors.length;
+      byte[][] keywords = new byte[2 * begins.length][];
+      for (int i = 0; i < begins.length; ++i) {
+         keywords[2 * i] = begins[i].getBytes(StandardCharsets.UTF_8);
+         keywords[2 * i + 1] = ends[i].getBytes(StandardCharsets.UTF_8);
+      }
+      this.automaton = new AhoCorasick(keywords);
+      this.processors = processors;
+   }
+
+   @Override
+   public void before(Session session) {
+      session.getResource(this).reset();
+      for (Processor p : processors) {
+         p.before(session);
+      }
+   }
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      Context ctx = session.getResource(this);
+      ctx.add(data, offset, length);
+      int state = ctx.state;
+      long position = ctx.position;
+      for (int i = offset, end = offset + length; i < end; ++i) {
+         state = automaton.next(state, data.getByte(i));
+         ++position;
+         for (int o = automaton.outputsStart(state), outputsEnd = automaton.outputsEnd(state); o < outputsEnd; ++o) {
+            int keyword = automaton.output(o);
+            int pattern = keyword >> 1;
+            long mark = ctx.marks[pattern];
+            if ((keyword & 1) == 0) {
+               if (mark < 0) {
+                  ctx.marks[pattern] = position;
+               }
+            } else if (mark >= 0 && position - automaton.keywordLength(keyword) >= mark) {
+               ctx.marks[pattern] = -1;
+               ctx.fire(session, pattern, processors[pattern], mark, position - automaton.keywordLength(keyword));
+            }
+         }
+      }
+      ctx.state = state;
+      ctx.position = position;
+   }
+
+   @Override
+   public void after(Session session) {
+      // release buffers
+      session.getResource(this).reset();
+      for (Processor p : processors) {
+         p.after(session);
+      }
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(this, () -> new Context(processors.length));
+   }
+
+   static class Context implements Session.Resource {
+      final ByteBuf[] parts = new ByteBuf[MAX_PARTS];
+      final int[] offsets = new int[MAX_PARTS];
+      final int[] lengths = new int[MAX_PARTS];
+      // position of the first byte of the part in the whole response
+      final long[] positions = new long[MAX_PARTS];
+      // position after the matched begin or -1 when looking for begin
+      final long[] marks;
+      // content of a pending match from its mark up to the start of the first held part,
+      // copied out of parts that had to be released before the end was found
+      final ByteBuf[] pending;
+      int numParts;
+      int state;
+      long position;
+
+      Context(int patterns) {
+         marks = new long[patterns];
+         pending = new ByteBuf[patterns];
+         Arrays.fill(marks, -1);
+      }
+
+      void add(ByteBuf data, int offset, int length) {
+         if (numParts == MAX_PARTS) {
+            long partStart = positions[0];
+            long partEnd = partStart + lengths[0];
+            for (int p = 0; p < marks.length; ++p) {
+               long mark = marks[p];
+               if (mark >= 0 && mark < partEnd) {
+                  long from = Math.max(mark, partStart);
+                  if (pending[p] == null) {
+                     pending[p] = ByteBufAllocator.DEFAULT.buffer();
+                  }
+                  pending[p].writeBytes(parts[0], offsets[0] + (int) (from - partStart), (int) (partEnd - from));
+               }
+            }
+            parts[0].release();
+            System.arraycopy(parts, 1, parts, 0, MAX_PARTS - 1);
+            System.arraycopy(offsets, 1, offsets, 0, MAX_PARTS - 1);
+            System.arraycopy(lengths, 1, lengths, 0, MAX_PARTS - 1);
+            System.arraycopy(positions, 1, positions, 0, MAX_PARTS - 1);
+            --numParts;
+         }
+         parts[numParts] = data.retain();
+         offsets[numParts] = offset;
+         lengths[numParts] = length;
+         positions[numParts] = position;
+         ++numParts;
+      }
+
+      void fire(Session session, int pattern, Processor processor, long from, long to) {
+         ByteBuf copied = pending[pattern];
+         if (copied != null && copied.isReadable()) {
+            // the copy spans from the mark to the start of the first held part
+            int copiedLength = (int) Math.min(copied.readableBytes(), to - from);
+            boolean isLast = from + copiedLength == to;
+            processor.process(session, copied, copied.readerIndex(), copiedLength, isLast);
+            from += copied.readableBytes();
+            copied.clear();
+            if (isLast) {
+               return;
+            }
+         }
+         for (int i = 0; i < numParts; ++i) {
+            long partStart = positions[i];
+            long partEnd = partStart + lengths[i];
+            if (partEnd < from || (partEnd == from && to > from)) {
+               continue;
+            }
+            long pieceStart = Math.max(from, partStart);
+            long pieceEnd = Math.min(to, partEnd);
+            boolean isLast = pieceEnd == to;
+            // skip 0-length process calls unless the whole match is empty
+            if (pieceEnd > pieceStart || isLast) {
+               processor.process(session, parts[i], offsets[i] + (int) (pieceStart - partStart), (int) (pieceEnd - pieceStart), isLast);
+            }
+            if (isLast) {
+               return;
+            }
+         }
+      }
+
+      void reset() {
+         for (int i = 0; i < numParts; ++i) {
+            parts[i].release();
+            parts[i] = null;
+         }
+         numParts = 0;
+         for (int i = 0; i < pending.length; ++i) {
+            if (pending[i] != null) {
+               pending[i].release();
+               pending[i] = null;
+            }
+         }
+         state = AhoCorasick.INITIAL_STATE;
+         position = 0;
+         Arrays.fill(marks, -1);
+      }
+   }
+
+   /**
+    * Searches for multiple begin-end pairs in single pass through the data and passes the content between
+    * begin and end to processors associated with the pair. This is more efficient than running a separate search
+    * for each pair on large responses.
+    */
+   @MetaInfServices(Processor.Builder.class)
+   @Name("search")
+   public static class Builder implements Processor.Builder {
+      private final PatternsBuilder patterns = new PatternsBuilder();
+
+      /**
+       * Begin-end pairs with processors for the content between them.
+       *
+       * @return Builder.
+       */
+      public PatternsBuilder patterns() {
+         return patterns;
+      }
+
+      @Override
+      public Processor build(boolean fragmented) {
+         if (patterns.patterns.isEmpty()) {
+            throw new BenchmarkDefinitionException("Search processor does not define any patterns.");
+         }
+         int size = patterns.patterns.size();
+         String[] begins = new String[size];
+         String[] ends = new String[size];
+         Processor[] processors = new Processor[size];
+         for (int i = 0; i < size; ++i) {
+            PatternBuilder pattern = patterns.patterns.get(i);
+            if (pattern.begin == null || pattern.begin.isEmpty() || pattern.end == null || pattern.end.isEmpty()) {
+               throw new BenchmarkDefinitionException("Search pattern must define non-empty begin and end.");
+            } else if (pattern.processors.isEmpty()) {
+               throw new BenchmarkDefinitionException("Search pattern " + pattern.begin + "..." + pattern.end + " does not define any processor.");
+            }
+            begins[i] = pattern.begin;
+            ends[i] = pattern.end;
+            // the content can be always split into multiple parts
+            Processor[] delegates = pattern.processors.stream().map(p -> p.build(true)).toArray(Processor[]::new);
+            processors[i] = delegates.length == 1 ? delegates[0] : new MultiProcessor(delegates);
+         }
+         return new MultiSearchProcessor(begins, ends, processors);
+      }
+   }
+
+   public static class PatternsBuilder implements MappingListBuilder<PatternBuilder> {
+      private final List<PatternBuilder> patterns = new ArrayList<>();
+
+      @Override
+      public PatternBuilder addItem() {
+         PatternBuilder builder = new PatternBuilder();
+         patterns.add(builder);
+         return builder;
+      }
+   }
+
+   public static class PatternBuilder {
+      private String begin;
+      private String end;
+      private final List<Processor.Builder> processors = new ArrayList<>();
+
+      /**
+       * Text preceding the searched content.
+       *
+       * @param begin Text.
+       * @return Self.
+       */
+      public PatternBuilder begin(String begin) {
+         this.begin = begin;
+         return this;
+      }
+
+      /**
+       * Text following the searched content.
+       *
+       * @param end Text.
+       * @return Self.
+       */
+      public PatternBuilder end(String end) {
+         this.end = end;
+         return this;
+      }
+
+      public PatternBuilder processor(Processor.Builder processor) {
+         this.processors.add(processor);
+         return this;
+      }
+
+      public PatternBuilder processors(Collection<? extends Processor.Builder> processors) {
+         this.processors.addAll(processors);
+         return this;
+      }
+
+      /**
+       * One or more processors receiving the content between begin and end.
+       *
+       * @return Builder.
+       */
+      public ServiceLoadedBuilderProvider<Processor.Builder> processor() {
+         return new ServiceLoadedBuilderProvider<>(Processor.Builder.class, this::processor);
+      }
+   }
+}
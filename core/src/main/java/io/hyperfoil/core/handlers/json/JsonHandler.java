@@ -54,7 +54,7 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
 
    @Override
    public void reserve(Session session) {
-      session.declareResource(this, Context::new);
+      session.declareReusableResource(this, Context::new);
    }
 
    @Override
@@ -77,6 +77,11 @@ public class JsonHandler extends JsonParser implements Processor, ResourceUtiliz
          return actualStream;
       }
 
+      @Override
+      public void onSessionReset(Session session) {
+         reset();
+      }
+
       @Override
       protected void replaceConsumer(Void ignored, Session session, ByteStream data, int offset, int length, boolean lastFragment) {
          replace.transform(session, ((ByteBufByteStream) data).buffer, offset, length, lastFragment, replaceBuffer);
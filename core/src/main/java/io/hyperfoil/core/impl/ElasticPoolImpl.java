@@ -1,16 +1,20 @@
 package io.hyperfoil.core.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
 import io.hyperfoil.api.collection.ElasticPool;
 
 public class ElasticPoolImpl<T> implements ElasticPool<T> {
    protected final LongAdder used = new LongAdder();
-   private final Supplier<T> initSupplier;
+   private final IntFunction<? extends Collection<T>> initSupplier;
    private final Supplier<T> depletionSupplier;
    protected volatile int minUsed;
    protected volatile int maxUsed;
@@ -18,6 +22,21 @@ public class ElasticPoolImpl<T> implements ElasticPool<T> {
    private final BlockingQueue<T> secondaryQueue = new LinkedBlockingQueue<>();
 
    public ElasticPoolImpl(Supplier<T> initSupplier, Supplier<T> depletionSupplier) {
+      this(count -> {
+         List<T> list = new ArrayList<>(count);
+         for (int i = 0; i < count; ++i) {
+            list.add(initSupplier.get());
+         }
+         return list;
+      }, depletionSupplier);
+   }
+
+   /**
+    * @param initSupplier Creates requested number of objects when the pool is reserved; this allows creating them
+    *                     in bulk, possibly in parallel.
+    * @param depletionSupplier Called when the pool is depleted.
+    */
+   public ElasticPoolImpl(IntFunction<? extends Collection<T>> initSupplier, Supplier<T> depletionSupplier) {
       this.initSupplier = initSupplier;
       this.depletionSupplier = depletionSupplier;
    }
@@ -57,8 +76,8 @@ public class ElasticPoolImpl<T> implements ElasticPool<T> {
       if (primaryQueue == null || primaryQueue.size() < capacity) {
          primaryQueue = new ArrayBlockingQueue<>(capacity);
       }
-      while (primaryQueue.size() < capacity) {
-         primaryQueue.add(initSupplier.get());
+      if (primaryQueue.size() < capacity) {
+         primaryQueue.addAll(initSupplier.apply(capacity - primaryQueue.size()));
       }
    }
 
@@ -0,0 +1,308 @@
+package io.hyperfoil.core.impl;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.session.AgentData;
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.SessionStatistics;
+import io.hyperfoil.core.api.PluginRunData;
+import io.hyperfoil.core.session.AgentDataImpl;
+import io.hyperfoil.core.session.GlobalDataImpl;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.session.ThreadDataImpl;
+import io.hyperfoil.impl.Util;
+import io.hyperfoil.internal.Properties;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+
+/**
+ * Runs the scenarios of the benchmark against stub servers provided by the plugins until JIT compilation settles,
+ * so that the measured phases start with compiled pipeline handlers, response parsers and steps rather than
+ * in the interpreter. The warm-up does not load the system under test. Sessions, statistics and global data used
+ * by the warm-up are separate from those of the benchmark and are discarded afterwards.
+ */
+class JitWarmup {
+   private static final Logger log = LogManager.getLogger(JitWarmup.class);
+   private static final String RUN_ID = "jit-warmup";
+   private static final long SAMPLE_PERIOD = 500;
+   // Compilation is considered settled when the compilation time grows by less than this amount (in ms)
+   // in consecutive sample periods.
+   private static final long SETTLED_COMPILATION_TIME = 5;
+   private static final int SETTLED_SAMPLES = 2;
+   private static final long TERMINATION_TIMEOUT = 5000;
+
+   private final Benchmark benchmark;
+   private final int agentId;
+   private final EventLoop[] executors;
+   private final PluginRunData[] runData;
+   private final long maxDuration;
+   private final int sessionsPerExecutor;
+
+   JitWarmup(Benchmark benchmark, int agentId, EventLoop[] executors, PluginRunData[] runData) {
+      this.benchmark = benchmark;
+      this.agentId = agentId;
+      this.executors = executors;
+      this.runData = runData;
+      this.maxDuration = Properties.getLong(Properties.JIT_WARMUP_MAX_DURATION, 0);
+      this.sessionsPerExecutor = Properties.getInt(Properties.JIT_WARMUP_SESSIONS, 4);
+   }
+
+   static boolean isEnabled() {
+      return Properties.getLong(Properties.JIT_WARMUP_MAX_DURATION, 0) > 0;
+   }
+
+   /**
+    * Blocks until the compilation settles or the maximum duration elapses.
+    *
+    * @return Duration of the warm-up, compilation time and number of completed sessions,
+    * or <code>null</code> if the warm-up could not be run.
+    */
+   Map<String, Long> run() {
+      PluginRunData[] warmupData = new PluginRunData[runData.length];
+      for (int i = 0; i < runData.length; ++i) {
+         warmupData[i] = runData[i].createWarmupRunData(benchmark, executors, agentId);
+         if (warmupData[i] == null) {
+            log.info("{} does not support JIT warm-up, skipping warm-up.", runData[i].getClass().getSimpleName());
+            shutdown(warmupData);
+            return null;
+         }
+      }
+      List<WarmupPhase> phases = new ArrayList<>();
+      List<Session> allSessions = new ArrayList<>();
+      ThreadDataImpl[] threadData = new ThreadDataImpl[executors.length];
+      try {
+         openConnections(warmupData);
+         createPhases(warmupData, threadData, phases, allSessions);
+         return exec(phases);
+      } finally {
+         shutdown(warmupData);
+         for (Session session : allSessions) {
+            SessionFactory.destroy(session);
+         }
+         for (ThreadDataImpl td : threadData) {
+            if (td != null) {
+               td.destroyResources();
+            }
+         }
+      }
+   }
+
+   private void openConnections(PluginRunData[] warmupData) {
+      @SuppressWarnings("rawtypes") List<Future> futures = new ArrayList<>();
+      for (PluginRunData data : warmupData) {
+         data.openConnections(futures::add);
+      }
+      await(CompositeFuture.join(futures).toCompletionStage().toCompletableFuture(), "opening connections to stub servers");
+   }
+
+   private void createPhases(PluginRunData[] warmupData, ThreadDataImpl[] threadData, List<WarmupPhase> phases, List<Session> allSessions) {
+      AgentData agentData = new AgentDataImpl();
+      GlobalDataImpl[] globalData = new GlobalDataImpl[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         threadData[i] = new ThreadDataImpl();
+         globalData[i] = new GlobalDataImpl(executors[i]);
+      }
+      // Phases sharing the scenario would warm up the same code
+      Map<Scenario, Phase> scenarios = new IdentityHashMap<>();
+      for (Phase def : benchmark.phases()) {
+         if (def.sharedResources != null && def.scenario != null) {
+            scenarios.putIfAbsent(def.scenario, def);
+         }
+      }
+      int uniqueId = 0;
+      for (Phase def : scenarios.values()) {
+         List<Session> sessions = Collections.synchronizedList(new ArrayList<>());
+         WarmupPhase phase = new WarmupPhase(def, agentId);
+         phase.setComponents(null, sessions, (p, status, sessionLimitExceeded, error) -> {
+            if (status == PhaseInstance.Status.TERMINATED) {
+               phase.terminated.countDown();
+            }
+            return Util.COMPLETED_VOID_FUTURE;
+         });
+         CompletableFuture<?>[] futures = new CompletableFuture[executors.length];
+         for (int i = 0; i < executors.length; ++i) {
+            int executorId = i;
+            int firstId = uniqueId;
+            uniqueId += sessionsPerExecutor;
+            SessionStatistics statistics = new SessionStatistics();
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            futures[i] = future;
+            executors[i].execute(() -> {
+               try {
+                  for (int j = 0; j < sessionsPerExecutor; ++j) {
+                     Session session = SessionFactory.create(def.scenario, executorId, firstId + j);
+                     session.attach(executors[executorId], threadData[executorId], agentData, globalData[executorId], statistics);
+                     for (PluginRunData data : warmupData) {
+                        data.initSession(session, executorId, def.scenario, Clock.systemDefaultZone());
+                     }
+                     session.reserve(def.scenario);
+                     sessions.add(session);
+                  }
+                  future.complete(null);
+               } catch (Throwable t) {
+                  future.completeExceptionally(t);
+               }
+            });
+         }
+         try {
+            await(CompletableFuture.allOf(futures), "creating sessions");
+         } finally {
+            allSessions.addAll(sessions);
+         }
+         phases.add(phase);
+      }
+   }
+
+   private Map<String, Long> exec(List<WarmupPhase> phases) {
+      CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+      boolean monitorCompilation = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+      if (!monitorCompilation) {
+         log.warn("Compilation time monitoring is not supported, JIT warm-up will run for {} ms", maxDuration);
+      }
+      long startCompilationTime = monitorCompilation ? compilation.getTotalCompilationTime() : 0;
+      long startTime = System.nanoTime();
+      log.info("Starting JIT warm-up of {} scenario(s) with {} session(s) per executor", phases.size(), sessionsPerExecutor);
+      for (WarmupPhase phase : phases) {
+         phase.start(null);
+      }
+      long lastCompilationTime = startCompilationTime;
+      int settledSamples = 0;
+      boolean settled = false;
+      long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(maxDuration);
+      while (!settled && System.nanoTime() < deadline && phases.stream().noneMatch(p -> p.status().isFinished())) {
+         try {
+            Thread.sleep(Math.min(SAMPLE_PERIOD, Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+         }
+         if (monitorCompilation) {
+            long compilationTime = compilation.getTotalCompilationTime();
+            settledSamples = compilationTime - lastCompilationTime < SETTLED_COMPILATION_TIME ? settledSamples + 1 : 0;
+            settled = settledSamples >= SETTLED_SAMPLES;
+            lastCompilationTime = compilationTime;
+         }
+      }
+      for (WarmupPhase phase : phases) {
+         if (phase.status() == PhaseInstance.Status.RUNNING) {
+            phase.finish();
+         }
+      }
+      long sessions = 0;
+      for (WarmupPhase phase : phases) {
+         awaitTermination(phase);
+         if (phase.getError() != null) {
+            log.warn("JIT warm-up of phase {} failed, the benchmark will continue.", phase.definition().name, phase.getError());
+         }
+         sessions += phase.completedSessions.sum();
+      }
+      long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      long totalCompilationTime = monitorCompilation ? compilation.getTotalCompilationTime() : -1;
+      Map<String, Long> report = new LinkedHashMap<>();
+      report.put("duration", duration);
+      report.put("sessions", sessions);
+      report.put("compilationTime", monitorCompilation ? totalCompilationTime - startCompilationTime : -1);
+      report.put("totalCompilationTime", totalCompilationTime);
+      log.info("JIT warm-up {} after {} ms: {} sessions completed, compilation took {} ms (total {} ms)",
+            settled ? "settled" : "stopped", duration, sessions, report.get("compilationTime"), totalCompilationTime);
+      return report;
+   }
+
+   private void awaitTermination(WarmupPhase phase) {
+      try {
+         if (!phase.terminated.await(TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            log.warn("JIT warm-up sessions of phase {} did not finish in {} ms, terminating.", phase.definition().name, TERMINATION_TIMEOUT);
+            phase.terminate();
+            if (!phase.terminated.await(TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+               log.warn("JIT warm-up sessions of phase {} did not terminate.", phase.definition().name);
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void await(CompletableFuture<?> future, String action) {
+      try {
+         future.get(TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while " + action, e);
+      } catch (ExecutionException e) {
+         throw new IllegalStateException("JIT warm-up failed " + action, e.getCause());
+      } catch (TimeoutException e) {
+         throw new IllegalStateException("JIT warm-up timed out " + action, e);
+      }
+   }
+
+   private static void shutdown(PluginRunData[] warmupData) {
+      for (PluginRunData data : warmupData) {
+         if (data != null) {
+            data.shutdown();
+         }
+      }
+   }
+
+   /**
+    * Restarts each session as soon as it completes, until the phase is finished.
+    */
+   private static class WarmupPhase extends PhaseInstanceImpl {
+      final CountDownLatch terminated = new CountDownLatch(1);
+      final LongAdder completedSessions = new LongAdder();
+
+      WarmupPhase(Phase def, int agentId) {
+         super(def, RUN_ID, agentId);
+      }
+
+      @Override
+      public void proceed(EventExecutorGroup executorGroup) {
+         assert activeSessions.get() == 0;
+         synchronized (sessionList) {
+            for (Session session : sessionList) {
+               activeSessions.incrementAndGet();
+               session.start(this);
+            }
+         }
+      }
+
+      @Override
+      public void reserveSessions() {
+      }
+
+      @Override
+      public void notifyFinished(Session session) {
+         if (session != null) {
+            completedSessions.increment();
+         }
+         if (status.isFinished() || session == null) {
+            // there's no session pool, sessions are destroyed after the warm-up
+            super.notifyFinished(null);
+         } else {
+            session.start(this);
+         }
+      }
+   }
+}
@@ -1,5 +1,6 @@
 package io.hyperfoil.core.impl;
 
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
@@ -48,6 +49,9 @@ public class LocalSimulationRunner extends SimulationRunner {
       try {
          latch.await();
          statsExecutor.scheduleAtFixedRate(this::collectStats, 0, benchmark.statisticsCollectionPeriod(), TimeUnit.MILLISECONDS);
+         // there are no other agents but the counters still need to be synchronized between executors
+         statsExecutor.scheduleWithFixedDelay(() -> syncGlobalCounters(deltas -> CompletableFuture.completedFuture(Collections.emptyMap())).join(),
+               GLOBAL_COUNTER_SYNC_PERIOD, GLOBAL_COUNTER_SYNC_PERIOD, TimeUnit.MILLISECONDS);
          // Exec is blocking and therefore must not run on the event-loop thread
          exec();
          for (PhaseInstance phase : instances.values()) {
@@ -60,6 +64,8 @@ public class LocalSimulationRunner extends SimulationRunner {
       } finally {
          statsExecutor.shutdown();
          shutdown();
+         // nobody collects the recordings in standalone runs
+         deleteRecordings(recordings());
       }
    }
 
@@ -0,0 +1,8 @@
+package io.hyperfoil.core.impl;
+
+/**
+ * Receives progress of session construction while the phases are being initialized.
+ */
+public interface SessionInitProgressListener {
+   void onProgress(String phase, int created, int total);
+}
@@ -1,20 +1,32 @@
 package io.hyperfoil.core.impl;
 
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.StreamSupport;
 
 import io.hyperfoil.api.BenchmarkExecutionException;
@@ -34,7 +46,9 @@ import io.hyperfoil.core.api.PluginRunData;
 import io.hyperfoil.core.session.AgentDataImpl;
 import io.hyperfoil.core.session.GlobalDataImpl;
 import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.session.SessionFootprint;
 import io.hyperfoil.core.session.ThreadDataImpl;
+import io.hyperfoil.core.util.CpuAffinity;
 import io.hyperfoil.core.util.CpuWatchdog;
 import io.hyperfoil.impl.Util;
 import io.hyperfoil.internal.Properties;
@@ -56,6 +70,8 @@ public class SimulationRunner {
    protected static final Logger log = LogManager.getLogger(SimulationRunner.class);
 
    private static final Clock DEFAULT_CLOCK = Clock.systemDefaultZone();
+   private static final long INIT_PROGRESS_PERIOD = 1000;
+   public static final long GLOBAL_COUNTER_SYNC_PERIOD = Properties.getLong(Properties.GLOBAL_COUNTER_SYNC_PERIOD, 100);
 
    protected final Benchmark benchmark;
    protected final int agentId;
@@ -63,17 +79,25 @@ public class SimulationRunner {
    protected final Map<String, PhaseInstance> instances = new HashMap<>();
    protected final List<Session> sessions = new ArrayList<>();
    private final Map<String, SharedResources> sharedResources = new HashMap<>();
+   private final Map<String, Map<String, Long>> sessionFootprints = new LinkedHashMap<>();
    protected final EventLoopGroup eventLoopGroup;
    protected final EventLoop[] executors;
    private final Queue<Phase> toPrune;
    private final PluginRunData[] runData;
    private ControllerListener controllerListener;
+   private SessionInitProgressListener initProgressListener;
    private final Consumer<Throwable> errorHandler;
    private boolean isDepletedMessageQuietened;
    private Thread jitterWatchdog;
    private CpuWatchdog cpuWatchdog;
+   private ThreadData[] threadData;
    private final GlobalDataImpl[] globalData;
    private final GlobalDataImpl.Collector globalCollector = new GlobalDataImpl.Collector();
+   // all increments of global counters collected from executors of this agent
+   private final Map<String, Long> globalCounterTotals = new HashMap<>();
+   private volatile Map<String, Long> jitWarmupReport;
+   private long reportedCacheHits;
+   private long reportedCacheMisses;
 
    public SimulationRunner(Benchmark benchmark, String runId, int agentId, Consumer<Throwable> errorHandler) {
       this.eventLoopGroup = EventLoopFactory.INSTANCE.create(benchmark.threads(agentId));
@@ -90,16 +114,47 @@ public class SimulationRunner {
             .toArray(PluginRunData[]::new);
       this.errorHandler = errorHandler;
       this.globalData = Arrays.stream(executors).map(GlobalDataImpl::new).toArray(GlobalDataImpl[]::new);
+      int[] affinity = benchmark.affinity(agentId);
+      if (affinity != null && affinity.length > 0) {
+         pinExecutors(affinity);
+      }
+   }
+
+   private void pinExecutors(int[] affinity) {
+      if (!CpuAffinity.isAvailable()) {
+         log.warn("CPU affinity {} was requested but it is not supported on this platform.", Arrays.toString(affinity));
+         return;
+      }
+      String[] placement = new String[executors.length];
+      CompletableFuture<?>[] futures = new CompletableFuture[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         int executorId = i;
+         int cpu = affinity[i % affinity.length];
+         CompletableFuture<Void> cf = new CompletableFuture<>();
+         futures[i] = cf;
+         executors[i].execute(() -> {
+            String threadName = Thread.currentThread().getName();
+            placement[executorId] = CpuAffinity.pinCurrentThread(cpu) ? threadName + " -> CPU " + cpu : threadName + " -> not pinned";
+            cf.complete(null);
+         });
+      }
+      CompletableFuture.allOf(futures).join();
+      log.info("Executor placement: {}", String.join(", ", placement));
    }
 
    public void setControllerListener(ControllerListener controllerListener) {
       this.controllerListener = controllerListener;
    }
 
+   public void setInitProgressListener(SessionInitProgressListener initProgressListener) {
+      this.initProgressListener = initProgressListener;
+   }
+
    public void init() {
       AgentData agentData = new AgentDataImpl();
       ThreadData[] threadData = new ThreadData[executors.length];
       Arrays.setAll(threadData, executorId -> new ThreadDataImpl());
+      this.threadData = threadData;
       for (Phase def : benchmark.phases()) {
          SharedResources sharedResources;
          if (def.sharedResources == null) {
@@ -107,28 +162,9 @@ public class SimulationRunner {
             sharedResources = SharedResources.NONE;
          } else if ((sharedResources = this.sharedResources.get(def.sharedResources)) == null) {
             sharedResources = new SharedResources(executors.length);
-            List<Session> phaseSessions = sharedResources.sessions = new ArrayList<>();
-            SessionStatistics[] statistics = sharedResources.statistics;
-            Supplier<Session> sessionSupplier = () -> {
-               Session session;
-               int executorId;
-               synchronized (this.sessions) {
-                  // We need to set executor based on the id within phase (shared resources) because
-                  // if the connection pool size = number of users we need to match the #sessions in
-                  // each executor to the #connections.
-                  executorId = phaseSessions.size() % executors.length;
-                  session = SessionFactory.create(def.scenario, executorId, this.sessions.size());
-                  this.sessions.add(session);
-                  phaseSessions.add(session);
-               }
-               session.attach(executors[executorId], threadData[executorId], agentData, globalData[executorId], statistics[executorId]);
-               for (int i = 0; i < runData.length; ++i) {
-                  runData[i].initSession(session, executorId, def.scenario, DEFAULT_CLOCK);
-               }
-               session.reserve(def.scenario);
-               return session;
-            };
-            SharedResources finalSharedResources = sharedResources;
+            sharedResources.sessions = new ArrayList<>();
+            SharedResources phaseResources = sharedResources;
+            IntFunction<List<Session>> sessionSupplier = count -> createSessions(def, phaseResources, agentData, threadData, count);
             sharedResources.sessionPool = new ElasticPoolImpl<>(sessionSupplier, () -> {
                if (!isDepletedMessageQuietened) {
                   log.warn("Pool depleted, throttling execution! Enable trace logging to see subsequent pool depletion messages.");
@@ -136,7 +172,7 @@ public class SimulationRunner {
                } else {
                   log.trace("Pool depleted, throttling execution!");
                }
-               finalSharedResources.currentPhase.setSessionLimitExceeded();
+               phaseResources.currentPhase.setSessionLimitExceeded();
                return null;
             });
             this.sharedResources.put(def.sharedResources, sharedResources);
@@ -146,6 +182,7 @@ public class SimulationRunner {
          phase.setComponents(sharedResources.sessionPool, sharedResources.sessions, this::phaseChanged);
          phase.reserveSessions();
          // at this point all session resources should be reserved
+         recordFootprint(def, sharedResources);
       }
       // hint the GC to tenure sessions
       System.gc();
@@ -153,10 +190,135 @@ public class SimulationRunner {
       jitterWatchdog = new Thread(this::observeJitter, "jitter-watchdog");
       jitterWatchdog.setDaemon(true);
 
-      cpuWatchdog = new CpuWatchdog(errorHandler, () -> instances.values().stream().anyMatch(p -> !p.definition().isWarmup));
+      cpuWatchdog = new CpuWatchdog(errorHandler, () -> instances.values().stream().anyMatch(p -> !p.definition().isWarmup), executors.length);
+      for (int i = 0; i < executors.length; ++i) {
+         int executorId = i;
+         executors[i].execute(() -> cpuWatchdog.registerExecutor(executorId, Thread.currentThread()));
+      }
       cpuWatchdog.start();
    }
 
+   /**
+    * Sessions are created and reserved in parallel, each on the executor that will run it; this way construction
+    * of large number of sessions scales with the number of executors and the memory is allocated by the thread
+    * that uses it (NUMA-local and in its TLAB).
+    */
+   private List<Session> createSessions(Phase def, SharedResources sharedResources, AgentData agentData, ThreadData[] threadData, int count) {
+      int firstId;
+      int firstIndex;
+      synchronized (this.sessions) {
+         firstId = this.sessions.size();
+         firstIndex = sharedResources.sessions.size();
+      }
+      Session[] created = new Session[count];
+      AtomicInteger progress = new AtomicInteger();
+      CompletableFuture<?>[] futures = new CompletableFuture[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         int executorId = i;
+         CompletableFuture<Void> future = new CompletableFuture<>();
+         futures[i] = future;
+         Runnable task = () -> {
+            try {
+               // We need to set executor based on the id within phase (shared resources) because
+               // if the connection pool size = number of users we need to match the #sessions in
+               // each executor to the #connections.
+               for (int j = Math.floorMod(executorId - firstIndex, executors.length); j < count; j += executors.length) {
+                  created[j] = createSession(def, sharedResources, agentData, threadData[executorId], executorId, firstId + j);
+                  progress.incrementAndGet();
+               }
+               future.complete(null);
+            } catch (Throwable t) {
+               future.completeExceptionally(t);
+            }
+         };
+         if (executors[i].inEventLoop()) {
+            task.run();
+         } else {
+            executors[i].execute(task);
+         }
+      }
+      awaitSessions(def, CompletableFuture.allOf(futures), progress, count);
+      List<Session> list = Arrays.asList(created);
+      synchronized (this.sessions) {
+         this.sessions.addAll(list);
+         sharedResources.sessions.addAll(list);
+      }
+      return list;
+   }
+
+   private Session createSession(Phase def, SharedResources sharedResources, AgentData agentData, ThreadData threadData, int executorId, int uniqueId) {
+      Session session = SessionFactory.create(def.scenario, executorId, uniqueId);
+      session.attach(executors[executorId], threadData, agentData, globalData[executorId], sharedResources.statistics[executorId]);
+      for (int i = 0; i < runData.length; ++i) {
+         runData[i].initSession(session, executorId, def.scenario, DEFAULT_CLOCK);
+      }
+      session.reserve(def.scenario);
+      return session;
+   }
+
+   private void recordFootprint(Phase def, SharedResources sharedResources) {
+      if (sharedResources.sessionFootprint == null) {
+         if (sharedResources.sessions == null || sharedResources.sessions.isEmpty()) {
+            return;
+         }
+         Session sample = sharedResources.sessions.get(0);
+         Session reference = null;
+         synchronized (sessions) {
+            for (Session session : sessions) {
+               if (session != sample) {
+                  reference = session;
+                  break;
+               }
+            }
+         }
+         // Sessions are idle at this point so we can safely traverse them from this thread
+         sharedResources.sessionFootprint = SessionFootprint.estimate(def.scenario, sample, reference);
+      }
+      Map<String, Long> footprint = sharedResources.sessionFootprint;
+      log.info("Phase {}: estimated {} bytes per session", def.name,
+            footprint.values().stream().mapToLong(Long::longValue).sum());
+      log.debug("Phase {} session footprint: {}", def.name, footprint);
+      sessionFootprints.put(def.name, footprint);
+   }
+
+   /**
+    * @return Estimated memory retained by single session in bytes by phase name and item (resource, variable...),
+    * see {@link SessionFootprint}.
+    */
+   public Map<String, Map<String, Long>> sessionFootprints() {
+      return sessionFootprints;
+   }
+
+   private void awaitSessions(Phase def, CompletableFuture<Void> all, AtomicInteger progress, int count) {
+      boolean reported = false;
+      for (;;) {
+         try {
+            all.get(INIT_PROGRESS_PERIOD, TimeUnit.MILLISECONDS);
+            break;
+         } catch (TimeoutException e) {
+            int created = progress.get();
+            log.info("Phase {}: created {}/{} sessions", def.name, created, count);
+            if (initProgressListener != null) {
+               initProgressListener.onProgress(def.name, created, count);
+            }
+            reported = true;
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating sessions", e);
+         } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+               throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+               throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+         }
+      }
+      if (reported && initProgressListener != null) {
+         initProgressListener.onProgress(def.name, count, count);
+      }
+   }
+
    public void openConnections(Handler<AsyncResult<Void>> handler) {
       @SuppressWarnings("rawtypes") ArrayList<Future> futures = new ArrayList<>();
       for (PluginRunData plugin : runData) {
@@ -167,16 +329,45 @@ public class SimulationRunner {
       composite.onComplete(result -> {
          if (result.failed()) {
             log.error("One of the HTTP client pools failed to start.");
+         } else if (JitWarmup.isEnabled()) {
+            // The warm-up is blocking; the jitter watchdog is started only after that as the compilation
+            // would likely trigger it.
+            Thread warmupThread = new Thread(() -> {
+               jitWarmup();
+               handler.handle(result.mapEmpty());
+               jitterWatchdog.start();
+            }, "jit-warmup");
+            warmupThread.setDaemon(true);
+            warmupThread.start();
+            return;
          }
          handler.handle(result.mapEmpty());
          jitterWatchdog.start();
       });
    }
 
+   private void jitWarmup() {
+      try {
+         jitWarmupReport = new JitWarmup(benchmark, agentId, executors, runData).run();
+      } catch (Throwable t) {
+         // The warm-up is only an optimization, the benchmark can run without that
+         log.warn("JIT warm-up failed, the benchmark will continue.", t);
+      }
+   }
+
+   /**
+    * @return Duration of the JIT warm-up in milliseconds, number of sessions it completed and compilation time
+    * in milliseconds (during the warm-up and total), or <code>null</code> if there was no warm-up.
+    */
+   public Map<String, Long> jitWarmupReport() {
+      return jitWarmupReport;
+   }
+
    private void observeJitter() {
       long period = Properties.getLong(Properties.JITTER_WATCHDOG_PERIOD, 50);
       long threshold = Properties.getLong(Properties.JITTER_WATCHDOG_THRESHOLD, 100);
       long lastTimestamp = System.nanoTime();
+      long lastGcPauses = CpuWatchdog.gcPauses()[0];
       while (true) {
          try {
             Thread.sleep(period);
@@ -185,14 +376,16 @@ public class SimulationRunner {
             return;
          }
          long currentTimestamp = System.nanoTime();
+         long currentGcPauses = CpuWatchdog.gcPauses()[0];
          long delay = TimeUnit.NANOSECONDS.toMillis(currentTimestamp - lastTimestamp);
          if (delay > threshold) {
-            String message = String.format("%s | Jitter watchdog was not invoked for %d ms (threshold is %d ms); please check your GC settings.",
-                  new SimpleDateFormat("HH:mm:ss.SSS").format(new Date()), delay, threshold);
+            String message = String.format("%s | Jitter watchdog was not invoked for %d ms (threshold is %d ms, GC pauses took %d ms); please check your GC settings.",
+                  new SimpleDateFormat("HH:mm:ss.SSS").format(new Date()), delay, threshold, currentGcPauses - lastGcPauses);
             log.error(message);
             errorHandler.accept(new BenchmarkExecutionException(message));
          }
          lastTimestamp = currentTimestamp;
+         lastGcPauses = currentGcPauses;
       }
    }
 
@@ -269,6 +462,11 @@ public class SimulationRunner {
       for (Session session : sessions) {
          SessionFactory.destroy(session);
       }
+      if (threadData != null) {
+         for (ThreadData td : threadData) {
+            ((ThreadDataImpl) td).destroyResources();
+         }
+      }
    }
 
    public void visitSessions(Consumer<Session> consumer) {
@@ -347,6 +545,31 @@ public class SimulationRunner {
       for (PluginRunData plugin : runData) {
          plugin.visitConnectionStats(consumer);
       }
+      visitMetricCacheStats(consumer);
+   }
+
+   private void visitMetricCacheStats(ConnectionStatsConsumer consumer) {
+      // Statistics are updated from executors but since we're only publishing stats...
+      long hits = 0;
+      long misses = 0;
+      for (SharedResources sharedResources : this.sharedResources.values()) {
+         if (sharedResources.statistics != null) {
+            for (SessionStatistics statistics : sharedResources.statistics) {
+               hits += statistics.cacheHits();
+               misses += statistics.cacheMisses();
+            }
+         }
+      }
+      if (hits == 0 && misses == 0) {
+         return;
+      }
+      // Reported as the number of lookups since last visit
+      int newHits = (int) Math.min(Integer.MAX_VALUE, hits - reportedCacheHits);
+      int newMisses = (int) Math.min(Integer.MAX_VALUE, misses - reportedCacheMisses);
+      reportedCacheHits = hits;
+      reportedCacheMisses = misses;
+      consumer.accept("metric cache", "hits", newHits, newHits);
+      consumer.accept("metric cache", "misses", newMisses, newMisses);
    }
 
    public void startPhase(String phase) {
@@ -396,10 +619,48 @@ public class SimulationRunner {
       return list;
    }
 
+   public List<Path> recordings() {
+      ArrayList<Path> list = new ArrayList<>();
+      for (PluginRunData plugin : runData) {
+         plugin.visitRecordings(list::add);
+      }
+      return list;
+   }
+
+   /**
+    * Deletes recording files and their directories (when these become empty). This is a blocking operation.
+    */
+   public static void deleteRecordings(List<Path> recordings) {
+      Set<Path> dirs = new HashSet<>();
+      for (Path path : recordings) {
+         try {
+            Files.deleteIfExists(path);
+         } catch (IOException e) {
+            log.warn("Cannot delete recording {}", path, e);
+         }
+         if (path.getParent() != null) {
+            dirs.add(path.getParent());
+         }
+      }
+      for (Path dir : dirs) {
+         try {
+            Files.deleteIfExists(dir);
+         } catch (DirectoryNotEmptyException e) {
+            log.debug("Directory {} is not empty, keeping it.", dir);
+         } catch (IOException e) {
+            log.warn("Cannot delete recordings directory {}", dir, e);
+         }
+      }
+   }
+
    public String getCpuUsage(String name) {
       return cpuWatchdog.getCpuUsage(name);
    }
 
+   public String getSaturatedExecutors(String name) {
+      return cpuWatchdog.getSaturatedExecutors(name);
+   }
+
    public void addGlobalData(Map<String, GlobalData.Element> globalData) {
       for (int i = 0; i < executors.length; ++i) {
          GlobalDataImpl data = this.globalData[i];
@@ -409,6 +670,46 @@ public class SimulationRunner {
       }
    }
 
+   /**
+    * Collects increments of global counters from all executors and passes them to the exchange, which returns
+    * sum of increments from other agents. The counters in all executors are then updated with the merged values.
+    * Subsequent invocation must not start before the returned future completes.
+    *
+    * @param exchange Sends increments from this agent and returns increments from other agents.
+    * @return Completion of the update.
+    */
+   public CompletableFuture<Void> syncGlobalCounters(Function<Map<String, Long>, CompletionStage<Map<String, Long>>> exchange) {
+      @SuppressWarnings("unchecked")
+      CompletableFuture<Map<String, Long>>[] drained = new CompletableFuture[executors.length];
+      for (int i = 0; i < executors.length; ++i) {
+         GlobalDataImpl data = globalData[i];
+         drained[i] = CompletableFuture.supplyAsync(data::drainCounters, executors[i]);
+      }
+      return CompletableFuture.allOf(drained).thenCompose(nil -> {
+         Map<String, Long> deltas = new HashMap<>();
+         for (CompletableFuture<Map<String, Long>> cf : drained) {
+            cf.join().forEach((key, delta) -> deltas.merge(key, delta, Long::sum));
+         }
+         if (deltas.isEmpty()) {
+            // nobody uses global counters on this agent
+            return Util.COMPLETED_VOID_FUTURE;
+         }
+         Map<String, Long> totals;
+         synchronized (globalCounterTotals) {
+            deltas.forEach((key, delta) -> globalCounterTotals.merge(key, delta, Long::sum));
+            totals = new HashMap<>(globalCounterTotals);
+         }
+         return exchange.apply(deltas).thenAccept(others -> {
+            Map<String, Long> values = new HashMap<>(totals);
+            others.forEach((key, value) -> values.merge(key, value, Long::sum));
+            for (int i = 0; i < executors.length; ++i) {
+               GlobalDataImpl data = globalData[i];
+               executors[i].execute(() -> data.updateCounters(values));
+            }
+         });
+      });
+   }
+
    private static class SharedResources {
       static final SharedResources NONE = new SharedResources(0);
 
@@ -416,6 +717,7 @@ public class SimulationRunner {
       ElasticPoolImpl<Session> sessionPool;
       List<Session> sessions;
       SessionStatistics[] statistics;
+      Map<String, Long> sessionFootprint;
 
       SharedResources(int executorCount) {
          statistics = new SessionStatistics[executorCount];
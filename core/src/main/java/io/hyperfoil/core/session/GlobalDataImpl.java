@@ -22,6 +22,7 @@ public class GlobalDataImpl implements GlobalData {
    private final Map<String, String> publishingPhase = new HashMap<>();
    private final Map<String, GlobalData.Element> published = new HashMap<>();
    private final Map<String, Queue<GlobalData.Element>> toPublish = new HashMap<>();
+   private final Map<String, CounterImpl> counters = new HashMap<>();
 
    public GlobalDataImpl(EventLoop executor) {
       this.executor = executor;
@@ -51,6 +52,39 @@ public class GlobalDataImpl implements GlobalData {
       return element;
    }
 
+   @Override
+   public Counter counter(String key) {
+      assert executor.inEventLoop();
+      return counters.computeIfAbsent(key, k -> new CounterImpl());
+   }
+
+   /**
+    * Moves local increments of counters to their base values.
+    *
+    * @return Increments since the last call; counters without increments are included, too.
+    */
+   public Map<String, Long> drainCounters() {
+      assert executor.inEventLoop();
+      Map<String, Long> deltas = new HashMap<>();
+      for (var entry : counters.entrySet()) {
+         CounterImpl counter = entry.getValue();
+         deltas.put(entry.getKey(), counter.delta);
+         counter.base += counter.delta;
+         counter.delta = 0;
+      }
+      return deltas;
+   }
+
+   /**
+    * @param values Values of counters including all increments drained so far.
+    */
+   public void updateCounters(Map<String, Long> values) {
+      assert executor.inEventLoop();
+      for (var entry : values.entrySet()) {
+         counters.computeIfAbsent(entry.getKey(), k -> new CounterImpl()).base = entry.getValue();
+      }
+   }
+
    public GlobalData.Element extractOne(String key) {
       Queue<Element> queue = toPublish.get(key);
       if (queue == null || queue.isEmpty()) {
@@ -111,6 +145,22 @@ public class GlobalDataImpl implements GlobalData {
       }
    }
 
+   private static class CounterImpl implements Counter {
+      private long base;
+      private long delta;
+
+      @Override
+      public long get() {
+         return base + delta;
+      }
+
+      @Override
+      public long add(long delta) {
+         this.delta += delta;
+         return base + this.delta;
+      }
+   }
+
    private static class PoisonedQueue extends AbstractQueue<Element> {
       @Override
       public Iterator<Element> iterator() {
@@ -3,10 +3,12 @@ package io.hyperfoil.core.session;
 import io.hyperfoil.api.session.Session;
 
 public class IntVar implements Session.Var {
+   private final SessionImpl session;
    private boolean set;
    private int value;
 
    IntVar(SessionImpl session) {
+      this.session = session;
       session.registerVar(this);
    }
 
@@ -34,6 +36,7 @@ public class IntVar implements Session.Var {
    @Override
    public void unset() {
       set = false;
+      session.varWritten();
    }
 
    public int get() {
@@ -44,11 +47,13 @@ public class IntVar implements Session.Var {
    public void set(int value) {
       this.value = value;
       this.set = true;
+      session.varWritten();
    }
 
    public void add(int delta) {
       assert set;
       this.value += delta;
+      session.varWritten();
    }
 
    @Override
@@ -0,0 +1,56 @@
+package io.hyperfoil.core.session;
+
+import java.util.function.Supplier;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.ThreadData;
+
+/**
+ * Placeholder for a {@link Session#declareReusableResource(Session.ResourceKey, Supplier) reusable resource}
+ * that is created on first use. The resource is borrowed from a per-executor pool (see {@link ThreadDataImpl})
+ * and returned there when the session is reset.
+ */
+class LazyResource implements Session.Resource {
+   private final Session.ResourceKey<?> key;
+   private final Supplier<? extends Session.Resource> supplier;
+   private Session.Resource resource;
+
+   LazyResource(Session.ResourceKey<?> key, Supplier<? extends Session.Resource> supplier) {
+      this.key = key;
+      this.supplier = supplier;
+   }
+
+   Session.Resource get(Session session) {
+      if (resource == null) {
+         ThreadData threadData = session.threadData();
+         if (threadData instanceof ThreadDataImpl) {
+            resource = ((ThreadDataImpl) threadData).borrowResource(key);
+         }
+         if (resource == null) {
+            resource = supplier.get();
+         }
+      }
+      return resource;
+   }
+
+   @Override
+   public void onSessionReset(Session session) {
+      if (resource == null) {
+         return;
+      }
+      resource.onSessionReset(session);
+      ThreadData threadData = session.threadData();
+      if (threadData instanceof ThreadDataImpl) {
+         ((ThreadDataImpl) threadData).returnResource(key, resource);
+         resource = null;
+      }
+   }
+
+   @Override
+   public void destroy() {
+      if (resource != null) {
+         resource.destroy();
+         resource = null;
+      }
+   }
+}
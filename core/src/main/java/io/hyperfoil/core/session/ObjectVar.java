@@ -3,6 +3,7 @@ package io.hyperfoil.core.session;
 import io.hyperfoil.api.session.Session;
 
 public class ObjectVar implements Session.Var {
+   final SessionImpl session;
    boolean set;
    Object value;
 
@@ -13,6 +14,7 @@ public class ObjectVar implements Session.Var {
    }
 
    ObjectVar(SessionImpl session) {
+      this.session = session;
       session.registerVar(this);
    }
 
@@ -34,11 +36,13 @@ public class ObjectVar implements Session.Var {
    @Override
    public void unset() {
       set = false;
+      session.varWritten();
    }
 
    public void set(Object value) {
       this.value = value;
       this.set = true;
+      session.varWritten();
    }
 
    @Override
@@ -0,0 +1,172 @@
+package io.hyperfoil.core.session;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.session.SequenceInstance;
+
+/**
+ * Bookkeeping of running sequences in event-driven session. Sequences are identified by slot
+ * ({@link Sequence#offset()} + index) which is unique for each running sequence. Sequences that were woken up
+ * are kept in a FIFO queue; sequences blocked in a step that depends on session state
+ * (see {@link io.hyperfoil.api.config.Step#awaitsStateChange()}) are waiting until the state could have changed
+ * and those blocked in a step that is not woken up explicitly
+ * (see {@link io.hyperfoil.api.config.Step#awaitsWakeUp()}) are polled on each run of the session.
+ */
+class ReadySequences {
+   private static final byte READY = 1;
+   private static final byte POLLED = 2;
+   private static final byte WAITING = 4;
+
+   private final SequenceInstance[] running;
+   private final int[] positions;
+   private final byte[] flags;
+   private final int[] queue;
+   private final int[] polled;
+   private final int[] waiting;
+   private int head;
+   private int size;
+   private int polledCount;
+   private int waitingCount;
+
+   ReadySequences(Scenario scenario) {
+      int slots = 0;
+      for (Sequence sequence : scenario.sequences()) {
+         slots = Math.max(slots, sequence.offset() + Math.max(sequence.concurrency(), 1));
+      }
+      running = new SequenceInstance[slots];
+      positions = new int[slots];
+      flags = new byte[slots];
+      queue = new int[slots];
+      polled = new int[slots];
+      waiting = new int[slots];
+   }
+
+   static int slot(SequenceInstance sequence) {
+      return sequence.definition().offset() + sequence.index();
+   }
+
+   int slots() {
+      return running.length;
+   }
+
+   void started(SequenceInstance sequence, int position) {
+      int slot = slot(sequence);
+      running[slot] = sequence;
+      positions[slot] = position;
+      markReady(slot);
+   }
+
+   void moved(SequenceInstance sequence, int position) {
+      positions[slot(sequence)] = position;
+   }
+
+   void completed(SequenceInstance sequence) {
+      running[slot(sequence)] = null;
+   }
+
+   void wakeUp(SequenceInstance sequence) {
+      if (sequence.definition() == null) {
+         // sequences constructed in tests
+         return;
+      }
+      int slot = slot(sequence);
+      if (slot < running.length && running[slot] == sequence) {
+         markReady(slot);
+      }
+   }
+
+   void wakeUp(int slot) {
+      if (running[slot] != null) {
+         markReady(slot);
+      }
+   }
+
+   private void markReady(int slot) {
+      if ((flags[slot] & READY) == 0) {
+         flags[slot] |= READY;
+         int tail = head + size;
+         queue[tail >= queue.length ? tail - queue.length : tail] = slot;
+         ++size;
+      }
+   }
+
+   /**
+    * @return Slot of the next running sequence that is ready or -1 if there's none.
+    */
+   int poll() {
+      while (size > 0) {
+         int slot = queue[head];
+         if (++head == queue.length) {
+            head = 0;
+         }
+         --size;
+         flags[slot] &= ~READY;
+         if (running[slot] != null) {
+            return slot;
+         }
+      }
+      return -1;
+   }
+
+   SequenceInstance sequence(int slot) {
+      return running[slot];
+   }
+
+   int position(int slot) {
+      return positions[slot];
+   }
+
+   void addPolled(int slot) {
+      if ((flags[slot] & POLLED) == 0) {
+         flags[slot] |= POLLED;
+         polled[polledCount++] = slot;
+      }
+   }
+
+   boolean hasPolled() {
+      return polledCount > 0;
+   }
+
+   void readyPolled() {
+      for (int i = 0; i < polledCount; ++i) {
+         int slot = polled[i];
+         flags[slot] &= ~POLLED;
+         wakeUp(slot);
+      }
+      polledCount = 0;
+   }
+
+   void addWaiting(int slot) {
+      if ((flags[slot] & WAITING) == 0) {
+         flags[slot] |= WAITING;
+         waiting[waitingCount++] = slot;
+      }
+   }
+
+   boolean hasWaiting() {
+      return waitingCount > 0;
+   }
+
+   void readyWaiting() {
+      for (int i = 0; i < waitingCount; ++i) {
+         int slot = waiting[i];
+         flags[slot] &= ~WAITING;
+         wakeUp(slot);
+      }
+      waitingCount = 0;
+   }
+
+   void clear() {
+      while (poll() >= 0) {
+         // drain
+      }
+      for (int i = 0; i < polledCount; ++i) {
+         flags[polled[i]] &= ~POLLED;
+      }
+      polledCount = 0;
+      for (int i = 0; i < waitingCount; ++i) {
+         flags[waiting[i]] &= ~WAITING;
+      }
+      waitingCount = 0;
+   }
+}
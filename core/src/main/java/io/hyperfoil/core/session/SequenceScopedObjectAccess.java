@@ -66,6 +66,7 @@ class SequenceScopedObjectAccess extends SequenceScopedReadAccess implements Obj
             log.trace("#{} activate {}[{}]", session.uniqueId(), key, session.currentSequence().index());
          }
          ov.set = true;
+         ov.session.varWritten();
          return ov.objectValue(session);
       } else {
          int index = session.currentSequence().index();
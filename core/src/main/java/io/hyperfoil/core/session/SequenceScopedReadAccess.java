@@ -119,6 +119,7 @@ class SequenceScopedReadAccess extends BaseAccess {
       if (var instanceof ObjectVar) {
          ObjectVar ov = (ObjectVar) var;
          ov.set = true;
+         impl.varWritten();
          return ov;
       } else {
          throw new IllegalStateException("Variable " + key + " does not hold an object variable (cannot hold array).");
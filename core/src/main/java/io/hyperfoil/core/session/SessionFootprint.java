@@ -0,0 +1,73 @@
+package io.hyperfoil.core.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.Action;
+import io.hyperfoil.api.session.AgentData;
+import io.hyperfoil.api.session.GlobalData;
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.ThreadData;
+import io.hyperfoil.api.statistics.SessionStatistics;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.util.ObjectSizeEstimator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Estimates memory retained by single session, broken down by resources (grouped by type of the resource key)
+ * and variables. Benchmark definition, statistics and data shared by the executor or agent are not included.
+ * Netty buffers are not included either: these are mostly pooled and allocated off-heap.
+ */
+public final class SessionFootprint {
+   public static final String SESSION = "session";
+
+   private SessionFootprint() {
+   }
+
+   /**
+    * @param scenario  Scenario the session was created for.
+    * @param session   Sampled session.
+    * @param reference Another session; objects reachable from this one are considered shared and not counted.
+    *                  Can be <code>null</code>.
+    * @return Estimated bytes by item; iteration order is resources, variables and the rest of the session.
+    */
+   public static Map<String, Long> estimate(Scenario scenario, Session session, Session reference) {
+      SessionImpl impl = (SessionImpl) session;
+      ObjectSizeEstimator estimator = new ObjectSizeEstimator(SessionFootprint::isExcluded);
+      if (reference != null) {
+         estimator.exclude(reference);
+      }
+      Map<String, Long> footprint = new LinkedHashMap<>();
+      for (Map.Entry<Session.ResourceKey<?>, Object> entry : impl.resources().entrySet()) {
+         footprint.merge("resource " + entry.getKey().getClass().getName(), estimator.estimate(entry.getValue()), Long::sum);
+      }
+      Object[] keys = scenario.variableKeys();
+      Session.Var[] vars = impl.vars();
+      for (int i = 0; i < vars.length; ++i) {
+         footprint.merge("var " + keys[i], estimator.estimate(vars[i]), Long::sum);
+      }
+      footprint.put(SESSION, estimator.estimate(session));
+      return footprint;
+   }
+
+   private static boolean isExcluded(Object obj) {
+      // Definitions are shared by all sessions and the rest belongs to executor or agent
+      return obj instanceof Session || obj instanceof Step || obj instanceof Action || obj instanceof Processor ||
+            obj instanceof Session.ResourceKey || obj instanceof ReadAccess ||
+            obj instanceof Scenario || obj instanceof Sequence || obj instanceof Phase || obj instanceof Benchmark ||
+            obj instanceof PhaseInstance || obj instanceof ThreadData || obj instanceof AgentData ||
+            obj instanceof GlobalData || obj instanceof SessionStatistics || obj instanceof Statistics ||
+            obj instanceof EventExecutor || obj instanceof ByteBuf || obj instanceof ByteBufAllocator ||
+            obj instanceof Thread || obj instanceof ClassLoader;
+   }
+}
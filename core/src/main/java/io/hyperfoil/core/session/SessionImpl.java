@@ -16,6 +16,8 @@ import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.function.SerializableBiFunction;
+import io.hyperfoil.internal.Properties;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -32,6 +34,7 @@ import java.util.function.Supplier;
 class SessionImpl implements Session {
    private static final Logger log = LogManager.getLogger(SessionImpl.class);
    private static final boolean trace = log.isTraceEnabled();
+   private static final boolean LAZY_RESOURCES = Properties.getBoolean(Properties.SESSION_LAZY_RESOURCES);
 
    private final Var[] vars;
    private final Map<ResourceKey<?>, Object> resources = new HashMap<>();
@@ -41,6 +44,14 @@ class SessionImpl implements Session {
    private final SequenceInstance[] runningSequences;
    private final BitSet usedSequences;
    private final Consumer<SequenceInstance> releaseSequence = this::releaseSequence;
+   // null unless the session is event-driven
+   private final ReadySequences readySequences;
+   private final Runnable[] wakeUpTasks;
+   // set when the session is run through the generic run task that could have changed its state arbitrarily
+   private boolean stateChanged;
+   // incremented on each write to a session variable, event-driven session compares it to lastVarWrites
+   private int varWrites;
+   private int lastVarWrites;
    private PhaseInstance phase;
    private int lastRunningSequence = -1;
    private SequenceInstance currentSequence;
@@ -60,6 +71,9 @@ class SessionImpl implements Session {
    private final Runnable deferredStart = this::deferredStart;
 
    private final Runnable runTask = this::run;
+   // Sessions proceed mostly after completing a request; that wakes up the request's sequence and any writes
+   // to variables are tracked, so this does not imply arbitrary change in the session state.
+   private final Runnable proceedTask = () -> run(false);
 
    SessionImpl(Scenario scenario, int threadId, int uniqueId) {
       this.sequencePool = new LimitedPool<>(scenario.maxSequences(), SequenceInstance::new);
@@ -68,6 +82,13 @@ class SessionImpl implements Session {
       this.usedSequences = new BitSet(scenario.sumConcurrency());
       this.uniqueId = uniqueId;
       this.vars = scenario.createVars(this);
+      if (Properties.getBoolean(Properties.SESSION_EVENT_DRIVEN)) {
+         this.readySequences = new ReadySequences(scenario);
+         this.wakeUpTasks = new Runnable[readySequences.slots()];
+      } else {
+         this.readySequences = null;
+         this.wakeUpTasks = null;
+      }
    }
 
    @Override
@@ -88,6 +109,29 @@ class SessionImpl implements Session {
       return runTask;
    }
 
+   @Override
+   public Runnable runTask(SequenceInstance sequence) {
+      if (readySequences == null) {
+         return runTask;
+      }
+      int slot = ReadySequences.slot(sequence);
+      Runnable task = wakeUpTasks[slot];
+      if (task == null) {
+         task = wakeUpTasks[slot] = () -> {
+            readySequences.wakeUp(slot);
+            run(false);
+         };
+      }
+      return task;
+   }
+
+   @Override
+   public void wakeUp(SequenceInstance sequence) {
+      if (readySequences != null) {
+         readySequences.wakeUp(sequence);
+      }
+   }
+
    @Override
    public int uniqueId() {
       return uniqueId;
@@ -163,6 +207,10 @@ class SessionImpl implements Session {
       allVars.add(var);
    }
 
+   void varWritten() {
+      ++varWrites;
+   }
+
    @Override
    public <R extends Resource> void declareResource(ResourceKey<R> key, Supplier<R> resourceSupplier) {
       declareResource(key, resourceSupplier, false);
@@ -170,6 +218,10 @@ class SessionImpl implements Session {
 
    @Override
    public <R extends Resource> void declareResource(ResourceKey<R> key, Supplier<R> resourceSupplier, boolean singleton) {
+      putResource(key, resourceSupplier, singleton);
+   }
+
+   private void putResource(ResourceKey<?> key, Supplier<? extends Resource> resourceSupplier, boolean singleton) {
       if (resources.containsKey(key)) {
          return;
       }
@@ -178,18 +230,27 @@ class SessionImpl implements Session {
       if (!singleton && concurrency > 0) {
          Resource[] array = new Resource[concurrency];
          for (int i = 0; i < concurrency; ++i) {
-            R resource = resourceSupplier.get();
+            Resource resource = resourceSupplier.get();
             array[i] = resource;
             allResources.add(resource);
          }
          resources.put(key, array);
       } else {
-         R resource = resourceSupplier.get();
+         Resource resource = resourceSupplier.get();
          resources.put(key, resource);
          allResources.add(resource);
       }
    }
 
+   @Override
+   public <R extends Resource> void declareReusableResource(ResourceKey<R> key, Supplier<R> resourceSupplier) {
+      if (LAZY_RESOURCES) {
+         putResource(key, () -> new LazyResource(key, resourceSupplier), false);
+      } else {
+         putResource(key, resourceSupplier, false);
+      }
+   }
+
    @Override
    public <R extends Resource> void declareSingletonResource(ResourceKey<R> key, R resource) {
       if (resources.containsKey(key)) {
@@ -207,10 +268,20 @@ class SessionImpl implements Session {
          return null;
       } else if (res.getClass().isArray() && res instanceof Resource[]) {
          Resource[] array = (Resource[]) res;
-         return (R) array[currentSequence.index()];
-      } else {
-         return (R) res;
+         res = array[currentSequence.index()];
       }
+      if (LAZY_RESOURCES && res instanceof LazyResource) {
+         return (R) ((LazyResource) res).get(this);
+      }
+      return (R) res;
+   }
+
+   Map<ResourceKey<?>, Object> resources() {
+      return resources;
+   }
+
+   Var[] vars() {
+      return vars;
    }
 
    @SuppressWarnings("unchecked")
@@ -228,9 +299,13 @@ class SessionImpl implements Session {
    }
 
    private void run() {
+      run(true);
+   }
+
+   private void run(boolean stateChanged) {
       scheduled = false;
       try {
-         runSession();
+         runSession(stateChanged);
       } catch (SessionStopException e) {
          log.trace("#{} Session was stopped.", uniqueId);
          // this one is OK
@@ -243,6 +318,13 @@ class SessionImpl implements Session {
    }
 
    public void runSession() {
+      runSession(true);
+   }
+
+   private void runSession(boolean stateChanged) {
+      if (stateChanged) {
+         this.stateChanged = true;
+      }
       if (phase.status() == PhaseInstance.Status.TERMINATED) {
          if (trace) {
             log.trace("#{} Phase is terminated", uniqueId);
@@ -258,6 +340,10 @@ class SessionImpl implements Session {
       if (trace) {
          log.trace("#{} Run ({} running sequences)", uniqueId, lastRunningSequence + 1);
       }
+      if (readySequences != null) {
+         runReadySequences();
+         return;
+      }
       int lastProgressedSequence = -1;
       while (lastRunningSequence >= 0) {
          boolean progressed = false;
@@ -315,6 +401,90 @@ class SessionImpl implements Session {
       }
    }
 
+   /**
+    * Instead of scanning all running sequences this progresses only those that were woken up and those
+    * blocked in steps that are not woken up explicitly. Sequences awaiting a change in session state are
+    * re-invoked only after a session variable was written or when the session was run through {@link #runTask()}.
+    */
+   private void runReadySequences() {
+      readySequences.readyPolled();
+      if (stateChanged || varWrites != lastVarWrites) {
+         stateChanged = false;
+         lastVarWrites = varWrites;
+         readySequences.readyWaiting();
+      }
+      boolean progressed = false;
+      for (; ; ) {
+         if (phase.status() == PhaseInstance.Status.TERMINATING) {
+            if (trace) {
+               log.trace("#{} Phase {} is terminating", uniqueId, phase.definition().name());
+            }
+            stop();
+            return;
+         }
+         int slot = readySequences.poll();
+         if (slot < 0) {
+            boolean varsChanged = varWrites != lastVarWrites && readySequences.hasWaiting();
+            if (!varsChanged && !(progressed && readySequences.hasPolled())) {
+               break;
+            }
+            // Progress of other sequences could unblock the polled ones, written variables the waiting ones
+            if (progressed) {
+               progressed = false;
+               readySequences.readyPolled();
+            }
+            if (varsChanged) {
+               lastVarWrites = varWrites;
+               readySequences.readyWaiting();
+            }
+            continue;
+         }
+         SequenceInstance sequence = readySequences.sequence(slot);
+         if (sequence.progress(this)) {
+            progressed = true;
+            if (sequence.isCompleted()) {
+               if (trace) {
+                  log.trace("#{} Completed {}({})", uniqueId, sequence, sequence.index());
+               }
+               if (lastRunningSequence == -1) {
+                  log.trace("#{} was stopped.", uniqueId);
+                  return;
+               }
+               int position = readySequences.position(slot);
+               readySequences.completed(sequence);
+               sequence.decRefCnt(this);
+               if (position < lastRunningSequence) {
+                  SequenceInstance moved = runningSequences[lastRunningSequence];
+                  runningSequences[position] = moved;
+                  readySequences.moved(moved, position);
+               }
+               runningSequences[lastRunningSequence] = null;
+               --lastRunningSequence;
+               continue;
+            }
+         }
+         if (sequence.awaitsStateChange()) {
+            readySequences.addWaiting(slot);
+         } else if (!sequence.awaitsWakeUp()) {
+            readySequences.addPolled(slot);
+         }
+      }
+      if (lastRunningSequence >= 0) {
+         if (trace) {
+            log.trace("#{} ({}) no progress, not finished.", uniqueId, phase.definition().name());
+         }
+         return;
+      }
+      if (trace) {
+         log.trace("#{} Session finished", uniqueId);
+      }
+      readySequences.clear();
+      if (!resetting) {
+         reset();
+         phase.notifyFinished(this);
+      }
+   }
+
    private void releaseSequence(SequenceInstance sequence) {
       usedSequences.clear(sequence.definition().offset() + sequence.index());
       sequencePool.release(sequence);
@@ -431,6 +601,9 @@ class SessionImpl implements Session {
          lastRunningSequence++;
          assert runningSequences[lastRunningSequence] == null;
          runningSequences[lastRunningSequence] = instance;
+         if (readySequences != null) {
+            readySequences.started(instance, lastRunningSequence);
+         }
       }
       return instance;
    }
@@ -439,7 +612,7 @@ class SessionImpl implements Session {
    public void proceed() {
       if (!scheduled) {
          scheduled = true;
-         executor.execute(runTask);
+         executor.execute(proceedTask);
       }
    }
 
@@ -448,6 +621,11 @@ class SessionImpl implements Session {
       return statistics.getOrCreate(phase.definition(), stepId, name, phase.absoluteStartTime());
    }
 
+   @Override
+   public Statistics statistics(int stepId, SerializableBiFunction<String, String, String> metricSelector, String authority, String path) {
+      return statistics.getOrCreate(phase.definition(), stepId, metricSelector, authority, path, phase.absoluteStartTime());
+   }
+
    @Override
    public void pruneStats(Phase phase) {
       statistics.prune(phase);
@@ -482,10 +660,16 @@ class SessionImpl implements Session {
    public void stop() {
       for (int i = 0; i <= lastRunningSequence; ++i) {
          SequenceInstance sequence = runningSequences[i];
+         if (readySequences != null) {
+            readySequences.completed(sequence);
+         }
          sequence.decRefCnt(this);
          runningSequences[i] = null;
       }
       lastRunningSequence = -1;
+      if (readySequences != null) {
+         readySequences.clear();
+      }
       currentSequence = null;
       if (trace) {
          log.trace("#{} Session stopped.", uniqueId);
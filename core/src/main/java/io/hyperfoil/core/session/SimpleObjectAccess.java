@@ -31,6 +31,7 @@ class SimpleObjectAccess extends SimpleReadAccess implements ObjectAccess {
       ObjectVar var = impl.getVar(index);
       var.value = value;
       var.set = true;
+      impl.varWritten();
    }
 
    @Override
@@ -38,6 +39,8 @@ class SimpleObjectAccess extends SimpleReadAccess implements ObjectAccess {
       SessionImpl impl = (SessionImpl) session;
       ObjectVar var = impl.getVar(index);
       var.set = true;
+      // the caller is likely to modify the object
+      impl.varWritten();
       return var.objectValue(session);
    }
 
@@ -1,5 +1,6 @@
 package io.hyperfoil.core.session;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -7,11 +8,14 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 import java.util.function.LongBinaryOperator;
 
+import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ThreadData;
 
 public class ThreadDataImpl implements ThreadData {
    private final Map<String, SharedMapSet> maps = new HashMap<>();
    private final Map<String, SharedCounterImpl> counters = new HashMap<>();
+   // Reusable resources returned by sessions, see LazyResource
+   private final Map<Session.ResourceKey<?>, ArrayDeque<Session.Resource>> resourcePools = new HashMap<>();
 
    @Override
    public void reserveMap(String key, Object match, int entries) {
@@ -77,6 +81,25 @@ public class ThreadDataImpl implements ThreadData {
       return counters.get(key);
    }
 
+   Session.Resource borrowResource(Session.ResourceKey<?> key) {
+      ArrayDeque<Session.Resource> pool = resourcePools.get(key);
+      return pool == null ? null : pool.pollFirst();
+   }
+
+   void returnResource(Session.ResourceKey<?> key, Session.Resource resource) {
+      resourcePools.computeIfAbsent(key, k -> new ArrayDeque<>()).addFirst(resource);
+   }
+
+   public void destroyResources() {
+      for (ArrayDeque<Session.Resource> pool : resourcePools.values()) {
+         Session.Resource resource;
+         while ((resource = pool.pollFirst()) != null) {
+            resource.destroy();
+         }
+      }
+      resourcePools.clear();
+   }
+
    private static class SharedMapSet {
       MapImpl[] unused;
       int unusedSize;
@@ -36,6 +36,16 @@
  * with <code>null</code> argument - {@link io.hyperfoil.core.steps.BreakSequenceStep} is an example of that.
  * <p>
  * Execution is terminated when there are no enabled sequences in the session.
+ * <p>
+ * By default each run of the session re-invokes all blocked sequences until none of them can progress. With
+ * {@link io.hyperfoil.internal.Properties#SESSION_EVENT_DRIVEN} the session keeps a queue of sequences that were
+ * {@link io.hyperfoil.api.session.Session#wakeUp(SequenceInstance) woken up} (e.g. by completion of their request)
+ * and re-invokes only those, plus sequences blocked in steps that don't declare
+ * {@link io.hyperfoil.api.config.Step#awaitsWakeUp()}. Sequences blocked in steps declaring
+ * {@link io.hyperfoil.api.config.Step#awaitsStateChange()} (e.g. awaiting a variable) are re-invoked only after
+ * a session variable has been written or when the session is run through
+ * {@link io.hyperfoil.api.session.Session#runTask()} (e.g. by a timer scheduled in
+ * {@link io.hyperfoil.core.steps.ScheduleDelayStep}).
  *
  * <h2>Variables</h2>
  * <p>
@@ -13,9 +13,18 @@ import io.hyperfoil.function.SerializablePredicate;
 
 public class AwaitConditionStep implements Step {
    private final SerializablePredicate<Session> condition;
+   private final boolean dependsOnVars;
 
+   /**
+    * The condition can depend on anything (resources, global data, time...) so the step is polled.
+    */
    public AwaitConditionStep(SerializablePredicate<Session> condition) {
+      this(condition, false);
+   }
+
+   private AwaitConditionStep(SerializablePredicate<Session> condition, boolean dependsOnVars) {
       this.condition = condition;
+      this.dependsOnVars = dependsOnVars;
    }
 
    @Override
@@ -23,10 +32,19 @@ public class AwaitConditionStep implements Step {
       return condition.test(session);
    }
 
+   @Override
+   public boolean awaitsStateChange() {
+      return dependsOnVars;
+   }
+
    public static class Builder extends BaseStepBuilder<Builder> {
       private final String var;
       private final SerializableBiPredicate<Session, ReadAccess> predicate;
 
+      /**
+       * The predicate must depend only on the variable and other session variables;
+       * in event-driven sessions the step is re-invoked only after the session state changes.
+       */
       public Builder(String var, SerializableBiPredicate<Session, ReadAccess> predicate) {
          this.var = var;
          this.predicate = predicate;
@@ -40,7 +58,7 @@ public class AwaitConditionStep implements Step {
       @Override
       public List<Step> build() {
          ReadAccess access = SessionFactory.readAccess(var);
-         return Collections.singletonList(new AwaitConditionStep(s -> predicate.test(s, access)));
+         return Collections.singletonList(new AwaitConditionStep(s -> predicate.test(s, access), true));
       }
    }
 }
@@ -27,6 +27,12 @@ public class AwaitDelayStep implements Step {
       return System.currentTimeMillis() >= blockedUntil.timestamp;
    }
 
+   @Override
+   public boolean awaitsStateChange() {
+      // ScheduleDelayStep runs the session when the delay elapses
+      return true;
+   }
+
    /**
     * Block this sequence until referenced delay point.
     */
@@ -32,6 +32,11 @@ public class AwaitIntStep implements Step {
       return false;
    }
 
+   @Override
+   public boolean awaitsStateChange() {
+      return true;
+   }
+
    /**
     * Block current sequence until condition becomes true.
     */
@@ -31,4 +31,9 @@ public abstract class DependencyStep implements Step {
       }
       return true;
    }
+
+   @Override
+   public boolean awaitsStateChange() {
+      return true;
+   }
 }
@@ -0,0 +1,106 @@
+package io.hyperfoil.core.steps.data;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Embed;
+import io.hyperfoil.api.config.InitFromParam;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.session.Action;
+import io.hyperfoil.api.session.IntAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.builders.IntSourceBuilder;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.function.SerializableToIntFunction;
+
+public class AddToGlobalCounterAction implements Action {
+   private final String key;
+   private final SerializableToIntFunction<Session> input;
+   private final IntAccess toVar;
+
+   public AddToGlobalCounterAction(String key, SerializableToIntFunction<Session> input, IntAccess toVar) {
+      this.key = key;
+      this.input = input;
+      this.toVar = toVar;
+   }
+
+   @Override
+   public void run(Session session) {
+      long value = session.globalData().counter(key).add(input.applyAsInt(session));
+      if (toVar != null) {
+         toVar.setInt(session, (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value)));
+      }
+   }
+
+   /**
+    * Adds value to a counter shared by all sessions on all agents. The increment is applied locally and
+    * propagated to other agents asynchronously. This can be used to limit number of operations in the whole cluster:
+    * store the value after increment and stop when it exceeds the budget.
+    */
+   @MetaInfServices(Action.Builder.class)
+   @Name("addToGlobalCounter")
+   public static class Builder implements Action.Builder, InitFromParam<Builder> {
+      private String key;
+      private String toVar;
+      @Embed
+      public IntSourceBuilder<Builder> input = new IntSourceBuilder<>(this);
+
+      /**
+       * @param param Use one of: <code>counter++</code>, <code>counter--</code>, <code>counter += &lt;value&gt;</code>,
+       *              <code>counter -= &lt;value&gt;</code>
+       * @return Self.
+       */
+      @Override
+      public Builder init(String param) {
+         param = param.trim();
+         if (param.endsWith("++")) {
+            key = param.substring(0, param.length() - 2).trim();
+            input.value(1);
+         } else if (param.endsWith("--")) {
+            key = param.substring(0, param.length() - 2).trim();
+            input.value(-1);
+         } else if (param.contains("+=")) {
+            int plusEqualsIndex = param.indexOf("+=");
+            key = param.substring(0, plusEqualsIndex).trim();
+            input.value(Integer.parseInt(param.substring(plusEqualsIndex + 2).trim()));
+         } else if (param.contains("-=")) {
+            int minusEqualsIndex = param.indexOf("-=");
+            key = param.substring(0, minusEqualsIndex).trim();
+            input.value(-Integer.parseInt(param.substring(minusEqualsIndex + 2).trim()));
+         } else {
+            throw new BenchmarkDefinitionException("Accepting one of: var++, var--, var += value, var -= value");
+         }
+         return this;
+      }
+
+      /**
+       * Identifier for the counter.
+       *
+       * @param key Name.
+       * @return Self.
+       */
+      public Builder key(String key) {
+         this.key = key;
+         return this;
+      }
+
+      /**
+       * Session variable for storing the value after the increment. The value is capped to integer range.
+       *
+       * @param toVar Variable name.
+       * @return Self.
+       */
+      public Builder toVar(String toVar) {
+         this.toVar = toVar;
+         return this;
+      }
+
+      @Override
+      public AddToGlobalCounterAction build() {
+         if (key == null || key.isEmpty()) {
+            throw new BenchmarkDefinitionException("Invalid key: " + key);
+         }
+         return new AddToGlobalCounterAction(key, input.build(), toVar == null ? null : SessionFactory.intAccess(toVar));
+      }
+   }
+}
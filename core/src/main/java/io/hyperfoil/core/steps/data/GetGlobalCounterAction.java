@@ -0,0 +1,82 @@
+package io.hyperfoil.core.steps.data;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.InitFromParam;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.session.Action;
+import io.hyperfoil.api.session.IntAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+
+public class GetGlobalCounterAction implements Action {
+   private final String key;
+   private final IntAccess toVar;
+
+   public GetGlobalCounterAction(String key, IntAccess toVar) {
+      this.key = key;
+      this.toVar = toVar;
+   }
+
+   @Override
+   public void run(Session session) {
+      long value = session.globalData().counter(key).get();
+      toVar.setInt(session, (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value)));
+   }
+
+   /**
+    * Retrieves value from a counter shared by all sessions on all agents and stores that in a session variable.
+    * Increments from other executors and agents are reflected with a delay. <br>
+    * If the value exceeds allowed integer range (-2^31 .. 2^31 - 1) it is capped.
+    */
+   @MetaInfServices(Action.Builder.class)
+   @Name("getGlobalCounter")
+   public static class Builder implements Action.Builder, InitFromParam<Builder> {
+      private String key;
+      private String toVar;
+
+      /**
+       * Uses the same name for key and variable name.
+       *
+       * @param param Both the key and variable name.
+       * @return Self.
+       */
+      @Override
+      public Builder init(String param) {
+         return key(param).toVar(param);
+      }
+
+      /**
+       * Identifier for the counter.
+       *
+       * @param key Name.
+       * @return Self.
+       */
+      public Builder key(String key) {
+         this.key = key;
+         return this;
+      }
+
+      /**
+       * Session variable for storing the value.
+       *
+       * @param toVar Variable name.
+       * @return Self.
+       */
+      public Builder toVar(String toVar) {
+         this.toVar = toVar;
+         return this;
+      }
+
+      @Override
+      public GetGlobalCounterAction build() {
+         if (key == null || key.isEmpty()) {
+            throw new BenchmarkDefinitionException("Invalid key: " + key);
+         } else if (toVar == null) {
+            throw new BenchmarkDefinitionException("Must set 'toVar'");
+         }
+         return new GetGlobalCounterAction(key, SessionFactory.intAccess(toVar));
+      }
+   }
+}
@@ -0,0 +1,152 @@
+package io.hyperfoil.core.util;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton for matching multiple keywords in a single pass over the input.
+ * <p>
+ * The automaton is compiled into a dense transition table: bytes that do not appear in any keyword share single
+ * input class, so the table has <code>states * (distinct keyword bytes + 1)</code> entries and each input byte
+ * costs two array lookups. The automaton is stateless; callers keep the current state (an <code>int</code>)
+ * on their own, which allows continuing the search across buffer boundaries.
+ */
+public class AhoCorasick implements Serializable {
+   public static final int INITIAL_STATE = 0;
+
+   private final int[] keywordLengths;
+   private final int[] classes = new int[256];
+   private final int numClasses;
+   private final int[] transitions;
+   // outputs of state S are outputs[outputOffsets[S]] until outputs[outputOffsets[S + 1]] (exclusive)
+   private final int[] outputOffsets;
+   private final int[] outputs;
+
+   /**
+    * @param keywords Non-empty keywords; duplicates are allowed and reported as separate matches.
+    */
+   public AhoCorasick(byte[]... keywords) {
+      keywordLengths = new int[keywords.length];
+      int classCounter = 1;
+      for (int i = 0; i < keywords.length; ++i) {
+         if (keywords[i].length == 0) {
+            throw new IllegalArgumentException("Keyword must not be empty");
+         }
+         keywordLengths[i] = keywords[i].length;
+         for (byte b : keywords[i]) {
+            if (classes[b & 0xFF] == 0) {
+               classes[b & 0xFF] = classCounter++;
+            }
+         }
+      }
+      numClasses = classCounter;
+
+      List<int[]> gotos = new ArrayList<>();
+      List<List<Integer>> ownOutputs = new ArrayList<>();
+      gotos.add(newRow());
+      ownOutputs.add(new ArrayList<>());
+      for (int i = 0; i < keywords.length; ++i) {
+         int state = INITIAL_STATE;
+         for (byte b : keywords[i]) {
+            int c = classes[b & 0xFF];
+            int next = gotos.get(state)[c];
+            if (next < 0) {
+               next = gotos.size();
+               gotos.get(state)[c] = next;
+               gotos.add(newRow());
+               ownOutputs.add(new ArrayList<>());
+            }
+            state = next;
+         }
+         ownOutputs.get(state).add(i);
+      }
+
+      int numStates = gotos.size();
+      transitions = new int[numStates * numClasses];
+      int[] fail = new int[numStates];
+      List<List<Integer>> allOutputs = new ArrayList<>(numStates);
+      for (int s = 0; s < numStates; ++s) {
+         allOutputs.add(null);
+      }
+      allOutputs.set(INITIAL_STATE, ownOutputs.get(INITIAL_STATE));
+      ArrayDeque<Integer> queue = new ArrayDeque<>();
+      for (int c = 0; c < numClasses; ++c) {
+         int next = gotos.get(INITIAL_STATE)[c];
+         if (next < 0) {
+            transitions[c] = INITIAL_STATE;
+         } else {
+            transitions[c] = next;
+            fail[next] = INITIAL_STATE;
+            queue.add(next);
+         }
+      }
+      // breadth-first traversal guarantees that the fail state has been resolved already
+      while (!queue.isEmpty()) {
+         int state = queue.poll();
+         List<Integer> outputs = new ArrayList<>(ownOutputs.get(state));
+         outputs.addAll(allOutputs.get(fail[state]));
+         allOutputs.set(state, outputs);
+         for (int c = 0; c < numClasses; ++c) {
+            int next = gotos.get(state)[c];
+            if (next < 0) {
+               transitions[state * numClasses + c] = transitions[fail[state] * numClasses + c];
+            } else {
+               transitions[state * numClasses + c] = next;
+               fail[next] = transitions[fail[state] * numClasses + c];
+               queue.add(next);
+            }
+         }
+      }
+
+      outputOffsets = new int[numStates + 1];
+      outputs = new int[allOutputs.stream().mapToInt(List::size).sum()];
+      int offset = 0;
+      for (int s = 0; s < numStates; ++s) {
+         outputOffsets[s] = offset;
+         for (int keyword : allOutputs.get(s)) {
+            outputs[offset++] = keyword;
+         }
+      }
+      outputOffsets[numStates] = offset;
+   }
+
+   private int[] newRow() {
+      int[] row = new int[numClasses];
+      Arrays.fill(row, -1);
+      return row;
+   }
+
+   public int next(int state, byte b) {
+      return transitions[state * numClasses + classes[b & 0xFF]];
+   }
+
+   /**
+    * @return Index of the first output for given state; outputs up to {@link #outputsEnd(int)} should be retrieved
+    *       using {@link #output(int)}. Keywords are ordered from the longest to the shortest.
+    */
+   public int outputsStart(int state) {
+      return outputOffsets[state];
+   }
+
+   public int outputsEnd(int state) {
+      return outputOffsets[state + 1];
+   }
+
+   /**
+    * @return Keyword index (as passed to the constructor).
+    */
+   public int output(int index) {
+      return outputs[index];
+   }
+
+   public int keywordLength(int keyword) {
+      return keywordLengths[keyword];
+   }
+
+   public int numStates() {
+      return outputOffsets.length - 1;
+   }
+}
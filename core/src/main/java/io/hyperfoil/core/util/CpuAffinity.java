@@ -0,0 +1,61 @@
+package io.hyperfoil.core.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
+
+/**
+ * Pins the calling thread to a CPU using <code>sched_setaffinity</code>. This is supported only on Linux.
+ */
+public final class CpuAffinity {
+   private static final Logger log = LogManager.getLogger(CpuAffinity.class);
+   private static final CLibrary LIBC;
+
+   static {
+      CLibrary libc = null;
+      if (Platform.isLinux()) {
+         try {
+            libc = Native.load("c", CLibrary.class);
+         } catch (Throwable t) {
+            log.warn("Cannot load libc, CPU affinity won't be available.", t);
+         }
+      }
+      LIBC = libc;
+   }
+
+   private CpuAffinity() {
+   }
+
+   public static boolean isAvailable() {
+      return LIBC != null;
+   }
+
+   /**
+    * @param cpu Index of the CPU the calling thread should run on.
+    * @return True if the thread was pinned successfully.
+    */
+   public static boolean pinCurrentThread(int cpu) {
+      if (LIBC == null) {
+         return false;
+      }
+      long[] mask = new long[cpu / Long.SIZE + 1];
+      mask[cpu / Long.SIZE] = 1L << (cpu % Long.SIZE);
+      try {
+         // pid 0 means the calling thread
+         LIBC.sched_setaffinity(0, new NativeLong(mask.length * Long.BYTES), mask);
+         return true;
+      } catch (LastErrorException e) {
+         log.error("Cannot pin thread {} to CPU {}: errno {}", Thread.currentThread().getName(), cpu, e.getErrorCode());
+         return false;
+      }
+   }
+
+   interface CLibrary extends Library {
+      int sched_setaffinity(int pid, NativeLong cpusetsize, long[] mask) throws LastErrorException;
+   }
+}
@@ -2,6 +2,9 @@ package io.hyperfoil.core.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.SimpleDateFormat;
@@ -9,12 +12,20 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.sun.management.GarbageCollectionNotificationInfo;
+
 import io.hyperfoil.api.BenchmarkExecutionException;
 import io.hyperfoil.internal.Properties;
 
@@ -23,6 +34,9 @@ public class CpuWatchdog implements Runnable {
    private static final Path PROC_STAT = Path.of("/proc/stat");
    private static final long PERIOD = Properties.getLong(Properties.CPU_WATCHDOG_PERIOD, 5000);
    private static final double IDLE_THRESHOLD = Double.parseDouble(Properties.get(Properties.CPU_WATCHDOG_IDLE_THRESHOLD, "0.2"));
+   private static final double EXECUTOR_BUSY_THRESHOLD = Double.parseDouble(Properties.get(Properties.CPU_WATCHDOG_EXECUTOR_THRESHOLD, "0.9"));
+   private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+   private static final GcPauseListener GC_PAUSES = GcPauseListener.register();
    // On most architectures the tick is defined as 1/100 of second (10 ms)
    // where the value of 100 can be obtained using sysconf(_SC_CLK_TCK)
    private static final long TICK_NANOS = Properties.getLong("io.hyperfoil.clock.tick.nanos", 10_000_000);
@@ -32,47 +46,65 @@ public class CpuWatchdog implements Runnable {
    private final BooleanSupplier warmupTest;
    private final int nCpu;
    private final long[] idleTime;
+   // Thread ids and CPU time (in nanoseconds) consumed by executor threads at the last sample
+   private final long[] executorThreadIds;
+   private final String[] executorThreadNames;
+   private final long[] executorCpuTime;
+   private final boolean threadCpuTimeSupported;
    private volatile boolean running = true;
    private long lastTimestamp;
    private long now;
    private final Map<String, PhaseRecord> phaseStart = new HashMap<>();
    private final Map<String, String> phaseUsage = new HashMap<>();
+   private final Map<String, String> phaseSaturation = new HashMap<>();
 
    public CpuWatchdog(Consumer<Throwable> errorHandler, BooleanSupplier warmupTest) {
+      this(errorHandler, warmupTest, 0);
+   }
+
+   public CpuWatchdog(Consumer<Throwable> errorHandler, BooleanSupplier warmupTest, int executors) {
       this.errorHandler = errorHandler;
       this.warmupTest = warmupTest;
+      this.executorThreadIds = new long[executors];
+      this.executorThreadNames = new String[executors];
+      this.executorCpuTime = new long[executors];
+      this.threadCpuTimeSupported = executors > 0 && THREAD_MX_BEAN.isThreadCpuTimeSupported();
+      if (threadCpuTimeSupported && !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+         THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+      }
       File stat = PROC_STAT.toFile();
       if (!stat.exists() || !stat.isFile() || !stat.canRead()) {
-         log.warn("Not starting CPU watchdog as {} is not available (exists: {}, file: {}, readable: {})",
+         log.warn("CPU watchdog won't monitor system CPU usage as {} is not available (exists: {}, file: {}, readable: {})",
                PROC_STAT, stat.exists(), stat.isFile(), stat.canRead());
-         thread = null;
          nCpu = 0;
          idleTime = null;
-         return;
+      } else {
+         AtomicInteger counter = new AtomicInteger();
+         if (readProcStat(ignored -> counter.incrementAndGet())) {
+            nCpu = counter.get();
+         } else {
+            nCpu = 0;
+         }
+         idleTime = new long[nCpu];
       }
-      thread = new Thread(this, "cpu-watchdog");
-      thread.setDaemon(true);
-      AtomicInteger counter = new AtomicInteger();
-      if (readProcStat(ignored -> counter.incrementAndGet())) {
-         nCpu = counter.get();
+      if (nCpu > 0 || threadCpuTimeSupported) {
+         thread = new Thread(this, "cpu-watchdog");
+         thread.setDaemon(true);
       } else {
-         nCpu = 0;
+         log.warn("Not starting CPU watchdog as neither system nor thread CPU usage can be monitored.");
+         thread = null;
       }
-      idleTime = new long[nCpu];
    }
 
    public void run() {
-      if (nCpu <= 0) {
-         log.error("Illegal number of CPUs");
-         return;
-      }
       lastTimestamp = System.nanoTime();
       now = lastTimestamp;
       while (running) {
-         if (!readProcStat(this::processCpuLine)) {
+         if (nCpu > 0 && !readProcStat(this::processCpuLine)) {
             log.info("CPU watchdog is terminating.");
             return;
          }
+         checkExecutors();
          try {
             Thread.sleep(PERIOD);
          } catch (InterruptedException e) {
@@ -128,6 +160,57 @@ public class CpuWatchdog implements Runnable {
       }
    }
 
+   private synchronized void checkExecutors() {
+      if (!threadCpuTimeSupported) {
+         return;
+      }
+      for (int i = 0; i < executorThreadIds.length; ++i) {
+         if (executorThreadIds[i] == 0) {
+            continue;
+         }
+         long cpuTime = THREAD_MX_BEAN.getThreadCpuTime(executorThreadIds[i]);
+         if (cpuTime < 0) {
+            // thread is not alive anymore
+            continue;
+         }
+         long prevCpuTime = executorCpuTime[i];
+         if (prevCpuTime != 0 && lastTimestamp != now) {
+            double busyRatio = (double) (cpuTime - prevCpuTime) / (now - lastTimestamp);
+            if (busyRatio > EXECUTOR_BUSY_THRESHOLD) {
+               log.warn("{} | Executor thread {} was busy for {}% which is more than the threshold of {}%",
+                     new SimpleDateFormat("HH:mm:ss.SSS").format(new Date()), executorThreadNames[i],
+                     String.format("%.0f", 100 * busyRatio), String.format("%.0f", 100 * EXECUTOR_BUSY_THRESHOLD));
+            }
+         }
+         executorCpuTime[i] = cpuTime;
+      }
+   }
+
+   /**
+    * Registers thread that runs given executor; should be invoked from within the executor.
+    */
+   public synchronized void registerExecutor(int executorId, Thread thread) {
+      executorThreadIds[executorId] = thread.getId();
+      executorThreadNames[executorId] = thread.getName();
+   }
+
+   /**
+    * Total time spent in stop-the-world GC pauses, in milliseconds, and number of these pauses since the watchdog
+    * class was loaded. Notifications about concurrent GC cycles (e.g. from ZGC or Shenandoah) are ignored.
+    * The notifications are delivered asynchronously so the most recent pause might not be included yet.
+    */
+   public static long[] gcPauses() {
+      return new long[]{ GC_PAUSES.time.get(), GC_PAUSES.count.get() };
+   }
+
+   /**
+    * Collectors with concurrent phases report whole cycles as <code>end of GC cycle</code> besides the actual pauses;
+    * CMS used to report concurrent phases with <code>No GC</code> cause.
+    */
+   static boolean isPause(String gcAction, String gcCause) {
+      return !gcAction.endsWith("cycle") && !"No GC".equals(gcCause);
+   }
+
    public void start() {
       if (thread != null) {
          thread.start();
@@ -139,9 +222,9 @@ public class CpuWatchdog implements Runnable {
    }
 
    public synchronized void notifyPhaseStart(String name) {
-      if (nCpu <= 0) return;
-      PhaseRecord record = new PhaseRecord(System.nanoTime(), new long[nCpu]);
-      if (readProcStat(parts -> {
+      if (thread == null) return;
+      PhaseRecord record = new PhaseRecord(System.nanoTime(), new long[nCpu], executorCpuTimes(), gcPauses());
+      if (nCpu <= 0 || readProcStat(parts -> {
          int cpuIndex = Integer.parseInt(parts[0], 3, parts[0].length(), 10);
          record.cpuIdle[cpuIndex] = Long.parseLong(parts[4]);
       })) {
@@ -150,7 +233,7 @@ public class CpuWatchdog implements Runnable {
    }
 
    public synchronized void notifyPhaseEnd(String name) {
-      if (nCpu <= 0) {
+      if (thread == null) {
          return;
       }
       PhaseRecord start = phaseStart.get(name);
@@ -158,8 +241,9 @@ public class CpuWatchdog implements Runnable {
          return;
       }
       long now = System.nanoTime();
+      StringBuilder usage = new StringBuilder();
       SumMin acc = new SumMin();
-      if (readProcStat(parts -> {
+      if (nCpu > 0 && readProcStat(parts -> {
          int cpuIndex = Integer.parseInt(parts[0], 3, parts[0].length(), 10);
          long idle = Long.parseLong(parts[4]);
          long diff = idle - start.cpuIdle[cpuIndex];
@@ -168,15 +252,100 @@ public class CpuWatchdog implements Runnable {
       })) {
          double idleCores = (double) (TICK_NANOS * acc.sum) / (now - start.timestamp);
          double minIdleRatio = (double) (TICK_NANOS * acc.min) / (now - start.timestamp);
-         phaseUsage.put(name, String.format("%.1f%% (%.1f/%d cores), 1 core max %.1f%%",
+         usage.append(String.format("%.1f%% (%.1f/%d cores), 1 core max %.1f%%",
                100 - 100 * idleCores / nCpu, nCpu - idleCores, nCpu, 100 - 100 * minIdleRatio));
       }
+      long[] cpuTimes = executorCpuTimes();
+      int busiest = -1;
+      double busiestRatio = 0;
+      StringBuilder saturated = new StringBuilder();
+      for (int i = 0; i < cpuTimes.length; ++i) {
+         if (cpuTimes[i] < 0 || start.executorCpuTime[i] < 0) {
+            continue;
+         }
+         double ratio = (double) (cpuTimes[i] - start.executorCpuTime[i]) / (now - start.timestamp);
+         if (busiest < 0 || ratio > busiestRatio) {
+            busiest = i;
+            busiestRatio = ratio;
+         }
+         if (ratio > EXECUTOR_BUSY_THRESHOLD) {
+            if (saturated.length() > 0) {
+               saturated.append(", ");
+            }
+            saturated.append(String.format("%s (%.1f%%)", executorThreadNames[i], 100 * ratio));
+         }
+      }
+      if (busiest >= 0) {
+         if (usage.length() > 0) {
+            usage.append(", ");
+         }
+         usage.append(String.format("executor max %.1f%% (%s)", 100 * busiestRatio, executorThreadNames[busiest]));
+      }
+      long[] gc = gcPauses();
+      if (usage.length() > 0) {
+         usage.append(", ");
+      }
+      usage.append(String.format("GC pauses %d ms (%d)", gc[0] - start.gcPauses[0], gc[1] - start.gcPauses[1]));
+      phaseUsage.put(name, usage.toString());
+      if (saturated.length() > 0) {
+         log.warn("Phase {}: executor thread(s) were saturated: {}", name, saturated);
+         phaseSaturation.put(name, saturated.toString());
+      }
+   }
+
+   private long[] executorCpuTimes() {
+      long[] cpuTimes = new long[executorThreadIds.length];
+      for (int i = 0; i < cpuTimes.length; ++i) {
+         cpuTimes[i] = threadCpuTimeSupported && executorThreadIds[i] != 0 ? THREAD_MX_BEAN.getThreadCpuTime(executorThreadIds[i]) : -1;
+      }
+      return cpuTimes;
    }
 
    public String getCpuUsage(String name) {
       return phaseUsage.get(name);
    }
 
+   /**
+    * @return Description of executors that were busy for more than the threshold during given phase,
+    * or <code>null</code> if there were no such executors.
+    */
+   public String getSaturatedExecutors(String name) {
+      return phaseSaturation.get(name);
+   }
+
+   static class GcPauseListener implements NotificationListener {
+      final AtomicLong time = new AtomicLong();
+      final AtomicLong count = new AtomicLong();
+
+      static GcPauseListener register() {
+         GcPauseListener listener = new GcPauseListener();
+         for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+               ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+            } else {
+               log.warn("Garbage collector {} does not emit notifications, its pauses won't be tracked.", gc.getName());
+            }
+         }
+         return listener;
+      }
+
+      @Override
+      public void handleNotification(Notification notification, Object handback) {
+         if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+         }
+         GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+         if (isPause(info.getGcAction(), info.getGcCause())) {
+            record(info.getGcInfo().getDuration());
+         }
+      }
+
+      void record(long duration) {
+         time.addAndGet(duration);
+         count.incrementAndGet();
+      }
+   }
+
    private static class SumMin {
       long sum;
       long min = Long.MAX_VALUE;
@@ -185,10 +354,14 @@ public class CpuWatchdog implements Runnable {
    private static class PhaseRecord {
       final long timestamp;
       final long[] cpuIdle;
+      final long[] executorCpuTime;
+      final long[] gcPauses;
 
-      private PhaseRecord(long timestamp, long[] cpuIdle) {
+      private PhaseRecord(long timestamp, long[] cpuIdle, long[] executorCpuTime, long[] gcPauses) {
          this.timestamp = timestamp;
          this.cpuIdle = cpuIdle;
+         this.executorCpuTime = executorCpuTime;
+         this.gcPauses = gcPauses;
       }
    }
 }
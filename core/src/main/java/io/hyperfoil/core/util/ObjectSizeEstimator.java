@@ -0,0 +1,173 @@
+package io.hyperfoil.core.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Estimates heap size of object graphs through reflection, assuming 64-bit JVM with compressed references.
+ * Fields of classes that are not open for reflection (JDK internals) are not traversed; collections and maps
+ * are estimated from their elements instead. Off-heap memory (e.g. direct buffers) is not included.
+ * <p>
+ * The estimator remembers all visited objects; each object is counted only once.
+ */
+public class ObjectSizeEstimator {
+   private static final int OBJECT_HEADER = 12;
+   private static final int ARRAY_HEADER = 16;
+   private static final int REFERENCE = 4;
+   // rough size of a node in hash-based collections
+   private static final int ENTRY = 32;
+   // Marks classes with fields that cannot be made accessible; ConcurrentHashMap cannot store null values
+   static final Field[] INACCESSIBLE = new Field[0];
+   static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+   private static final Map<Class<?>, Long> SHALLOW_SIZES = new ConcurrentHashMap<>();
+
+   private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+   private final Predicate<Object> stop;
+   private final ArrayDeque<Object> stack = new ArrayDeque<>();
+
+   /**
+    * @param stop Objects matching this predicate are neither counted nor traversed.
+    */
+   public ObjectSizeEstimator(Predicate<Object> stop) {
+      this.stop = stop;
+   }
+
+   /**
+    * Marks objects as visited without counting them.
+    */
+   public void exclude(Object root) {
+      estimate(root);
+   }
+
+   /**
+    * @return Estimated size of all objects reachable from root that were not visited before.
+    *       The stop condition is not applied to the root itself.
+    */
+   public long estimate(Object root) {
+      long size = 0;
+      if (root != null && visited.add(root)) {
+         stack.push(root);
+      }
+      while (!stack.isEmpty()) {
+         Object obj = stack.pop();
+         Class<?> clazz = obj.getClass();
+         if (clazz.isArray()) {
+            Class<?> componentType = clazz.getComponentType();
+            int length = Array.getLength(obj);
+            if (componentType.isPrimitive()) {
+               size += align(ARRAY_HEADER + (long) length * primitiveSize(componentType));
+            } else {
+               size += align(ARRAY_HEADER + (long) length * REFERENCE);
+               for (Object element : (Object[]) obj) {
+                  push(element);
+               }
+            }
+            continue;
+         }
+         size += SHALLOW_SIZES.computeIfAbsent(clazz, ObjectSizeEstimator::shallowSize);
+         if (obj instanceof String) {
+            size += align(ARRAY_HEADER + ((String) obj).length());
+            continue;
+         }
+         Field[] fields = FIELDS.computeIfAbsent(clazz, ObjectSizeEstimator::accessibleReferenceFields);
+         if (fields == INACCESSIBLE) {
+            size += inaccessible(obj);
+            continue;
+         }
+         for (Field field : fields) {
+            try {
+               push(field.get(obj));
+            } catch (IllegalAccessException e) {
+               // cannot happen as we've set the field accessible
+            }
+         }
+      }
+      return size;
+   }
+
+   private long inaccessible(Object obj) {
+      if (obj instanceof Collection) {
+         Collection<?> collection = (Collection<?>) obj;
+         for (Object element : collection) {
+            push(element);
+         }
+         return align(ARRAY_HEADER + (long) collection.size() * (obj instanceof Set ? ENTRY : REFERENCE));
+      } else if (obj instanceof Map) {
+         Map<?, ?> map = (Map<?, ?>) obj;
+         for (Map.Entry<?, ?> entry : map.entrySet()) {
+            push(entry.getKey());
+            push(entry.getValue());
+         }
+         return align(ARRAY_HEADER + (long) map.size() * (REFERENCE + ENTRY));
+      }
+      return 0;
+   }
+
+   private void push(Object obj) {
+      if (obj != null && !(obj instanceof Class) && !stop.test(obj) && visited.add(obj)) {
+         stack.push(obj);
+      }
+   }
+
+   private static long shallowSize(Class<?> clazz) {
+      long size = OBJECT_HEADER;
+      for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+         for (Field field : c.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+               size += field.getType().isPrimitive() ? primitiveSize(field.getType()) : REFERENCE;
+            }
+         }
+      }
+      return align(size);
+   }
+
+   /**
+    * @return Non-static reference fields, or {@link #INACCESSIBLE} if some of them cannot be made accessible.
+    */
+   private static Field[] accessibleReferenceFields(Class<?> clazz) {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+         for (Field field : c.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+               continue;
+            }
+            try {
+               if (!field.trySetAccessible()) {
+                  return INACCESSIBLE;
+               }
+            } catch (SecurityException e) {
+               return INACCESSIBLE;
+            }
+            fields.add(field);
+         }
+      }
+      return fields.toArray(new Field[0]);
+   }
+
+   private static int primitiveSize(Class<?> type) {
+      if (type == long.class || type == double.class) {
+         return 8;
+      } else if (type == int.class || type == float.class) {
+         return 4;
+      } else if (type == short.class || type == char.class) {
+         return 2;
+      } else {
+         return 1;
+      }
+   }
+
+   private static long align(long size) {
+      return (size + 7) & ~7L;
+   }
+}
@@ -3,6 +3,7 @@ package io.hyperfoil.core.generators;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 import org.junit.After;
 import org.junit.Before;
@@ -11,6 +12,7 @@ import org.junit.Test;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.IntAccess;
+import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.test.TestUtil;
@@ -91,6 +93,31 @@ public class PatternTest {
       test(pattern, session, "fooXXXbar");
    }
 
+   @Test
+   public void testBase64Encode() {
+      Pattern pattern = new Pattern("${base64encode:var}", false);
+      for (String value : new String[]{ "", "a", "ab", "abc", "ěščř", "\uD83D\uDE00!" }) {
+         Session session = setObject("var", value);
+         test(pattern, session, Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)));
+      }
+   }
+
+   @Test
+   public void testCachedValueChange() {
+      Pattern pattern = new Pattern("foo${urlencode:var}-${%02x:num}", false);
+      ObjectAccess var = SessionFactory.objectAccess("var");
+      IntAccess num = SessionFactory.intAccess("num");
+      Session session = SessionFactory.forTesting(var, num);
+      ResourceUtilizer.reserveForTesting(session, pattern);
+      var.setObject(session, "a b");
+      num.setInt(session, 10);
+      test(pattern, session, "fooa+b-0a");
+      var.setObject(session, "c&d");
+      test(pattern, session, "fooc%26d-0a");
+      num.setInt(session, 255);
+      test(pattern, session, "fooc%26d-ff");
+   }
+
    private Session setObject(String name, String value) {
       ObjectAccess var = SessionFactory.objectAccess(name);
       Session session = SessionFactory.forTesting(var);
@@ -107,14 +134,21 @@ public class PatternTest {
 
    private void test(Pattern pattern, Session session, String expected) {
       TestUtil.resolveAccess(session, pattern);
+      if (session.getResource(pattern) == null) {
+         ResourceUtilizer.reserveForTesting(session, pattern);
+      }
       String str = pattern.apply(session);
       assertThat(str).isEqualTo(expected);
       ByteBuf buf = ByteBufAllocator.DEFAULT.buffer();
-      pattern.accept(session, buf);
-      byte[] bytes = new byte[buf.readableBytes()];
-      buf.readBytes(bytes);
-      String bufString = new String(bytes, StandardCharsets.UTF_8);
-      assertThat(bufString).isEqualTo(expected);
+      // second round uses values cached in the session (if reserved)
+      for (int i = 0; i < 2; ++i) {
+         pattern.accept(session, buf);
+         byte[] bytes = new byte[buf.readableBytes()];
+         buf.readBytes(bytes);
+         String bufString = new String(bytes, StandardCharsets.UTF_8);
+         assertThat(bufString).isEqualTo(expected);
+         assertThat(pattern.apply(session)).isEqualTo(expected);
+      }
       buf.release();
    }
 }
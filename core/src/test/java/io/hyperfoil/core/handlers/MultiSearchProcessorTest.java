@@ -0,0 +1,134 @@
+package io.hyperfoil.core.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class MultiSearchProcessorTest {
+   @Test
+   public void testSimple() {
+      ExpectProcessor processor = new ExpectProcessor().expect(6, 3, true);
+      runProcessor(single("foo", "bar", processor), processor, "yyyfooxxxbaryyy");
+   }
+
+   @Test
+   public void testEmpty() {
+      ExpectProcessor processor = new ExpectProcessor().expect(3, 0, true);
+      runProcessor(single("foo", "bar", processor), processor, "foobar");
+   }
+
+   @Test
+   public void testNotEnding() {
+      ExpectProcessor processor = new ExpectProcessor();
+      runProcessor(single("foo", "bar", processor), processor, "fooxxx");
+   }
+
+   @Test
+   public void testGreedy() {
+      ExpectProcessor processor = new ExpectProcessor().expect(3, 6, true);
+      runProcessor(single("foo", "bar", processor), processor, "foofooxxxbar");
+   }
+
+   @Test
+   public void testSplitMany() {
+      ExpectProcessor processor = new ExpectProcessor()
+            .expect(1, 3, true)
+            .expect(0, 1, false)
+            .expect(0, 2, true);
+      runProcessor(single("foo", "bar", processor), processor, "fo", "oxxxb", "aryyyfoo", "x", "xxbar");
+   }
+
+   @Test
+   public void testSameBeginAndEnd() {
+      ExpectProcessor processor = new ExpectProcessor().expect(2, 3, true).expect(8, 1, true);
+      runProcessor(single("\"", "\"", processor), processor, "x\"abc\"y\"z\"");
+   }
+
+   @Test
+   public void testMultiplePatterns() {
+      ExpectProcessor title = new ExpectProcessor().expect(7, 5, true);
+      ExpectProcessor bold = new ExpectProcessor().expect(5, 2, false).expect(0, 1, true);
+      // '<b>' is a suffix of 'a<b>' so both patterns match at the same position
+      ExpectProcessor overlapping = new ExpectProcessor().expect(5, 2, false).expect(0, 1, true);
+      MultiSearchProcessor processor = new MultiSearchProcessor(
+            new String[]{ "<title>", "<b>", "a<b>" },
+            new String[]{ "</title>", "</b>", "</b>" },
+            new Processor[]{ title, bold, overlapping });
+      runProcessor(processor, null, "<title>hello</title>", "xa<b>12", "3</b>");
+      title.validate();
+      bold.validate();
+      overlapping.validate();
+   }
+
+   @Test
+   public void testMatchSpanningManyParts() {
+      StringBuilder content = new StringBuilder();
+      String[] text = new String[42];
+      text[0] = "yyy<a>";
+      for (int i = 1; i < text.length - 1; ++i) {
+         text[i] = "chunk" + i + ";";
+         content.append(text[i]);
+      }
+      text[text.length - 1] = "</a>yyy<b>z</b>";
+      CollectingProcessor a = new CollectingProcessor();
+      CollectingProcessor b = new CollectingProcessor();
+      MultiSearchProcessor processor = new MultiSearchProcessor(
+            new String[]{ "<a>", "<b>" }, new String[]{ "</a>", "</b>" }, new Processor[]{ a, b });
+      runProcessor(processor, null, text);
+      assertThat(a.matches).containsExactly(content.toString());
+      assertThat(b.matches).containsExactly("z");
+   }
+
+   @Test
+   public void testSingleByteParts() {
+      String match = "0123456789abcdefghijklmnopqrstuvwxyz";
+      String input = "<<<" + match + ">>>--<<<>>><<<" + match + match + ">>>";
+      String[] text = input.split("");
+      CollectingProcessor processor = new CollectingProcessor();
+      runProcessor(single("<<<", ">>>", processor), null, text);
+      assertThat(processor.matches).containsExactly(match, "", match + match);
+   }
+
+   private MultiSearchProcessor single(String begin, String end, Processor processor) {
+      return new MultiSearchProcessor(new String[]{ begin }, new String[]{ end }, new Processor[]{ processor });
+   }
+
+   private void runProcessor(MultiSearchProcessor processor, ExpectProcessor expect, String... text) {
+      Session session = SessionFactory.forTesting();
+      ResourceUtilizer.reserveForTesting(session, processor);
+      processor.before(session);
+      for (String t : text) {
+         ByteBuf data = Unpooled.wrappedBuffer(t.getBytes(StandardCharsets.UTF_8));
+         processor.process(session, data, data.readerIndex(), data.readableBytes(), false);
+      }
+      processor.after(session);
+      if (expect != null) {
+         expect.validate();
+      }
+   }
+
+   private static class CollectingProcessor implements Processor {
+      final List<String> matches = new ArrayList<>();
+      final StringBuilder current = new StringBuilder();
+
+      @Override
+      public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+         current.append(data.toString(offset, length, StandardCharsets.UTF_8));
+         if (isLastPart) {
+            matches.add(current.toString());
+            current.setLength(0);
+         }
+      }
+   }
+}
@@ -0,0 +1,156 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.steps.AwaitVarStep;
+import io.hyperfoil.core.steps.PollStep;
+import io.hyperfoil.core.steps.SetIntAction;
+import io.hyperfoil.internal.Properties;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class EventDrivenSessionTest extends BaseScenarioTest {
+   private static final int TICKS = 30;
+   private static final List<String> ORDER = Collections.synchronizedList(new ArrayList<>());
+   private static final AtomicInteger TICKER_POLLS = new AtomicInteger();
+   private static final AtomicInteger WAITER_POLLS = new AtomicInteger();
+   private static final AtomicInteger CHECKER_POLLS = new AtomicInteger();
+   private static final AtomicBoolean FLAG = new AtomicBoolean();
+
+   @Test
+   public void testEventDriven() {
+      run(true);
+      // The waiter is retried only when a variable is written or when the delay of the sleeper elapses,
+      // not on every tick.
+      assertThat(WAITER_POLLS.get()).isLessThan(10);
+   }
+
+   @Test
+   public void testDefault() {
+      run(false);
+      assertThat(WAITER_POLLS.get()).isGreaterThanOrEqualTo(TICKS);
+   }
+
+   @Test
+   public void testNonVarCondition() {
+      ORDER.clear();
+      TICKER_POLLS.set(0);
+      FLAG.set(false);
+      // @formatter:off
+      scenario()
+            .initialSequence("ticker")
+               .stepBuilder(new PollStep.Builder<>(s -> {
+                  int polls = TICKER_POLLS.incrementAndGet();
+                  if (polls >= TICKS / 2) {
+                     FLAG.set(true);
+                  }
+                  return polls >= TICKS ? "tick" : null;
+               }, "tick").periodMs(2).maxRetries(1))
+               .step(record("ticker"))
+            .endSequence()
+            .initialSequence("waiter")
+               // the condition does not read any session variable
+               .step(SC).awaitCondition(s -> FLAG.get())
+               .step(record("waiter"));
+      // @formatter:on
+
+      System.setProperty(Properties.SESSION_EVENT_DRIVEN, "true");
+      try {
+         runScenario();
+      } finally {
+         System.clearProperty(Properties.SESSION_EVENT_DRIVEN);
+      }
+      // The waiter must not wait until the ticker writes a variable
+      assertThat(ORDER).containsExactly("waiter", "ticker");
+   }
+
+   private void run(boolean eventDriven) {
+      ORDER.clear();
+      TICKER_POLLS.set(0);
+      WAITER_POLLS.set(0);
+      CHECKER_POLLS.set(0);
+      // @formatter:off
+      scenario()
+            .initialSequence("sleeper")
+               .step(SC).thinkTime(1, TimeUnit.MILLISECONDS).endStep()
+               .step(record("sleeper"))
+            .endSequence()
+            .initialSequence("ticker")
+               .stepBuilder(new PollStep.Builder<>(s -> TICKER_POLLS.incrementAndGet() >= TICKS ? "tick" : null, "tick")
+                     .periodMs(2).maxRetries(1))
+               .step(record("ticker"))
+            .endSequence()
+            .initialSequence("waiter")
+               .step(() -> new CountingStep(new AwaitVarStep(SessionFactory.readAccess("tick")), WAITER_POLLS))
+               .step(record("waiter"))
+               .step(SC).action(new SetIntAction.Builder().var("done").value(1))
+            .endSequence()
+            .initialSequence("checker")
+               .step(() -> {
+                  ReadAccess done = SessionFactory.readAccess("done");
+                  // does not declare any wake-up so it is polled on each run
+                  return new CountingStep(done::isSet, CHECKER_POLLS);
+               })
+               .step(record("checker"));
+      // @formatter:on
+
+      if (eventDriven) {
+         System.setProperty(Properties.SESSION_EVENT_DRIVEN, "true");
+      }
+      try {
+         runScenario();
+      } finally {
+         System.clearProperty(Properties.SESSION_EVENT_DRIVEN);
+      }
+      assertThat(ORDER).containsExactly("sleeper", "ticker", "waiter", "checker");
+      assertThat(TICKER_POLLS.get()).isEqualTo(TICKS);
+      assertThat(CHECKER_POLLS.get()).isGreaterThanOrEqualTo(TICKS);
+   }
+
+   private static Step record(String name) {
+      return s -> {
+         ORDER.add(name);
+         return true;
+      };
+   }
+
+   private static class CountingStep implements Step {
+      private final Step delegate;
+      private final AtomicInteger counter;
+
+      private CountingStep(Step delegate, AtomicInteger counter) {
+         this.delegate = delegate;
+         this.counter = counter;
+      }
+
+      @Override
+      public boolean invoke(Session session) {
+         counter.incrementAndGet();
+         return delegate.invoke(session);
+      }
+
+      @Override
+      public boolean awaitsWakeUp() {
+         return delegate.awaitsWakeUp();
+      }
+
+      @Override
+      public boolean awaitsStateChange() {
+         return delegate.awaitsStateChange();
+      }
+   }
+}
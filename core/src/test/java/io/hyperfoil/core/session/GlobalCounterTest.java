@@ -0,0 +1,36 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.core.steps.data.AddToGlobalCounterAction;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class GlobalCounterTest extends BaseScenarioTest {
+   @Test
+   public void test() {
+      List<Long> values = new ArrayList<>();
+      parallelScenario(30).initialSequence("test")
+            .step(SC).action(new AddToGlobalCounterAction.Builder().init("foo++"))
+            .step(SC).thinkTime(500, TimeUnit.MILLISECONDS).endStep()
+            .step(s -> {
+               synchronized (values) {
+                  values.add(s.globalData().counter("foo").get());
+               }
+               return true;
+            })
+            .endSequence();
+
+      runScenario();
+      // increments from sessions on other executors are visible after synchronization
+      assertThat(values).hasSize(30).containsOnly(30L);
+   }
+}
@@ -0,0 +1,100 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.session.Session;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+public class LazyResourceTest {
+   private static final Session.ResourceKey<Counter> KEY = new Session.ResourceKey<>() {};
+
+   private final List<Counter> created = new ArrayList<>();
+
+   @Test
+   public void testCreatedOnFirstUse() {
+      Session session = session(new ThreadDataImpl());
+      LazyResource lazy = new LazyResource(KEY, this::create);
+      // reset without use does not create anything
+      lazy.onSessionReset(session);
+      assertThat(created).isEmpty();
+
+      Counter counter = (Counter) lazy.get(session);
+      assertThat(created).containsExactly(counter);
+      assertThat(lazy.get(session)).isSameAs(counter);
+      assertThat(created).hasSize(1);
+   }
+
+   @Test
+   public void testReuseAcrossSessions() {
+      ThreadDataImpl threadData = new ThreadDataImpl();
+      Session session1 = session(threadData);
+      Session session2 = session(threadData);
+      LazyResource lazy1 = new LazyResource(KEY, this::create);
+      LazyResource lazy2 = new LazyResource(KEY, this::create);
+
+      Counter counter = (Counter) lazy1.get(session1);
+      // while the first session holds the resource the other one must create its own
+      Counter other = (Counter) lazy2.get(session2);
+      assertThat(other).isNotSameAs(counter);
+      lazy2.onSessionReset(session2);
+
+      lazy1.onSessionReset(session1);
+      assertThat(counter.resets).isEqualTo(1);
+      // the resource returned last is borrowed first
+      assertThat(lazy2.get(session2)).isSameAs(counter);
+      assertThat(lazy1.get(session1)).isSameAs(other);
+      assertThat(created).hasSize(2);
+
+      lazy1.destroy();
+      assertThat(other.destroyed).isTrue();
+      lazy2.onSessionReset(session2);
+      threadData.destroyResources();
+      assertThat(counter.destroyed).isTrue();
+      assertThat(threadData.borrowResource(KEY)).isNull();
+   }
+
+   @Test
+   public void testWithoutThreadData() {
+      Session session = SessionFactory.forTesting();
+      LazyResource lazy = new LazyResource(KEY, this::create);
+      Counter counter = (Counter) lazy.get(session);
+      lazy.onSessionReset(session);
+      // there's no pool to return the resource to so the session keeps it
+      assertThat(lazy.get(session)).isSameAs(counter);
+      assertThat(created).hasSize(1);
+   }
+
+   private Counter create() {
+      Counter counter = new Counter();
+      created.add(counter);
+      return counter;
+   }
+
+   private static Session session(ThreadDataImpl threadData) {
+      SessionImpl session = new SessionImpl(new Scenario(new Sequence[0], new Sequence[0], 16, 16), 0, 0);
+      session.attach(ImmediateEventExecutor.INSTANCE, threadData, null, null, null);
+      return session;
+   }
+
+   private static class Counter implements Session.Resource {
+      int resets;
+      boolean destroyed;
+
+      @Override
+      public void onSessionReset(Session session) {
+         resets++;
+      }
+
+      @Override
+      public void destroy() {
+         destroyed = true;
+      }
+   }
+}
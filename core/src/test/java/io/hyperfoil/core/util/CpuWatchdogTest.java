@@ -0,0 +1,84 @@
+package io.hyperfoil.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CpuWatchdogTest {
+   @Test
+   public void testPauseClassification() {
+      // Serial, Parallel and G1 young/full collections
+      assertThat(CpuWatchdog.isPause("end of minor GC", "G1 Evacuation Pause")).isTrue();
+      assertThat(CpuWatchdog.isPause("end of major GC", "System.gc()")).isTrue();
+      // G1 remark and cleanup are stop-the-world even though reported by the concurrent collector
+      assertThat(CpuWatchdog.isPause("end of concurrent GC pause", "G1 Remark")).isTrue();
+      // ZGC and Shenandoah report pauses and cycles separately
+      assertThat(CpuWatchdog.isPause("end of GC pause", "Allocation Rate")).isTrue();
+      assertThat(CpuWatchdog.isPause("end of GC cycle", "Allocation Rate")).isFalse();
+      // CMS concurrent phases
+      assertThat(CpuWatchdog.isPause("end of major GC", "No GC")).isFalse();
+   }
+
+   @Test
+   public void testGcPausesRecorded() throws InterruptedException {
+      long[] before = CpuWatchdog.gcPauses();
+      System.gc();
+      // notifications are delivered asynchronously
+      long deadline = System.currentTimeMillis() + 10_000;
+      long[] after = CpuWatchdog.gcPauses();
+      while (after[1] == before[1] && System.currentTimeMillis() < deadline) {
+         Thread.sleep(10);
+         after = CpuWatchdog.gcPauses();
+      }
+      assertThat(after[1]).isGreaterThan(before[1]);
+      assertThat(after[0]).isGreaterThanOrEqualTo(before[0]);
+   }
+
+   @Test
+   public void testGcPauseListener() {
+      CpuWatchdog.GcPauseListener listener = new CpuWatchdog.GcPauseListener();
+      listener.record(12);
+      listener.record(3);
+      assertThat(listener.time.get()).isEqualTo(15);
+      assertThat(listener.count.get()).isEqualTo(2);
+   }
+
+   @Test
+   public void testPhaseUsage() throws InterruptedException {
+      CpuWatchdog watchdog = new CpuWatchdog(e -> { }, () -> false, 2);
+      CountDownLatch stop = new CountDownLatch(1);
+      Thread idle = new Thread(() -> {
+         try {
+            stop.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }, "idle-executor");
+      idle.start();
+      try {
+         watchdog.registerExecutor(0, idle);
+         watchdog.registerExecutor(1, Thread.currentThread());
+         watchdog.notifyPhaseStart("test");
+         long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+         long counter = 0;
+         while (System.nanoTime() < end) {
+            ++counter;
+         }
+         assertThat(counter).isPositive();
+         watchdog.notifyPhaseEnd("test");
+      } finally {
+         stop.countDown();
+         idle.join();
+      }
+      String usage = watchdog.getCpuUsage("test");
+      assertThat(usage).contains("executor max").contains("(" + Thread.currentThread().getName() + ")").contains("GC pauses");
+      String saturated = watchdog.getSaturatedExecutors("test");
+      if (saturated != null) {
+         assertThat(saturated).doesNotContain("idle-executor");
+      }
+      assertThat(watchdog.getCpuUsage("unknown")).isNull();
+   }
+}
@@ -0,0 +1,63 @@
+package io.hyperfoil.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ObjectSizeEstimatorTest {
+   @Test
+   public void testArraysAndSharing() {
+      ObjectSizeEstimator estimator = new ObjectSizeEstimator(obj -> false);
+      // header + 100 * 8 bytes
+      assertThat(estimator.estimate(new long[100])).isEqualTo(816);
+
+      byte[] shared = new byte[1000];
+      Holder first = new Holder(shared, null);
+      Holder second = new Holder(shared, first);
+      long firstSize = estimator.estimate(first);
+      assertThat(firstSize).isGreaterThan(1000);
+      // both the shared array and the first holder have been counted already
+      assertThat(estimator.estimate(second)).isEqualTo(24);
+   }
+
+   @Test
+   public void testStop() {
+      List<Object> list = new ArrayList<>();
+      list.add(new byte[1000]);
+      ObjectSizeEstimator estimator = new ObjectSizeEstimator(obj -> obj instanceof byte[]);
+      assertThat(estimator.estimate(list)).isLessThan(100);
+   }
+
+   @Test
+   public void testInaccessibleClassCached() {
+      // JDK internals are not open for reflection: the list is estimated from its elements
+      List<Object> list = new ArrayList<>();
+      list.add(new byte[1000]);
+      long size = new ObjectSizeEstimator(obj -> false).estimate(list);
+      assertThat(size).isGreaterThan(1000);
+      assertThat(ObjectSizeEstimator.FIELDS.get(ArrayList.class)).isSameAs(ObjectSizeEstimator.INACCESSIBLE);
+      assertThat(new ObjectSizeEstimator(obj -> false).estimate(list)).isEqualTo(size);
+
+      // class without reference fields is not mistaken for an inaccessible one
+      new ObjectSizeEstimator(obj -> false).estimate(new Primitives());
+      assertThat(ObjectSizeEstimator.FIELDS.get(Primitives.class)).isNotSameAs(ObjectSizeEstimator.INACCESSIBLE);
+      assertThat(ObjectSizeEstimator.FIELDS.get(Primitives.class)).isEmpty();
+   }
+
+   private static class Primitives {
+      long value;
+   }
+
+   private static class Holder {
+      final byte[] data;
+      final Holder next;
+
+      Holder(byte[] data, Holder next) {
+         this.data = data;
+         this.next = next;
+      }
+   }
+}
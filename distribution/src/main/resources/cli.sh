@@ -1,4 +1,4 @@
 #!/bin/bash
 
 source $(dirname $0)/parse-opts.sh
-java $@ -cp $CP $JAVA_OPTS io.hyperfoil.cli.HyperfoilCli
\ No newline at end of file
+java $@ -cp $CP $JAVA_OPTS $(cds_opts cli) io.hyperfoil.cli.HyperfoilCli
\ No newline at end of file
@@ -45,8 +45,11 @@ if [ "$DEBUG_MODE" = "true" ]; then
     fi
 fi
 
-ROOT=$(dirname $0)/..
-CP=$(find $ROOT/lib $ROOT/extensions | tr '\n' ':')
+# Absolute path keeps the classpath the same regardless of working directory; this is required
+# for the class data sharing archives.
+ROOT=$(cd $(dirname $0)/.. && pwd)
+# Only jars: class data sharing does not support non-empty directories on classpath
+CP=$(find $ROOT/lib $ROOT/extensions -name '*.jar' | tr '\n' ':')
 if [ -n "$LOG_FILE" ]; then
   mkdir -p $(dirname $LOG_FILE)
   LOG_OPTS="-Dio.hyperfoil.controller.log.file=$LOG_FILE -Dio.hyperfoil.controller.log.file.level=$LOG_LEVEL"
@@ -88,11 +91,35 @@ jdk_version() {
       fi
     done
   fi
-  echo "$result"
+  # second word identifies the exact JVM build
+  echo "$result $(echo "$lines" | cksum | cut -d' ' -f1)"
 }
 
+# Class data sharing archives (Java 13+): the first start of each entry point dumps loaded classes into an archive
+# that is mapped into memory on subsequent starts, saving the class loading and verification time.
+# Archives are specific to the JVM build and classpath; set CDS=false to disable this.
+cds_opts() {
+  if [ "$CDS" = "false" ] || [ -z "$JAVA_VERSION" ] || [ "$JAVA_VERSION" = "no_java" ] || [ "$JAVA_VERSION" -lt 13 ]; then
+    return
+  fi
+  local dir="${CDS_DIR:-$ROOT/cds}"
+  if ! mkdir -p "$dir" 2>/dev/null || [ ! -w "$dir" ]; then
+    dir="${TMPDIR:-/tmp}/hyperfoil/cds"
+    mkdir -p "$dir" 2>/dev/null || return
+  fi
+  local archive="$dir/$1-$JAVA_BUILD-$(echo "$CP" | cksum | cut -d' ' -f1).jsa"
+  # Skipped classes are reported as warnings when the archive is dumped
+  if [ -f "$archive" ]; then
+    echo "-XX:SharedArchiveFile=$archive -Xlog:cds=off -Xlog:cds+dynamic=off"
+  else
+    echo "-XX:ArchiveClassesAtExit=$archive -Xlog:cds=off -Xlog:cds+dynamic=off"
+  fi
+}
+
+if [ -z "$NO_JAVA_CHECK" ] || [ "$CDS" != "false" ]; then
+  read JAVA_VERSION JAVA_BUILD <<< "$(jdk_version)"
+fi
 if [ -z "$NO_JAVA_CHECK" ]; then
-  JAVA_VERSION="$(jdk_version)"
   if [ $JAVA_VERSION = "no_java" ]; then
     echo "Cannot find Java. Hyperfoil requires Java 11 or newer."
     echo "If you want to skip this check please export NO_JAVA_CHECK=true"
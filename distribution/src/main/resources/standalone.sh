@@ -5,4 +5,4 @@ export LOG_LEVEL="TRACE"
 source $(dirname $0)/parse-opts.sh
 # To make identification easier by tools as pgrep/pkill that have cmdline length limit
 # we'll add the harmless system option -Dio.hyperfoil.standalone
-java -Dio.hyperfoil.standalone $@ -cp $CP $JAVA_OPTS io.hyperfoil.Hyperfoil\$Standalone
+java -Dio.hyperfoil.standalone $@ -cp $CP $JAVA_OPTS $(cds_opts standalone) io.hyperfoil.Hyperfoil\$Standalone
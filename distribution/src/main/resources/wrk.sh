@@ -3,4 +3,4 @@
 source $(dirname $0)/parse-opts.sh
 ARGS=("$@")
 [ $# -eq 0 ] && ARGS=("--help")
-java -cp $CP $JAVA_OPTS io.hyperfoil.cli.commands.Wrk "${ARGS[@]}"
+java -cp $CP $JAVA_OPTS $(cds_opts wrk) io.hyperfoil.cli.commands.Wrk "${ARGS[@]}"
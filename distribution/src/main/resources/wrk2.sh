@@ -3,4 +3,4 @@
 source $(dirname $0)/parse-opts.sh
 ARGS=("$@")
 [ $# -eq 0 ] && ARGS=("--help")
-java -cp $CP $JAVA_OPTS io.hyperfoil.cli.commands.Wrk2 "${ARGS[@]}"
+java -cp $CP $JAVA_OPTS $(cds_opts wrk2) io.hyperfoil.cli.commands.Wrk2 "${ARGS[@]}"
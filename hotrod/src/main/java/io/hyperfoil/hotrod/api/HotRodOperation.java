@@ -8,5 +8,29 @@ public enum HotRodOperation {
    /**
     * Get specified entry in the remote cache.
     */
-   GET
+   GET,
+   /**
+    * Removes specified entry from the remote cache.
+    */
+   REMOVE,
+   /**
+    * Replaces specified entry in the remote cache if it is present.
+    */
+   REPLACE,
+   /**
+    * Adds or overrides a batch of entries in the remote cache.
+    */
+   PUT_ALL,
+   /**
+    * Gets a batch of entries from the remote cache.
+    */
+   GET_ALL;
+
+   public boolean isBulk() {
+      return this == PUT_ALL || this == GET_ALL;
+   }
+
+   public boolean hasValue() {
+      return this == PUT || this == REPLACE || this == PUT_ALL;
+   }
 }
\ No newline at end of file
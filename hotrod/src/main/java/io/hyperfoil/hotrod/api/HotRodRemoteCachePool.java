@@ -16,4 +16,10 @@ public interface HotRodRemoteCachePool extends Session.Resource {
    void shutdown();
 
    HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString getRemoteCache(String cacheName);
+
+   /**
+    * @param cacheName Cache name.
+    * @return View of the cache that sends <code>byte[]</code> keys and values without marshalling.
+    */
+   HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString<byte[], byte[]> getBinaryRemoteCache(String cacheName);
 }
@@ -4,10 +4,12 @@ import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 import io.netty.channel.socket.SocketChannel;
+import org.infinispan.client.hotrod.DataFormat;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.TransportFactory;
@@ -15,6 +17,8 @@ import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
 import org.infinispan.client.hotrod.impl.ConfigurationProperties;
 import org.infinispan.client.hotrod.impl.HotRodURI;
 import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.commons.marshall.IdentityMarshaller;
 
 import io.hyperfoil.hotrod.api.HotRodRemoteCachePool;
 import io.hyperfoil.hotrod.config.HotRodCluster;
@@ -22,12 +26,18 @@ import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 
 public class HotRodRemoteCachePoolImpl implements HotRodRemoteCachePool {
+   // Keys and values are sent as-is, without marshalling
+   private static final DataFormat BINARY = DataFormat.builder()
+         .keyType(MediaType.APPLICATION_OCTET_STREAM).keyMarshaller(IdentityMarshaller.INSTANCE)
+         .valueType(MediaType.APPLICATION_OCTET_STREAM).valueMarshaller(IdentityMarshaller.INSTANCE)
+         .build();
 
    private final HotRodCluster[] clusters;
    private final EventLoop eventLoop;
 
    private final Map<String, RemoteCacheManager> remoteCacheManagers = new HashMap<>();
-   private final Map<String, RemoteCache<?, ?>> remoteCaches = new HashMap<>();
+   private final Map<String, RemoteCacheWithoutToString<?, ?>> remoteCaches = new HashMap<>();
+   private final Map<String, RemoteCacheWithoutToString<byte[], byte[]>> binaryRemoteCaches = new HashMap<>();
 
    public HotRodRemoteCachePoolImpl(HotRodCluster[] clusters, EventLoop eventLoop) {
       this.clusters = clusters;
@@ -50,7 +60,9 @@ public class HotRodRemoteCachePoolImpl implements HotRodRemoteCachePool {
          this.remoteCacheManagers.put(cluster.uri(), remoteCacheManager);
          validateEventLoop(remoteCacheManager);
          for (String cache : cluster.caches()) {
-            remoteCaches.put(cache, remoteCacheManager.getCache(cache));
+            RemoteCache<Object, Object> remoteCache = remoteCacheManager.getCache(cache);
+            remoteCaches.put(cache, new RemoteCacheWithoutToString<>(remoteCache));
+            binaryRemoteCaches.put(cache, new RemoteCacheWithoutToString<>(remoteCache.withDataFormat(BINARY)));
          }
       }
    }
@@ -80,7 +92,12 @@ public class HotRodRemoteCachePoolImpl implements HotRodRemoteCachePool {
 
    @Override
    public RemoteCacheWithoutToString<?, ?> getRemoteCache(String cacheName) {
-      return new RemoteCacheWithoutToString(this.remoteCaches.get(cacheName));
+      return remoteCaches.get(cacheName);
+   }
+
+   @Override
+   public RemoteCacheWithoutToString<byte[], byte[]> getBinaryRemoteCache(String cacheName) {
+      return binaryRemoteCaches.get(cacheName);
    }
 
    /*
@@ -91,7 +108,7 @@ public class HotRodRemoteCachePoolImpl implements HotRodRemoteCachePool {
     */
    public static class RemoteCacheWithoutToString<K, V> {
       private RemoteCache<K, V> remoteCache;
-      public RemoteCacheWithoutToString(RemoteCache remoteCache) {
+      public RemoteCacheWithoutToString(RemoteCache<K, V> remoteCache) {
          this.remoteCache = remoteCache;
       }
 
@@ -102,6 +119,22 @@ public class HotRodRemoteCachePoolImpl implements HotRodRemoteCachePool {
       public CompletableFuture<V> getAsync(K key) {
          return remoteCache.getAsync(key);
       }
+
+      public CompletableFuture<V> removeAsync(K key) {
+         return remoteCache.removeAsync(key);
+      }
+
+      public CompletableFuture<V> replaceAsync(K key, V value) {
+         return remoteCache.replaceAsync(key, value);
+      }
+
+      public CompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> entries) {
+         return remoteCache.putAllAsync(entries);
+      }
+
+      public CompletableFuture<Map<K, V>> getAllAsync(Set<K> keys) {
+         return remoteCache.getAllAsync(keys);
+      }
    }
 
    /**
@@ -1,31 +1,155 @@
 package io.hyperfoil.hotrod.resource;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+import org.infinispan.client.hotrod.exceptions.HotRodTimeoutException;
 
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
 
+/**
+ * Window of requests issued by the step that await completion. Each slot is a reusable completion callback,
+ * so issuing a request does not allocate any lambdas.
+ */
 public class HotRodResource implements Session.Resource {
+   private final Request[] requests;
+   private final Request[] free;
+   private int numFree;
+
+   public HotRodResource(int maxInFlight) {
+      this.requests = new Request[maxInFlight];
+      this.free = new Request[maxInFlight];
+      for (int i = 0; i < maxInFlight; ++i) {
+         requests[i] = free[i] = new Request(this);
+      }
+      numFree = maxInFlight;
+   }
 
-   private long startTimestampNanos;
-   private long startTimestampMillis;
-   private CompletableFuture future;
+   public boolean hasFreeSlot() {
+      return numFree > 0;
+   }
 
-   public void set(CompletableFuture future, long startTimestampNanos, long startTimestampMillis) {
-      this.future = future;
-      this.startTimestampNanos = startTimestampNanos;
-      this.startTimestampMillis = startTimestampMillis;
+   public Request acquire(Session session, Statistics statistics, long startTimestampMillis, long startTimestampNanos) {
+      Request request = free[--numFree];
+      free[numFree] = null;
+      request.start(session, statistics, startTimestampMillis, startTimestampNanos);
+      return request;
    }
 
-   public boolean isComplete() {
-      return this.future.isDone();
+   private void release(Request request) {
+      request.session = null;
+      request.statistics = null;
+      free[numFree++] = request;
    }
 
-   public long getStartTimestampMillis() {
-      return startTimestampMillis;
+   @Override
+   public void onSessionReset(Session session) {
+      // Requests still in flight belong to the finished session: these are recorded as timeouts, their completion
+      // is ignored and the slots are replaced so that the callbacks cannot be reused.
+      if (numFree != requests.length) {
+         long now = System.currentTimeMillis();
+         for (int i = 0; i < requests.length; ++i) {
+            if (requests[i].session != null) {
+               requests[i].abandon(now);
+               requests[i] = new Request(this);
+            }
+            free[i] = requests[i];
+         }
+         numFree = requests.length;
+      }
    }
 
-   public long getStartTimestampNanos() {
-      return startTimestampNanos;
+   public static class Request implements BiConsumer<Object, Throwable> {
+      private final HotRodResource resource;
+      private Session session;
+      private Statistics statistics;
+      private long startTimestampMillis;
+      private long startTimestampNanos;
+      private CompletableFuture<?> future;
+      // reused by bulk operations
+      private Map<byte[], byte[]> entries;
+      private Set<byte[]> keys;
+
+      private Request(HotRodResource resource) {
+         this.resource = resource;
+      }
+
+      private void start(Session session, Statistics statistics, long startTimestampMillis, long startTimestampNanos) {
+         this.session = session;
+         this.statistics = statistics;
+         this.startTimestampMillis = startTimestampMillis;
+         this.startTimestampNanos = startTimestampNanos;
+      }
+
+      public Map<byte[], byte[]> entries() {
+         if (entries == null) {
+            entries = new HashMap<>();
+         }
+         return entries;
+      }
+
+      public Set<byte[]> keys() {
+         if (keys == null) {
+            keys = new HashSet<>();
+         }
+         return keys;
+      }
+
+      public void track(CompletableFuture<?> future) {
+         this.future = future;
+         future.whenComplete(this);
+      }
+
+      private void abandon(long timestamp) {
+         statistics.incrementTimeouts(timestamp);
+         session = null;
+         statistics = null;
+         if (future != null) {
+            // the response would be ignored anyway
+            future.cancel(false);
+            future = null;
+         }
+      }
+
+      @Override
+      public void accept(Object result, Throwable throwable) {
+         Session session = this.session;
+         if (session == null) {
+            // abandoned in onSessionReset
+            return;
+         }
+         assert session.executor().inEventLoop();
+         future = null;
+         if (entries != null) {
+            entries.clear();
+         }
+         if (keys != null) {
+            keys.clear();
+         }
+         if (throwable != null) {
+            if (throwable instanceof CompletionException && throwable.getCause() != null) {
+               throwable = throwable.getCause();
+            }
+            if (throwable instanceof TimeoutException || throwable instanceof HotRodTimeoutException) {
+               statistics.incrementTimeouts(System.currentTimeMillis());
+            } else {
+               statistics.incrementConnectionErrors(System.currentTimeMillis());
+            }
+            resource.release(this);
+            session.stop();
+         } else {
+            statistics.recordResponse(startTimestampMillis, System.nanoTime() - startTimestampNanos);
+            resource.release(this);
+            session.proceed();
+         }
+      }
    }
 
    public static class Key implements Session.ResourceKey<HotRodResource> {
@@ -0,0 +1,254 @@
+package io.hyperfoil.hotrod.steps;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.BuilderBase;
+
+/**
+ * Pre-generated set of binary keys and values. The arrays are created lazily on the agent on first use
+ * (not on the controller and not serialized) and shared by all sessions of the step.
+ */
+public class HotRodKeyspace implements Serializable {
+   // Values are not unique per key; this number of distinct values is generated.
+   private static final int NUM_VALUES = 64;
+
+   private final int size;
+   private final String keyPrefix;
+   private final int minValueSize;
+   private final int maxValueSize;
+   private final Distribution distribution;
+   private final double zipfianExponent;
+   private final double hotFraction;
+   private final double hotOperations;
+   private transient volatile Data data;
+
+   public HotRodKeyspace(int size, String keyPrefix, int minValueSize, int maxValueSize, Distribution distribution,
+                         double zipfianExponent, double hotFraction, double hotOperations) {
+      this.size = size;
+      this.keyPrefix = keyPrefix;
+      this.minValueSize = minValueSize;
+      this.maxValueSize = maxValueSize;
+      this.distribution = distribution;
+      this.zipfianExponent = zipfianExponent;
+      this.hotFraction = hotFraction;
+      this.hotOperations = hotOperations;
+   }
+
+   private Data data() {
+      Data data = this.data;
+      if (data == null) {
+         synchronized (this) {
+            data = this.data;
+            if (data == null) {
+               this.data = data = new Data();
+            }
+         }
+      }
+      return data;
+   }
+
+   public int nextIndex() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      switch (distribution) {
+         case UNIFORM:
+            return random.nextInt(size);
+         case ZIPFIAN:
+            return data().nextZipfian(random.nextDouble());
+         case HOTSPOT:
+            int hotKeys = Math.max(1, (int) (size * hotFraction));
+            if (hotKeys >= size || random.nextDouble() < hotOperations) {
+               return random.nextInt(hotKeys);
+            } else {
+               return hotKeys + random.nextInt(size - hotKeys);
+            }
+         default:
+            throw new IllegalStateException();
+      }
+   }
+
+   public byte[] key(int index) {
+      return data().keys[index];
+   }
+
+   public byte[] value(int index) {
+      byte[][] values = data().values;
+      return values[index % values.length];
+   }
+
+   private class Data {
+      final byte[][] keys = new byte[size][];
+      final byte[][] values = new byte[Math.min(size, NUM_VALUES)][];
+      // Zipfian constants, see Gray et al: Quickly Generating Billion-Record Synthetic Databases
+      final double zetan;
+      final double alpha;
+      final double eta;
+
+      Data() {
+         for (int i = 0; i < size; ++i) {
+            keys[i] = (keyPrefix + i).getBytes(StandardCharsets.UTF_8);
+         }
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         for (int i = 0; i < values.length; ++i) {
+            values[i] = new byte[minValueSize == maxValueSize ? minValueSize : random.nextInt(minValueSize, maxValueSize + 1)];
+            random.nextBytes(values[i]);
+         }
+         if (distribution == Distribution.ZIPFIAN) {
+            double zetan = 0;
+            for (int i = 1; i <= size; ++i) {
+               zetan += 1 / Math.pow(i, zipfianExponent);
+            }
+            double zeta2 = 1 + 1 / Math.pow(2, zipfianExponent);
+            this.zetan = zetan;
+            this.alpha = 1 / (1 - zipfianExponent);
+            this.eta = (1 - Math.pow(2.0 / size, 1 - zipfianExponent)) / (1 - zeta2 / zetan);
+         } else {
+            zetan = alpha = eta = 0;
+         }
+      }
+
+      int nextZipfian(double u) {
+         double uz = u * zetan;
+         if (uz < 1) {
+            return 0;
+         } else if (uz < 1 + Math.pow(0.5, zipfianExponent)) {
+            return Math.min(1, size - 1);
+         }
+         return Math.min((int) (size * Math.pow(eta * u - eta + 1, alpha)), size - 1);
+      }
+   }
+
+   public enum Distribution {
+      /**
+       * All keys are accessed with the same probability.
+       */
+      UNIFORM,
+      /**
+       * Key with index <code>i</code> is accessed with probability proportional to <code>1 / (i + 1)^exponent</code>.
+       */
+      ZIPFIAN,
+      /**
+       * Fraction of keys (<code>hotFraction</code>) receives another fraction of operations (<code>hotOperations</code>).
+       */
+      HOTSPOT
+   }
+
+   /**
+    * Binary keyspace: keys are <code>keyPrefix</code> followed by the index, values are random bytes.
+    * Keys and values are sent without marshalling.
+    */
+   public static class Builder implements BuilderBase<Builder> {
+      private int size = 1000;
+      private String keyPrefix = "key-";
+      private int valueSize = 100;
+      private int maxValueSize = -1;
+      private Distribution distribution = Distribution.UNIFORM;
+      private double zipfianExponent = 0.99;
+      private double hotFraction = 0.2;
+      private double hotOperations = 0.8;
+
+      /**
+       * Number of keys. Default is 1000.
+       *
+       * @param size Number of keys.
+       * @return Self.
+       */
+      public Builder size(int size) {
+         this.size = size;
+         return this;
+      }
+
+      /**
+       * Prefix of the keys, followed by the key index. Default is <code>key-</code>.
+       *
+       * @param keyPrefix Prefix.
+       * @return Self.
+       */
+      public Builder keyPrefix(String keyPrefix) {
+         this.keyPrefix = keyPrefix;
+         return this;
+      }
+
+      /**
+       * Size of the values in bytes; if <code>maxValueSize</code> is set this is the minimum size. Default is 100.
+       *
+       * @param valueSize Size in bytes.
+       * @return Self.
+       */
+      public Builder valueSize(int valueSize) {
+         this.valueSize = valueSize;
+         return this;
+      }
+
+      /**
+       * Maximum size of the values in bytes; sizes are distributed uniformly between <code>valueSize</code> and this value.
+       *
+       * @param maxValueSize Size in bytes.
+       * @return Self.
+       */
+      public Builder maxValueSize(int maxValueSize) {
+         this.maxValueSize = maxValueSize;
+         return this;
+      }
+
+      /**
+       * Distribution of key accesses. Default is <code>UNIFORM</code>.
+       *
+       * @param distribution Distribution.
+       * @return Self.
+       */
+      public Builder distribution(Distribution distribution) {
+         this.distribution = distribution;
+         return this;
+      }
+
+      /**
+       * Exponent for the <code>ZIPFIAN</code> distribution; must be in the range (0, 1). Default is 0.99.
+       *
+       * @param zipfianExponent Exponent.
+       * @return Self.
+       */
+      public Builder zipfianExponent(double zipfianExponent) {
+         this.zipfianExponent = zipfianExponent;
+         return this;
+      }
+
+      /**
+       * Fraction of keys that are hot in the <code>HOTSPOT</code> distribution. Default is 0.2.
+       *
+       * @param hotFraction Fraction of keys.
+       * @return Self.
+       */
+      public Builder hotFraction(double hotFraction) {
+         this.hotFraction = hotFraction;
+         return this;
+      }
+
+      /**
+       * Fraction of operations targeting the hot keys in the <code>HOTSPOT</code> distribution. Default is 0.8.
+       *
+       * @param hotOperations Fraction of operations.
+       * @return Self.
+       */
+      public Builder hotOperations(double hotOperations) {
+         this.hotOperations = hotOperations;
+         return this;
+      }
+
+      public HotRodKeyspace build() {
+         int maxValueSize = this.maxValueSize < 0 ? valueSize : this.maxValueSize;
+         if (size <= 0) {
+            throw new BenchmarkDefinitionException("Keyspace size must be positive.");
+         } else if (valueSize < 0 || maxValueSize < valueSize) {
+            throw new BenchmarkDefinitionException("Invalid value size range: " + valueSize + " - " + maxValueSize);
+         } else if (distribution == Distribution.ZIPFIAN && (zipfianExponent <= 0 || zipfianExponent >= 1)) {
+            throw new BenchmarkDefinitionException("Zipfian exponent must be in range (0, 1): " + zipfianExponent);
+         } else if (hotFraction <= 0 || hotFraction > 1 || hotOperations < 0 || hotOperations > 1) {
+            throw new BenchmarkDefinitionException("Hot fraction must be in (0, 1] and hot operations in [0, 1].");
+         }
+         return new HotRodKeyspace(size, keyPrefix, valueSize, maxValueSize, distribution, zipfianExponent, hotFraction, hotOperations);
+      }
+   }
+}
@@ -20,5 +20,9 @@ public interface HotRodOperationBuilder extends BuilderBase<HotRodOperationBuild
       public HotRodOperation apply(Session o) {
          return operation;
       }
+
+      public HotRodOperation operation() {
+         return operation;
+      }
    }
 }
@@ -34,6 +34,9 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
    private MetricSelector metricSelector;
    private StringGeneratorBuilder key;
    private StringGeneratorBuilder value;
+   private HotRodKeyspace.Builder keyspace;
+   private int batchSize = 10;
+   private int maxInFlight = 1;
 
    @Override
    public void prepareBuild() {
@@ -45,12 +48,30 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
 
    @Override
    public List<Step> build() {
+      if (operation == null) {
+         throw new BenchmarkDefinitionException("Operation is not set.");
+      } else if (keyspace != null && (this.key != null || this.value != null)) {
+         throw new BenchmarkDefinitionException("Keyspace cannot be combined with key or value.");
+      } else if (keyspace == null && this.key == null) {
+         throw new BenchmarkDefinitionException("Either key or keyspace must be set.");
+      } else if (batchSize <= 0 || maxInFlight <= 0) {
+         throw new BenchmarkDefinitionException("Batch size and max in-flight requests must be positive.");
+      }
+      SerializableFunction<Session, HotRodOperation> operation = this.operation.build();
+      if (keyspace == null && operation instanceof HotRodOperationBuilder.Provided) {
+         HotRodOperation provided = ((HotRodOperationBuilder.Provided) operation).operation();
+         if (provided.isBulk()) {
+            throw new BenchmarkDefinitionException("Operation " + provided + " requires a keyspace.");
+         } else if (provided.hasValue() && this.value == null) {
+            throw new BenchmarkDefinitionException("Operation " + provided + " requires a value.");
+         }
+      }
       int stepId = StatisticsStep.nextId();
       HotRodResource.Key key = new HotRodResource.Key();
       SerializableFunction<Session, String> keyGenerator = this.key != null ? this.key.build() : null;
       SerializableFunction<Session, String> valueGenerator = this.value != null ? this.value.build() : null;
-      HotRodRequestStep step = new HotRodRequestStep(stepId, key, operation.build(), cacheName.build(), metricSelector,
-            keyGenerator, valueGenerator);
+      HotRodRequestStep step = new HotRodRequestStep(stepId, key, operation, cacheName.build(), metricSelector,
+            keyGenerator, valueGenerator, keyspace != null ? keyspace.build() : null, batchSize, maxInFlight);
       HotRodResponseStep secondHotRodStep = new HotRodResponseStep(key);
       return Arrays.asList(step, secondHotRodStep);
    }
@@ -162,6 +183,43 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
       return value().pattern(pattern).end();
    }
 
+   /**
+    * Pre-generated binary keys and values used instead of <code>key</code> and <code>value</code>.
+    * This avoids creating and marshalling the strings for each operation.
+    *
+    * @return Builder.
+    */
+   public HotRodKeyspace.Builder keyspace() {
+      if (keyspace == null) {
+         keyspace = new HotRodKeyspace.Builder();
+      }
+      return keyspace;
+   }
+
+   /**
+    * Number of entries in single <code>putAll</code> or <code>getAll</code> operation. Default is 10.
+    *
+    * @param batchSize Number of entries.
+    * @return Self.
+    */
+   public HotRodRequestBuilder batchSize(int batchSize) {
+      this.batchSize = batchSize;
+      return this;
+   }
+
+   /**
+    * Maximum number of requests issued by this step that can be in flight in one session. When this is greater
+    * than 1 the session does not wait for the response and proceeds once another request can be issued.
+    * Requests still in flight when the session finishes are recorded as timeouts. Default is 1.
+    *
+    * @param maxInFlight Number of requests.
+    * @return Self.
+    */
+   public HotRodRequestBuilder maxInFlight(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+      return this;
+   }
+
    /**
     * Adds or overrides each specified entry in the remote cache.
     *
@@ -181,4 +239,44 @@ public class HotRodRequestBuilder extends BaseStepBuilder<HotRodRequestBuilder>
    public HotRodRequestBuilder get(String cacheName) {
       return operation(HotRodOperation.GET).cacheName(cacheName);
    }
+
+   /**
+    * Remove specified entry from the remote cache.
+    *
+    * @param cacheName Name of the cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder remove(String cacheName) {
+      return operation(HotRodOperation.REMOVE).cacheName(cacheName);
+   }
+
+   /**
+    * Replace specified entry in the remote cache if it is present.
+    *
+    * @param cacheName Name of the cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder replace(String cacheName) {
+      return operation(HotRodOperation.REPLACE).cacheName(cacheName);
+   }
+
+   /**
+    * Adds or overrides a batch of entries from the keyspace in the remote cache.
+    *
+    * @param cacheName Name of the cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder putAll(String cacheName) {
+      return operation(HotRodOperation.PUT_ALL).cacheName(cacheName);
+   }
+
+   /**
+    * Get a batch of entries from the keyspace in the remote cache.
+    *
+    * @param cacheName Name of the cache. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    * @return Self.
+    */
+   public HotRodRequestBuilder getAll(String cacheName) {
+      return operation(HotRodOperation.GET_ALL).cacheName(cacheName);
+   }
 }
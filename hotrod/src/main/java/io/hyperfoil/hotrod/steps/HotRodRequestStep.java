@@ -1,9 +1,8 @@
 package io.hyperfoil.hotrod.steps;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeoutException;
-
-import org.infinispan.client.hotrod.exceptions.HotRodTimeoutException;
 
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
@@ -25,13 +24,17 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
    final MetricSelector metricSelector;
    final SerializableFunction<Session, String> keyGenerator;
    final SerializableFunction<Session, String> valueGenerator;
+   final HotRodKeyspace keyspace;
+   final int batchSize;
+   final int maxInFlight;
 
    protected HotRodRequestStep(int id, HotRodResource.Key futureWrapperKey,
                                SerializableFunction<Session, HotRodOperation> operation,
                                SerializableFunction<Session, String> cacheName,
                                MetricSelector metricSelector,
                                SerializableFunction<Session, String> keyGenerator,
-                               SerializableFunction<Session, String> valueGenerator) {
+                               SerializableFunction<Session, String> valueGenerator,
+                               HotRodKeyspace keyspace, int batchSize, int maxInFlight) {
       super(id);
       this.futureWrapperKey = futureWrapperKey;
       this.operation = operation;
@@ -39,6 +42,9 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
       this.metricSelector = metricSelector;
       this.keyGenerator = keyGenerator;
       this.valueGenerator = valueGenerator;
+      this.keyspace = keyspace;
+      this.batchSize = batchSize;
+      this.maxInFlight = maxInFlight;
    }
 
    @Override
@@ -48,66 +54,83 @@ public class HotRodRequestStep extends StatisticsStep implements ResourceUtilize
 
    @Override
    public boolean invoke(Session session) {
-
+      HotRodResource resource = session.getResource(futureWrapperKey);
+      if (!resource.hasFreeSlot()) {
+         // blocked until one of the requests completes
+         return false;
+      }
       String cacheName = this.cacheName.apply(session);
       HotRodOperation operation = this.operation.apply(session);
-      Object key = keyGenerator.apply(session);
-      Object value = null;
-      if (valueGenerator != null) {
-         value = valueGenerator.apply(session);
+      if (keyspace == null && valueGenerator == null && operation.hasValue()) {
+         throw new IllegalArgumentException(String.format("HotRodOperation %s requires a value", operation));
       }
       HotRodRemoteCachePool pool = HotRodRemoteCachePool.get(session);
-      HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString remoteCache = pool.getRemoteCache(cacheName);
-      String metric = metricSelector.apply(null, cacheName);
-      Statistics statistics = session.statistics(id(), metric);
+      Statistics statistics = session.statistics(id(), metricSelector, null, cacheName);
 
       long startTimestampMs = System.currentTimeMillis();
       long startTimestampNanos = System.nanoTime();
-      CompletableFuture future;
-      if (HotRodOperation.PUT.equals(operation)) {
-         future = remoteCache.putAsync(key, value);
-      } else if (HotRodOperation.GET.equals(operation)) {
-         future = remoteCache.getAsync(key);
-      } else {
-         throw new IllegalArgumentException(String.format("HotRodOperation %s not implemented", operation));
-      }
+      HotRodResource.Request request = resource.acquire(session, statistics, startTimestampMs, startTimestampNanos);
+      CompletableFuture<?> future = keyspace != null ?
+            invokeBinary(pool.getBinaryRemoteCache(cacheName), operation, request) :
+            invokeString(session, pool.getRemoteCache(cacheName), operation);
       statistics.incrementRequests(startTimestampMs);
-      future.exceptionally(t -> {
-         trackResponseError(session, metric, t);
-         return null;
-      });
-      future.thenRun(() -> {
-         trackResponseSuccess(session, metric);
-         assert session.executor().inEventLoop();
-         session.proceed();
-      });
-      session.getResource(futureWrapperKey).set(future, startTimestampNanos, startTimestampMs);
-
+      request.track(future);
       return true;
    }
 
-   @Override
-   public void reserve(Session session) {
-      session.declareResource(futureWrapperKey, HotRodResource::new);
+   @SuppressWarnings("unchecked")
+   private CompletableFuture<?> invokeString(Session session, HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString remoteCache,
+                                             HotRodOperation operation) {
+      Object key = keyGenerator.apply(session);
+      Object value = valueGenerator != null ? valueGenerator.apply(session) : null;
+      switch (operation) {
+         case PUT:
+            return remoteCache.putAsync(key, value);
+         case GET:
+            return remoteCache.getAsync(key);
+         case REMOVE:
+            return remoteCache.removeAsync(key);
+         case REPLACE:
+            return remoteCache.replaceAsync(key, value);
+         default:
+            throw new IllegalArgumentException(String.format("HotRodOperation %s requires a keyspace", operation));
+      }
    }
 
-   private void trackResponseError(Session session, String metric, Object ex) {
-      Statistics statistics = session.statistics(id(), metric);
-      if (ex instanceof TimeoutException || ex instanceof HotRodTimeoutException) {
-         statistics.incrementTimeouts(System.currentTimeMillis());
-      } else {
-         statistics.incrementConnectionErrors(System.currentTimeMillis());
+   private CompletableFuture<?> invokeBinary(HotRodRemoteCachePoolImpl.RemoteCacheWithoutToString<byte[], byte[]> remoteCache,
+                                             HotRodOperation operation, HotRodResource.Request request) {
+      int index = keyspace.nextIndex();
+      switch (operation) {
+         case PUT:
+            return remoteCache.putAsync(keyspace.key(index), keyspace.value(index));
+         case GET:
+            return remoteCache.getAsync(keyspace.key(index));
+         case REMOVE:
+            return remoteCache.removeAsync(keyspace.key(index));
+         case REPLACE:
+            return remoteCache.replaceAsync(keyspace.key(index), keyspace.value(index));
+         case PUT_ALL:
+            Map<byte[], byte[]> entries = request.entries();
+            entries.put(keyspace.key(index), keyspace.value(index));
+            for (int i = 1; i < batchSize; ++i) {
+               index = keyspace.nextIndex();
+               entries.put(keyspace.key(index), keyspace.value(index));
+            }
+            return remoteCache.putAllAsync(entries);
+         case GET_ALL:
+            Set<byte[]> keys = request.keys();
+            keys.add(keyspace.key(index));
+            for (int i = 1; i < batchSize; ++i) {
+               keys.add(keyspace.key(keyspace.nextIndex()));
+            }
+            return remoteCache.getAllAsync(keys);
+         default:
+            throw new IllegalArgumentException(String.format("HotRodOperation %s not implemented", operation));
       }
-      session.stop();
    }
 
-   private void trackResponseSuccess(Session session, String metric) {
-      HotRodResource resource = session.getResource(futureWrapperKey);
-      long startTimestampMillis = resource.getStartTimestampMillis();
-      long startTimestampNanos = resource.getStartTimestampNanos();
-      long endTimestampNanos = System.nanoTime();
-
-      Statistics statistics = session.statistics(id(), metric);
-      statistics.recordResponse(startTimestampMillis, endTimestampNanos - startTimestampNanos);
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(futureWrapperKey, () -> new HotRodResource(maxInFlight));
    }
 }
@@ -14,8 +14,8 @@ public class HotRodResponseStep implements Step {
 
    @Override
    public boolean invoke(Session session) {
-      HotRodResource resource = session.getResource(futureWrapperKey);
-      boolean complete = resource.isComplete();
-      return complete;
+      // With window of single request this waits for its completion; with larger windows the sequence
+      // continues as soon as another request can be issued.
+      return session.getResource(futureWrapperKey).hasFreeSlot();
    }
 }
\ No newline at end of file
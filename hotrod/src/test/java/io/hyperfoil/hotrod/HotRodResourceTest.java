@@ -0,0 +1,68 @@
+package io.hyperfoil.hotrod;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.hotrod.resource.HotRodResource;
+import io.hyperfoil.hotrod.steps.HotRodRequestBuilder;
+
+public class HotRodResourceTest {
+   @Test
+   public void testInFlightRecordedOnSessionReset() {
+      long now = System.currentTimeMillis();
+      Statistics statistics = new Statistics(now);
+      Session session = SessionFactory.forTesting();
+      HotRodResource resource = new HotRodResource(3);
+      CompletableFuture<Object> first = new CompletableFuture<>();
+      CompletableFuture<Object> second = new CompletableFuture<>();
+      resource.acquire(session, statistics, now, System.nanoTime()).track(first);
+      resource.acquire(session, statistics, now, System.nanoTime()).track(second);
+
+      resource.onSessionReset(session);
+      assertTrue(first.isCancelled());
+      assertTrue(second.isCancelled());
+
+      for (int i = 0; i < 3; ++i) {
+         assertTrue(resource.hasFreeSlot());
+         resource.acquire(session, statistics, now, System.nanoTime());
+      }
+      assertFalse(resource.hasFreeSlot());
+
+      statistics.end(now);
+      AtomicLong timeouts = new AtomicLong();
+      AtomicLong responses = new AtomicLong();
+      statistics.visitSnapshots(snapshot -> {
+         timeouts.addAndGet(snapshot.requestTimeouts);
+         responses.addAndGet(snapshot.responseCount);
+      });
+      assertEquals(2, timeouts.get());
+      assertEquals(0, responses.get());
+   }
+
+   @Test
+   public void testMissingValue() {
+      try {
+         new HotRodRequestBuilder().put("my-cache").key("key").build();
+         fail("Put without value should be rejected");
+      } catch (BenchmarkDefinitionException e) {
+         assertTrue(e.getMessage(), e.getMessage().contains("requires a value"));
+      }
+      try {
+         new HotRodRequestBuilder().replace("my-cache").key("key").build();
+         fail("Replace without value should be rejected");
+      } catch (BenchmarkDefinitionException e) {
+         assertTrue(e.getMessage(), e.getMessage().contains("requires a value"));
+      }
+   }
+}
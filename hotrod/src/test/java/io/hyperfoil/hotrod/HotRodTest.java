@@ -33,6 +33,17 @@ public class HotRodTest extends BaseHotRodTest {
       assertEquals(0, stats.get("example").connectionErrors);
    }
 
+   @Test
+   public void testHotRodKeyspace() {
+      Benchmark benchmark = loadScenario("scenarios/HotRodKeyspaceTest.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      for (String metric : new String[]{ "putAll", "get", "getAll", "replace", "remove" }) {
+         assertTrue(metric, stats.get(metric).requestCount > 0);
+         assertEquals(metric, 0, stats.get(metric).connectionErrors);
+      }
+      assertEquals(stats.get("putAll").requestCount, stats.get("putAll").responseCount);
+   }
+
    @Override
    protected void createCache(EmbeddedCacheManager em) {
       ConfigurationBuilder cacheBuilder = new ConfigurationBuilder();
@@ -0,0 +1,377 @@
+package io.hyperfoil.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.internal.Properties;
+import io.netty.buffer.ByteBuf;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Captures raw bytes of sampled (1-in-N) and/or failed HTTP exchanges into a memory-mapped ring file. There is one
+ * recorder per executor; all methods except {@link #close()} must be invoked from that executor. Writing a record
+ * copies the data into the mapping and never blocks on I/O; the file is flushed when the recorder is closed.
+ * <p>
+ * File layout: 32-byte header (magic, version, head offset, tail offset, records written, records overwritten)
+ * followed by records between tail (oldest) and head. A record starts with its total length; length of -1 marks
+ * the end of data before the ring wraps to the start. Record fields: timestamp of the request (epoch millis),
+ * session id, flags, request line (method, authority and path), raw request bytes and raw response bytes,
+ * each of these prefixed by its length. For HTTP 2 the raw bytes are frames, including compressed headers.
+ */
+public class HttpRecorder {
+   private static final Logger log = LogManager.getLogger(HttpRecorder.class);
+   private static final int SAMPLING = Properties.getInt(Properties.HTTP_RECORDER_SAMPLING, 0);
+   private static final boolean FAILURES = Properties.getBoolean(Properties.HTTP_RECORDER_FAILURES);
+   private static final int SIZE = Properties.getInt(Properties.HTTP_RECORDER_SIZE, 4 * 1024 * 1024);
+   private static final int MAX_BYTES = Properties.getInt(Properties.HTTP_RECORDER_MAX_BYTES, 4096);
+
+   public static final int FLAG_SAMPLED = 1;
+   public static final int FLAG_INVALID = 2;
+   public static final int FLAG_REQUEST_TRUNCATED = 4;
+   public static final int FLAG_RESPONSE_TRUNCATED = 8;
+
+   private static final int MAGIC = 0x48465243;
+   private static final int VERSION = 1;
+   private static final int HEAD_OFFSET = 8;
+   private static final int TAIL_OFFSET = 12;
+   private static final int RECORDS_OFFSET = 16;
+   private static final int OVERWRITTEN_OFFSET = 24;
+   private static final int DATA_START = 32;
+   private static final int WRAP = -1;
+   private static final int MAX_LINE = 1024;
+   // length, timestamp, session id, flags, line length, request length, response length
+   private static final int FIXED_SIZE = 4 + 8 + 4 + 1 + 2 + 4 + 4;
+   // sentinel for requests that are neither sampled nor recorded in case of failure
+   private static final Exchange SKIP = new Exchange();
+
+   private final Path path;
+   private final MappedByteBuffer buffer;
+   private final int capacity;
+   private final int sampling;
+   private final boolean failures;
+   private final int maxBytes;
+   private final ArrayDeque<Exchange> pool = new ArrayDeque<>();
+   private int counter;
+   private int head = DATA_START;
+   private int tail = DATA_START;
+   private long records;
+   private long overwritten;
+
+   public HttpRecorder(Path path, int size, int sampling, boolean failures, int maxBytes) throws IOException {
+      if (size < DATA_START + 2 * (FIXED_SIZE + MAX_LINE + 2 * maxBytes)) {
+         throw new IllegalArgumentException("Recording file size " + size + " is too small for " + maxBytes + " bytes per request/response.");
+      }
+      this.path = path;
+      this.capacity = size;
+      this.sampling = sampling;
+      this.failures = failures;
+      this.maxBytes = maxBytes;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+         buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      }
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      updateHeader();
+   }
+
+   /**
+    * @return True if recording is enabled through system properties.
+    */
+   static boolean isEnabled() {
+      return SAMPLING > 0 || FAILURES;
+   }
+
+   /**
+    * @return Array of recorders for each executor or <code>null</code> if recording is not enabled through system properties.
+    */
+   static HttpRecorder[] fromProperties(int executors) {
+      if (!isEnabled()) {
+         return null;
+      }
+      HttpRecorder[] recorders = new HttpRecorder[executors];
+      try {
+         // The files are deleted by the runner once these are sent to the controller
+         Path dir = Files.createTempDirectory("hyperfoil-recordings-");
+         for (int i = 0; i < executors; ++i) {
+            Path file = dir.resolve("executor-" + i + ".hfr");
+            recorders[i] = new HttpRecorder(file, SIZE, SAMPLING, FAILURES, MAX_BYTES);
+         }
+         log.info("Recording {} HTTP exchanges into {}", SAMPLING > 0 ? "1 in " + SAMPLING + (FAILURES ? " and failed" : "") : "failed", dir);
+      } catch (IOException e) {
+         throw new IllegalStateException("Cannot create HTTP recording files", e);
+      }
+      return recorders;
+   }
+
+   public Path path() {
+      return path;
+   }
+
+   public void onRequest(HttpRequest request, ByteBuf data, int offset, int length) {
+      Exchange exchange = request.recording;
+      if (exchange == null) {
+         boolean sampled = false;
+         if (sampling > 0 && ++counter >= sampling) {
+            counter = 0;
+            sampled = true;
+         }
+         if (!sampled && !failures) {
+            request.recording = SKIP;
+            return;
+         }
+         exchange = pool.poll();
+         if (exchange == null) {
+            exchange = new Exchange();
+         }
+         exchange.sampled = sampled;
+         request.recording = exchange;
+      } else if (exchange == SKIP) {
+         return;
+      }
+      if (exchange.request == null) {
+         exchange.request = data.alloc().buffer(Math.min(length, maxBytes), maxBytes);
+      }
+      exchange.requestTruncated |= append(exchange.request, data, offset, length);
+   }
+
+   public void onResponse(HttpRequest request, ByteBuf data, int offset, int length) {
+      Exchange exchange = request.recording;
+      if (exchange == null || exchange == SKIP) {
+         return;
+      }
+      if (exchange.response == null) {
+         exchange.response = data.alloc().buffer(Math.min(length, maxBytes), maxBytes);
+      }
+      exchange.responseTruncated |= append(exchange.response, data, offset, length);
+   }
+
+   private boolean append(ByteBuf target, ByteBuf data, int offset, int length) {
+      int bytes = Math.min(length, maxBytes - target.writerIndex());
+      target.writeBytes(data, offset, bytes);
+      return bytes < length;
+   }
+
+   /**
+    * Writes the exchange if it was sampled or the request is not valid and releases the buffers.
+    */
+   public void onCompletion(HttpRequest request) {
+      Exchange exchange = request.recording;
+      request.recording = null;
+      if (exchange == null || exchange == SKIP) {
+         return;
+      }
+      if (exchange.sampled || !request.isValid()) {
+         write(exchange, request);
+      }
+      exchange.reset();
+      pool.push(exchange);
+   }
+
+   /**
+    * Releases the buffers of an exchange that won't be completed, without writing it.
+    */
+   public void discard(HttpRequest request) {
+      Exchange exchange = request.recording;
+      request.recording = null;
+      if (exchange == null || exchange == SKIP) {
+         return;
+      }
+      exchange.reset();
+      pool.push(exchange);
+   }
+
+   private void write(Exchange exchange, HttpRequest request) {
+      int methodLength = request.method == null ? 0 : request.method.name().length();
+      int authorityLength = request.authority == null ? 0 : request.authority.length();
+      int pathLength = request.path == null ? 0 : request.path.length();
+      int lineLength = Math.min(methodLength + 1 + authorityLength + pathLength, MAX_LINE);
+      int requestLength = exchange.request == null ? 0 : exchange.request.readableBytes();
+      int responseLength = exchange.response == null ? 0 : exchange.response.readableBytes();
+      int size = FIXED_SIZE + lineLength + requestLength + responseLength;
+
+      int pos = reserve(size);
+      int flags = (exchange.sampled ? FLAG_SAMPLED : 0) | (request.isValid() ? 0 : FLAG_INVALID)
+            | (exchange.requestTruncated ? FLAG_REQUEST_TRUNCATED : 0) | (exchange.responseTruncated ? FLAG_RESPONSE_TRUNCATED : 0);
+      buffer.putInt(pos, size);
+      buffer.putLong(pos + 4, request.startTimestampMillis());
+      buffer.putInt(pos + 12, request.session.uniqueId());
+      buffer.put(pos + 16, (byte) flags);
+      buffer.putShort(pos + 17, (short) lineLength);
+      int linePos = pos + 19;
+      int lineEnd = linePos + lineLength;
+      linePos = putAscii(linePos, lineEnd, request.method == null ? null : request.method.name());
+      if (linePos < lineEnd) {
+         buffer.put(linePos++, (byte) ' ');
+      }
+      linePos = putAscii(linePos, lineEnd, request.authority);
+      putAscii(linePos, lineEnd, request.path);
+      copy(lineEnd, exchange.request, requestLength);
+      copy(lineEnd + 4 + requestLength, exchange.response, responseLength);
+
+      head = pos + size;
+      ++records;
+      updateHeader();
+   }
+
+   private int putAscii(int pos, int end, String str) {
+      if (str == null) {
+         return pos;
+      }
+      for (int i = 0; i < str.length() && pos < end; ++i) {
+         char c = str.charAt(i);
+         buffer.put(pos++, c < 128 ? (byte) c : (byte) '?');
+      }
+      return pos;
+   }
+
+   private void copy(int pos, ByteBuf data, int length) {
+      buffer.putInt(pos, length);
+      if (length > 0) {
+         buffer.limit(pos + 4 + length).position(pos + 4);
+         data.getBytes(data.readerIndex(), buffer);
+         buffer.clear();
+      }
+   }
+
+   /**
+    * Finds position for a record, evicting the oldest records if necessary. There must be always space for the wrap
+    * marker after the last record.
+    */
+   private int reserve(int size) {
+      int pos = head;
+      boolean empty = tail == head;
+      if (pos + size + 4 > capacity) {
+         buffer.putInt(pos, WRAP);
+         // records between the current position and the end of data are lost
+         while (!empty && tail > pos) {
+            tail = next(tail);
+            ++overwritten;
+         }
+         pos = DATA_START;
+         if (empty) {
+            tail = pos;
+         }
+      }
+      if (!empty) {
+         // the wrap marker might be written after this record, too
+         int end = pos + size + 4;
+         while (tail >= pos && tail < end) {
+            tail = next(tail);
+            ++overwritten;
+            if (tail == head) {
+               // all records were evicted
+               tail = pos;
+               break;
+            }
+         }
+      }
+      return pos;
+   }
+
+   private int next(int pos) {
+      pos += buffer.getInt(pos);
+      if (pos != head && buffer.getInt(pos) == WRAP) {
+         pos = DATA_START;
+      }
+      return pos;
+   }
+
+   private void updateHeader() {
+      buffer.putInt(HEAD_OFFSET, head);
+      buffer.putInt(TAIL_OFFSET, tail);
+      buffer.putLong(RECORDS_OFFSET, records);
+      buffer.putLong(OVERWRITTEN_OFFSET, overwritten);
+   }
+
+   /**
+    * Flushes the file; this should be invoked when the executor does not write any more records.
+    */
+   public void close() {
+      buffer.force();
+   }
+
+   /**
+    * Reads all records from recording file contents, from the oldest to the newest.
+    */
+   public static void read(ByteBuffer data, Consumer<Record> consumer) {
+      if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+         throw new IllegalArgumentException("Not a recording file");
+      }
+      int head = data.getInt(HEAD_OFFSET);
+      int pos = data.getInt(TAIL_OFFSET);
+      while (pos != head) {
+         int size = data.getInt(pos);
+         if (size == WRAP) {
+            pos = DATA_START;
+            continue;
+         }
+         int flags = data.get(pos + 16);
+         int lineLength = data.getShort(pos + 17);
+         int requestPos = pos + 19 + lineLength;
+         int requestLength = data.getInt(requestPos);
+         int responsePos = requestPos + 4 + requestLength;
+         int responseLength = data.getInt(responsePos);
+         consumer.accept(new Record(data.getLong(pos + 4), data.getInt(pos + 12), flags,
+               new String(bytes(data, pos + 19, lineLength), StandardCharsets.US_ASCII),
+               bytes(data, requestPos + 4, requestLength), bytes(data, responsePos + 4, responseLength)));
+         pos += size;
+      }
+   }
+
+   private static byte[] bytes(ByteBuffer data, int pos, int length) {
+      byte[] bytes = new byte[length];
+      data.duplicate().position(pos).get(bytes);
+      return bytes;
+   }
+
+   public static class Exchange {
+      private boolean sampled;
+      private ByteBuf request;
+      private ByteBuf response;
+      private boolean requestTruncated;
+      private boolean responseTruncated;
+
+      private void reset() {
+         if (request != null) {
+            request.release();
+            request = null;
+         }
+         if (response != null) {
+            response.release();
+            response = null;
+         }
+         requestTruncated = false;
+         responseTruncated = false;
+      }
+   }
+
+   public static class Record {
+      public final long timestamp;
+      public final int sessionId;
+      public final int flags;
+      public final String line;
+      public final byte[] request;
+      public final byte[] response;
+
+      Record(long timestamp, int sessionId, int flags, String line, byte[] request, byte[] response) {
+         this.timestamp = timestamp;
+         this.sessionId = sessionId;
+         this.flags = flags;
+         this.line = line;
+         this.request = request;
+         this.response = response;
+      }
+   }
+}
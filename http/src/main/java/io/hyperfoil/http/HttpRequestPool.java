@@ -15,7 +15,11 @@ public class HttpRequestPool extends LimitedPoolResource<HttpRequest> {
    public static final Session.ResourceKey<LimitedPoolResource<HttpRequest>> KEY = new Key<>();
 
    public HttpRequestPool(Scenario scenario, Session session) {
-      super(scenario.maxRequests(), HttpRequest.class, () -> new HttpRequest(session));
+      this(scenario, session, null);
+   }
+
+   public HttpRequestPool(Scenario scenario, Session session, HttpRecorder recorder) {
+      super(scenario.maxRequests(), HttpRequest.class, () -> new HttpRequest(session, recorder));
    }
 
    public static LimitedPool<HttpRequest> get(Session session) {
@@ -38,9 +42,20 @@ public class HttpRequestPool extends LimitedPoolResource<HttpRequest> {
          }
          cancelRequests();
       }
+      discardRecordings();
       super.onSessionReset(session);
    }
 
+   private void discardRecordings() {
+      // Raw bytes can be recorded even after the request was completed (e.g. when it timed out before being written);
+      // such exchange would never be written and its buffers would leak.
+      for (HttpRequest request : (HttpRequest[]) originalObjects) {
+         if (request.recording != null) {
+            request.recorder().discard(request);
+         }
+      }
+   }
+
    private void cancelRequests() {
       // We need to close all connections used to ongoing requests, despite these might
       // carry requests from independent phases/sessions
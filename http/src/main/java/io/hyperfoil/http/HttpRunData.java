@@ -1,5 +1,6 @@
 package io.hyperfoil.http;
 
+import java.nio.file.Path;
 import java.time.Clock;
 import java.util.Collection;
 import java.util.Collections;
@@ -21,9 +22,12 @@ import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
 import io.hyperfoil.http.api.HttpDestinationTable;
+import io.hyperfoil.http.api.HttpVersion;
+import io.hyperfoil.http.config.ConnectionPoolConfig;
 import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.Http;
 import io.hyperfoil.http.config.HttpPluginConfig;
+import io.hyperfoil.http.config.Protocol;
 import io.hyperfoil.http.connection.HttpClientPoolImpl;
 import io.hyperfoil.http.connection.HttpDestinationTableImpl;
 import io.hyperfoil.http.connection.SessionConnectionPool;
@@ -31,19 +35,33 @@ import io.netty.channel.EventLoop;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 public class HttpRunData implements PluginRunData {
-   private final HttpPluginConfig plugin;
+   private static final Logger log = LogManager.getLogger(HttpRunData.class);
+
    private final HttpDestinationTableImpl[] destinations;
    private final Map<String, HttpClientPool> clientPools = new HashMap<>();
    private final boolean hasSessionPools;
+   private final HttpRecorder[] recorders;
+   private final HttpWarmupStub stub;
 
    public HttpRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
-      plugin = benchmark.plugin(HttpPluginConfig.class);
-      hasSessionPools = plugin.http().values().stream().anyMatch(http -> http.connectionStrategy() != ConnectionStrategy.SHARED_POOL);
+      this(HttpRecorder.isEnabled() ? withRawBytesHandlers(benchmark.plugin(HttpPluginConfig.class).http())
+                  : benchmark.plugin(HttpPluginConfig.class).http(),
+            benchmark, executors, agentId, HttpRecorder.fromProperties(executors.length), null);
+   }
+
+   private HttpRunData(Map<String, Http> httpMap, Benchmark benchmark, EventLoop[] executors, int agentId,
+                       HttpRecorder[] recorders, HttpWarmupStub stub) {
+      this.recorders = recorders;
+      this.stub = stub;
+      hasSessionPools = httpMap.values().stream().anyMatch(http -> http.connectionStrategy() != ConnectionStrategy.SHARED_POOL);
       @SuppressWarnings("unchecked")
       Map<String, HttpConnectionPool>[] connectionPools = new Map[executors.length];
       destinations = new HttpDestinationTableImpl[executors.length];
-      for (Map.Entry<String, Http> http : plugin.http().entrySet()) {
+      for (Map.Entry<String, Http> http : httpMap.entrySet()) {
          try {
             HttpClientPool httpClientPool = new HttpClientPoolImpl(http.getValue(), executors, benchmark, agentId);
             clientPools.put(http.getKey(), httpClientPool);
@@ -72,6 +90,24 @@ public class HttpRunData implements PluginRunData {
       }
    }
 
+   /**
+    * The recorder gets the data through raw bytes handlers; without these the recordings would be empty.
+    */
+   static Map<String, Http> withRawBytesHandlers(Map<String, Http> httpMap) {
+      Map<String, Http> result = new HashMap<>();
+      for (Map.Entry<String, Http> entry : httpMap.entrySet()) {
+         Http http = entry.getValue();
+         if (!http.rawBytesHandlers()) {
+            log.info("Enabling raw bytes handlers for {} as HTTP recording is enabled.", http.originalDestination());
+            http = new Http(http.name(), http.isDefault(), http.originalDestination(), http.protocol(), http.host(), http.port(),
+                  http.addresses(), http.versions(), http.maxHttp2Streams(), http.pipeliningLimit(), http.sharedConnections(),
+                  http.directHttp2(), http.requestTimeout(), true, http.keyManager(), http.trustManager(), http.connectionStrategy());
+         }
+         result.put(entry.getKey(), http);
+      }
+      return result;
+   }
+
    public static void initForTesting(Session session) {
       initForTesting(session, Clock.systemDefaultZone());
    }
@@ -104,7 +140,36 @@ public class HttpRunData implements PluginRunData {
       }
       session.declareSingletonResource(HttpDestinationTable.KEY, destinations);
       session.declareSingletonResource(HttpCache.KEY, new HttpCacheImpl(clock));
-      session.declareSingletonResource(HttpRequestPool.KEY, new HttpRequestPool(scenario, session));
+      session.declareSingletonResource(HttpRequestPool.KEY,
+            new HttpRequestPool(scenario, session, recorders == null ? null : recorders[executorId]));
+   }
+
+   /**
+    * All endpoints are served by single loopback stub using HTTP/1.1 without TLS; the requests keep the original
+    * authority. There's one connection per executor and the responses are not recorded.
+    */
+   @Override
+   public PluginRunData createWarmupRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
+      HttpWarmupStub stub = new HttpWarmupStub();
+      String address = HttpWarmupStub.HOST + ":" + stub.port();
+      // pool sizes are sliced between agents as if these were set in the benchmark
+      int connections = benchmark.totalThreads();
+      Map<String, Http> httpMap = new HashMap<>();
+      for (Map.Entry<String, Http> entry : benchmark.plugin(HttpPluginConfig.class).http().entrySet()) {
+         Http http = entry.getValue();
+         ConnectionPoolConfig sharedConnections = new ConnectionPoolConfig(connections, connections, 0,
+               http.sharedConnections().keepAliveTime(), http.sharedConnections().selection());
+         httpMap.put(entry.getKey(), new Http(http.name(), http.isDefault(), http.originalDestination(),
+               Protocol.HTTP, http.host(), http.port(), new String[]{ address }, new HttpVersion[]{ HttpVersion.HTTP_1_1 },
+               http.maxHttp2Streams(), http.pipeliningLimit(), sharedConnections, false, http.requestTimeout(),
+               http.rawBytesHandlers(), null, null, http.connectionStrategy()));
+      }
+      try {
+         return new HttpRunData(httpMap, benchmark, executors, agentId, null, stub);
+      } catch (RuntimeException e) {
+         stub.close();
+         throw e;
+      }
    }
 
    @Override
@@ -160,5 +225,22 @@ public class HttpRunData implements PluginRunData {
       for (HttpClientPool pool : clientPools.values()) {
          pool.shutdown();
       }
+      if (stub != null) {
+         stub.close();
+      }
+      if (recorders != null) {
+         for (HttpRecorder recorder : recorders) {
+            recorder.close();
+         }
+      }
+   }
+
+   @Override
+   public void visitRecordings(Consumer<Path> consumer) {
+      if (recorders != null) {
+         for (HttpRecorder recorder : recorders) {
+            consumer.accept(recorder.path());
+         }
+      }
    }
 }
@@ -0,0 +1,82 @@
+package io.hyperfoil.http;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * Loopback HTTP/1.1 server answering every request with a synthetic <code>200 OK</code> response.
+ * The server is used for JIT warm-up of the agent and runs in its own thread, not to compete with
+ * the executors.
+ */
+class HttpWarmupStub {
+   static final String HOST = "127.0.0.1";
+   private static final byte[] BODY = "{\"warmup\":true}".getBytes(StandardCharsets.UTF_8);
+
+   private final NioEventLoopGroup group = new NioEventLoopGroup(1);
+   private final Channel channel;
+
+   HttpWarmupStub() {
+      channel = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+               @Override
+               protected void initChannel(SocketChannel ch) {
+                  ch.pipeline().addLast(new HttpServerCodec(), new RequestHandler());
+               }
+            })
+            .bind(new InetSocketAddress(HOST, 0)).syncUninterruptibly().channel();
+   }
+
+   int port() {
+      return ((InetSocketAddress) channel.localAddress()).getPort();
+   }
+
+   void close() {
+      channel.close();
+      group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+   }
+
+   private static class RequestHandler extends SimpleChannelInboundHandler<HttpObject> {
+      private boolean keepAlive = true;
+
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+         if (msg instanceof HttpRequest) {
+            keepAlive = HttpUtil.isKeepAlive((HttpRequest) msg);
+         }
+         if (msg instanceof LastHttpContent) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                  Unpooled.wrappedBuffer(BODY));
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+            response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, BODY.length);
+            if (keepAlive) {
+               ctx.writeAndFlush(response);
+            } else {
+               ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,12 @@
+package io.hyperfoil.http.api;
+
+import java.io.File;
+
+/**
+ * Request body generator that sends a file from the agent's filesystem. Connections recognize it and transfer
+ * the file without copying it through a buffer: plain HTTP/1.1 uses zero-copy file region (<code>sendfile</code>),
+ * TLS and HTTP/2 stream the file in chunks.
+ */
+public interface FileBody {
+   File file();
+}
@@ -10,6 +10,7 @@ import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.http.statistics.HttpStats;
 import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.http.HttpRecorder;
 import io.hyperfoil.http.HttpRequestPool;
 import io.netty.buffer.ByteBuf;
 
@@ -25,10 +26,18 @@ public class HttpRequest extends Request {
    public String authority;
    public String path;
    public CacheControl cacheControl = new CacheControl();
+   // state of the recorder, null when this request was not seen by the recorder yet
+   public HttpRecorder.Exchange recording;
    private HttpConnectionPool pool;
+   private final HttpRecorder recorder;
 
    public HttpRequest(Session session) {
+      this(session, null);
+   }
+
+   public HttpRequest(Session session, HttpRecorder recorder) {
       super(session);
+      this.recorder = recorder;
    }
 
    public static HttpRequest ensure(Request request) {
@@ -70,8 +79,15 @@ public class HttpRequest extends Request {
       return (HttpConnection) super.connection();
    }
 
+   public HttpRecorder recorder() {
+      return recorder;
+   }
+
    @Override
    public void setCompleted() {
+      if (recording != null) {
+         recorder.onCompletion(this);
+      }
       super.setCompleted();
       this.handlers = null;
       this.method = null;
@@ -0,0 +1,24 @@
+package io.hyperfoil.http.config;
+
+/**
+ * Determines which of the available connections in a shared pool is used for the next request.
+ */
+public enum ConnectionSelection {
+   /**
+    * Connections are taken from a queue. Idle connections returned to the pool are placed in front of the queue
+    * (to keep the number of connections in use low) and connections with requests in flight go to the back.
+    */
+   QUEUE,
+   /**
+    * Connections are used in a round-robin fashion regardless of the number of requests in flight.
+    */
+   ROUND_ROBIN,
+   /**
+    * Use the connection with the lowest number of requests in flight.
+    */
+   LEAST_IN_FLIGHT,
+   /**
+    * Pick two available connections at random and use the one with fewer requests in flight.
+    */
+   POWER_OF_TWO_CHOICES
+}
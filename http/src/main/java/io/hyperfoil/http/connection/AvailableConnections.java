@@ -0,0 +1,238 @@
+package io.hyperfoil.http.connection;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.hyperfoil.http.api.HttpConnection;
+import io.hyperfoil.http.config.ConnectionSelection;
+
+/**
+ * Connections in {@link SharedConnectionPool} that can accept another request. All operations run in constant time
+ * with respect to the number of connections and do not allocate, except when growing the internal arrays.
+ * <p>
+ * Same as with the plain queue the pool used before, closed connections are not removed eagerly;
+ * these are returned from {@link #poll()} and the pool drops them.
+ */
+abstract class AvailableConnections extends AbstractCollection<HttpConnection> {
+
+   static AvailableConnections create(ConnectionSelection selection, int capacity) {
+      switch (selection) {
+         case QUEUE:
+            return new Queue(capacity, true);
+         case ROUND_ROBIN:
+            return new Queue(capacity, false);
+         case LEAST_IN_FLIGHT:
+            return new Indexed(capacity, true);
+         case POWER_OF_TWO_CHOICES:
+            return new Indexed(capacity, false);
+         default:
+            throw new IllegalArgumentException("Unknown connection selection " + selection);
+      }
+   }
+
+   /**
+    * Removes the connection that should be used for the next request.
+    */
+   abstract HttpConnection poll();
+
+   /**
+    * @param connection Connection that became available.
+    * @param idle Connection does not have any requests in flight.
+    */
+   abstract void offer(HttpConnection connection, boolean idle);
+
+   /**
+    * Called when number of requests in flight changed for a connection that could be available.
+    */
+   void update(HttpConnection connection) {
+   }
+
+   private static class Queue extends AvailableConnections {
+      private final ArrayDeque<HttpConnection> queue;
+      private final boolean preferIdle;
+
+      Queue(int capacity, boolean preferIdle) {
+         this.queue = new ArrayDeque<>(capacity);
+         this.preferIdle = preferIdle;
+      }
+
+      @Override
+      HttpConnection poll() {
+         return queue.pollFirst();
+      }
+
+      @Override
+      void offer(HttpConnection connection, boolean idle) {
+         if (idle && preferIdle) {
+            queue.addFirst(connection);
+         } else {
+            queue.addLast(connection);
+         }
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return queue.contains(o);
+      }
+
+      @Override
+      public Iterator<HttpConnection> iterator() {
+         return queue.iterator();
+      }
+
+      @Override
+      public int size() {
+         return queue.size();
+      }
+   }
+
+   /**
+    * Connections are kept in buckets by number of requests in flight (or all in a single bucket when
+    * the choice is random); each connection remembers its position through {@link PooledConnection}.
+    */
+   private static class Indexed extends AvailableConnections {
+      private final boolean leastInFlight;
+      private HttpConnection[][] buckets;
+      private int[] sizes;
+      private int size;
+      // No bucket below this index contains a connection
+      private int lowest;
+
+      Indexed(int capacity, boolean leastInFlight) {
+         this.leastInFlight = leastInFlight;
+         this.buckets = new HttpConnection[][]{ new HttpConnection[Math.max(capacity, 1)] };
+         this.sizes = new int[1];
+      }
+
+      @Override
+      HttpConnection poll() {
+         if (size == 0) {
+            return null;
+         }
+         HttpConnection connection;
+         if (leastInFlight) {
+            while (sizes[lowest] == 0) {
+               ++lowest;
+            }
+            connection = buckets[lowest][sizes[lowest] - 1];
+         } else {
+            int n = sizes[0];
+            connection = buckets[0][0];
+            if (n > 1) {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               int first = random.nextInt(n);
+               int second = random.nextInt(n - 1);
+               if (second >= first) {
+                  ++second;
+               }
+               HttpConnection a = buckets[0][first];
+               HttpConnection b = buckets[0][second];
+               connection = b.inFlight() < a.inFlight() ? b : a;
+            }
+         }
+         remove((PooledConnection) connection);
+         return connection;
+      }
+
+      @Override
+      void offer(HttpConnection connection, boolean idle) {
+         PooledConnection pooled = (PooledConnection) connection;
+         if (pooled.poolIndex() >= 0) {
+            update(connection);
+         } else {
+            insert(pooled, bucket(connection));
+         }
+      }
+
+      @Override
+      void update(HttpConnection connection) {
+         PooledConnection pooled = (PooledConnection) connection;
+         if (leastInFlight && pooled.poolIndex() >= 0) {
+            int bucket = bucket(connection);
+            if (bucket != pooled.poolBucket()) {
+               remove(pooled);
+               insert(pooled, bucket);
+            }
+         }
+      }
+
+      private int bucket(HttpConnection connection) {
+         return leastInFlight ? connection.inFlight() : 0;
+      }
+
+      private void insert(PooledConnection connection, int bucket) {
+         if (bucket >= buckets.length) {
+            int length = Math.max(bucket + 1, 2 * buckets.length);
+            buckets = Arrays.copyOf(buckets, length);
+            sizes = Arrays.copyOf(sizes, length);
+         }
+         HttpConnection[] array = buckets[bucket];
+         if (array == null) {
+            array = buckets[bucket] = new HttpConnection[buckets[0].length];
+         } else if (sizes[bucket] == array.length) {
+            array = buckets[bucket] = Arrays.copyOf(array, 2 * array.length);
+         }
+         int index = sizes[bucket]++;
+         array[index] = (HttpConnection) connection;
+         connection.poolBucket(bucket);
+         connection.poolIndex(index);
+         ++size;
+         if (bucket < lowest) {
+            lowest = bucket;
+         }
+      }
+
+      private void remove(PooledConnection connection) {
+         int bucket = connection.poolBucket();
+         int index = connection.poolIndex();
+         HttpConnection[] array = buckets[bucket];
+         int last = --sizes[bucket];
+         if (index != last) {
+            array[index] = array[last];
+            ((PooledConnection) array[index]).poolIndex(index);
+         }
+         array[last] = null;
+         connection.poolIndex(-1);
+         --size;
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return o instanceof PooledConnection && ((PooledConnection) o).poolIndex() >= 0;
+      }
+
+      @Override
+      public Iterator<HttpConnection> iterator() {
+         return new Iterator<>() {
+            int bucket;
+            int index;
+
+            @Override
+            public boolean hasNext() {
+               while (bucket < sizes.length && index >= sizes[bucket]) {
+                  ++bucket;
+                  index = 0;
+               }
+               return bucket < sizes.length;
+            }
+
+            @Override
+            public HttpConnection next() {
+               if (!hasNext()) {
+                  throw new NoSuchElementException();
+               }
+               return buckets[bucket][index++];
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return size;
+      }
+   }
+}
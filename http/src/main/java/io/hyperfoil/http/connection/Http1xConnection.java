@@ -1,5 +1,9 @@
 package io.hyperfoil.http.connection;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.function.BiConsumer;
@@ -10,6 +14,7 @@ import io.hyperfoil.http.api.HttpVersion;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.impl.Util;
+import io.hyperfoil.http.api.FileBody;
 import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpConnection;
 import io.hyperfoil.http.api.HttpConnectionPool;
@@ -21,7 +26,10 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.AsciiString;
 import io.netty.util.CharsetUtil;
 
@@ -31,10 +39,11 @@ import org.apache.logging.log4j.LogManager;
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
-class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
+class Http1xConnection extends ChannelDuplexHandler implements HttpConnection, PooledConnection {
    private static final Logger log = LogManager.getLogger(Http1xConnection.class);
    private static final boolean trace = log.isTraceEnabled();
    private static final byte[] HTTP1_1 = { ' ', 'H', 'T', 'T', 'P', '/', '1', '.', '1', '\r', '\n' };
+   static final int FILE_CHUNK_SIZE = 64 * 1024;
 
    private final Deque<HttpRequest> inflights;
    private final BiConsumer<HttpConnection, Throwable> activationHandler;
@@ -47,6 +56,8 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private boolean activated;
    private Status status = Status.OPEN;
    private long lastUsed = System.nanoTime();
+   private int poolBucket;
+   private int poolIndex = -1;
 
    Http1xConnection(HttpClientPoolImpl client, BiConsumer<HttpConnection, Throwable> handler) {
       this.activationHandler = handler;
@@ -145,10 +156,24 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       if (injectHostHeader) {
          writeHeader(buf, HttpHeaderNames.HOST.array(), pool.clientPool().originalDestinationBytes());
       }
-      // TODO: adjust interface - we can't send static buffers anyway
-      ByteBuf body = bodyGenerator != null ? bodyGenerator.apply(request.session, request.connection()) : null;
-      if (body == null) {
+      File file = null;
+      long fileLength = 0;
+      ByteBuf body;
+      if (bodyGenerator instanceof FileBody) {
+         file = ((FileBody) bodyGenerator).file();
+         fileLength = file.length();
          body = Unpooled.EMPTY_BUFFER;
+         if (fileLength > 0) {
+            buf.writeBytes(HttpHeaderNames.CONTENT_LENGTH.array()).writeByte(':').writeByte(' ');
+            Util.string2byteBuf(Long.toString(fileLength), buf);
+            buf.writeByte('\r').writeByte('\n');
+         }
+      } else {
+         // TODO: adjust interface - we can't send static buffers anyway
+         body = bodyGenerator != null ? bodyGenerator.apply(request.session, request.connection()) : null;
+         if (body == null) {
+            body = Unpooled.EMPTY_BUFFER;
+         }
       }
       if (body.readableBytes() > 0) {
          if (trace) {
@@ -186,7 +211,10 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       inflights.add(request);
       ChannelPromise writePromise = ctx.newPromise();
       writePromise.addListener(request);
-      if (body.isReadable()) {
+      if (fileLength > 0) {
+         ctx.write(buf);
+         writeFile(file, fileLength, writePromise);
+      } else if (body.isReadable()) {
          ctx.write(buf);
          ctx.writeAndFlush(body, writePromise);
       } else {
@@ -195,6 +223,41 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       pool.afterRequestSent(this);
    }
 
+   private void writeFile(File file, long length, ChannelPromise promise) {
+      if (!secure) {
+         // The transport uses sendfile (or FileChannel.transferTo) to send the file
+         ctx.writeAndFlush(new DefaultFileRegion(file, 0, length), promise);
+         return;
+      }
+      // SslHandler needs the data in buffers; ChunkedWriteHandler keeps order with subsequent (pipelined) writes
+      if (ctx.pipeline().get(ChunkedWriteHandler.class) == null) {
+         ctx.pipeline().addBefore(ctx.name(), null, new ChunkedWriteHandler());
+      }
+      try {
+         ctx.writeAndFlush(openFile(file, length), promise);
+      } catch (IOException e) {
+         ctx.flush();
+         promise.setFailure(e);
+      }
+   }
+
+   /**
+    * Opens the file for reading in chunks; the channel is closed if it cannot be set up.
+    */
+   static ChunkedNioFile openFile(File file, long length) throws IOException {
+      FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      try {
+         return new ChunkedNioFile(channel, 0, length, FILE_CHUNK_SIZE);
+      } catch (IOException | RuntimeException e) {
+         try {
+            channel.close();
+         } catch (IOException e2) {
+            e.addSuppressed(e2);
+         }
+         throw e;
+      }
+   }
+
    private void writeHeader(ByteBuf buf, byte[] name, byte[] value) {
       buf.writeBytes(name).writeByte(':').writeByte(' ').writeBytes(value).writeByte('\r').writeByte('\n');
    }
@@ -274,6 +337,26 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       return lastUsed;
    }
 
+   @Override
+   public int poolBucket() {
+      return poolBucket;
+   }
+
+   @Override
+   public void poolBucket(int bucket) {
+      this.poolBucket = bucket;
+   }
+
+   @Override
+   public int poolIndex() {
+      return poolIndex;
+   }
+
+   @Override
+   public void poolIndex(int index) {
+      this.poolIndex = index;
+   }
+
    @Override
    public ChannelHandlerContext context() {
       return ctx;
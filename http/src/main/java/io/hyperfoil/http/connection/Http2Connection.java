@@ -1,5 +1,6 @@
 package io.hyperfoil.http.connection;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
@@ -10,6 +11,7 @@ import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.http.api.HttpVersion;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.http.api.FileBody;
 import io.hyperfoil.http.api.HttpCache;
 import io.hyperfoil.http.api.HttpClientPool;
 import io.hyperfoil.http.api.HttpConnection;
@@ -31,6 +33,7 @@ import io.netty.handler.codec.http2.Http2EventAdapter;
 import io.netty.handler.codec.http2.Http2Exception;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.stream.ChunkedNioFile;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
 import io.netty.util.internal.AppendableCharSequence;
@@ -41,7 +44,7 @@ import org.apache.logging.log4j.LogManager;
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
-class Http2Connection extends Http2EventAdapter implements HttpConnection {
+class Http2Connection extends Http2EventAdapter implements HttpConnection, PooledConnection {
    private static final Logger log = LogManager.getLogger(Http2Connection.class);
    private static final boolean trace = log.isTraceEnabled();
 
@@ -58,6 +61,8 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    private Status status = Status.OPEN;
    private HttpRequest dispatchedRequest;
    private long lastUsed = System.nanoTime();
+   private int poolBucket;
+   private int poolIndex = -1;
 
    Http2Connection(ChannelHandlerContext context,
                    io.netty.handler.codec.http2.Http2Connection connection,
@@ -133,7 +138,15 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       aboutToSend--;
       HttpClientPool httpClientPool = pool.clientPool();
 
-      ByteBuf buf = bodyGenerator != null ? bodyGenerator.apply(request.session, this) : null;
+      File file = null;
+      long fileLength = 0;
+      ByteBuf buf = null;
+      if (bodyGenerator instanceof FileBody) {
+         file = ((FileBody) bodyGenerator).file();
+         fileLength = file.length();
+      } else if (bodyGenerator != null) {
+         buf = bodyGenerator.apply(request.session, this);
+      }
 
       if (request.path.contains(" ")) {
          int length = request.path.length();
@@ -166,6 +179,8 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       }
       if (buf != null && buf.readableBytes() > 0) {
          headers.add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
+      } else if (fileLength > 0) {
+         headers.add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(fileLength));
       }
 
       HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, headers);
@@ -192,13 +207,20 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       streams.put(id, request);
       dispatchedRequest = request;
       ChannelPromise writePromise = context.newPromise();
-      encoder.writeHeaders(context, id, headers, 0, buf == null, writePromise);
+      encoder.writeHeaders(context, id, headers, 0, buf == null && fileLength <= 0, writePromise);
       if (buf != null) {
          if (trace) {
             log.trace("Sending HTTP request body: {}\n", Util.toString(buf, buf.readerIndex(), buf.readableBytes()));
          }
          writePromise = context.newPromise();
          encoder.writeData(context, id, buf, 0, true, writePromise);
+      } else if (fileLength > 0) {
+         writePromise = context.newPromise();
+         try {
+            writeFileChunk(id, Http1xConnection.openFile(file, fileLength), writePromise);
+         } catch (IOException e) {
+            writePromise.setFailure(e);
+         }
       }
       writePromise.addListener(request);
       // We need to flush the channel - context.flush() would skip (?) the uppermost handler
@@ -208,6 +230,56 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       pool.afterRequestSent(this);
    }
 
+   /**
+    * Chunks are written one by one when the previous one has been passed to the socket (that means after
+    * flow-control permits it); this way the file is not buffered in memory at once.
+    */
+   private void writeFileChunk(int streamId, ChunkedNioFile input, ChannelPromise promise) {
+      try {
+         if (!canSendData(streamId)) {
+            // The stream was reset (the request has been already completed); failing the promise would close
+            // the whole connection.
+            input.close();
+            promise.trySuccess();
+            return;
+         }
+         ByteBuf chunk = input.readChunk(context.alloc());
+         boolean last = chunk == null || input.isEndOfInput();
+         ChannelPromise chunkPromise = last ? promise : context.newPromise();
+         encoder.writeData(context, streamId, chunk == null ? Unpooled.EMPTY_BUFFER : chunk, 0, last, chunkPromise);
+         if (last) {
+            input.close();
+         } else {
+            chunkPromise.addListener(future -> {
+               if (future.isSuccess() || !canSendData(streamId)) {
+                  writeFileChunk(streamId, input, promise);
+               } else {
+                  input.close();
+                  promise.tryFailure(future.cause());
+               }
+            });
+         }
+         context.channel().flush();
+      } catch (Exception e) {
+         try {
+            input.close();
+         } catch (Exception e2) {
+            e.addSuppressed(e2);
+         }
+         promise.tryFailure(e);
+      }
+   }
+
+   private boolean canSendData(int streamId) {
+      io.netty.handler.codec.http2.Http2Stream stream = connection.stream(streamId);
+      if (stream == null || stream.isResetSent()) {
+         return false;
+      }
+      io.netty.handler.codec.http2.Http2Stream.State state = stream.state();
+      return state == io.netty.handler.codec.http2.Http2Stream.State.OPEN
+            || state == io.netty.handler.codec.http2.Http2Stream.State.HALF_CLOSED_REMOTE;
+   }
+
    @Override
    public HttpRequest dispatchedRequest() {
       return dispatchedRequest;
@@ -263,6 +335,26 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       return lastUsed;
    }
 
+   @Override
+   public int poolBucket() {
+      return poolBucket;
+   }
+
+   @Override
+   public void poolBucket(int bucket) {
+      this.poolBucket = bucket;
+   }
+
+   @Override
+   public int poolIndex() {
+      return poolIndex;
+   }
+
+   @Override
+   public void poolIndex(int index) {
+      this.poolIndex = index;
+   }
+
    private int nextStreamId() {
       return connection.local().incrementAndGetNextStreamId();
    }
@@ -301,14 +393,21 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          HttpRequest request = streams.get(streamId);
          if (request != null && !request.isCompleted()) {
             HttpResponseHandlers handlers = request.handlers();
+            CharSequence status = headers.status();
+            // trailers (e.g. gRPC status) come in a second HEADERS frame without the :status pseudo-header
+            boolean trailers = status == null;
             int code = -1;
-            try {
-               code = Integer.parseInt(headers.status().toString());
-            } catch (NumberFormatException ignore) {
+            if (!trailers) {
+               try {
+                  code = Integer.parseInt(status.toString());
+               } catch (NumberFormatException ignore) {
+               }
             }
             request.enter();
             try {
-               handlers.handleStatus(request, code, "");
+               if (!trailers) {
+                  handlers.handleStatus(request, code, "");
+               }
                for (Map.Entry<CharSequence, CharSequence> header : headers) {
                   handlers.handleHeader(request, header.getKey(), header.getValue());
                }
@@ -146,7 +146,8 @@ public class HttpClientPoolImpl implements HttpClientPool {
             int core = coreShare + (i < coreRemainder ? 1 : 0);
             int max = maxShare + (i < maxRemainder ? 1 : 0);
             int buffer = bufferShare + (i < bufferRemainder ? 1 : 0);
-            children[i] = new SharedConnectionPool(this, executors[i], new ConnectionPoolConfig(core, max, buffer, http.sharedConnections().keepAliveTime()));
+            children[i] = new SharedConnectionPool(this, executors[i], new ConnectionPoolConfig(core, max, buffer,
+                  http.sharedConnections().keepAliveTime(), http.sharedConnections().selection()));
          } else {
             children[i] = new ConnectionAllocator(this, executors[i]);
          }
@@ -0,0 +1,17 @@
+package io.hyperfoil.http.connection;
+
+/**
+ * Position of the connection in {@link AvailableConnections}, stored in the connection to avoid lookups.
+ */
+interface PooledConnection {
+   int poolBucket();
+
+   void poolBucket(int bucket);
+
+   /**
+    * @return Index within the bucket or negative number if the connection is not available.
+    */
+   int poolIndex();
+
+   void poolIndex(int index);
+}
@@ -6,6 +6,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -33,7 +34,8 @@ public class RawRequestHandler extends ChannelOutboundHandlerAdapter {
             }
          }
          // non-request related data (SSL handshake, HTTP2 service messages...) will be ignored
-      } else {
+      } else if (!(msg instanceof FileRegion)) {
+         // file regions are sent directly by the transport and the content is not available
          log.warn("Unknown message being sent: {}", msg);
       }
       ctx.write(msg, promise);
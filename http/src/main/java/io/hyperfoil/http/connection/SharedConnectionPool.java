@@ -34,7 +34,7 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
 
    private final HttpClientPoolImpl clientPool;
    private final ArrayList<HttpConnection> connections = new ArrayList<>();
-   private final ArrayDeque<HttpConnection> available;
+   private final AvailableConnections available;
    private final List<HttpConnection> temporaryInFlight;
    private final ConnectionReceiver handleNewConnection = this::handleNewConnection;
    private final Runnable checkCreateConnections = this::checkCreateConnections;
@@ -58,7 +58,7 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       this.clientPool = clientPool;
       this.sizeConfig = sizeConfig;
       this.eventLoop = eventLoop;
-      this.available = new ArrayDeque<>(sizeConfig.max());
+      this.available = AvailableConnections.create(sizeConfig.selection(), sizeConfig.max());
       this.temporaryInFlight = new ArrayList<>(sizeConfig.max());
    }
 
@@ -71,7 +71,7 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       assert eventLoop.inEventLoop();
       try {
          for (; ; ) {
-            HttpConnection connection = available.pollFirst();
+            HttpConnection connection = available.poll();
             if (connection == null) {
                log.debug("No connection to {} available, currently used {}", authority, usedConnections.current());
                return null;
@@ -94,7 +94,9 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
          }
       } finally {
          if (!temporaryInFlight.isEmpty()) {
-            available.addAll(temporaryInFlight);
+            for (int i = 0; i < temporaryInFlight.size(); ++i) {
+               available.offer(temporaryInFlight.get(i), false);
+            }
             temporaryInFlight.clear();
          }
       }
@@ -121,12 +123,8 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
    public void afterRequestSent(HttpConnection connection) {
       // Move it to the back of the queue if it is still available (do not prefer it for subsequent requests)
       if (connection.isAvailable()) {
-         if (connection.inFlight() == 0) {
-            // The request was not executed in the end (response was cached)
-            available.addFirst(connection);
-         } else {
-            available.addLast(connection);
-         }
+         // When inFlight() == 0 the request was not executed in the end (response was cached)
+         available.offer(connection, connection.inFlight() == 0);
       }
    }
 
@@ -137,13 +135,11 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
       }
       if (becameAvailable) {
          assert !connection.isClosed();
-         if (connection.inFlight() == 0) {
-            // We are adding to the beginning of the queue to prefer reusing connections rather than cycling
-            // too many often-idle connections
-            available.addFirst(connection);
-         } else {
-            available.addLast(connection);
-         }
+         // Idle connections are preferred (with the default selection) to reuse connections rather than cycling
+         // too many often-idle connections
+         available.offer(connection, connection.inFlight() == 0);
+      } else if (afterRequest) {
+         available.update(connection);
       }
       if (afterRequest) {
          inFlight.decrementUsed();
@@ -276,7 +272,7 @@ class SharedConnectionPool extends ConnectionPoolStats implements HttpConnection
          // With each success we reset the counter - otherwise we'd eventually
          // stop trying to create new connections and the sessions would be stuck.
          failures = 0;
-         available.add(conn);
+         available.offer(conn, false);
          log.debug("Created {} to {} ({}+{}=?{}:{}/{})", conn, authority,
                created, connecting, connections.size(), available.size() - availableClosed, sizeConfig.max());
 
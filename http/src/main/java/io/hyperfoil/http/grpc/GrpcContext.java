@@ -0,0 +1,53 @@
+package io.hyperfoil.http.grpc;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+
+/**
+ * State of the gRPC response currently being received, shared between {@link GrpcMessageProcessor}
+ * that parses the length-prefixed messages and {@link GrpcStatusHandler} that evaluates the status.
+ */
+class GrpcContext implements Session.Resource {
+   static final int PREFIX_LENGTH = 5;
+
+   int status;
+   CharSequence statusMessage;
+   int messages;
+   boolean failed;
+   long lastMessageTimestamp;
+   Statistics messageStatistics;
+
+   // parser state
+   int prefixBytes;
+   int compressedFlag;
+   int messageLength;
+   int remaining;
+
+   void reset(long startTimestampNanos) {
+      status = -1;
+      statusMessage = null;
+      messages = 0;
+      failed = false;
+      lastMessageTimestamp = startTimestampNanos;
+      messageStatistics = null;
+      resetMessage();
+   }
+
+   void resetMessage() {
+      prefixBytes = 0;
+      compressedFlag = 0;
+      messageLength = 0;
+      remaining = 0;
+   }
+
+   boolean isInsideMessage() {
+      return prefixBytes > 0;
+   }
+
+   @Override
+   public void onSessionReset(Session session) {
+      reset(0);
+   }
+
+   static final class Key implements Session.ResourceKey<GrpcContext> {}
+}
@@ -0,0 +1,348 @@
+package io.hyperfoil.http.grpc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.MappingListBuilder;
+import io.hyperfoil.api.connection.Connection;
+import io.hyperfoil.api.session.ReadAccess;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.function.SerializableBiFunction;
+import io.hyperfoil.http.steps.HttpRequestStepBuilder;
+import io.hyperfoil.impl.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Generates length-prefixed gRPC request message. The message consists of a pre-serialized protobuf template
+ * followed by fields encoded from session variables. Protobuf parsers apply the last occurrence of a scalar field,
+ * therefore the appended fields override the values from the template.
+ */
+public class GrpcMessage implements SerializableBiFunction<Session, Connection, ByteBuf> {
+   private static final int MAX_FIELD_NUMBER = (1 << 29) - 1;
+
+   private final byte[] template;
+   private final Field[] fields;
+
+   public GrpcMessage(byte[] template, Field[] fields) {
+      this.template = template;
+      this.fields = fields;
+   }
+
+   @Override
+   public ByteBuf apply(Session session, Connection connection) {
+      ByteBuf buf = connection.context().alloc().buffer(GrpcContext.PREFIX_LENGTH + template.length + 16 * fields.length);
+      // uncompressed flag and placeholder for message length
+      buf.writeByte(0);
+      buf.writeInt(0);
+      buf.writeBytes(template);
+      for (Field field : fields) {
+         field.write(session, buf);
+      }
+      buf.setInt(1, buf.writerIndex() - GrpcContext.PREFIX_LENGTH);
+      return buf;
+   }
+
+   static void writeVarint(ByteBuf buf, long value) {
+      while ((value & ~0x7FL) != 0) {
+         buf.writeByte((int) ((value & 0x7F) | 0x80));
+         value >>>= 7;
+      }
+      buf.writeByte((int) value);
+   }
+
+   static void writeField(ByteBuf buf, int number, Type type, Object value) {
+      writeVarint(buf, ((long) number << 3) | type.wireType);
+      switch (type) {
+         case INT32:
+         case INT64:
+         case UINT64:
+         case ENUM:
+            writeVarint(buf, toLong(value));
+            break;
+         case UINT32:
+            writeVarint(buf, toLong(value) & 0xFFFFFFFFL);
+            break;
+         case BOOL:
+            writeVarint(buf, toBoolean(value) ? 1 : 0);
+            break;
+         case SINT32:
+            int intValue = (int) toLong(value);
+            writeVarint(buf, ((intValue << 1) ^ (intValue >> 31)) & 0xFFFFFFFFL);
+            break;
+         case SINT64:
+            long longValue = toLong(value);
+            writeVarint(buf, (longValue << 1) ^ (longValue >> 63));
+            break;
+         case FIXED32:
+         case SFIXED32:
+            buf.writeIntLE((int) toLong(value));
+            break;
+         case FLOAT:
+            buf.writeIntLE(Float.floatToRawIntBits((float) toDouble(value)));
+            break;
+         case FIXED64:
+         case SFIXED64:
+            buf.writeLongLE(toLong(value));
+            break;
+         case DOUBLE:
+            buf.writeLongLE(Double.doubleToRawLongBits(toDouble(value)));
+            break;
+         case STRING:
+         case BYTES:
+            if (value instanceof byte[]) {
+               byte[] bytes = (byte[]) value;
+               writeVarint(buf, bytes.length);
+               buf.writeBytes(bytes);
+            } else {
+               CharSequence str = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+               writeVarint(buf, ByteBufUtil.utf8Bytes(str));
+               ByteBufUtil.writeUtf8(buf, str);
+            }
+            break;
+         default:
+            throw new IllegalArgumentException("Unknown type " + type);
+      }
+   }
+
+   private static long toLong(Object value) {
+      if (value instanceof Number) {
+         return ((Number) value).longValue();
+      } else if (value instanceof Boolean) {
+         return (Boolean) value ? 1 : 0;
+      } else if (value instanceof CharSequence) {
+         return Long.parseLong(value.toString());
+      } else {
+         throw new IllegalStateException("Cannot implicitly convert " + value + " to integer.");
+      }
+   }
+
+   private static double toDouble(Object value) {
+      if (value instanceof Number) {
+         return ((Number) value).doubleValue();
+      } else if (value instanceof CharSequence) {
+         return Double.parseDouble(value.toString());
+      } else {
+         throw new IllegalStateException("Cannot implicitly convert " + value + " to floating point number.");
+      }
+   }
+
+   private static boolean toBoolean(Object value) {
+      if (value instanceof Boolean) {
+         return (Boolean) value;
+      } else if (value instanceof Number) {
+         return ((Number) value).longValue() != 0;
+      } else if (value instanceof CharSequence) {
+         return Boolean.parseBoolean(value.toString());
+      } else {
+         throw new IllegalStateException("Cannot implicitly convert " + value + " to boolean.");
+      }
+   }
+
+   /**
+    * Protobuf scalar value types.
+    */
+   public enum Type {
+      DOUBLE(1),
+      FLOAT(5),
+      INT32(0),
+      INT64(0),
+      UINT32(0),
+      UINT64(0),
+      SINT32(0),
+      SINT64(0),
+      FIXED32(5),
+      FIXED64(1),
+      SFIXED32(5),
+      SFIXED64(1),
+      BOOL(0),
+      ENUM(0),
+      STRING(2),
+      BYTES(2);
+
+      final int wireType;
+
+      Type(int wireType) {
+         this.wireType = wireType;
+      }
+   }
+
+   static class Field implements Serializable {
+      private final int number;
+      private final Type type;
+      private final ReadAccess fromVar;
+
+      Field(int number, Type type, ReadAccess fromVar) {
+         this.number = number;
+         this.type = type;
+         this.fromVar = fromVar;
+      }
+
+      void write(Session session, ByteBuf buf) {
+         Session.Var var = fromVar.getVar(session);
+         if (!var.isSet()) {
+            // protobuf treats missing fields as default values
+            return;
+         }
+         Object value = var.type() == Session.VarType.INTEGER ? (Object) fromVar.getInt(session) : fromVar.getObject(session);
+         writeField(buf, number, type, value);
+      }
+   }
+
+   /**
+    * Request message. The message is composed of an optional pre-serialized protobuf <code>template</code>
+    * (e.g. created using <code>protoc --encode</code>) and fields appended to it.
+    */
+   public static class Builder implements HttpRequestStepBuilder.BodyGeneratorBuilder {
+      private String template;
+      private String templateFile;
+      private final FieldsBuilder fields = new FieldsBuilder();
+
+      /**
+       * Base64-encoded serialized protobuf message.
+       *
+       * @param template Serialized message.
+       * @return Self.
+       */
+      public Builder template(String template) {
+         this.template = template;
+         return this;
+      }
+
+      /**
+       * File with binary serialized protobuf message.
+       *
+       * @param templateFile Path to the file.
+       * @return Self.
+       */
+      public Builder templateFile(String templateFile) {
+         this.templateFile = templateFile;
+         return this;
+      }
+
+      /**
+       * Fields appended to the template. Constant values are encoded when the benchmark is built,
+       * values from session variables are encoded for each request.
+       *
+       * @return Builder.
+       */
+      public FieldsBuilder fields() {
+         return fields;
+      }
+
+      @Override
+      public SerializableBiFunction<Session, Connection, ByteBuf> build() {
+         ByteBuf staticPart = Unpooled.buffer();
+         if (template != null && templateFile != null) {
+            throw new BenchmarkDefinitionException("gRPC message must not define both template and templateFile.");
+         } else if (template != null) {
+            try {
+               staticPart.writeBytes(Base64.getDecoder().decode(template));
+            } catch (IllegalArgumentException e) {
+               throw new BenchmarkDefinitionException("gRPC message template is not valid Base64.", e);
+            }
+         } else if (templateFile != null) {
+            try (InputStream inputStream = Locator.current().benchmark().data().readFile(templateFile)) {
+               if (inputStream == null) {
+                  throw new BenchmarkDefinitionException("Cannot load file `" + templateFile + "` for gRPC message (not found).");
+               }
+               staticPart.writeBytes(Util.toByteArray(inputStream));
+            } catch (IOException e) {
+               throw new BenchmarkDefinitionException("Cannot load file `" + templateFile + "` for gRPC message.", e);
+            }
+         }
+         List<Field> dynamicFields = new ArrayList<>();
+         for (FieldBuilder field : fields.fields) {
+            if (field.number <= 0 || field.number > MAX_FIELD_NUMBER || (field.number >= 19000 && field.number <= 19999)) {
+               throw new BenchmarkDefinitionException("Invalid protobuf field number " + field.number);
+            } else if (field.type == null) {
+               throw new BenchmarkDefinitionException("Type of field " + field.number + " is not set.");
+            } else if ((field.value == null) == (field.fromVar == null)) {
+               throw new BenchmarkDefinitionException("Field " + field.number + " must set either value or fromVar.");
+            }
+            if (field.value != null) {
+               try {
+                  writeField(staticPart, field.number, field.type, field.value);
+               } catch (NumberFormatException e) {
+                  throw new BenchmarkDefinitionException("Cannot convert value of field " + field.number + " to " + field.type, e);
+               }
+            } else {
+               dynamicFields.add(new Field(field.number, field.type, SessionFactory.readAccess(field.fromVar)));
+            }
+         }
+         byte[] bytes = new byte[staticPart.readableBytes()];
+         staticPart.readBytes(bytes);
+         return new GrpcMessage(bytes, dynamicFields.toArray(new Field[0]));
+      }
+   }
+
+   public static class FieldsBuilder implements MappingListBuilder<FieldBuilder> {
+      private final List<FieldBuilder> fields = new ArrayList<>();
+
+      @Override
+      public FieldBuilder addItem() {
+         FieldBuilder builder = new FieldBuilder();
+         fields.add(builder);
+         return builder;
+      }
+   }
+
+   public static class FieldBuilder {
+      private int number;
+      private Type type;
+      private String value;
+      private String fromVar;
+
+      /**
+       * Field number as defined in the <code>.proto</code> file.
+       *
+       * @param number Field number.
+       * @return Self.
+       */
+      public FieldBuilder number(int number) {
+         this.number = number;
+         return this;
+      }
+
+      /**
+       * Protobuf type of the field.
+       *
+       * @param type Field type.
+       * @return Self.
+       */
+      public FieldBuilder type(Type type) {
+         this.type = type;
+         return this;
+      }
+
+      /**
+       * Constant value of the field.
+       *
+       * @param value Value.
+       * @return Self.
+       */
+      public FieldBuilder value(String value) {
+         this.value = value;
+         return this;
+      }
+
+      /**
+       * Session variable with the value of the field. The field is omitted when the variable is not set.
+       *
+       * @param fromVar Variable name.
+       * @return Self.
+       */
+      public FieldBuilder fromVar(String fromVar) {
+         this.fromVar = fromVar;
+         return this;
+      }
+   }
+}
@@ -0,0 +1,167 @@
+package io.hyperfoil.http.grpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.http.api.HttpRequest;
+import io.netty.buffer.ByteBuf;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Splits the response body into length-prefixed gRPC messages. Processors are invoked with <code>before()</code>
+ * and <code>after()</code> once per response; each message is passed in one or more <code>process()</code> calls,
+ * the last one with <code>isLastPart</code> set. When message metric is set the time since previous message
+ * (or since the request was sent for the first one) is recorded for each message.
+ */
+public class GrpcMessageProcessor implements Processor, ResourceUtilizer {
+   private static final Logger log = LogManager.getLogger(GrpcMessageProcessor.class);
+
+   private final GrpcContext.Key key;
+   private final int stepId;
+   private final String messageMetric;
+   private final Processor[] processors;
+
+   public GrpcMessageProcessor(GrpcContext.Key key, int stepId, String messageMetric, Processor[] processors) {
+      this.key = key;
+      this.stepId = stepId;
+      this.messageMetric = messageMetric;
+      this.processors = processors;
+   }
+
+   @Override
+   public void before(Session session) {
+      HttpRequest request = HttpRequest.ensure(session.currentRequest());
+      if (request == null) {
+         return;
+      }
+      GrpcContext ctx = session.getResource(key);
+      ctx.reset(request.startTimestampNanos());
+      if (messageMetric != null) {
+         ctx.messageStatistics = session.statistics(stepId, messageMetric);
+      }
+      for (Processor processor : processors) {
+         processor.before(session);
+      }
+   }
+
+   @Override
+   public void process(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      GrpcContext ctx = session.getResource(key);
+      int end = offset + length;
+      while (offset < end && !ctx.failed) {
+         if (ctx.prefixBytes < GrpcContext.PREFIX_LENGTH) {
+            int b = data.getByte(offset++) & 0xFF;
+            if (ctx.prefixBytes == 0) {
+               ctx.compressedFlag = b;
+            } else {
+               ctx.messageLength = (ctx.messageLength << 8) | b;
+            }
+            if (++ctx.prefixBytes == GrpcContext.PREFIX_LENGTH) {
+               if (ctx.compressedFlag != 0 || ctx.messageLength < 0) {
+                  // we do not announce grpc-accept-encoding so the server must not compress messages
+                  log.error("#{} Unexpected gRPC message prefix: compressed flag {}, length {}",
+                        session.uniqueId(), ctx.compressedFlag, ctx.messageLength);
+                  ctx.failed = true;
+                  return;
+               }
+               ctx.remaining = ctx.messageLength;
+               if (ctx.remaining == 0) {
+                  invokeProcessors(session, data, offset, 0, true);
+                  completeMessage(session, ctx);
+               }
+            }
+         } else {
+            int partLength = Math.min(ctx.remaining, end - offset);
+            ctx.remaining -= partLength;
+            boolean lastPart = ctx.remaining == 0;
+            invokeProcessors(session, data, offset, partLength, lastPart);
+            offset += partLength;
+            if (lastPart) {
+               completeMessage(session, ctx);
+            }
+         }
+      }
+   }
+
+   private void invokeProcessors(Session session, ByteBuf data, int offset, int length, boolean isLastPart) {
+      int readerIndex = data.readerIndex();
+      for (Processor processor : processors) {
+         processor.process(session, data, offset, length, isLastPart);
+         data.readerIndex(readerIndex);
+      }
+   }
+
+   private void completeMessage(Session session, GrpcContext ctx) {
+      ctx.messages++;
+      ctx.resetMessage();
+      if (ctx.messageStatistics != null) {
+         HttpRequest request = HttpRequest.ensure(session.currentRequest());
+         long now = System.nanoTime();
+         long timestampMillis = request != null ? request.startTimestampMillis() : System.currentTimeMillis();
+         ctx.messageStatistics.incrementRequests(timestampMillis);
+         ctx.messageStatistics.recordResponse(timestampMillis, now - ctx.lastMessageTimestamp);
+         ctx.lastMessageTimestamp = now;
+      }
+   }
+
+   @Override
+   public void after(Session session) {
+      for (Processor processor : processors) {
+         processor.after(session);
+      }
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(key, GrpcContext::new);
+   }
+
+   /**
+    * Parses gRPC messages from the response body.
+    */
+   public static class Builder implements Processor.Builder {
+      private GrpcContext.Key key;
+      private String messageMetric;
+      private final List<Processor.Builder> processors = new ArrayList<>();
+
+      Builder key(GrpcContext.Key key) {
+         this.key = key;
+         return this;
+      }
+
+      Builder messageMetric(String messageMetric) {
+         this.messageMetric = messageMetric;
+         return this;
+      }
+
+      Builder processors(List<Processor.Builder> processors) {
+         this.processors.addAll(processors);
+         return this;
+      }
+
+      @Override
+      public void prepareBuild() {
+         processors.forEach(Processor.Builder::prepareBuild);
+      }
+
+      @Override
+      public Builder copy(Object newParent) {
+         List<Processor.Builder> processorsCopy = new ArrayList<>();
+         processors.forEach(p -> processorsCopy.add(p.copy(null)));
+         return new Builder().key(key).messageMetric(messageMetric).processors(processorsCopy);
+      }
+
+      @Override
+      public Processor build(boolean fragmented) {
+         int stepId = Locator.current().step().id();
+         Processor[] processors = this.processors.stream().map(p -> p.build(true)).toArray(Processor[]::new);
+         return new GrpcMessageProcessor(key, stepId, messageMetric, processors);
+      }
+   }
+}
@@ -0,0 +1,236 @@
+package io.hyperfoil.http.grpc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.config.SLABuilder;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.Action;
+import io.hyperfoil.core.builders.BaseStepBuilder;
+import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
+import io.hyperfoil.core.generators.StringGeneratorImplBuilder;
+import io.hyperfoil.http.api.FollowRedirect;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.steps.HttpRequestStepBuilder;
+import io.hyperfoil.impl.Util;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+
+/**
+ * Issues a gRPC call (unary or server-streaming) over HTTP/2 connections configured in the <code>http</code> section.
+ * The endpoint must allow HTTP/2: either through TLS with ALPN or <code>h2c</code> upgrade (see <code>allowHttp1x</code>).
+ */
+@MetaInfServices(StepBuilder.class)
+@Name("grpcRequest")
+public class GrpcRequestStepBuilder extends BaseStepBuilder<GrpcRequestStepBuilder> {
+   private static final String APPLICATION_GRPC = "application/grpc";
+   private static final String GRPC_TIMEOUT = "grpc-timeout";
+
+   // gRPC call is just a specific HTTP/2 request, so we build it through the regular HTTP request step
+   private final HttpRequestStepBuilder request = new HttpRequestStepBuilder();
+   private String method;
+   private GrpcMessage.Builder message;
+   private String metric;
+   private String messageMetric;
+   private long timeout = -1;
+   private boolean streaming;
+   private final List<Processor.Builder> onMessage = new ArrayList<>();
+
+   /**
+    * HTTP authority (host:port) this request should target. Must match one of the entries in <code>http</code> section.
+    * The string can use <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">string interpolation</a>.
+    *
+    * @param authority Host:port.
+    * @return Self.
+    */
+   public GrpcRequestStepBuilder authority(String authority) {
+      request.authority(authority);
+      return this;
+   }
+
+   /**
+    * HTTP endpoint this request should target. Must match to the <code>name</code> of the entries in <code>http</code> section.
+    *
+    * @return Builder.
+    */
+   public StringGeneratorImplBuilder<HttpRequestStepBuilder> endpoint() {
+      return request.endpoint();
+   }
+
+   /**
+    * Fully qualified name of the called method, e.g. <code>helloworld.Greeter/SayHello</code>.
+    *
+    * @param method Service and method name.
+    * @return Self.
+    */
+   public GrpcRequestStepBuilder method(String method) {
+      this.method = method;
+      return this;
+   }
+
+   /**
+    * Request message. When not set the call sends an empty message.
+    *
+    * @return Builder.
+    */
+   public GrpcMessage.Builder message() {
+      if (message == null) {
+         message = new GrpcMessage.Builder();
+      }
+      return message;
+   }
+
+   /**
+    * Custom metadata (HTTP headers) sent with the call.
+    *
+    * @return Builder.
+    */
+   public HttpRequestStepBuilder.HeadersBuilder metadata() {
+      return request.headers();
+   }
+
+   /**
+    * Call deadline; after this time the request will be marked as timed out. The value is also sent
+    * to the server in the <code>grpc-timeout</code> header.
+    * <p>
+    * Defaults to the request timeout set globally in <code>http</code> section (which is not sent to the server).
+    *
+    * @param timeout Timeout.
+    * @return Self.
+    */
+   public GrpcRequestStepBuilder timeout(String timeout) {
+      this.timeout = Util.parseToMillis(timeout);
+      return this;
+   }
+
+   /**
+    * Requests statistics will use this metric name. Defaults to the name of the sequence.
+    *
+    * @param metric Metric name.
+    * @return Self.
+    */
+   public GrpcRequestStepBuilder metric(String metric) {
+      this.metric = metric;
+      return this;
+   }
+
+   /**
+    * Metric for the per-message latencies in server-streaming calls: the time since the previous message
+    * (or since the request was sent, for the first message). Defaults to the call metric with <code>.messages</code> suffix.
+    *
+    * @param messageMetric Metric name.
+    * @return Self.
+    */
+   public GrpcRequestStepBuilder messageMetric(String messageMetric) {
+      this.messageMetric = messageMetric;
+      return this;
+   }
+
+   /**
+    * The method is server-streaming: the response can contain any number of messages. Unary call (the default)
+    * is marked invalid if it does not receive exactly one message.
+    *
+    * @param streaming Server streaming?
+    * @return Self.
+    */
+   public GrpcRequestStepBuilder streaming(boolean streaming) {
+      this.streaming = streaming;
+      return this;
+   }
+
+   /**
+    * This request is synchronous; execution of the sequence does not continue until the full response
+    * is received. Default is <code>true</code>.
+    *
+    * @param sync Synchronous?
+    * @return Self.
+    */
+   public GrpcRequestStepBuilder sync(boolean sync) {
+      request.sync(sync);
+      return this;
+   }
+
+   /**
+    * List of SLAs the requests are subject to.
+    *
+    * @return Builder.
+    */
+   public SLABuilder.ListBuilder<HttpRequestStepBuilder> sla() {
+      return request.sla();
+   }
+
+   public GrpcRequestStepBuilder onMessage(Processor.Builder processor) {
+      onMessage.add(processor);
+      return this;
+   }
+
+   public GrpcRequestStepBuilder onMessage(Collection<? extends Processor.Builder> processors) {
+      onMessage.addAll(processors);
+      return this;
+   }
+
+   /**
+    * Processors receiving the response messages (serialized protobuf, without the length prefix).
+    * The end of each message is marked with <code>isLastPart</code>.
+    *
+    * @return Builder.
+    */
+   public ServiceLoadedBuilderProvider<Processor.Builder> onMessage() {
+      return new ServiceLoadedBuilderProvider<>(Processor.Builder.class, this::onMessage);
+   }
+
+   /**
+    * Actions executed when the call completes.
+    *
+    * @return Builder.
+    */
+   public ServiceLoadedBuilderProvider<Action.Builder> onCompletion() {
+      return request.handler().onCompletion();
+   }
+
+   @Override
+   public int id() {
+      return request.id();
+   }
+
+   @Override
+   public void prepareBuild() {
+      if (method == null || method.isEmpty()) {
+         throw new BenchmarkDefinitionException("gRPC request must define the method, e.g. helloworld.Greeter/SayHello");
+      }
+      String metric = this.metric != null ? this.metric : Locator.current().sequence().name();
+      String messageMetric = streaming ? (this.messageMetric != null ? this.messageMetric : metric + ".messages") : null;
+      request.method(HttpMethod.POST)
+            .path(method.startsWith("/") ? method : "/" + method)
+            .metric(metric)
+            .body(message != null ? message : new GrpcMessage.Builder());
+      HttpRequestStepBuilder.HeadersBuilder headers = request.headers()
+            .header(HttpHeaderNames.CONTENT_TYPE.toString(), APPLICATION_GRPC)
+            .header(HttpHeaderNames.TE.toString(), HttpHeaderValues.TRAILERS.toString());
+      if (timeout > 0) {
+         headers.header(GRPC_TIMEOUT, timeout + "m");
+         request.timeout(timeout, TimeUnit.MILLISECONDS);
+      }
+      GrpcContext.Key key = new GrpcContext.Key();
+      boolean unary = !streaming;
+      request.handler()
+            .followRedirect(FollowRedirect.NEVER)
+            .header(() -> new GrpcStatusHandler(key, unary))
+            .body(new GrpcMessageProcessor.Builder().key(key).messageMetric(messageMetric).processors(onMessage));
+      request.prepareBuild();
+   }
+
+   @Override
+   public List<Step> build() {
+      return request.build();
+   }
+}
@@ -0,0 +1,60 @@
+package io.hyperfoil.http.grpc;
+
+import io.hyperfoil.http.api.HeaderHandler;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.statistics.GrpcStats;
+import io.netty.util.AsciiString;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads <code>grpc-status</code> from the response headers or trailers. Any status but <code>OK</code>,
+ * missing status, truncated message or unexpected number of messages in an unary call marks the request invalid.
+ */
+public class GrpcStatusHandler implements HeaderHandler {
+   private static final Logger log = LogManager.getLogger(GrpcStatusHandler.class);
+   private static final AsciiString GRPC_STATUS = AsciiString.cached("grpc-status");
+   private static final AsciiString GRPC_MESSAGE = AsciiString.cached("grpc-message");
+
+   private final GrpcContext.Key key;
+   private final boolean unary;
+
+   public GrpcStatusHandler(GrpcContext.Key key, boolean unary) {
+      this.key = key;
+      this.unary = unary;
+   }
+
+   @Override
+   public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
+      if (GRPC_STATUS.contentEqualsIgnoreCase(header)) {
+         GrpcContext ctx = request.session.getResource(key);
+         try {
+            ctx.status = Integer.parseInt(value.toString());
+         } catch (NumberFormatException e) {
+            log.error("#{} Invalid grpc-status: {}", request.session.uniqueId(), value);
+            ctx.status = GrpcStats.MISSING_STATUS;
+         }
+      } else if (GRPC_MESSAGE.contentEqualsIgnoreCase(header)) {
+         request.session.getResource(key).statusMessage = value;
+      }
+   }
+
+   @Override
+   public void afterHeaders(HttpRequest request) {
+      GrpcContext ctx = request.session.getResource(key);
+      GrpcStats.addStatus(request.statistics(), request.startTimestampMillis(), ctx.status);
+      if (ctx.status != 0) {
+         if (log.isDebugEnabled()) {
+            log.debug("#{} gRPC call failed with status {}: {}", request.session.uniqueId(), ctx.status, ctx.statusMessage);
+         }
+         request.markInvalid();
+      } else if (ctx.failed || ctx.isInsideMessage()) {
+         log.debug("#{} gRPC response contains invalid or truncated message.", request.session.uniqueId());
+         request.markInvalid();
+      } else if (unary && ctx.messages != 1) {
+         log.debug("#{} Unary gRPC call received {} messages.", request.session.uniqueId(), ctx.messages);
+         request.markInvalid();
+      }
+   }
+}
@@ -10,10 +10,14 @@ import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.config.BuilderBase;
 import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.SequenceBuilder;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.connection.Request;
+import io.hyperfoil.api.processor.RawBytesHandler;
 import io.hyperfoil.api.session.ObjectAccess;
 import io.hyperfoil.api.session.Action;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.core.builders.ServiceLoadedBuilderProvider;
 import io.hyperfoil.core.data.LimitedPoolResource;
 import io.hyperfoil.core.data.Queue;
@@ -25,7 +29,9 @@ import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.util.Unique;
 import io.hyperfoil.http.api.HttpMethod;
 import io.hyperfoil.http.handlers.Location;
+import io.hyperfoil.http.statistics.PageLoadStats;
 import io.hyperfoil.http.steps.HttpRequestStepBuilder;
+import io.netty.buffer.ByteBuf;
 
 public class FetchResourceHandler implements Serializable, ResourceUtilizer {
    private final ObjectAccess var;
@@ -35,20 +41,27 @@ public class FetchResourceHandler implements Serializable, ResourceUtilizer {
    private final Action onCompletion;
    private final Queue.Key queueKey;
    private final LimitedPoolResource.Key<Location> locationPoolKey;
+   private final PageLoad.Key pageLoadKey;
 
-   public FetchResourceHandler(Queue.Key queueKey, LimitedPoolResource.Key<Location> locationPoolKey, ObjectAccess var, int maxResources, String sequence, int concurrency, Action onCompletion) {
+   public FetchResourceHandler(Queue.Key queueKey, LimitedPoolResource.Key<Location> locationPoolKey, PageLoad.Key pageLoadKey,
+                               ObjectAccess var, int maxResources, String sequence, int concurrency, Action onCompletion) {
       this.queueKey = queueKey;
       this.locationPoolKey = locationPoolKey;
+      this.pageLoadKey = pageLoadKey;
       this.var = var;
       this.maxResources = maxResources;
       this.sequence = sequence;
       this.concurrency = concurrency;
-      this.onCompletion = onCompletion;
+      this.onCompletion = new RecordPageLoad(pageLoadKey, onCompletion);
    }
 
    public void before(Session session) {
       Queue queue = session.getResource(queueKey);
       queue.reset(session);
+      Request request = session.currentRequest();
+      if (request != null) {
+         session.getResource(pageLoadKey).start(request);
+      }
    }
 
    public void handle(Session session, CharSequence authority, CharSequence path) {
@@ -58,6 +71,7 @@ public class FetchResourceHandler implements Serializable, ResourceUtilizer {
       location.authority = authority;
       location.path = path;
       queue.push(session, location);
+      session.getResource(pageLoadKey).updateConcurrency(queue.active());
    }
 
    public void after(Session session) {
@@ -74,10 +88,107 @@ public class FetchResourceHandler implements Serializable, ResourceUtilizer {
       }
       session.declareResource(queueKey, () -> new Queue(var, maxResources, concurrency, sequence, onCompletion), true);
       session.declareResource(locationPoolKey, () -> LimitedPoolResource.create(maxResources, Location.class, Location::new), true);
+      session.declareResource(pageLoadKey, PageLoad::new, true);
    }
 
    /**
-    * Automates download of embedded resources.
+    * Tracks the page currently being loaded: the main request, highest number of concurrently fetched resources
+    * and bytes received for the main document and all resources.
+    */
+   public static class PageLoad implements Session.Resource {
+      private static final Statistics.ObjectUpdater<PageLoadStats> RECORD = (stats, value) -> {
+         PageLoad page = (PageLoad) value;
+         stats.record(page.pageLoadTime, page.maxConcurrency, page.bytes);
+      };
+
+      private Statistics statistics;
+      private long startTimestampMillis;
+      private long startTimestampNanos;
+      private long pageLoadTime;
+      private int maxConcurrency;
+      private long bytes;
+
+      void start(Request request) {
+         statistics = request.statistics();
+         startTimestampMillis = request.startTimestampMillis();
+         startTimestampNanos = request.startTimestampNanos();
+         maxConcurrency = 0;
+      }
+
+      void updateConcurrency(int concurrency) {
+         maxConcurrency = Math.max(maxConcurrency, concurrency);
+      }
+
+      void complete() {
+         if (statistics != null) {
+            pageLoadTime = System.nanoTime() - startTimestampNanos;
+            statistics.update(PageLoadStats.PAGE_LOAD, startTimestampMillis, PageLoadStats::new, RECORD, this);
+         }
+         reset();
+      }
+
+      @Override
+      public void onSessionReset(Session session) {
+         reset();
+      }
+
+      private void reset() {
+         statistics = null;
+         maxConcurrency = 0;
+         bytes = 0;
+      }
+
+      public static class Key implements Session.ResourceKey<PageLoad> {}
+   }
+
+   private static class RecordPageLoad implements Action {
+      private final PageLoad.Key pageLoadKey;
+      private final Action delegate;
+
+      private RecordPageLoad(PageLoad.Key pageLoadKey, Action delegate) {
+         this.pageLoadKey = pageLoadKey;
+         this.delegate = delegate;
+      }
+
+      @Override
+      public void run(Session session) {
+         session.getResource(pageLoadKey).complete();
+         if (delegate != null) {
+            delegate.run(session);
+         }
+      }
+   }
+
+   /**
+    * Counts response bytes of both the main request and the fetched resources into the page load.
+    */
+   private static class CountPageBytes implements RawBytesHandler {
+      private final PageLoad.Key pageLoadKey;
+      private final boolean mainRequest;
+
+      private CountPageBytes(PageLoad.Key pageLoadKey, boolean mainRequest) {
+         this.pageLoadKey = pageLoadKey;
+         this.mainRequest = mainRequest;
+      }
+
+      @Override
+      public void onRequest(Request request, ByteBuf buf, int offset, int length) {
+         if (mainRequest) {
+            // Drop anything left from responses that did not produce a page (e.g. redirects)
+            request.session.getResource(pageLoadKey).bytes = 0;
+         }
+      }
+
+      @Override
+      public void onResponse(Request request, ByteBuf buf, int offset, int length, boolean isLastPart) {
+         request.session.getResource(pageLoadKey).bytes += length;
+      }
+   }
+
+   /**
+    * Automates download of embedded resources. Besides the metrics for individual resources this records
+    * a composite <code>pageLoad</code> extension to the metric of the main request: time from the start of the main
+    * request until all resources are fetched, highest number of resources fetched concurrently and bytes received.
     */
    public static class Builder implements BuilderBase<Builder> {
       private MetricSelector metricSelector;
@@ -87,6 +198,7 @@ public class FetchResourceHandler implements Serializable, ResourceUtilizer {
 
       private Queue.Key queueKey;
       private LimitedPoolResource.Key<Location> locationPoolKey;
+      private PageLoad.Key pageLoadKey;
       private ObjectAccess varAccess;
       private String sequenceName;
 
@@ -151,8 +263,13 @@ public class FetchResourceHandler implements Serializable, ResourceUtilizer {
       public void prepareBuild() {
          queueKey = new Queue.Key();
          locationPoolKey = new LimitedPoolResource.Key<>();
+         pageLoadKey = new PageLoad.Key();
 
          Locator locator = Locator.current();
+         StepBuilder<?> mainStep = locator.step();
+         if (mainStep instanceof HttpRequestStepBuilder) {
+            ((HttpRequestStepBuilder) mainStep).handler().rawBytes(new CountPageBytes(pageLoadKey, true));
+         }
          sequenceName = String.format("%s_fetchResources_%08x", locator.sequence().name(), ThreadLocalRandom.current().nextInt());
          Unique locationVar = new Unique();
          varAccess = SessionFactory.objectAccess(locationVar);
@@ -173,6 +290,7 @@ public class FetchResourceHandler implements Serializable, ResourceUtilizer {
          var myQueueKey = queueKey; // prevent capturing self reference
          var myPoolKey = locationPoolKey;
          requestBuilder.handler().onCompletion(() -> new Location.Complete<>(myPoolKey, myQueueKey, sequenceScopedObjectAccess(locationVar)));
+         requestBuilder.handler().rawBytes(new CountPageBytes(pageLoadKey, false));
          // As we're preparing build, the list of sequences-to-be-prepared is already final and we need to prepare
          // this one manually
          sequence.prepareBuild();
@@ -183,7 +301,7 @@ public class FetchResourceHandler implements Serializable, ResourceUtilizer {
             throw new BenchmarkDefinitionException("Maximum size for queue must be set!");
          }
          Action onCompletion = this.onCompletion == null ? null : this.onCompletion.build();
-         return new FetchResourceHandler(queueKey, locationPoolKey, varAccess, maxResources, sequenceName, concurrency, onCompletion);
+         return new FetchResourceHandler(queueKey, locationPoolKey, pageLoadKey, varAccess, maxResources, sequenceName, concurrency, onCompletion);
       }
    }
 }
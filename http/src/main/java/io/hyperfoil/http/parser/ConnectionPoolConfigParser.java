@@ -9,6 +9,7 @@ import io.hyperfoil.core.parser.Context;
 import io.hyperfoil.core.parser.ParserException;
 import io.hyperfoil.core.parser.PropertyParser;
 import io.hyperfoil.http.config.ConnectionPoolConfig;
+import io.hyperfoil.http.config.ConnectionSelection;
 import io.hyperfoil.http.config.HttpBuilder;
 
 public class ConnectionPoolConfigParser extends AbstractParser<HttpBuilder, ConnectionPoolConfig.Builder> {
@@ -17,6 +18,7 @@ public class ConnectionPoolConfigParser extends AbstractParser<HttpBuilder, Conn
       register("max", new PropertyParser.Int<>(ConnectionPoolConfig.Builder::max));
       register("buffer", new PropertyParser.Int<>(ConnectionPoolConfig.Builder::buffer));
       register("keepAliveTime", new PropertyParser.TimeMillis<>(ConnectionPoolConfig.Builder::keepAliveTime));
+      register("selection", new PropertyParser.Enum<>(ConnectionSelection.values(), ConnectionPoolConfig.Builder::selection));
    }
 
    @Override
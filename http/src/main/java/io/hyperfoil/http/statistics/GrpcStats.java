@@ -0,0 +1,148 @@
+package io.hyperfoil.http.statistics;
+
+import org.kohsuke.MetaInfServices;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import io.hyperfoil.api.statistics.StatsExtension;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+@MetaInfServices(StatsExtension.class)
+@JsonTypeName("grpc")
+public class GrpcStats implements StatsExtension {
+   public static final String GRPC = "grpc";
+   // Used when the response does not carry any grpc-status
+   public static final int MISSING_STATUS = -1;
+
+   private static final Statistics.LongUpdater<GrpcStats> ADD_STATUS = (s, value) -> {
+      switch ((int) value) {
+         case 0:
+            s.ok++;
+            break;
+         case 1:
+            s.cancelled++;
+            break;
+         case 4:
+            s.deadlineExceeded++;
+            break;
+         case 8:
+            s.resourceExhausted++;
+            break;
+         case 14:
+            s.unavailable++;
+            break;
+         default:
+            s.otherError++;
+      }
+   };
+   private static final String[] HEADERS = { "OK", "Cancelled", "DeadlineExceeded", "ResourceExhausted", "Unavailable", "OtherError" };
+
+   public int ok;
+   public int cancelled;
+   public int deadlineExceeded;
+   public int resourceExhausted;
+   public int unavailable;
+   public int otherError;
+
+   public static void addStatus(Statistics statistics, long timestamp, int status) {
+      statistics.update(GRPC, timestamp, GrpcStats::new, GrpcStats.ADD_STATUS, status);
+   }
+
+   public static GrpcStats get(StatisticsSnapshot snapshot) {
+      StatsExtension stats = snapshot.extensions.get(GRPC);
+      if (stats == null) {
+         // return empty to prevent NPEs
+         return new GrpcStats();
+      }
+      return (GrpcStats) stats;
+   }
+
+   @Override
+   public void reset() {
+      ok = 0;
+      cancelled = 0;
+      deadlineExceeded = 0;
+      resourceExhausted = 0;
+      unavailable = 0;
+      otherError = 0;
+   }
+
+   @Override
+   public GrpcStats clone() {
+      GrpcStats copy = new GrpcStats();
+      copy.add(this);
+      return copy;
+   }
+
+   @Override
+   public String[] headers() {
+      return HEADERS;
+   }
+
+   @Override
+   public String byHeader(String header) {
+      switch (header) {
+         case "OK":
+            return String.valueOf(ok);
+         case "Cancelled":
+            return String.valueOf(cancelled);
+         case "DeadlineExceeded":
+            return String.valueOf(deadlineExceeded);
+         case "ResourceExhausted":
+            return String.valueOf(resourceExhausted);
+         case "Unavailable":
+            return String.valueOf(unavailable);
+         case "OtherError":
+            return String.valueOf(otherError);
+         default:
+            return "<unknown header: " + header + ">";
+      }
+   }
+
+   @Override
+   public boolean isNull() {
+      return ok + cancelled + deadlineExceeded + resourceExhausted + unavailable + otherError == 0;
+   }
+
+   @Override
+   public void add(StatsExtension other) {
+      if (other instanceof GrpcStats) {
+         GrpcStats o = (GrpcStats) other;
+         ok += o.ok;
+         cancelled += o.cancelled;
+         deadlineExceeded += o.deadlineExceeded;
+         resourceExhausted += o.resourceExhausted;
+         unavailable += o.unavailable;
+         otherError += o.otherError;
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void subtract(StatsExtension other) {
+      if (other instanceof GrpcStats) {
+         GrpcStats o = (GrpcStats) other;
+         ok -= o.ok;
+         cancelled -= o.cancelled;
+         deadlineExceeded -= o.deadlineExceeded;
+         resourceExhausted -= o.resourceExhausted;
+         unavailable -= o.unavailable;
+         otherError -= o.otherError;
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "{ok=" + ok +
+            ", cancelled=" + cancelled +
+            ", deadlineExceeded=" + deadlineExceeded +
+            ", resourceExhausted=" + resourceExhausted +
+            ", unavailable=" + unavailable +
+            ", otherError=" + otherError +
+            '}';
+   }
+}
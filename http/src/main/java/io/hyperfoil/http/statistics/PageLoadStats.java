@@ -0,0 +1,153 @@
+package io.hyperfoil.http.statistics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+import org.kohsuke.MetaInfServices;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatsExtension;
+
+/**
+ * Composite metric for HTML pages with embedded resources: the time from the start of the main request
+ * to the completion of all embedded resource downloads, the highest number of resources fetched concurrently
+ * and number of response bytes received for the page.
+ */
+@MetaInfServices(StatsExtension.class)
+@JsonTypeName("pageLoad")
+public class PageLoadStats implements StatsExtension {
+   public static final String PAGE_LOAD = "pageLoad";
+   private static final String[] HEADERS = { "pages", "mean", "p50", "p90", "p99", "max", "maxConcurrency", "bytes" };
+
+   private Histogram histogram = new Histogram(2);
+   public int maxConcurrency;
+   public long bytes;
+
+   public static PageLoadStats get(StatisticsSnapshot snapshot) {
+      StatsExtension stats = snapshot.extensions.get(PAGE_LOAD);
+      if (stats == null) {
+         // return empty to prevent NPEs
+         return new PageLoadStats();
+      }
+      return (PageLoadStats) stats;
+   }
+
+   /**
+    * @param pageLoadTime Time from the start of the main request to the completion of last resource, in nanoseconds.
+    * @param concurrency Highest number of concurrently fetched resources.
+    * @param bytes Response bytes received for the main document and all resources.
+    */
+   public void record(long pageLoadTime, int concurrency, long bytes) {
+      histogram.recordValue(Math.max(pageLoadTime, 0));
+      maxConcurrency = Math.max(maxConcurrency, concurrency);
+      this.bytes += bytes;
+   }
+
+   public Histogram histogram() {
+      return histogram;
+   }
+
+   @JsonProperty("histogram")
+   public String encodedHistogram() {
+      ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+      int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+      return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+   }
+
+   @JsonProperty("histogram")
+   public void encodedHistogram(String encoded) {
+      try {
+         histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+      } catch (DataFormatException e) {
+         throw new IllegalArgumentException("Cannot decode page load histogram", e);
+      }
+   }
+
+   @Override
+   public boolean isNull() {
+      return histogram.getTotalCount() == 0;
+   }
+
+   @Override
+   public void add(StatsExtension other) {
+      if (other instanceof PageLoadStats) {
+         PageLoadStats o = (PageLoadStats) other;
+         histogram.add(o.histogram);
+         maxConcurrency = Math.max(maxConcurrency, o.maxConcurrency);
+         bytes += o.bytes;
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void subtract(StatsExtension other) {
+      if (other instanceof PageLoadStats) {
+         PageLoadStats o = (PageLoadStats) other;
+         histogram.subtract(o.histogram);
+         // maximum cannot be subtracted, we keep the upper bound
+         bytes -= o.bytes;
+      } else {
+         throw new IllegalArgumentException(other.toString());
+      }
+   }
+
+   @Override
+   public void reset() {
+      histogram.reset();
+      maxConcurrency = 0;
+      bytes = 0;
+   }
+
+   @Override
+   public PageLoadStats clone() {
+      PageLoadStats copy = new PageLoadStats();
+      copy.add(this);
+      return copy;
+   }
+
+   @Override
+   public String[] headers() {
+      return HEADERS;
+   }
+
+   @Override
+   public String byHeader(String header) {
+      switch (header) {
+         case "pages":
+            return String.valueOf(histogram.getTotalCount());
+         case "mean":
+            return String.valueOf((long) histogram.getMean());
+         case "p50":
+            return String.valueOf(histogram.getValueAtPercentile(50));
+         case "p90":
+            return String.valueOf(histogram.getValueAtPercentile(90));
+         case "p99":
+            return String.valueOf(histogram.getValueAtPercentile(99));
+         case "max":
+            return String.valueOf(histogram.getMaxValue());
+         case "maxConcurrency":
+            return String.valueOf(maxConcurrency);
+         case "bytes":
+            return String.valueOf(bytes);
+         default:
+            return "<unknown header: " + header + ">";
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "{pages=" + histogram.getTotalCount() +
+            ", mean=" + (long) histogram.getMean() +
+            ", max=" + histogram.getMaxValue() +
+            ", maxConcurrency=" + maxConcurrency +
+            ", bytes=" + bytes +
+            '}';
+   }
+}
@@ -2,20 +2,42 @@ package io.hyperfoil.http.steps;
 
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.util.BitSetResource;
 
-class BeforeSyncRequestStep implements Step, ResourceUtilizer, Session.ResourceKey<BitSetResource> {
+class BeforeSyncRequestStep implements Step, ResourceUtilizer, Session.ResourceKey<BeforeSyncRequestStep.SyncResource> {
    @Override
    public boolean invoke(Session s) {
-      BitSetResource resource = s.getResource(this);
-      resource.clear(s.currentSequence().index());
+      SyncResource resource = s.getResource(this);
+      int index = s.currentSequence().index();
+      resource.clear(index);
+      resource.sequences[index] = s.currentSequence();
       return true;
    }
 
    @Override
    public void reserve(Session session) {
       int concurrency = session.currentSequence().definition().concurrency();
-      session.declareResource(this, () -> new BitSetResource(concurrency), true);
+      session.declareResource(this, () -> new SyncResource(concurrency), true);
+   }
+
+   static class SyncResource extends BitSetResource {
+      // The response might be completed in a different sequence (e.g. after redirect)
+      final SequenceInstance[] sequences;
+
+      SyncResource(int concurrency) {
+         super(concurrency);
+         sequences = new SequenceInstance[Math.max(concurrency, 1)];
+      }
+
+      void release(Session session, int index) {
+         set(index);
+         SequenceInstance sequence = sequences[index];
+         if (sequence != null) {
+            sequences[index] = null;
+            session.wakeUp(sequence);
+         }
+      }
    }
 }
@@ -94,6 +94,20 @@ public class BodyBuilder {
       return this;
    }
 
+   /**
+    * Send contents of a file located on the agent's filesystem. Unlike <code>fromFile</code> the file is not
+    * loaded into the benchmark; each request streams it from the disk (using zero-copy transfer
+    * on plain-text HTTP 1.x connections), so this is suitable for large uploads. <code>Content-Length</code>
+    * is set from the current file size. Note that this method does NOT set content-type automatically.
+    *
+    * @param path Path to the file on the agent.
+    * @return Self.
+    */
+   public BodyBuilder fromAgentFile(String path) {
+      parent.body(new FileBodyGenerator(path));
+      return this;
+   }
+
    public HttpRequestStepBuilder endBody() {
       return parent;
    }
@@ -0,0 +1,72 @@
+package io.hyperfoil.http.steps;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.connection.Connection;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.function.SerializableBiFunction;
+import io.hyperfoil.http.api.FileBody;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Body read from file on the agent. HTTP connections send the file directly (see {@link FileBody}); the buffer
+ * is created only when the generator is used by other means.
+ */
+public class FileBodyGenerator implements SerializableBiFunction<Session, Connection, ByteBuf>, FileBody, ResourceUtilizer {
+   private final String path;
+   private transient File file;
+   private transient boolean checked;
+
+   public FileBodyGenerator(String path) {
+      this.path = path;
+   }
+
+   @Override
+   public File file() {
+      File file = this.file;
+      if (file == null) {
+         this.file = file = new File(path);
+      }
+      return file;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      // This is invoked on the agent when the sessions are created, fail early if the file is missing
+      if (!checked) {
+         File file = file();
+         if (!file.isFile() || !file.canRead()) {
+            throw new BenchmarkDefinitionException("Cannot read request body file `" + path + "` on agent.");
+         }
+         checked = true;
+      }
+   }
+
+   @Override
+   public ByteBuf apply(Session session, Connection connection) {
+      try (FileChannel channel = FileChannel.open(file().toPath(), StandardOpenOption.READ)) {
+         long size = channel.size();
+         if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("File " + path + " is too big to be loaded into memory.");
+         }
+         ByteBuf buf = connection.context().alloc().buffer((int) size);
+         long position = 0;
+         while (position < size) {
+            int read = buf.writeBytes(channel, position, (int) (size - position));
+            if (read < 0) {
+               break;
+            }
+            position += read;
+         }
+         return buf;
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
@@ -684,7 +684,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
 
       @Override
       public void run(Session s) {
-         s.getResource(beforeSyncRequestStep).set(s.currentSequence().index());
+         s.getResource(beforeSyncRequestStep).release(s, s.currentSequence().index());
       }
    }
 
@@ -938,8 +938,7 @@ public class HttpRequestStepBuilder extends BaseStepBuilder<HttpRequestStepBuild
          if (request == null) {
             return;
          }
-         String metric = metricSelector.apply(request.authority, request.path);
-         Statistics statistics = session.statistics(stepId, metric);
+         Statistics statistics = session.statistics(stepId, metricSelector, request.authority, request.path);
 
          DelaySessionStartStep.Holder holder = session.getResource(DelaySessionStartStep.KEY);
          long startTimeMs = holder.lastStartTime();
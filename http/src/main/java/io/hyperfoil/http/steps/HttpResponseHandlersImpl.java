@@ -54,6 +54,7 @@ import io.hyperfoil.core.steps.PushQueueAction;
 import io.hyperfoil.core.steps.ScheduleDelayStep;
 import io.hyperfoil.core.util.Unique;
 import io.hyperfoil.function.SerializableToLongFunction;
+import io.hyperfoil.http.HttpRecorder;
 import io.hyperfoil.http.cookie.CookieRecorder;
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpHeaderNames;
@@ -316,6 +317,10 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
 
    @Override
    public void handleRawRequest(HttpRequest request, ByteBuf data, int offset, int length) {
+      HttpRecorder recorder = request.recorder();
+      if (recorder != null) {
+         recorder.onRequest(request, data, offset, length);
+      }
       if (rawBytesHandlers == null) {
          return;
       }
@@ -334,6 +339,10 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, Serializa
 
    @Override
    public void handleRawResponse(HttpRequest request, ByteBuf data, int offset, int length, boolean isLastPart) {
+      HttpRecorder recorder = request.recorder();
+      if (recorder != null) {
+         recorder.onResponse(request, data, offset, length);
+      }
       if (rawBytesHandlers == null) {
          return;
       }
@@ -6,6 +6,7 @@ import io.hyperfoil.api.config.BaseSequenceBuilder;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.grpc.GrpcRequestStepBuilder;
 import io.hyperfoil.core.builders.StepCatalog;
 import io.hyperfoil.impl.StepCatalogFactory;
 
@@ -26,6 +27,16 @@ public class HttpStepCatalog extends StepCatalog {
       return new HttpRequestStepBuilder().addTo(parent).method(method);
    }
 
+   /**
+    * Issue a gRPC call.
+    *
+    * @param method Fully qualified method name, e.g. <code>helloworld.Greeter/SayHello</code>.
+    * @return Builder.
+    */
+   public GrpcRequestStepBuilder grpcRequest(String method) {
+      return new GrpcRequestStepBuilder().addTo(parent).method(method);
+   }
+
    /**
     * Block current sequence until all requests receive the response.
     *
@@ -82,9 +82,8 @@ public class PrepareHttpRequestStep extends StatisticsStep implements ResourceUt
             return false;
          }
          request.authority = connectionPool.clientPool().authority();
-         String metric = destinations.hasSingleDestination() ?
-               metricSelector.apply(null, request.path) : metricSelector.apply(request.authority, request.path);
-         Statistics statistics = session.statistics(id(), metric);
+         Statistics statistics = session.statistics(id(), metricSelector,
+               destinations.hasSingleDestination() ? null : request.authority, request.path);
          request.start(connectionPool, handler, session.currentSequence(), statistics);
          connectionPool.acquire(false, context);
       } catch (Throwable t) {
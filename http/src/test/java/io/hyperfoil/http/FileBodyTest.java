@@ -0,0 +1,128 @@
+package io.hyperfoil.http;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpPluginBuilder;
+import io.hyperfoil.http.statistics.HttpStats;
+import io.vertx.core.http.HttpConnection;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FileBodyTest extends HttpScenarioTest {
+   // Larger than the chunk size so that TLS and HTTP/2 need multiple writes
+   private final byte[] content = new byte[300_000];
+   private final Set<HttpConnection> connections = ConcurrentHashMap.newKeySet();
+   private File file;
+
+   @Override
+   protected void initRouter() {
+      ThreadLocalRandom.current().nextBytes(content);
+      router.post("/reset").handler(ctx -> {
+         connections.add(ctx.request().connection());
+         ctx.response().reset();
+      });
+      router.get("/connection").handler(ctx -> {
+         connections.add(ctx.request().connection());
+         ctx.response().end();
+      });
+      router.post("/upload/:version").handler(ctx -> ctx.request().body().onSuccess(body -> {
+         String contentLength = ctx.request().getHeader("content-length");
+         if (!ctx.request().version().name().equals(ctx.pathParam("version"))) {
+            ctx.response().setStatusCode(500).end("Unexpected version " + ctx.request().version());
+         } else if (!String.valueOf(content.length).equals(contentLength) || !Arrays.equals(content, body.getBytes())) {
+            ctx.response().setStatusCode(400).end("Unexpected body");
+         } else {
+            ctx.response().end();
+         }
+      }));
+   }
+
+   @After
+   public void deleteFile() {
+      if (file != null && !file.delete()) {
+         log.warn("Cannot delete {}", file);
+      }
+   }
+
+   @Test
+   public void testPlainHttp1x() throws Exception {
+      test(HttpVersion.HTTP_1_1);
+   }
+
+   @Test
+   public void testTlsHttp1x(TestContext ctx) throws Exception {
+      startTlsServer(ctx);
+      benchmarkBuilder.plugin(HttpPluginBuilder.class).http().allowHttp2(false);
+      test(HttpVersion.HTTP_1_1);
+   }
+
+   @Test
+   public void testTlsHttp2(TestContext ctx) throws Exception {
+      startTlsServer(ctx);
+      test(HttpVersion.HTTP_2);
+   }
+
+   @Test
+   public void testHttp2StreamReset(TestContext ctx) throws Exception {
+      startTlsServer(ctx);
+      benchmarkBuilder.plugin(HttpPluginBuilder.class).http().sharedConnections(threads());
+      file = File.createTempFile("hyperfoil-upload", ".bin");
+      Files.write(file.toPath(), content);
+      // @formatter:off
+      scenario(1).initialSequence("reset")
+            .step(SC).httpRequest(HttpMethod.POST).path("/reset")
+               .body().fromAgentFile(file.getAbsolutePath()).endBody()
+               .handler().stopOnInvalid(false).endHandler()
+            .endStep()
+            .step(SC).httpRequest(HttpMethod.GET).path("/connection").metric("connection")
+            .endStep();
+      // @formatter:on
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      assertThat(stats.get("reset").connectionErrors).isEqualTo(1);
+      assertThat(HttpStats.get(stats.get("connection")).status_2xx).isEqualTo(1);
+      // The rest of the body is not sent after the reset and the connection is kept open
+      assertThat(connections).hasSize(1);
+   }
+
+   private void startTlsServer(TestContext ctx) throws Exception {
+      benchmarkBuilder = BenchmarkBuilder.builder();
+      benchmarkBuilder.threads(threads());
+      benchmarkBuilder.addPlugin(HttpPluginBuilder::new);
+      startServer(ctx, true, false).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+   }
+
+   private void test(HttpVersion expectedVersion) throws IOException {
+      file = File.createTempFile("hyperfoil-upload", ".bin");
+      Files.write(file.toPath(), content);
+      // @formatter:off
+      scenario(3).initialSequence("upload")
+            .step(SC).httpRequest(HttpMethod.POST).path("/upload/" + expectedVersion.name())
+               .body().fromAgentFile(file.getAbsolutePath()).endBody()
+            .endStep();
+      // @formatter:on
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      StatisticsSnapshot snapshot = stats.get("upload");
+      assertThat(snapshot.requestCount).isEqualTo(3);
+      assertThat(HttpStats.get(snapshot).status_2xx).isEqualTo(3);
+   }
+}
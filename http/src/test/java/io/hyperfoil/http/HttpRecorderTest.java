@@ -0,0 +1,134 @@
+package io.hyperfoil.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.api.HttpRequest;
+import io.hyperfoil.http.api.HttpVersion;
+import io.hyperfoil.http.config.ConnectionStrategy;
+import io.hyperfoil.http.config.Http;
+import io.hyperfoil.http.config.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
+public class HttpRecorderTest {
+   @Test
+   public void testSamplingWithWrap() throws IOException {
+      Path file = Files.createTempFile("recording", ".hfr");
+      try {
+         HttpRecorder recorder = new HttpRecorder(file, 4096, 2, false, 64);
+         Session session = SessionFactory.forTesting();
+         for (int i = 0; i < 1000; ++i) {
+            exchange(recorder, new HttpRequest(session, recorder), i, true);
+         }
+         recorder.close();
+
+         List<HttpRecorder.Record> records = read(file);
+         assertThat(records.size()).isGreaterThan(10);
+         for (int i = 0; i < records.size(); ++i) {
+            // every other request is sampled, newest records are kept
+            int index = 999 - 2 * (records.size() - 1 - i);
+            HttpRecorder.Record record = records.get(i);
+            assertThat(record.line).isEqualTo("GET example.com/" + index);
+            assertThat(record.flags).isEqualTo(HttpRecorder.FLAG_SAMPLED | HttpRecorder.FLAG_RESPONSE_TRUNCATED);
+            assertThat(new String(record.request, StandardCharsets.UTF_8)).isEqualTo("request " + index);
+            assertThat(record.response).hasSize(64);
+         }
+      } finally {
+         Files.delete(file);
+      }
+   }
+
+   @Test
+   public void testFailuresOnly() throws IOException {
+      Path file = Files.createTempFile("recording", ".hfr");
+      try {
+         HttpRecorder recorder = new HttpRecorder(file, 4096, 0, true, 64);
+         Session session = SessionFactory.forTesting();
+         for (int i = 0; i < 10; ++i) {
+            exchange(recorder, new HttpRequest(session, recorder), i, i % 3 != 0);
+         }
+         recorder.close();
+
+         List<HttpRecorder.Record> records = read(file);
+         assertThat(records).extracting(r -> r.line)
+               .containsExactly("GET example.com/0", "GET example.com/3", "GET example.com/6", "GET example.com/9");
+         assertThat(records).allMatch(r -> r.flags == (HttpRecorder.FLAG_INVALID | HttpRecorder.FLAG_RESPONSE_TRUNCATED));
+      } finally {
+         Files.delete(file);
+      }
+   }
+
+   @Test
+   public void testDiscardOnSessionReset() throws IOException {
+      Path file = Files.createTempFile("recording", ".hfr");
+      try {
+         HttpRecorder recorder = new HttpRecorder(file, 4096, 1, false, 64);
+         Session session = SessionFactory.forTesting();
+         HttpRequestPool pool = new HttpRequestPool(new Scenario(new Sequence[0], new Sequence[0], 2, 2), session, recorder);
+         UnpooledByteBufAllocator allocator = new UnpooledByteBufAllocator(false);
+         ByteBuf data = allocator.heapBuffer(16).writeZero(16);
+         long used = allocator.metric().usedHeapMemory();
+         // bytes written after the request has been completed and released to the pool
+         HttpRequest request = pool.acquire();
+         pool.release(request);
+         recorder.onRequest(request, data, 0, data.readableBytes());
+         assertThat(allocator.metric().usedHeapMemory()).isGreaterThan(used);
+
+         pool.onSessionReset(session);
+         assertThat(request.recording).isNull();
+         assertThat(allocator.metric().usedHeapMemory()).isEqualTo(used);
+         recorder.close();
+         assertThat(read(file)).isEmpty();
+         data.release();
+      } finally {
+         Files.delete(file);
+      }
+   }
+
+   @Test
+   public void testRawBytesHandlersForced() {
+      Http http = new Http("myhost", true, "localhost:8080", Protocol.HTTP, "localhost", 8080, new String[0],
+            new HttpVersion[]{ HttpVersion.HTTP_1_1 }, 100, 1, null, false, 1000, false, null, null, ConnectionStrategy.SHARED_POOL);
+      Map<String, Http> httpMap = HttpRunData.withRawBytesHandlers(Map.of("myhost", http));
+      assertThat(httpMap.get("myhost").rawBytesHandlers()).isTrue();
+      assertThat(httpMap.get("myhost").originalDestination()).isEqualTo("localhost:8080");
+   }
+
+   private void exchange(HttpRecorder recorder, HttpRequest request, int index, boolean valid) {
+      request.method = HttpMethod.GET;
+      request.authority = "example.com";
+      request.path = "/" + index;
+      if (!valid) {
+         request.markInvalid();
+      }
+      ByteBuf requestData = Unpooled.copiedBuffer("request " + index, StandardCharsets.UTF_8);
+      ByteBuf responseData = Unpooled.buffer(100).writeZero(100);
+      recorder.onRequest(request, requestData, 0, requestData.readableBytes());
+      recorder.onResponse(request, responseData, 0, 50);
+      recorder.onResponse(request, responseData, 50, 50);
+      recorder.onCompletion(request);
+   }
+
+   private List<HttpRecorder.Record> read(Path file) throws IOException {
+      List<HttpRecorder.Record> records = new ArrayList<>();
+      HttpRecorder.read(ByteBuffer.wrap(Files.readAllBytes(file)), records::add);
+      return records;
+   }
+}
@@ -0,0 +1,57 @@
+package io.hyperfoil.http;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.impl.LocalSimulationRunner;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.internal.Properties;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class JitWarmupTest extends HttpScenarioTest {
+   private final AtomicInteger requests = new AtomicInteger();
+
+   @Override
+   protected void initRouter() {
+      router.route("/test").handler(ctx -> {
+         requests.incrementAndGet();
+         ctx.response().setStatusCode(200).end();
+      });
+   }
+
+   @Test
+   public void testWarmupDoesNotReachServer() {
+      // @formatter:off
+      scenario(10).initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET)
+               .path("/test")
+               .metric("test")
+            .endStep();
+      // @formatter:on
+      System.setProperty(Properties.JIT_WARMUP_MAX_DURATION, "1000");
+      try {
+         TestStatistics statistics = new TestStatistics();
+         LocalSimulationRunner runner = new LocalSimulationRunner(benchmarkBuilder.build(), statistics, null, null);
+         runner.run();
+
+         Map<String, Long> report = runner.jitWarmupReport();
+         assertThat(report).isNotNull();
+         assertThat(report.get("duration")).isGreaterThan(0).isLessThan(5000);
+         assertThat(report.get("sessions")).isGreaterThan(0);
+         StatisticsSnapshot test = statistics.stats().get("test");
+         assertThat(test.requestCount).isEqualTo(10);
+         assertThat(test.responseCount).isEqualTo(10);
+         assertThat(requests.get()).isEqualTo(10);
+      } finally {
+         System.clearProperty(Properties.JIT_WARMUP_MAX_DURATION);
+      }
+   }
+}
@@ -0,0 +1,99 @@
+package io.hyperfoil.http.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import io.hyperfoil.http.BaseMockConnection;
+import io.hyperfoil.http.api.HttpConnection;
+import io.hyperfoil.http.config.ConnectionSelection;
+
+public class AvailableConnectionsTest {
+   @Test
+   public void testRoundRobin() {
+      AvailableConnections available = AvailableConnections.create(ConnectionSelection.ROUND_ROBIN, 4);
+      MockConnection[] connections = offerAll(available, 0, 0, 0);
+      for (int i = 0; i < 6; ++i) {
+         HttpConnection connection = available.poll();
+         assertThat(connection).isSameAs(connections[i % 3]);
+         available.offer(connection, true);
+      }
+   }
+
+   @Test
+   public void testLeastInFlight() {
+      AvailableConnections available = AvailableConnections.create(ConnectionSelection.LEAST_IN_FLIGHT, 4);
+      MockConnection[] connections = offerAll(available, 3, 1, 2, 5);
+      assertThat(available.size()).isEqualTo(4);
+
+      connections[3].inFlight = 0;
+      available.update(connections[3]);
+      assertThat(available.poll()).isSameAs(connections[3]);
+      assertThat(available.poll()).isSameAs(connections[1]);
+
+      connections[1].inFlight = 2;
+      available.offer(connections[1], false);
+      connections[0].inFlight = 1;
+      available.update(connections[0]);
+      assertThat(available.poll()).isSameAs(connections[0]);
+      assertThat(available.size()).isEqualTo(2);
+      assertThat(available).containsExactlyInAnyOrder(connections[1], connections[2]);
+      assertThat(available.contains(connections[0])).isFalse();
+      available.poll();
+      available.poll();
+      assertThat(available.poll()).isNull();
+   }
+
+   @Test
+   public void testPowerOfTwoChoices() {
+      AvailableConnections available = AvailableConnections.create(ConnectionSelection.POWER_OF_TWO_CHOICES, 4);
+      MockConnection[] connections = offerAll(available, 10, 0);
+      for (int i = 0; i < 10; ++i) {
+         HttpConnection connection = available.poll();
+         assertThat(connection).isSameAs(connections[1]);
+         available.offer(connection, true);
+      }
+      assertThat(available.size()).isEqualTo(2);
+   }
+
+   private static MockConnection[] offerAll(AvailableConnections available, int... inFlight) {
+      MockConnection[] connections = new MockConnection[inFlight.length];
+      for (int i = 0; i < inFlight.length; ++i) {
+         connections[i] = new MockConnection();
+         connections[i].inFlight = inFlight[i];
+         available.offer(connections[i], false);
+      }
+      return connections;
+   }
+
+   private static class MockConnection extends BaseMockConnection implements PooledConnection {
+      int inFlight;
+      int poolBucket;
+      int poolIndex = -1;
+
+      @Override
+      public int inFlight() {
+         return inFlight;
+      }
+
+      @Override
+      public int poolBucket() {
+         return poolBucket;
+      }
+
+      @Override
+      public void poolBucket(int bucket) {
+         this.poolBucket = bucket;
+      }
+
+      @Override
+      public int poolIndex() {
+         return poolIndex;
+      }
+
+      @Override
+      public void poolIndex(int index) {
+         this.poolIndex = index;
+      }
+   }
+}
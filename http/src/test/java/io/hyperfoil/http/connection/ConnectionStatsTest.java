@@ -241,6 +241,18 @@ public class ConnectionStatsTest extends HttpScenarioTest {
       assertThat(stats.get(USED_CONNECTIONS).high).isEqualTo(connections);
    }
 
+   @Test
+   public void testMetricCache(TestContext ctx) {
+      startServer(ctx, false);
+      http().connectionStrategy(ConnectionStrategy.SHARED_POOL)
+            .sharedConnections(3);
+
+      Map<String, LowHigh> stats = testConcurrent(false);
+      // only /ok is requested so the selector runs once on the single executor
+      assertThat(stats.get("misses").high).isEqualTo(1);
+      assertThat(stats.get("hits").high).isGreaterThan(100);
+   }
+
    @Test
    public void testNewHttp1x(TestContext ctx) {
       log.info("START testNewHttp1x");
@@ -0,0 +1,143 @@
+package io.hyperfoil.http.grpc;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.http.HttpScenarioTest;
+import io.hyperfoil.http.config.HttpBuilder;
+import io.hyperfoil.http.statistics.GrpcStats;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.RoutingContext;
+
+@RunWith(VertxUnitRunner.class)
+public class GrpcTest extends HttpScenarioTest {
+   @Override
+   protected boolean useHttps() {
+      return true;
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      http.allowHttp1x(false);
+   }
+
+   @Override
+   protected void initRouter() {
+      router.post("/test.Greeter/SayHello").handler(this::sayHello);
+      router.post("/test.Greeter/StreamHellos").handler(this::streamHellos);
+      router.post("/test.Greeter/Fail").handler(ctx -> ctx.response()
+            .putHeader("content-type", "application/grpc")
+            .putHeader("grpc-status", "14")
+            .putHeader("grpc-message", "unavailable").end());
+   }
+
+   private void sayHello(RoutingContext ctx) {
+      ctx.request().bodyHandler(body -> {
+         HttpServerResponse response = ctx.response().putHeader("content-type", "application/grpc");
+         Map<Integer, Object> fields = decode(body);
+         if (!"application/grpc".equals(ctx.request().getHeader("content-type"))
+               || !"trailers".equals(ctx.request().getHeader("te"))
+               || !"5000m".equals(ctx.request().getHeader("grpc-timeout"))
+               || !"hyperfoil".equals(ctx.request().getHeader("x-client"))
+               || !"World".equals(fields.get(1)) || !Long.valueOf(42).equals(fields.get(2))
+               || !Long.valueOf(9).equals(fields.get(3))) {
+            // INVALID_ARGUMENT
+            response.putTrailer("grpc-status", "3").end(message(""));
+         } else {
+            response.putTrailer("grpc-status", "0").end(message("Hello " + fields.get(1)));
+         }
+      });
+   }
+
+   private void streamHellos(RoutingContext ctx) {
+      ctx.request().bodyHandler(body -> {
+         HttpServerResponse response = ctx.response().putHeader("content-type", "application/grpc");
+         Object name = decode(body).get(1);
+         response.write(message("Hello " + name));
+         vertx.setTimer(10, t1 -> {
+            response.write(message("Hi " + name));
+            vertx.setTimer(10, t2 -> response.putTrailer("grpc-status", "0").end(message("Bye " + name)));
+         });
+      });
+   }
+
+   @Test
+   public void test() {
+      Map<String, StatisticsSnapshot> stats = runScenario(loadScenario("scenarios/GrpcTest.hf.yaml"));
+      StatisticsSnapshot unary = stats.get("unary");
+      assertThat(unary.requestCount).isEqualTo(1);
+      assertThat(unary.responseCount).isEqualTo(1);
+      assertThat(unary.invalid).isEqualTo(0);
+      assertThat(GrpcStats.get(unary).ok).isEqualTo(1);
+
+      StatisticsSnapshot streaming = stats.get("streaming");
+      assertThat(streaming.requestCount).isEqualTo(1);
+      assertThat(streaming.invalid).isEqualTo(0);
+      assertThat(GrpcStats.get(streaming).ok).isEqualTo(1);
+      StatisticsSnapshot messages = stats.get("streaming.messages");
+      assertThat(messages.requestCount).isEqualTo(3);
+      assertThat(messages.responseCount).isEqualTo(3);
+      assertThat(messages.histogram.getMaxValue()).isGreaterThan(5_000_000);
+   }
+
+   @Test
+   public void testErrorStatus() {
+      scenario().initialSequence("fail")
+            .step(SC).grpcRequest("test.Greeter/Fail").endStep();
+      StatisticsSnapshot stats = runScenario().get("fail");
+      GrpcStats grpc = GrpcStats.get(stats);
+      assertThat(stats.requestCount).isEqualTo(1);
+      assertThat(stats.responseCount).isEqualTo(1);
+      assertThat(stats.invalid).isEqualTo(1);
+      assertThat(grpc.unavailable).isEqualTo(1);
+      assertThat(grpc.ok).isEqualTo(0);
+   }
+
+   private static Buffer message(String greeting) {
+      byte[] bytes = greeting.getBytes(StandardCharsets.UTF_8);
+      Buffer buffer = Buffer.buffer().appendByte((byte) 0).appendInt(bytes.length + 2);
+      return buffer.appendByte((byte) 0x0A).appendByte((byte) bytes.length).appendBytes(bytes);
+   }
+
+   private static Map<Integer, Object> decode(Buffer body) {
+      Map<Integer, Object> fields = new HashMap<>();
+      int[] pos = { 5 };
+      assertThat(body.getByte(0)).isEqualTo((byte) 0);
+      assertThat(body.getInt(1)).isEqualTo(body.length() - 5);
+      while (pos[0] < body.length()) {
+         long tag = readVarint(body, pos);
+         int number = (int) (tag >>> 3);
+         if ((tag & 7) == 0) {
+            fields.put(number, readVarint(body, pos));
+         } else if ((tag & 7) == 2) {
+            int length = (int) readVarint(body, pos);
+            fields.put(number, body.getString(pos[0], pos[0] + length, "UTF-8"));
+            pos[0] += length;
+         } else {
+            throw new IllegalArgumentException("Unexpected wire type in " + tag);
+         }
+      }
+      return fields;
+   }
+
+   private static long readVarint(Buffer buffer, int[] pos) {
+      long value = 0;
+      for (int shift = 0; ; shift += 7) {
+         byte b = buffer.getByte(pos[0]++);
+         value |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return value;
+         }
+      }
+   }
+}
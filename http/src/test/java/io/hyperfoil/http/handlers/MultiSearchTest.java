@@ -0,0 +1,28 @@
+package io.hyperfoil.http.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.http.HttpScenarioTest;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class MultiSearchTest extends HttpScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.route("/foobar/index.html").handler(ctx -> serveResourceChunked(ctx, "data/TagAttributeHandlerTest_index.html"));
+   }
+
+   @Test
+   public void test() {
+      Benchmark benchmark = loadScenario("scenarios/MultiSearchTest.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      assertThat(stats.get("test").requestCount).isEqualTo(1);
+   }
+}
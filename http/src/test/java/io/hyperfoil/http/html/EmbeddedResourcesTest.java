@@ -11,7 +11,9 @@ import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.http.HttpScenarioTest;
 import io.hyperfoil.http.statistics.HttpStats;
+import io.hyperfoil.http.statistics.PageLoadStats;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.Json;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 
 @RunWith(VertxUnitRunner.class)
@@ -46,5 +48,19 @@ public class EmbeddedResourcesTest extends HttpScenarioTest {
          assertThat(snapshot.requestCount).as(name).isEqualTo(hits);
          assertThat(HttpStats.get(snapshot).status_2xx).as(name).isEqualTo(hits);
       }
+      // Only the sequence using fetchResource records the page load
+      assertThat(stats.get("manual").extensions).doesNotContainKey(PageLoadStats.PAGE_LOAD);
+      assertThat(stats.get("legacy").extensions).doesNotContainKey(PageLoadStats.PAGE_LOAD);
+      StatisticsSnapshot automatic = stats.get("automatic");
+      PageLoadStats pageLoad = PageLoadStats.get(automatic);
+      assertThat(pageLoad.histogram().getTotalCount()).isEqualTo(1);
+      assertThat(pageLoad.histogram().getMaxValue()).isGreaterThanOrEqualTo(automatic.histogram.getMaxValue());
+      assertThat(pageLoad.maxConcurrency).isBetween(1, 8);
+      assertThat(pageLoad.bytes).isGreaterThan(0);
+
+      PageLoadStats copy = Json.decodeValue(Json.encode(pageLoad), PageLoadStats.class);
+      assertThat(copy.histogram()).isEqualTo(pageLoad.histogram());
+      assertThat(copy.maxConcurrency).isEqualTo(pageLoad.maxConcurrency);
+      assertThat(copy.bytes).isEqualTo(pageLoad.bytes);
    }
 }
@@ -213,6 +213,15 @@ public class K8sDeployer implements Deployer {
       }
 
 
+      // Pods don't keep files between runs; class data sharing archive has to be built into the image,
+      // e.g. by running an agent with -XX:ArchiveClassesAtExit. Unusable archive is ignored by the JVM.
+      String cdsArchive = agent.properties.getOrDefault("cds-archive",
+            Properties.get("io.hyperfoil.deployer.k8s.cds.archive", null));
+      if (cdsArchive != null && !cdsArchive.isEmpty()) {
+         command.add("-Xshare:auto");
+         command.add("-XX:SharedArchiveFile=" + cdsArchive);
+      }
+
       command.add("-Djava.net.preferIPv4Stack=true");
       command.add("-Dvertx.logger-delegate-factory-class-name=io.vertx.core.logging.Log4j2LogDelegateFactory");
       command.add("-D" + Properties.AGENT_NAME + "=" + agent.name);
@@ -0,0 +1,16 @@
+package io.hyperfoil.redis;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.core.connection.ConnectionPoolsRunData;
+import io.hyperfoil.redis.config.RedisEndpoint;
+import io.hyperfoil.redis.config.RedisPluginConfig;
+import io.hyperfoil.redis.connection.RedisConnectionPool;
+import io.hyperfoil.redis.connection.RedisConnectionPools;
+import io.netty.channel.EventLoop;
+
+public class RedisRunData extends ConnectionPoolsRunData<RedisEndpoint, RedisConnectionPool, RedisConnectionPools> {
+   public RedisRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
+      super(benchmark, executors, agentId, benchmark.plugin(RedisPluginConfig.class).endpoints(),
+            RedisConnectionPool::new, RedisConnectionPools::new, RedisConnectionPools.KEY);
+   }
+}
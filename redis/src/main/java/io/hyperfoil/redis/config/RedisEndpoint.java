@@ -0,0 +1,90 @@
+package io.hyperfoil.redis.config;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.core.connection.PooledEndpoint;
+
+public class RedisEndpoint implements PooledEndpoint, Serializable {
+   private static final int DEFAULT_PORT = 6379;
+
+   private final String url;
+   private final boolean secure;
+   private final String host;
+   private final int port;
+   private final String password;
+   private final int database;
+   private final int connections;
+   private final int maxInFlight;
+
+   public RedisEndpoint(String url, String password, int database, int connections, int maxInFlight) {
+      if (url == null) {
+         throw new BenchmarkDefinitionException("Endpoint must define the url.");
+      }
+      URI uri;
+      try {
+         uri = new URI(url);
+      } catch (URISyntaxException e) {
+         throw new BenchmarkDefinitionException("Invalid url " + url, e);
+      }
+      if (!"redis".equals(uri.getScheme()) && !"rediss".equals(uri.getScheme())) {
+         throw new BenchmarkDefinitionException("Unsupported scheme in url " + url + ": only redis:// and rediss:// (TLS) are supported.");
+      } else if (uri.getHost() == null) {
+         throw new BenchmarkDefinitionException("Url " + url + " does not define host.");
+      }
+      if (connections < 0) {
+         throw new BenchmarkDefinitionException("Number of connections must not be negative.");
+      } else if (maxInFlight <= 0) {
+         throw new BenchmarkDefinitionException("Maximum number of in-flight commands must be positive.");
+      } else if (database < 0) {
+         throw new BenchmarkDefinitionException("Database index must not be negative.");
+      }
+      this.url = url;
+      this.secure = "rediss".equals(uri.getScheme());
+      this.host = uri.getHost();
+      this.port = uri.getPort() < 0 ? DEFAULT_PORT : uri.getPort();
+      this.password = password;
+      this.database = database;
+      this.connections = connections;
+      this.maxInFlight = maxInFlight;
+   }
+
+   @Override
+   public String url() {
+      return url;
+   }
+
+   @Override
+   public String host() {
+      return host;
+   }
+
+   @Override
+   public int port() {
+      return port;
+   }
+
+   @Override
+   public boolean secure() {
+      return secure;
+   }
+
+   public String password() {
+      return password;
+   }
+
+   public int database() {
+      return database;
+   }
+
+   @Override
+   public int connections() {
+      return connections;
+   }
+
+   public int maxInFlight() {
+      return maxInFlight;
+   }
+}
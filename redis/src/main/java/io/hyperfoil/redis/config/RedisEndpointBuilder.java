@@ -0,0 +1,70 @@
+package io.hyperfoil.redis.config;
+
+public class RedisEndpointBuilder {
+   private String url;
+   private String password;
+   private int database;
+   private int connections;
+   private int maxInFlight = 16;
+
+   /**
+    * URL of the server, e.g. <code>redis://localhost:6379</code>. Default port is 6379.
+    *
+    * @param url Server URL.
+    * @return Self.
+    */
+   public RedisEndpointBuilder url(String url) {
+      this.url = url;
+      return this;
+   }
+
+   /**
+    * Password sent in <code>AUTH</code> command when the connection is opened.
+    *
+    * @param password Password.
+    * @return Self.
+    */
+   public RedisEndpointBuilder password(String password) {
+      this.password = password;
+      return this;
+   }
+
+   /**
+    * Database selected with <code>SELECT</code> command when the connection is opened. Default is 0.
+    *
+    * @param database Database index.
+    * @return Self.
+    */
+   public RedisEndpointBuilder database(int database) {
+      this.database = database;
+      return this;
+   }
+
+   /**
+    * Number of connections opened by the benchmark; these are divided between agents and their executors.
+    * Default is 1 connection per executor.
+    *
+    * @param connections Number of connections.
+    * @return Self.
+    */
+   public RedisEndpointBuilder connections(int connections) {
+      this.connections = connections;
+      return this;
+   }
+
+   /**
+    * Maximum number of commands pipelined through single connection that are awaiting a reply. Connections
+    * are shared by all sessions in the executor; when all of them are full the session blocks. Default is 16.
+    *
+    * @param maxInFlight Number of commands.
+    * @return Self.
+    */
+   public RedisEndpointBuilder maxInFlight(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+      return this;
+   }
+
+   public RedisEndpoint build() {
+      return new RedisEndpoint(url, password, database, connections, maxInFlight);
+   }
+}
@@ -0,0 +1,4 @@
+package io.hyperfoil.redis.config;
+
+public class RedisErgonomics {
+}
@@ -0,0 +1,42 @@
+package io.hyperfoil.redis.config;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.PluginConfig;
+import io.hyperfoil.core.api.Plugin;
+import io.hyperfoil.core.api.PluginRunData;
+import io.hyperfoil.core.parser.ErgonomicsParser;
+import io.hyperfoil.core.parser.Parser;
+import io.hyperfoil.redis.RedisRunData;
+import io.hyperfoil.redis.parser.RedisParser;
+import io.netty.channel.EventLoop;
+
+@MetaInfServices(Plugin.class)
+public class RedisPlugin implements Plugin {
+
+   @Override
+   public Class<? extends PluginConfig> configClass() {
+      return RedisPluginConfig.class;
+   }
+
+   @Override
+   public String name() {
+      return "redis";
+   }
+
+   @Override
+   public Parser<BenchmarkBuilder> parser() {
+      return new RedisParser();
+   }
+
+   @Override
+   public void enhanceErgonomics(ErgonomicsParser ergonomicsParser) {
+   }
+
+   @Override
+   public PluginRunData createRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
+      return new RedisRunData(benchmark, executors, agentId);
+   }
+}
@@ -0,0 +1,45 @@
+package io.hyperfoil.redis.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.PluginBuilder;
+import io.hyperfoil.api.config.PluginConfig;
+
+public class RedisPluginBuilder extends PluginBuilder<RedisErgonomics> {
+   private final List<RedisEndpointBuilder> endpoints = new ArrayList<>();
+
+   public RedisPluginBuilder(BenchmarkBuilder parent) {
+      super(parent);
+   }
+
+   @Override
+   public RedisErgonomics ergonomics() {
+      return null;
+   }
+
+   @Override
+   public void prepareBuild() {
+   }
+
+   @Override
+   public PluginConfig build() {
+      RedisEndpoint[] endpoints = this.endpoints.stream().map(RedisEndpointBuilder::build)
+            .toArray(RedisEndpoint[]::new);
+      if (endpoints.length == 0) {
+         throw new BenchmarkDefinitionException("No endpoints set!");
+      } else if (Stream.of(endpoints).map(RedisEndpoint::url).distinct().count() != endpoints.length) {
+         throw new BenchmarkDefinitionException("Endpoint definition with duplicate urls!");
+      }
+      return new RedisPluginConfig(endpoints);
+   }
+
+   public RedisEndpointBuilder addEndpoint() {
+      RedisEndpointBuilder builder = new RedisEndpointBuilder();
+      endpoints.add(builder);
+      return builder;
+   }
+}
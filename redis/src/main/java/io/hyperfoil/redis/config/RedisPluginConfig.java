@@ -0,0 +1,15 @@
+package io.hyperfoil.redis.config;
+
+import io.hyperfoil.api.config.PluginConfig;
+
+public class RedisPluginConfig implements PluginConfig {
+   private final RedisEndpoint[] endpoints;
+
+   public RedisPluginConfig(RedisEndpoint[] endpoints) {
+      this.endpoints = endpoints;
+   }
+
+   public RedisEndpoint[] endpoints() {
+      return endpoints;
+   }
+}
@@ -0,0 +1,137 @@
+package io.hyperfoil.redis.connection;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.core.connection.ExecutorConnectionPool;
+import io.hyperfoil.redis.config.RedisEndpoint;
+import io.hyperfoil.redis.resource.RedisResource;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * Connection shared by all sessions in the executor. Commands are pipelined: these are written as soon as they
+ * are issued and the replies are matched to the commands in order, up to <code>maxInFlight</code> commands.
+ */
+public class RedisConnection extends ChannelInboundHandlerAdapter implements ExecutorConnectionPool.Connection {
+   private static final Logger log = LogManager.getLogger(RedisConnection.class);
+
+   private final RedisConnectionPool pool;
+   private final RespDecoder decoder = new RespDecoder();
+   private final RedisResource.Request[] inFlight;
+   private ChannelHandlerContext ctx;
+   private int head;
+   private int size;
+   private int handshakeReplies;
+   private boolean open;
+
+   RedisConnection(RedisConnectionPool pool) {
+      this.pool = pool;
+      this.inFlight = new RedisResource.Request[pool.endpoint().maxInFlight()];
+   }
+
+   public boolean isOpen() {
+      return open && ctx.channel().isActive();
+   }
+
+   public boolean canSend() {
+      return size < inFlight.length && isOpen();
+   }
+
+   public int inFlight() {
+      return size;
+   }
+
+   public ByteBuf allocate() {
+      return ctx.alloc().buffer();
+   }
+
+   public void send(ByteBuf buf, RedisResource.Request request) {
+      assert size < inFlight.length;
+      inFlight[(head + size) % inFlight.length] = request;
+      size++;
+      ctx.writeAndFlush(buf, ctx.voidPromise());
+   }
+
+   @Override
+   public void close() {
+      ctx.close();
+   }
+
+   @Override
+   public void channelActive(ChannelHandlerContext ctx) {
+      this.ctx = ctx;
+      RedisEndpoint endpoint = pool.endpoint();
+      if (endpoint.password() == null && endpoint.database() == 0) {
+         open = true;
+         pool.onOpened(this);
+         return;
+      }
+      ByteBuf buf = allocate();
+      if (endpoint.password() != null) {
+         RespEncoder.writeArrayHeader(buf, 2);
+         buf.writeBytes(RespEncoder.encodeBulkString("AUTH"));
+         buf.writeBytes(RespEncoder.encodeBulkString(endpoint.password()));
+         handshakeReplies++;
+      }
+      if (endpoint.database() != 0) {
+         RespEncoder.writeArrayHeader(buf, 2);
+         buf.writeBytes(RespEncoder.encodeBulkString("SELECT"));
+         buf.writeBytes(RespEncoder.encodeBulkString(String.valueOf(endpoint.database())));
+         handshakeReplies++;
+      }
+      ctx.writeAndFlush(buf, ctx.voidPromise());
+   }
+
+   @Override
+   public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      ByteBuf buf = (ByteBuf) msg;
+      try {
+         while (decoder.decode(buf)) {
+            if (!open) {
+               if (decoder.isError()) {
+                  pool.onHandshakeFailed(this, decoder.errorMessage().toString());
+                  return;
+               } else if (--handshakeReplies == 0) {
+                  open = true;
+                  pool.onOpened(this);
+               }
+               continue;
+            }
+            if (size == 0) {
+               log.error("Received unexpected reply from {}, closing connection.", pool.endpoint().url());
+               ctx.close();
+               return;
+            }
+            RedisResource.Request request = inFlight[head];
+            inFlight[head] = null;
+            head = (head + 1) % inFlight.length;
+            size--;
+            request.complete(decoder.isError(), decoder.errorMessage());
+            pool.onAvailable();
+         }
+      } finally {
+         buf.release();
+      }
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) {
+      for (; size > 0; --size) {
+         RedisResource.Request request = inFlight[head];
+         inFlight[head] = null;
+         head = (head + 1) % inFlight.length;
+         request.fail();
+      }
+      decoder.reset();
+      pool.onClosed(this, open);
+      open = false;
+   }
+
+   @Override
+   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      log.warn("Exception in connection to {}", pool.endpoint().url(), cause);
+      ctx.close();
+   }
+}
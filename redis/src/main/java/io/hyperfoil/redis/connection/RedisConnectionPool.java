@@ -0,0 +1,86 @@
+package io.hyperfoil.redis.connection;
+
+import java.util.ArrayDeque;
+
+import io.hyperfoil.core.connection.ExecutorConnectionPool;
+import io.hyperfoil.redis.config.RedisEndpoint;
+import io.hyperfoil.redis.resource.RedisResource;
+import io.netty.channel.EventLoop;
+import io.netty.handler.ssl.SslContext;
+
+/**
+ * Connections are shared: commands are spread round-robin over connections that did not reach the limit
+ * of pipelined commands. Sessions that find all connections full wait in a queue and are woken up one by one
+ * as the replies arrive.
+ */
+public class RedisConnectionPool extends ExecutorConnectionPool<RedisEndpoint, RedisConnection> {
+   private final ArrayDeque<RedisResource> waiting = new ArrayDeque<>();
+   private int next;
+
+   public RedisConnectionPool(RedisEndpoint endpoint, SslContext sslContext, EventLoop executor, int size) {
+      super(endpoint, sslContext, executor, size);
+   }
+
+   @Override
+   protected RedisConnection newConnection() {
+      return new RedisConnection(this);
+   }
+
+   @Override
+   public String describe() {
+      return String.format("%s: %d connections, %d in flight, %d waiting sessions",
+            endpoint.url(), connections(), inFlight(), waiting.size());
+   }
+
+   /**
+    * @return Connection that can accept another command or <code>null</code> if all connections are full.
+    */
+   public RedisConnection acquire() {
+      int numConnections = connections.size();
+      for (int i = 0; i < numConnections; ++i) {
+         RedisConnection connection = connections.get(next);
+         next = (next + 1) % numConnections;
+         if (connection.canSend()) {
+            return connection;
+         }
+      }
+      return null;
+   }
+
+   public void await(RedisResource resource) {
+      waiting.add(resource);
+   }
+
+   public void cancelAwait(RedisResource resource) {
+      waiting.remove(resource);
+   }
+
+   private int inFlight() {
+      int inFlight = 0;
+      for (RedisConnection connection : connections) {
+         inFlight += connection.inFlight();
+      }
+      return inFlight;
+   }
+
+   void onAvailable() {
+      RedisResource resource = waiting.poll();
+      if (resource != null) {
+         resource.wakeUp();
+      }
+   }
+
+   @Override
+   public void onOpened(RedisConnection connection) {
+      super.onOpened(connection);
+      onAvailable();
+   }
+
+   @Override
+   public void onClosed(RedisConnection connection, boolean wasOpen) {
+      if (wasOpen) {
+         next = 0;
+      }
+      super.onClosed(connection, wasOpen);
+   }
+}
@@ -0,0 +1,18 @@
+package io.hyperfoil.redis.connection;
+
+import java.util.List;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.connection.ExecutorConnectionPools;
+
+public class RedisConnectionPools extends ExecutorConnectionPools<RedisConnectionPool> {
+   public static final Session.ResourceKey<RedisConnectionPools> KEY = new Session.ResourceKey<>() {};
+
+   public RedisConnectionPools(List<RedisConnectionPool> pools) {
+      super("Redis", pools);
+   }
+
+   public static RedisConnectionPools get(Session session) {
+      return session.getResource(KEY);
+   }
+}
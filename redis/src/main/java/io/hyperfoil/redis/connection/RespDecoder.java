@@ -0,0 +1,168 @@
+package io.hyperfoil.redis.connection;
+
+import java.util.Arrays;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+
+/**
+ * Incremental parser of RESP replies working directly on the received buffers. Contents of the replies are skipped
+ * without copying; the decoder only finds the reply boundaries and tells whether the reply is an error.
+ * The state is kept between buffers so a reply can be split at any position.
+ */
+final class RespDecoder {
+   private static final int MAX_ERROR_MESSAGE = 256;
+
+   private static final int STATE_TYPE = 0;
+   private static final int STATE_NUMBER = 1;
+   private static final int STATE_LINE = 2;
+   private static final int STATE_BULK = 3;
+   private static final int STATE_LF = 4;
+
+   private int state = STATE_TYPE;
+   private byte type;
+   private boolean error;
+   private final StringBuilder errorMessage = new StringBuilder();
+   private boolean negative;
+   private long number;
+   private int digits;
+   private long bulkRemaining;
+   // remaining elements in nested arrays
+   private long[] arrays = new long[4];
+   private int depth;
+
+   /**
+    * Parses the buffer until a complete reply is read or the buffer is exhausted.
+    *
+    * @param buf Received data; reader index is advanced.
+    * @return True if a complete reply was parsed.
+    */
+   boolean decode(ByteBuf buf) {
+      while (buf.isReadable()) {
+         switch (state) {
+            case STATE_TYPE:
+               type = buf.readByte();
+               if (depth == 0) {
+                  error = type == '-';
+                  errorMessage.setLength(0);
+               }
+               switch (type) {
+                  case '+':
+                  case '-':
+                     state = STATE_LINE;
+                     break;
+                  case ':':
+                  case '$':
+                  case '*':
+                     state = STATE_NUMBER;
+                     negative = false;
+                     number = 0;
+                     digits = 0;
+                     break;
+                  default:
+                     throw new DecoderException("Unexpected RESP type: " + (char) type);
+               }
+               break;
+            case STATE_NUMBER:
+               byte b = buf.readByte();
+               if (b == '\r') {
+                  if (digits == 0) {
+                     throw new DecoderException("Missing number in RESP reply.");
+                  }
+                  state = STATE_LF;
+               } else if (b == '-' && digits == 0 && !negative) {
+                  negative = true;
+               } else if (b >= '0' && b <= '9' && digits < 19) {
+                  number = number * 10 + (b - '0');
+                  digits++;
+               } else {
+                  throw new DecoderException("Invalid number in RESP reply.");
+               }
+               break;
+            case STATE_LINE:
+               int lineEnd = buf.indexOf(buf.readerIndex(), buf.writerIndex(), (byte) '\r');
+               int lineLength = (lineEnd < 0 ? buf.writerIndex() : lineEnd) - buf.readerIndex();
+               if (error && depth == 0 && errorMessage.length() < MAX_ERROR_MESSAGE) {
+                  int n = Math.min(lineLength, MAX_ERROR_MESSAGE - errorMessage.length());
+                  for (int i = 0; i < n; ++i) {
+                     errorMessage.append((char) buf.getByte(buf.readerIndex() + i));
+                  }
+               }
+               if (lineEnd < 0) {
+                  buf.readerIndex(buf.writerIndex());
+               } else {
+                  buf.readerIndex(lineEnd + 1);
+                  state = STATE_LF;
+               }
+               break;
+            case STATE_BULK:
+               int n = (int) Math.min(bulkRemaining, buf.readableBytes());
+               buf.skipBytes(n);
+               bulkRemaining -= n;
+               if (bulkRemaining == 0) {
+                  state = STATE_TYPE;
+                  if (endElement()) {
+                     return true;
+                  }
+               }
+               break;
+            case STATE_LF:
+               if (buf.readByte() != '\n') {
+                  throw new DecoderException("Expected LF in RESP reply.");
+               }
+               if (endHeader()) {
+                  return true;
+               }
+               break;
+            default:
+               throw new IllegalStateException();
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return True if the reply was an error.
+    */
+   boolean isError() {
+      return error;
+   }
+
+   CharSequence errorMessage() {
+      return errorMessage;
+   }
+
+   private boolean endHeader() {
+      long value = negative ? -number : number;
+      state = STATE_TYPE;
+      if (type == '$' && value >= 0) {
+         // bulk string contents followed by CRLF
+         bulkRemaining = value + 2;
+         state = STATE_BULK;
+         return false;
+      } else if (type == '*' && value > 0) {
+         if (depth == arrays.length) {
+            arrays = Arrays.copyOf(arrays, depth * 2);
+         }
+         arrays[depth++] = value;
+         return false;
+      }
+      // simple string, error, integer, null bulk string, empty or null array
+      return endElement();
+   }
+
+   private boolean endElement() {
+      while (depth > 0) {
+         if (--arrays[depth - 1] > 0) {
+            return false;
+         }
+         --depth;
+      }
+      return true;
+   }
+
+   void reset() {
+      state = STATE_TYPE;
+      depth = 0;
+   }
+}
@@ -0,0 +1,126 @@
+package io.hyperfoil.redis.connection;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Writes commands in the RESP format (array of bulk strings) directly into the outgoing buffer.
+ * Arguments generated at runtime are written in place and their length header is filled in afterwards,
+ * so the argument is never materialized as a <code>String</code> or <code>byte[]</code>.
+ * The space reserved for the length is based on a hint (typically the length of the previous value).
+ */
+public final class RespEncoder {
+   private static final int CRLF = ('\r' << 8) | '\n';
+
+   private RespEncoder() {
+   }
+
+   /**
+    * Encodes constant argument (including the header) when the benchmark is built.
+    *
+    * @param arg Argument value.
+    * @return Bytes to be copied into the buffer.
+    */
+   public static byte[] encodeBulkString(String arg) {
+      byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+      ByteBuf buf = Unpooled.buffer(bytes.length + 16);
+      buf.writeByte('$');
+      writeDecimal(buf, bytes.length);
+      buf.writeShort(CRLF);
+      buf.writeBytes(bytes);
+      buf.writeShort(CRLF);
+      byte[] encoded = new byte[buf.readableBytes()];
+      buf.readBytes(encoded);
+      return encoded;
+   }
+
+   public static void writeArrayHeader(ByteBuf buf, int length) {
+      buf.writeByte('*');
+      writeDecimal(buf, length);
+      buf.writeShort(CRLF);
+   }
+
+   /**
+    * Starts argument with unknown length: the caller writes the value and then calls
+    * {@link #endBulkString(ByteBuf, int, int)} with the same hint.
+    *
+    * @param buf Target buffer.
+    * @param digitsHint Expected number of digits in the value length.
+    * @return Position to pass to {@link #endBulkString(ByteBuf, int, int)}.
+    */
+   public static int startBulkString(ByteBuf buf, int digitsHint) {
+      int start = buf.writerIndex();
+      buf.writerIndex(start + 1 + digitsHint + 2);
+      return start;
+   }
+
+   /**
+    * Completes the argument started by {@link #startBulkString(ByteBuf, int)}. When the hint was wrong the value
+    * is moved within the buffer, as RESP does not permit leading zeros or padding in the length.
+    *
+    * @param buf Target buffer.
+    * @param start Position returned from {@link #startBulkString(ByteBuf, int)}.
+    * @param digitsHint Expected number of digits in the value length.
+    * @return Actual number of digits, to be used as a hint next time.
+    */
+   public static int endBulkString(ByteBuf buf, int start, int digitsHint) {
+      int valueStart = start + 1 + digitsHint + 2;
+      int length = buf.writerIndex() - valueStart;
+      int digits = decimalLength(length);
+      if (digits != digitsHint) {
+         buf.ensureWritable(Math.max(0, digits - digitsHint));
+         move(buf, valueStart, start + 1 + digits + 2, length);
+      }
+      buf.setByte(start, '$');
+      buf.writerIndex(start + 1);
+      writeDecimal(buf, length);
+      buf.writeShort(CRLF);
+      buf.writerIndex(buf.writerIndex() + length);
+      buf.writeShort(CRLF);
+      return digits;
+   }
+
+   // ByteBuf.setBytes from the same buffer does not guarantee correct result when the regions overlap
+   private static void move(ByteBuf buf, int from, int to, int length) {
+      if (to < from) {
+         int i = 0;
+         for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            buf.setLong(to + i, buf.getLong(from + i));
+         }
+         for (; i < length; ++i) {
+            buf.setByte(to + i, buf.getByte(from + i));
+         }
+      } else {
+         int i = length;
+         for (; i >= Long.BYTES; i -= Long.BYTES) {
+            buf.setLong(to + i - Long.BYTES, buf.getLong(from + i - Long.BYTES));
+         }
+         for (; i > 0; --i) {
+            buf.setByte(to + i - 1, buf.getByte(from + i - 1));
+         }
+      }
+   }
+
+   static void writeDecimal(ByteBuf buf, int value) {
+      assert value >= 0;
+      int digits = decimalLength(value);
+      int index = buf.writerIndex() + digits;
+      buf.ensureWritable(digits);
+      do {
+         buf.setByte(--index, '0' + value % 10);
+         value /= 10;
+      } while (value != 0);
+      buf.writerIndex(buf.writerIndex() + digits);
+   }
+
+   static int decimalLength(int value) {
+      int digits = 1;
+      while (value >= 10) {
+         value /= 10;
+         ++digits;
+      }
+      return digits;
+   }
+}
@@ -0,0 +1,24 @@
+package io.hyperfoil.redis.parser;
+
+import io.hyperfoil.core.parser.AbstractParser;
+import io.hyperfoil.core.parser.Context;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.core.parser.PropertyParser;
+import io.hyperfoil.redis.config.RedisEndpointBuilder;
+
+public class RedisEndpointParser extends AbstractParser<RedisEndpointBuilder, RedisEndpointBuilder> {
+   static RedisEndpointParser INSTANCE = new RedisEndpointParser();
+
+   public RedisEndpointParser() {
+      register("url", new PropertyParser.String<>(RedisEndpointBuilder::url));
+      register("password", new PropertyParser.String<>(RedisEndpointBuilder::password));
+      register("database", new PropertyParser.Int<>(RedisEndpointBuilder::database));
+      register("connections", new PropertyParser.Int<>(RedisEndpointBuilder::connections));
+      register("maxInFlight", new PropertyParser.Int<>(RedisEndpointBuilder::maxInFlight));
+   }
+
+   @Override
+   public void parse(Context ctx, RedisEndpointBuilder target) throws ParserException {
+      callSubBuilders(ctx, target);
+   }
+}
@@ -0,0 +1,21 @@
+package io.hyperfoil.redis.parser;
+
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.core.parser.Context;
+import io.hyperfoil.core.parser.Parser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.redis.config.RedisPluginBuilder;
+
+public class RedisParser implements Parser<BenchmarkBuilder> {
+   @Override
+   public void parse(Context ctx, BenchmarkBuilder target) throws ParserException {
+      RedisPluginBuilder plugin = target.addPlugin(RedisPluginBuilder::new);
+      if (ctx.peek() instanceof SequenceStartEvent) {
+         ctx.parseList(plugin, (ctx1, builder) -> RedisEndpointParser.INSTANCE.parse(ctx1, builder.addEndpoint()));
+      } else {
+         RedisEndpointParser.INSTANCE.parse(ctx, plugin.addEndpoint());
+      }
+   }
+}
@@ -0,0 +1,157 @@
+package io.hyperfoil.redis.resource;
+
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.redis.connection.RedisConnectionPool;
+
+/**
+ * Window of commands issued by the step that await a reply. The commands can be pipelined through different
+ * connections; each connection completes its requests in order. Requests still in flight when the session
+ * is reset are abandoned and their slots are replaced.
+ */
+public class RedisResource implements Session.Resource {
+   private static final Logger log = LogManager.getLogger(RedisResource.class);
+   private static final int DEFAULT_LENGTH_DIGITS = 2;
+
+   private final Request[] requests;
+   private final Request[] free;
+   private final int[] lengthDigits;
+   private int numFree;
+   private Session session;
+   private RedisConnectionPool waitingFor;
+
+   public RedisResource(int maxInFlight, int numArgs) {
+      this.requests = new Request[maxInFlight];
+      this.free = new Request[maxInFlight];
+      for (int i = 0; i < maxInFlight; ++i) {
+         requests[i] = free[i] = new Request(this);
+      }
+      numFree = maxInFlight;
+      lengthDigits = new int[numArgs];
+      Arrays.fill(lengthDigits, DEFAULT_LENGTH_DIGITS);
+   }
+
+   public boolean hasFreeSlot() {
+      return numFree > 0;
+   }
+
+   /**
+    * Expected number of digits in the length of an argument generated at runtime.
+    */
+   public int[] lengthDigits() {
+      return lengthDigits;
+   }
+
+   public Request acquire(Session session, Statistics statistics, long startTimestampMillis, long startTimestampNanos) {
+      Request request = free[--numFree];
+      free[numFree] = null;
+      request.start(session, statistics, startTimestampMillis, startTimestampNanos);
+      return request;
+   }
+
+   /**
+    * Registers the session to be woken up when a connection in the pool can accept another command.
+    */
+   public void await(Session session, RedisConnectionPool pool) {
+      if (waitingFor == null) {
+         this.session = session;
+         waitingFor = pool;
+         pool.await(this);
+      }
+   }
+
+   /**
+    * Invoked by the pool when a connection becomes available.
+    */
+   public void wakeUp() {
+      waitingFor = null;
+      session.proceed();
+   }
+
+   private void release(Request request) {
+      request.session = null;
+      request.statistics = null;
+      free[numFree++] = request;
+   }
+
+   @Override
+   public void onSessionReset(Session session) {
+      if (waitingFor != null) {
+         waitingFor.cancelAwait(this);
+         waitingFor = null;
+      }
+      // The connection still holds the requests in flight; as these belong to the finished session
+      // their completion is ignored and the slots are replaced.
+      if (numFree != requests.length) {
+         for (int i = 0; i < requests.length; ++i) {
+            if (requests[i].session != null) {
+               requests[i].session = null;
+               requests[i] = new Request(this);
+            }
+            free[i] = requests[i];
+         }
+         numFree = requests.length;
+      }
+   }
+
+   public static class Request {
+      private final RedisResource resource;
+      private Session session;
+      private Statistics statistics;
+      private long startTimestampMillis;
+      private long startTimestampNanos;
+
+      private Request(RedisResource resource) {
+         this.resource = resource;
+      }
+
+      private void start(Session session, Statistics statistics, long startTimestampMillis, long startTimestampNanos) {
+         this.session = session;
+         this.statistics = statistics;
+         this.startTimestampMillis = startTimestampMillis;
+         this.startTimestampNanos = startTimestampNanos;
+      }
+
+      /**
+       * Records the reply. Error reply is recorded as a response that is marked invalid.
+       *
+       * @param error True if the server replied with an error.
+       * @param errorMessage Error message.
+       */
+      public void complete(boolean error, CharSequence errorMessage) {
+         Session session = this.session;
+         if (session == null) {
+            // abandoned in onSessionReset
+            return;
+         }
+         assert session.executor().inEventLoop();
+         statistics.recordResponse(startTimestampMillis, System.nanoTime() - startTimestampNanos);
+         if (error) {
+            if (log.isDebugEnabled()) {
+               log.debug("#{} Redis command failed: {}", session.uniqueId(), errorMessage);
+            }
+            statistics.addInvalid(startTimestampMillis);
+         }
+         resource.release(this);
+         session.proceed();
+      }
+
+      public void fail() {
+         Session session = this.session;
+         if (session == null) {
+            return;
+         }
+         statistics.incrementConnectionErrors(System.currentTimeMillis());
+         resource.release(this);
+         session.stop();
+      }
+   }
+
+   public static class Key implements Session.ResourceKey<RedisResource> {
+   }
+}
@@ -0,0 +1,123 @@
+package io.hyperfoil.redis.steps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.InitFromParam;
+import io.hyperfoil.api.config.ListBuilder;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.core.builders.BaseStepBuilder;
+import io.hyperfoil.core.generators.Pattern;
+import io.hyperfoil.core.steps.StatisticsStep;
+import io.hyperfoil.redis.resource.RedisResource;
+
+/**
+ * Sends a command to Redis server and records the latency when the reply arrives. Error replies are recorded
+ * as invalid responses. The commands are pipelined through connections shared by all sessions in the executor.
+ */
+@MetaInfServices(StepBuilder.class)
+@Name("redisRequest")
+public class RedisRequestBuilder extends BaseStepBuilder<RedisRequestBuilder> implements InitFromParam<RedisRequestBuilder> {
+   private String url;
+   private String command;
+   private final List<String> args = new ArrayList<>();
+   private String metric;
+   private int maxInFlight = 1;
+
+   /**
+    * @param param Command and its arguments separated by spaces, e.g. <code>GET key-${index}</code>.
+    *              The arguments can be <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">patterns</a>.
+    * @return Self.
+    */
+   @Override
+   public RedisRequestBuilder init(String param) {
+      String[] parts = param.trim().split("\\s+");
+      command(parts[0]);
+      args.addAll(Arrays.asList(parts).subList(1, parts.length));
+      return this;
+   }
+
+   /**
+    * URL of the endpoint. Can be omitted if there's only single endpoint defined.
+    *
+    * @param url Endpoint URL.
+    * @return Self.
+    */
+   public RedisRequestBuilder url(String url) {
+      this.url = url;
+      return this;
+   }
+
+   /**
+    * Name of the command, e.g. <code>GET</code> or <code>SET</code>.
+    *
+    * @param command Command name.
+    * @return Self.
+    */
+   public RedisRequestBuilder command(String command) {
+      this.command = command;
+      return this;
+   }
+
+   /**
+    * Arguments of the command. Each argument can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+    *
+    * @return Builder.
+    */
+   public ListBuilder args() {
+      return args::add;
+   }
+
+   /**
+    * Name of the metric used for command latency. Default is the command name, e.g. <code>GET</code>.
+    *
+    * @param metric Metric name.
+    * @return Self.
+    */
+   public RedisRequestBuilder metric(String metric) {
+      this.metric = metric;
+      return this;
+   }
+
+   /**
+    * Maximum number of commands issued by this step that can be in flight in one session. When this is greater
+    * than 1 the session does not wait for the reply and proceeds once another command can be issued.
+    * Commands still in flight when the session finishes are not recorded. Default is 1.
+    *
+    * @param maxInFlight Number of commands.
+    * @return Self.
+    */
+   public RedisRequestBuilder maxInFlight(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+      return this;
+   }
+
+   @Override
+   public List<Step> build() {
+      if (command == null || command.isEmpty()) {
+         throw new BenchmarkDefinitionException("Command is not set.");
+      } else if (maxInFlight <= 0) {
+         throw new BenchmarkDefinitionException("Max in-flight commands must be positive.");
+      }
+      String command = this.command.toUpperCase(Locale.ROOT);
+      RedisRequestStep.Argument[] arguments = new RedisRequestStep.Argument[args.size() + 1];
+      arguments[0] = new RedisRequestStep.ConstantArgument(command);
+      for (int i = 0; i < args.size(); ++i) {
+         String arg = args.get(i);
+         arguments[i + 1] = arg.contains("${") ?
+               new RedisRequestStep.PatternArgument(new Pattern(arg, false)) :
+               new RedisRequestStep.ConstantArgument(arg);
+      }
+      RedisResource.Key key = new RedisResource.Key();
+      String metric = this.metric != null ? this.metric : command;
+      return Arrays.asList(new RedisRequestStep(StatisticsStep.nextId(), key, url, arguments, metric, maxInFlight),
+            new RedisResponseStep(key));
+   }
+}
@@ -0,0 +1,107 @@
+package io.hyperfoil.redis.steps;
+
+import java.io.Serializable;
+
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.generators.Pattern;
+import io.hyperfoil.core.steps.StatisticsStep;
+import io.hyperfoil.redis.connection.RedisConnection;
+import io.hyperfoil.redis.connection.RedisConnectionPool;
+import io.hyperfoil.redis.connection.RedisConnectionPools;
+import io.hyperfoil.redis.connection.RespEncoder;
+import io.hyperfoil.redis.resource.RedisResource;
+import io.netty.buffer.ByteBuf;
+
+public class RedisRequestStep extends StatisticsStep implements ResourceUtilizer {
+   private final RedisResource.Key key;
+   private final String url;
+   private final Argument[] arguments;
+   private final String metric;
+   private final int maxInFlight;
+
+   public RedisRequestStep(int id, RedisResource.Key key, String url, Argument[] arguments, String metric, int maxInFlight) {
+      super(id);
+      this.key = key;
+      this.url = url;
+      this.arguments = arguments;
+      this.metric = metric;
+      this.maxInFlight = maxInFlight;
+   }
+
+   @Override
+   public boolean invoke(Session session) {
+      RedisResource resource = session.getResource(key);
+      if (!resource.hasFreeSlot()) {
+         // blocked until one of the commands completes
+         return false;
+      }
+      RedisConnectionPool pool = RedisConnectionPools.get(session).pool(url);
+      RedisConnection connection = pool.acquire();
+      if (connection == null) {
+         resource.await(session, pool);
+         return false;
+      }
+      ByteBuf buf = connection.allocate();
+      RespEncoder.writeArrayHeader(buf, arguments.length);
+      int[] lengthDigits = resource.lengthDigits();
+      for (int i = 0; i < arguments.length; ++i) {
+         arguments[i].write(session, buf, lengthDigits, i);
+      }
+      Statistics statistics = session.statistics(id(), metric);
+      long startTimestampMillis = System.currentTimeMillis();
+      RedisResource.Request request = resource.acquire(session, statistics, startTimestampMillis, System.nanoTime());
+      statistics.incrementRequests(startTimestampMillis);
+      connection.send(buf, request);
+      return true;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      session.declareResource(key, () -> new RedisResource(maxInFlight, arguments.length));
+      for (Argument argument : arguments) {
+         argument.reserve(session);
+      }
+   }
+
+   interface Argument extends Serializable {
+      void write(Session session, ByteBuf buf, int[] lengthDigits, int index);
+
+      default void reserve(Session session) {
+      }
+   }
+
+   static class ConstantArgument implements Argument {
+      private final byte[] encoded;
+
+      ConstantArgument(String value) {
+         this.encoded = RespEncoder.encodeBulkString(value);
+      }
+
+      @Override
+      public void write(Session session, ByteBuf buf, int[] lengthDigits, int index) {
+         buf.writeBytes(encoded);
+      }
+   }
+
+   static class PatternArgument implements Argument {
+      private final Pattern pattern;
+
+      PatternArgument(Pattern pattern) {
+         this.pattern = pattern;
+      }
+
+      @Override
+      public void write(Session session, ByteBuf buf, int[] lengthDigits, int index) {
+         int start = RespEncoder.startBulkString(buf, lengthDigits[index]);
+         pattern.accept(session, buf);
+         lengthDigits[index] = RespEncoder.endBulkString(buf, start, lengthDigits[index]);
+      }
+
+      @Override
+      public void reserve(Session session) {
+         pattern.reserve(session);
+      }
+   }
+}
@@ -0,0 +1,20 @@
+package io.hyperfoil.redis.steps;
+
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.redis.resource.RedisResource;
+
+public class RedisResponseStep implements Step {
+   private final RedisResource.Key key;
+
+   public RedisResponseStep(RedisResource.Key key) {
+      this.key = key;
+   }
+
+   @Override
+   public boolean invoke(Session session) {
+      // With window of single command this waits for the reply; with larger windows the sequence
+      // continues as soon as another command can be issued.
+      return session.getResource(key).hasFreeSlot();
+   }
+}
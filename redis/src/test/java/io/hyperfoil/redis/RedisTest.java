@@ -0,0 +1,203 @@
+package io.hyperfoil.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.core.session.BaseScenarioTest;
+import io.hyperfoil.core.test.TestUtil;
+import io.hyperfoil.redis.config.RedisEndpoint;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetServerOptions;
+import io.vertx.core.net.NetSocket;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class RedisTest extends BaseScenarioTest {
+   private static final int MAX_IN_FLIGHT = 4;
+
+   private final Map<String, String> data = new ConcurrentHashMap<>();
+   private final AtomicInteger maxPipelined = new AtomicInteger();
+   private NetServer server;
+   private NetServer tlsServer;
+
+   @Before
+   public void before(TestContext ctx) {
+      super.before(ctx);
+      server = vertx.createNetServer().connectHandler(socket -> new RespStub(socket));
+      server.listen(0, "localhost", ctx.asyncAssertSuccess());
+      NetServerOptions tlsOptions = new NetServerOptions().setSsl(true)
+            .setKeyStoreOptions(new JksOptions().setPath("keystore.jks").setPassword("test123"));
+      tlsServer = vertx.createNetServer(tlsOptions).connectHandler(socket -> new RespStub(socket));
+      tlsServer.listen(0, "localhost", ctx.asyncAssertSuccess());
+   }
+
+   @Test
+   public void test() {
+      Benchmark benchmark = loadScenario("scenarios/RedisTest.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      StatisticsSnapshot set = stats.get("SET");
+      assertThat(set.requestCount).isGreaterThan(0);
+      assertThat(set.responseCount).isEqualTo(set.requestCount);
+      assertThat(set.invalid).isZero();
+      assertThat(set.connectionErrors).isZero();
+      StatisticsSnapshot get = stats.get("GET");
+      assertThat(get.responseCount).isEqualTo(get.requestCount).isEqualTo(set.requestCount / 2);
+      assertThat(get.invalid).isZero();
+      StatisticsSnapshot incr = stats.get("counter");
+      assertThat(incr.responseCount).isEqualTo(incr.requestCount).isEqualTo(3 * get.requestCount);
+      assertThat(data.get("counter")).isEqualTo(String.valueOf(incr.requestCount));
+      StatisticsSnapshot unknown = stats.get("unknown");
+      assertThat(unknown.responseCount).isEqualTo(get.requestCount);
+      assertThat(unknown.invalid).isEqualTo(unknown.responseCount);
+
+      assertThat(data).isNotEmpty();
+      data.forEach((key, value) -> {
+         if (key.startsWith("short-")) {
+            assertThat(value).isEqualTo(key.substring(6));
+         } else if (key.startsWith("long-")) {
+            assertThat(value).isEqualTo(key.substring(5) + "-" + "x".repeat(120));
+         }
+      });
+      assertThat(maxPipelined.get()).isGreaterThan(1).isLessThanOrEqualTo(MAX_IN_FLIGHT);
+   }
+
+   @Test
+   public void testTls() {
+      Benchmark benchmark = loadScenario("scenarios/RedisTest_tls.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      StatisticsSnapshot set = stats.get("SET");
+      assertThat(set.requestCount).isGreaterThan(0);
+      assertThat(set.responseCount).isEqualTo(set.requestCount);
+      assertThat(set.connectionErrors).isZero();
+      StatisticsSnapshot get = stats.get("GET");
+      assertThat(get.responseCount).isEqualTo(get.requestCount).isEqualTo(set.requestCount);
+      assertThat(get.invalid).isZero();
+      assertThat(data).containsEntry("auth", "secret").allSatisfy((key, value) -> {
+         if (key.startsWith("tls-")) {
+            assertThat(value).isEqualTo(key.substring(4));
+         }
+      });
+   }
+
+   @Test
+   public void testInvalidScheme() {
+      assertThatThrownBy(() -> new RedisEndpoint("redi://localhost", null, 0, 1, 1))
+            .isInstanceOf(BenchmarkDefinitionException.class).hasMessageContaining("rediss://");
+      assertThat(new RedisEndpoint("rediss://localhost", null, 0, 1, 1).secure()).isTrue();
+      assertThat(new RedisEndpoint("redis://localhost", null, 0, 1, 1).secure()).isFalse();
+   }
+
+   @Override
+   protected Benchmark loadBenchmark(InputStream config) throws IOException, ParserException {
+      return BenchmarkParser.instance().buildBenchmark(
+            config, TestUtil.benchmarkData(), Map.of("PORT", String.valueOf(server.actualPort()), "TLS_PORT", String.valueOf(tlsServer.actualPort())));
+   }
+
+   /**
+    * Minimal server understanding commands sent as arrays of bulk strings. Replies are held back for a moment
+    * to let the client pipeline more commands.
+    */
+   private class RespStub {
+      private final NetSocket socket;
+      private final List<Buffer> replies = new ArrayList<>();
+      private Buffer input = Buffer.buffer();
+
+      RespStub(NetSocket socket) {
+         this.socket = socket;
+         socket.handler(this::handle);
+      }
+
+      private void handle(Buffer buffer) {
+         input.appendBuffer(buffer);
+         int[] pos = { 0 };
+         List<String> command;
+         while ((command = parse(pos)) != null) {
+            input = input.getBuffer(pos[0], input.length());
+            pos[0] = 0;
+            if (replies.isEmpty()) {
+               vertx.setTimer(2, id -> {
+                  replies.forEach(socket::write);
+                  replies.clear();
+               });
+            }
+            replies.add(execute(command));
+            maxPipelined.accumulateAndGet(replies.size(), Math::max);
+         }
+      }
+
+      private List<String> parse(int[] pos) {
+         String header = readLine(pos);
+         if (header == null) {
+            return null;
+         }
+         assertThat(header).startsWith("*");
+         List<String> command = new ArrayList<>();
+         for (int n = Integer.parseInt(header.substring(1)); n > 0; --n) {
+            String length = readLine(pos);
+            if (length == null) {
+               return null;
+            }
+            assertThat(length).startsWith("$").doesNotStartWith("$0");
+            int end = pos[0] + Integer.parseInt(length.substring(1));
+            if (end + 2 > input.length()) {
+               return null;
+            }
+            command.add(input.getString(pos[0], end, StandardCharsets.UTF_8.name()));
+            assertThat(input.getString(end, end + 2)).isEqualTo("\r\n");
+            pos[0] = end + 2;
+         }
+         return command;
+      }
+
+      private String readLine(int[] pos) {
+         for (int i = pos[0]; i + 1 < input.length(); ++i) {
+            if (input.getByte(i) == '\r' && input.getByte(i + 1) == '\n') {
+               String line = input.getString(pos[0], i);
+               pos[0] = i + 2;
+               return line;
+            }
+         }
+         return null;
+      }
+
+      private Buffer execute(List<String> command) {
+         switch (command.get(0)) {
+            case "AUTH":
+               data.put("auth", command.get(1));
+               return Buffer.buffer("+OK\r\n");
+            case "SET":
+               data.put(command.get(1), command.get(2));
+               return Buffer.buffer("+OK\r\n");
+            case "GET":
+               String value = data.get(command.get(1));
+               return Buffer.buffer(value == null ? "$-1\r\n" : "$" + value.length() + "\r\n" + value + "\r\n");
+            case "INCR":
+               String counter = data.merge(command.get(1), "1", (v1, v2) -> String.valueOf(Long.parseLong(v1) + 1));
+               return Buffer.buffer(":" + counter + "\r\n");
+            default:
+               return Buffer.buffer("-ERR unknown command '" + command.get(0) + "'\r\n");
+         }
+      }
+   }
+}
@@ -0,0 +1,84 @@
+package io.hyperfoil.benchmark.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.client.RestClient;
+import io.hyperfoil.controller.Client;
+import io.hyperfoil.controller.model.Agent;
+import io.hyperfoil.controller.model.Run;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpPluginBuilder;
+import io.hyperfoil.http.steps.HttpStepCatalog;
+import io.hyperfoil.internal.Properties;
+import io.hyperfoil.test.Benchmark;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+@Category(Benchmark.class)
+public class WarmAgentsTest extends BaseClusteredTest {
+   @Before
+   public void before(TestContext ctx) {
+      super.before(ctx);
+      System.setProperty(Properties.CONTROLLER_WARM_AGENTS, "1");
+      startController(ctx);
+   }
+
+   @After
+   public void clearProperties() {
+      System.clearProperty(Properties.CONTROLLER_WARM_AGENTS);
+   }
+
+   @Test
+   public void testReuseAgent() throws InterruptedException {
+      RestClient client = new RestClient(vertx, "localhost", controllerPort, false, false, null);
+      Agent first = runAndGetAgent(client, "first");
+      Agent second = runAndGetAgent(client, "second");
+      assertThat(second.name).isEqualTo(first.name);
+      // the address is the ID of the agent's verticle deployment: new deployment would have a different one
+      assertThat(second.address).isEqualTo(first.address);
+   }
+
+   private Agent runAndGetAgent(RestClient client, String name) throws InterruptedException {
+      //@formatter:off
+      BenchmarkBuilder benchmark = BenchmarkBuilder.builder()
+            .name(name)
+            .addAgent("agent", "localhost", null)
+            .threads(1)
+            .addPlugin(HttpPluginBuilder::new)
+               .http()
+                  .host("localhost").port(httpServer.actualPort())
+                  .sharedConnections(1)
+               .endHttp()
+            .endPlugin()
+            .addPhase("test").always(1)
+            .duration(500)
+            .scenario()
+               .initialSequence("test")
+                  .step(HttpStepCatalog.SC).httpRequest(HttpMethod.GET).path("/").endStep()
+               .endSequence()
+            .endScenario()
+            .endPhase();
+      //@formatter:on
+
+      Client.BenchmarkRef ref = client.register(benchmark.build(), null);
+      Client.RunRef run = ref.start(null, Collections.emptyMap());
+      Run info;
+      do {
+         Thread.sleep(100);
+         info = run.get();
+      } while (!info.completed);
+      assertThat(info.errors).isEmpty();
+      assertThat(info.agents).hasSize(1);
+      return info.agents.get(0);
+   }
+}
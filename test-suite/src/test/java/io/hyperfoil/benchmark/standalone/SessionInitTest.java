@@ -0,0 +1,65 @@
+package io.hyperfoil.benchmark.standalone;
+
+import static io.hyperfoil.http.steps.HttpStepCatalog.SC;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.benchmark.BaseBenchmarkTest;
+import io.hyperfoil.core.impl.LocalSimulationRunner;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpPluginBuilder;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Measures how long it takes to construct and reserve sessions for a large closed-model phase.
+ */
+@RunWith(VertxUnitRunner.class)
+@Category(io.hyperfoil.test.Benchmark.class)
+public class SessionInitTest extends BaseBenchmarkTest {
+   private static final Logger log = LogManager.getLogger(SessionInitTest.class);
+   private static final int USERS = 200_000;
+
+   @Test
+   public void testInitTime(TestContext ctx) {
+      // @formatter:off
+      BenchmarkBuilder benchmark = BenchmarkBuilder.builder()
+            .name("session-init")
+            .threads(4)
+            .addPlugin(HttpPluginBuilder::new)
+               .http()
+                  .host("localhost").port(httpServer.actualPort())
+               .endHttp()
+            .endPlugin()
+            .addPhase("always").always(USERS)
+               .duration(1000)
+               .scenario()
+                  .initialSequence("test")
+                     .step(SC).httpRequest(HttpMethod.GET).path("/").endStep()
+                  .endSequence()
+               .endScenario()
+            .endPhase();
+      // @formatter:on
+
+      LocalSimulationRunner runner = new LocalSimulationRunner(benchmark.build());
+      runner.setInitProgressListener((phase, created, total) -> log.info("{}: {}/{}", phase, created, total));
+      long startTime = System.nanoTime();
+      runner.init();
+      long initTime = System.nanoTime() - startTime;
+      try {
+         AtomicInteger sessions = new AtomicInteger();
+         runner.visitSessions(session -> sessions.incrementAndGet());
+         ctx.assertEquals(USERS, sessions.get());
+         log.info("Created {} sessions in {} ms", USERS, initTime / 1_000_000);
+      } finally {
+         runner.shutdown();
+      }
+   }
+}
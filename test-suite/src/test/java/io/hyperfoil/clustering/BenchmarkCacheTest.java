@@ -0,0 +1,174 @@
+package io.hyperfoil.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.BenchmarkSource;
+import io.hyperfoil.api.config.Model;
+import io.hyperfoil.benchmark.BaseBenchmarkTest;
+import io.hyperfoil.core.impl.LocalSimulationRunner;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.impl.Util;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class BenchmarkCacheTest extends BaseBenchmarkTest {
+   private static final String YAML = "name: cached\n" +
+         "http:\n" +
+         "  host: !concat [ \"http://localhost:\", !param PORT 8080 ]\n" +
+         "phases:\n" +
+         "- test:\n" +
+         "    atOnce:\n" +
+         "      users: 10\n" +
+         "      scenario:\n" +
+         "      - test:\n" +
+         "        - httpRequest:\n" +
+         "            GET: /foo\n";
+
+   private final AtomicInteger requests = new AtomicInteger();
+   private Path dir;
+
+   @Before
+   @Override
+   public void before(TestContext ctx) {
+      super.before(ctx);
+      try {
+         dir = Files.createTempDirectory("benchmark-cache");
+      } catch (IOException e) {
+         throw new AssertionError(e);
+      }
+   }
+
+   @After
+   public void deleteDir() throws IOException {
+      try (Stream<Path> files = Files.walk(dir)) {
+         files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+   }
+
+   @Override
+   protected Handler<HttpServerRequest> getRequestHandler() {
+      return req -> {
+         requests.incrementAndGet();
+         req.response().end();
+      };
+   }
+
+   @Test
+   public void testHit() throws ParserException, IOException {
+      BenchmarkCache cache = new BenchmarkCache(dir, 4);
+      BenchmarkSource source = source(YAML);
+      Map<String, String> params = Map.of("PORT", "1234");
+      Benchmark benchmark = cache.build(source, params);
+      assertThat(cache.build(source(YAML), Map.of("PORT", "1234"))).isSameAs(benchmark);
+      // different parameters miss
+      Benchmark other = cache.build(source, Map.of("PORT", "1235"));
+      assertThat(other).isNotSameAs(benchmark);
+      assertThat(files()).hasSize(2);
+
+      // after restart the benchmark is loaded from disk
+      for (File file : files()) {
+         assertThat(file.setLastModified(0)).isTrue();
+      }
+      Benchmark loaded = new BenchmarkCache(dir, 4).build(source, params);
+      assertThat(loaded).isNotSameAs(benchmark);
+      assertThat(Util.serialize(loaded)).isEqualTo(Util.serialize(benchmark));
+      assertThat(files()).anyMatch(file -> file.lastModified() > 0);
+   }
+
+   @Test
+   public void testInvalidateOnReupload() throws ParserException {
+      BenchmarkCache cache = new BenchmarkCache(dir, 4);
+      Map<String, String> params = Map.of("PORT", "1234");
+      Benchmark benchmark = cache.build(source(YAML), params);
+      assertThat(benchmark.phases()).hasSize(1);
+
+      // the same name but modified content
+      Benchmark reuploaded = cache.build(source(YAML.replace("10", "20")), params);
+      assertThat(reuploaded).isNotSameAs(benchmark);
+      assertThat(reuploaded.name()).isEqualTo(benchmark.name());
+      assertThat(users(reuploaded)).isEqualTo(20);
+      assertThat(users(benchmark)).isEqualTo(10);
+
+      // different file data invalidate the entry, too
+      BenchmarkSource withFile = source(YAML, new BenchmarkData() {
+         @Override
+         public InputStream readFile(String file) {
+            throw new MissingFileException(file);
+         }
+
+         @Override
+         public Map<String, byte[]> files() {
+            return Map.of("foo.txt", new byte[]{ 1 });
+         }
+      });
+      assertThat(cache.build(withFile, params)).isNotSameAs(benchmark);
+   }
+
+   @Test
+   public void testEvict() throws ParserException {
+      BenchmarkCache cache = new BenchmarkCache(dir, 2);
+      Benchmark first = cache.build(source(YAML), Map.of("PORT", "1"));
+      cache.build(source(YAML), Map.of("PORT", "2"));
+      cache.build(source(YAML), Map.of("PORT", "3"));
+      assertThat(files()).hasSize(2);
+      assertThat(cache.build(source(YAML), Map.of("PORT", "1"))).isNotSameAs(first);
+   }
+
+   @Test(timeout = 60_000)
+   public void testConcurrentRuns() throws Exception {
+      BenchmarkCache cache = new BenchmarkCache(dir, 4);
+      Map<String, String> params = Map.of("PORT", String.valueOf(httpServer.actualPort()));
+      Benchmark benchmark = cache.build(source(YAML), params);
+      byte[] serialized = Util.serialize(benchmark);
+
+      Benchmark cached = cache.build(source(YAML), params);
+      assertThat(cached).isSameAs(benchmark);
+      CompletableFuture<Void> run1 = CompletableFuture.runAsync(() -> new LocalSimulationRunner(benchmark).run());
+      CompletableFuture<Void> run2 = CompletableFuture.runAsync(() -> new LocalSimulationRunner(cached).run());
+      CompletableFuture.allOf(run1, run2).get(50, TimeUnit.SECONDS);
+
+      assertThat(requests.get()).isEqualTo(2 * 10);
+      // running the benchmark must not modify the shared instance
+      assertThat(Util.serialize(benchmark)).isEqualTo(serialized);
+      assertThat(cache.build(source(YAML), params)).isSameAs(benchmark);
+   }
+
+   private File[] files() {
+      return dir.toFile().listFiles((d, name) -> name.endsWith(".serialized"));
+   }
+
+   private static int users(Benchmark benchmark) {
+      return ((Model.AtOnce) benchmark.phases().iterator().next().model).users;
+   }
+
+   private static BenchmarkSource source(String yaml) throws ParserException {
+      return source(yaml, BenchmarkData.EMPTY);
+   }
+
+   private static BenchmarkSource source(String yaml, BenchmarkData data) throws ParserException {
+      return BenchmarkParser.instance().createSource(yaml, data);
+   }
+}
@@ -0,0 +1,96 @@
+package io.hyperfoil.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.benchmark.BaseBenchmarkTest;
+import io.hyperfoil.client.RestClient;
+import io.hyperfoil.controller.Client;
+import io.hyperfoil.core.session.SessionFootprint;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpPluginBuilder;
+import io.hyperfoil.http.steps.HttpStepCatalog;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class SessionFootprintTest extends BaseBenchmarkTest {
+   private int controllerPort;
+
+   @Before
+   public void before(TestContext ctx) {
+      super.before(ctx);
+      Codecs.register(vertx);
+      JsonObject config = new JsonObject()
+            .put(Properties.CONTROLLER_HOST, "localhost")
+            .put(Properties.CONTROLLER_PORT, 0);
+      ControllerVerticle controller = new ControllerVerticle();
+      Async async = ctx.async();
+      vertx.deployVerticle(controller, new DeploymentOptions().setConfig(config)).onSuccess(id -> {
+         controllerPort = controller.actualPort();
+         async.countDown();
+      }).onFailure(ctx::fail);
+   }
+
+   @Test(timeout = 60_000)
+   public void testFootprintEndpoint() throws Exception {
+      RestClient client = new RestClient(vertx, "localhost", controllerPort, false, false, null);
+      //@formatter:off
+      BenchmarkBuilder benchmark = BenchmarkBuilder.builder()
+            .name("footprint")
+            .threads(1)
+            .addPlugin(HttpPluginBuilder::new)
+               .http()
+                  .host("localhost").port(httpServer.actualPort())
+                  .sharedConnections(1)
+               .endHttp()
+            .endPlugin()
+            .addPhase("test").atOnce(5)
+               .scenario()
+                  .initialSequence("test")
+                     .step(HttpStepCatalog.SC).httpRequest(HttpMethod.GET).path("/").endStep()
+                  .endSequence()
+               .endScenario()
+            .endPhase();
+      //@formatter:on
+      Client.RunRef run = client.register(benchmark.build(), null).start(null, Collections.emptyMap());
+      while (!run.get().completed) {
+         Thread.sleep(100);
+      }
+
+      HttpResponse<String> response = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + controllerPort + "/run/" + run.id() + "/sessions/footprint")).build(),
+            HttpResponse.BodyHandlers.ofString());
+      assertThat(response.statusCode()).isEqualTo(200);
+      JsonObject footprint = new JsonObject(response.body());
+      assertThat(footprint.fieldNames()).containsExactly("test");
+      JsonObject byAgent = footprint.getJsonObject("test");
+      assertThat(byAgent.size()).isEqualTo(1);
+      JsonObject agent = byAgent.getJsonObject(byAgent.fieldNames().iterator().next());
+      JsonObject items = agent.getJsonObject("items");
+      assertThat(items.getLong(SessionFootprint.SESSION)).isPositive();
+      // the HTTP plugin declares its resources in each session
+      assertThat(items.fieldNames()).anyMatch(item -> item.startsWith("resource "));
+      long sum = items.stream().mapToLong(e -> ((Number) e.getValue()).longValue()).sum();
+      assertThat(agent.getLong("total")).isEqualTo(sum);
+
+      HttpResponse<String> unknown = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + controllerPort + "/run/XXXX/sessions/footprint")).build(),
+            HttpResponse.BodyHandlers.ofString());
+      assertThat(unknown.statusCode()).isEqualTo(404);
+   }
+}
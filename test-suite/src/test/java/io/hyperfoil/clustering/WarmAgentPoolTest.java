@@ -0,0 +1,81 @@
+package io.hyperfoil.clustering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Agent;
+
+public class WarmAgentPoolTest {
+   @Test
+   public void testReuseMatchingDefinition() {
+      WarmAgentPool pool = new WarmAgentPool(2);
+      AgentInfo first = agent("a", "host-a", null, "node1", "deployment1");
+      assertThat(pool.offer(first)).isTrue();
+      assertThat(pool.idle()).isEqualTo(1);
+
+      // different inline config, properties or name don't match
+      assertThat(pool.take(new Agent("a", "host-b", null))).isNull();
+      assertThat(pool.take(new Agent("a", "host-a", Map.of("threads", "2")))).isNull();
+      assertThat(pool.take(new Agent("b", "host-a", null))).isNull();
+
+      AgentInfo reused = pool.take(new Agent("a", "host-a", null));
+      assertThat(reused).isNotNull();
+      assertThat(reused.deploymentId).isEqualTo("deployment1");
+      assertThat(reused.nodeId).isEqualTo("node1");
+      assertThat(reused.status).isEqualTo(AgentInfo.Status.REGISTERED);
+      assertThat(pool.idle()).isZero();
+      assertThat(pool.take(new Agent("a", "host-a", null))).isNull();
+   }
+
+   @Test
+   public void testFullPool() {
+      WarmAgentPool pool = new WarmAgentPool(1);
+      assertThat(pool.offer(agent("a", null, null, "node1", "deployment1"))).isTrue();
+      assertThat(pool.offer(agent("a", null, null, "node2", "deployment2"))).isFalse();
+      assertThat(pool.take(new Agent("a", null, null)).deploymentId).isEqualTo("deployment1");
+   }
+
+   @Test
+   public void testPrestartedAgent() {
+      WarmAgentPool pool = new WarmAgentPool(1);
+      AgentInfo starting = agent("a", null, null, null, null);
+      pool.addStarting(starting);
+      assertThat(pool.findStarting("b")).isNull();
+      assertThat(pool.findStarting("a")).isSameAs(starting);
+      // not registered yet
+      assertThat(pool.take(new Agent("a", null, null))).isNull();
+
+      starting.nodeId = "node1";
+      starting.deploymentId = "deployment1";
+      assertThat(pool.offer(starting)).isTrue();
+      assertThat(pool.findStarting("a")).isNull();
+      assertThat(pool.take(new Agent("a", null, null)).deploymentId).isEqualTo("deployment1");
+   }
+
+   @Test
+   public void testNodeLeftAndDrain() {
+      WarmAgentPool pool = new WarmAgentPool(3);
+      pool.offer(agent("a", null, null, "node1", "deployment1"));
+      pool.offer(agent("b", null, null, "node2", "deployment2"));
+      pool.addStarting(agent("c", null, null, null, null));
+      pool.nodeLeft("node1");
+      assertThat(pool.idle()).isEqualTo(1);
+      assertThat(pool.take(new Agent("a", null, null))).isNull();
+
+      assertThat(pool.drain()).extracting(a -> a.name).containsExactlyInAnyOrder("b", "c");
+      assertThat(pool.idle()).isZero();
+      assertThat(pool.findStarting("c")).isNull();
+   }
+
+   private static AgentInfo agent(String name, String inlineConfig, Map<String, String> properties, String nodeId, String deploymentId) {
+      AgentInfo agent = new AgentInfo(name, 0);
+      agent.definition = new Agent(name, inlineConfig, properties);
+      agent.nodeId = nodeId;
+      agent.deploymentId = deploymentId;
+      agent.status = AgentInfo.Status.STOPPED;
+      return agent;
+   }
+}
@@ -0,0 +1,101 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.benchmark.BaseBenchmarkTest;
+import io.hyperfoil.client.RestClient;
+import io.hyperfoil.clustering.Codecs;
+import io.hyperfoil.clustering.ControllerVerticle;
+import io.hyperfoil.controller.OpenMetricsParser.Sample;
+import io.hyperfoil.http.api.HttpMethod;
+import io.hyperfoil.http.config.HttpPluginBuilder;
+import io.hyperfoil.http.steps.HttpStepCatalog;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class MetricsEndpointTest extends BaseBenchmarkTest {
+   private int controllerPort;
+
+   @Before
+   public void before(TestContext ctx) {
+      super.before(ctx);
+      Codecs.register(vertx);
+      JsonObject config = new JsonObject()
+            .put(Properties.CONTROLLER_HOST, "localhost")
+            .put(Properties.CONTROLLER_PORT, 0);
+      ControllerVerticle controller = new ControllerVerticle();
+      Async async = ctx.async();
+      vertx.deployVerticle(controller, new DeploymentOptions().setConfig(config)).onSuccess(id -> {
+         controllerPort = controller.actualPort();
+         async.countDown();
+      }).onFailure(ctx::fail);
+   }
+
+   @Test(timeout = 60_000)
+   public void testScrapeDuringRun() throws Exception {
+      RestClient client = new RestClient(vertx, "localhost", controllerPort, false, false, null);
+      //@formatter:off
+      BenchmarkBuilder benchmark = BenchmarkBuilder.builder()
+            .name("metrics")
+            .threads(1)
+            .addPlugin(HttpPluginBuilder::new)
+               .http()
+                  .host("localhost").port(httpServer.actualPort())
+                  .sharedConnections(1)
+               .endHttp()
+            .endPlugin()
+            .addPhase("test").constantRate(20)
+               .duration(5000)
+               .maxSessions(20)
+               .scenario()
+                  .initialSequence("test")
+                     .step(HttpStepCatalog.SC).httpRequest(HttpMethod.GET).path("/").metric("root").endStep()
+                  .endSequence()
+               .endScenario()
+            .endPhase();
+      //@formatter:on
+      Client.RunRef run = client.register(benchmark.build(), null).start(null, Collections.emptyMap());
+
+      HttpClient http = HttpClient.newHttpClient();
+      OpenMetricsParser parser;
+      List<Sample> requests;
+      do {
+         Thread.sleep(200);
+         assertThat(run.get().completed).as("Run completed before statistics were scraped").isFalse();
+         HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + controllerPort + "/metrics"))
+               .header("Accept", "application/openmetrics-text").build(), HttpResponse.BodyHandlers.ofString());
+         assertThat(response.statusCode()).isEqualTo(200);
+         assertThat(response.headers().firstValue("content-type")).hasValue(OpenMetricsWriter.OPENMETRICS_CONTENT_TYPE);
+         parser = OpenMetricsParser.parse(response.body(), true);
+         requests = parser.samples("hyperfoil_requests_total");
+      } while (requests.isEmpty());
+
+      assertThat(requests).hasSize(1);
+      assertThat(requests.get(0).labels).containsEntry("run", run.id())
+            .containsEntry("benchmark", "metrics").containsEntry("phase", "test").containsEntry("metric", "root");
+      assertThat(requests.get(0).value).isPositive();
+
+      HttpResponse<String> prometheus = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + controllerPort + "/metrics"))
+            .header("Accept", "text/plain").build(), HttpResponse.BodyHandlers.ofString());
+      assertThat(prometheus.headers().firstValue("content-type")).hasValue(OpenMetricsWriter.PROMETHEUS_CONTENT_TYPE);
+      assertThat(OpenMetricsParser.parse(prometheus.body(), false).samples("hyperfoil_requests_total")).isNotEmpty();
+      run.kill();
+   }
+}
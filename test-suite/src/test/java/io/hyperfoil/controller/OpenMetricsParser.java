@@ -0,0 +1,138 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Strict parser of the text exposition format used in tests: fails on anything the writer should not produce.
+ */
+class OpenMetricsParser {
+   private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+   final Map<String, String> types = new HashMap<>();
+   final Map<String, String> units = new HashMap<>();
+   final List<Sample> samples = new ArrayList<>();
+   boolean eof;
+
+   static OpenMetricsParser parse(String text, boolean openMetrics) {
+      OpenMetricsParser parser = new OpenMetricsParser();
+      assertThat(text).endsWith("\n");
+      for (String line : text.split("\n")) {
+         assertThat(parser.eof).as("Content after # EOF").isFalse();
+         if (line.equals("# EOF")) {
+            parser.eof = true;
+         } else if (line.startsWith("# TYPE ")) {
+            String[] parts = line.split(" ");
+            assertThat(parts).hasSize(4);
+            assertThat(parts[2]).matches(NAME);
+            assertThat(parts[3]).isIn("counter", "gauge", "summary");
+            assertThat(parser.types.put(parts[2], parts[3])).as("Duplicate family %s", parts[2]).isNull();
+         } else if (line.startsWith("# UNIT ")) {
+            assertThat(openMetrics).isTrue();
+            String[] parts = line.split(" ");
+            assertThat(parser.types).containsKey(parts[2]);
+            assertThat(parts[2]).endsWith("_" + parts[3]);
+            parser.units.put(parts[2], parts[3]);
+         } else if (line.startsWith("# HELP ")) {
+            String[] parts = line.split(" ", 4);
+            assertThat(parser.types).containsKey(parts[2]);
+         } else {
+            Sample sample = parser.parseSample(line);
+            assertThat(parser.family(sample.name, openMetrics)).as("No family for %s", sample.name).isNotNull();
+            parser.samples.add(sample);
+         }
+      }
+      assertThat(parser.eof).isEqualTo(openMetrics);
+      return parser;
+   }
+
+   private Sample parseSample(String line) {
+      int brace = line.indexOf('{');
+      assertThat(brace).as(line).isPositive();
+      Sample sample = new Sample(line.substring(0, brace));
+      assertThat(sample.name).matches(NAME);
+      int i = brace + 1;
+      while (line.charAt(i) != '}') {
+         int eq = line.indexOf("=\"", i);
+         String label = line.substring(i, eq);
+         assertThat(label).matches(NAME);
+         StringBuilder value = new StringBuilder();
+         for (i = eq + 2; line.charAt(i) != '"'; ++i) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+               char next = line.charAt(++i);
+               switch (next) {
+                  case '\\':
+                  case '"':
+                     value.append(next);
+                     break;
+                  case 'n':
+                     value.append('\n');
+                     break;
+                  default:
+                     throw new AssertionError("Invalid escape in " + line);
+               }
+            } else {
+               value.append(c);
+            }
+         }
+         assertThat(sample.labels.put(label, value.toString())).as("Duplicate label in %s", line).isNull();
+         ++i;
+         if (line.charAt(i) == ',') {
+            ++i;
+         }
+      }
+      assertThat(line.charAt(i + 1)).isEqualTo(' ');
+      sample.value = Double.parseDouble(line.substring(i + 2));
+      return sample;
+   }
+
+   private String family(String sampleName, boolean openMetrics) {
+      if (types.containsKey(sampleName)) {
+         String type = types.get(sampleName);
+         // In OpenMetrics counter samples must have the _total suffix
+         return !openMetrics || !type.equals("counter") ? sampleName : null;
+      }
+      for (String suffix : new String[]{ "_total", "_sum", "_count" }) {
+         if (sampleName.endsWith(suffix)) {
+            String family = sampleName.substring(0, sampleName.length() - suffix.length());
+            String type = types.get(family);
+            if (suffix.equals("_total") ? "counter".equals(type) : "summary".equals(type)) {
+               return family;
+            }
+         }
+      }
+      return null;
+   }
+
+   List<Sample> samples(String name) {
+      List<Sample> list = new ArrayList<>();
+      for (Sample sample : samples) {
+         if (sample.name.equals(name)) {
+            list.add(sample);
+         }
+      }
+      return list;
+   }
+
+   static class Sample {
+      final String name;
+      final Map<String, String> labels = new LinkedHashMap<>();
+      double value;
+
+      Sample(String name) {
+         this.name = name;
+      }
+
+      @Override
+      public String toString() {
+         return name + labels + " " + value;
+      }
+   }
+}
@@ -0,0 +1,140 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.controller.OpenMetricsParser.Sample;
+
+public class OpenMetricsWriterTest {
+   private static final String METRIC = "my \"quoted\" \\ metric\nwith newline";
+
+   private StatisticsStore store;
+   private int phaseId;
+
+   @Before
+   public void before() {
+      //@formatter:off
+      Benchmark benchmark = BenchmarkBuilder.builder()
+            .name("test")
+            .addPhase("main").always(1)
+               .duration(1000)
+               .scenario()
+                  .initialSequence("test")
+                     .step(s -> true)
+                  .endSequence()
+               .endScenario()
+            .endPhase()
+            .build();
+      //@formatter:on
+      store = new StatisticsStore(benchmark, f -> { });
+      phaseId = benchmark.phases().iterator().next().id();
+   }
+
+   @Test
+   public void testOpenMetrics() {
+      store.record("agent", phaseId, 0, METRIC, snapshot(0, 10));
+      store.record("agent", phaseId, 0, METRIC, snapshot(1, 20));
+      store.recordSessionStats("agent", 1000, "main", 3, 5);
+      String text = write(true);
+      OpenMetricsParser parser = OpenMetricsParser.parse(text, true);
+
+      assertThat(text).endsWith("# EOF\n");
+      assertThat(parser.types).containsEntry("hyperfoil_requests", "counter")
+            .containsEntry("hyperfoil_responses", "counter")
+            .containsEntry("hyperfoil_errors", "counter")
+            .containsEntry("hyperfoil_blocked_seconds", "counter")
+            .containsEntry("hyperfoil_request_rate", "gauge")
+            .containsEntry("hyperfoil_response_time_seconds", "summary")
+            .containsEntry("hyperfoil_sessions", "gauge")
+            .containsEntry("hyperfoil_connections", "gauge");
+      assertThat(parser.units).containsEntry("hyperfoil_blocked_seconds", "seconds")
+            .containsEntry("hyperfoil_response_time_seconds", "seconds");
+
+      Sample requests = single(parser, "hyperfoil_requests_total");
+      assertThat(requests.labels).containsExactly(
+            Map.entry("run", "0001"), Map.entry("benchmark", "my\\\"benchmark\"\n"), Map.entry("phase", "main"), Map.entry("metric", METRIC));
+      assertThat(requests.value).isEqualTo(30);
+      assertThat(single(parser, "hyperfoil_responses_total").value).isEqualTo(30);
+      assertThat(parser.samples("hyperfoil_errors_total")).extracting(s -> s.labels.get("type"))
+            .containsExactly("connection", "timeout", "internal", "invalid");
+      assertThat(single(parser, "hyperfoil_response_time_seconds_count").value).isEqualTo(30);
+      // interval 0 is the most recent complete one
+      assertThat(single(parser, "hyperfoil_request_rate").value).isEqualTo(10);
+      assertThat(parser.samples("hyperfoil_response_time_seconds")).isNotEmpty()
+            .allSatisfy(s -> assertThat(s.labels).containsKey("quantile"));
+      assertThat(parser.samples("hyperfoil_sessions")).extracting(s -> s.labels.get("bound") + "=" + (long) s.value)
+            .containsExactly("min=3", "max=5");
+   }
+
+   @Test
+   public void testPrometheus() {
+      store.record("agent", phaseId, 0, "foo", snapshot(0, 10));
+      String text = write(false);
+      OpenMetricsParser parser = OpenMetricsParser.parse(text, false);
+
+      assertThat(text).doesNotContain("# EOF").doesNotContain("# UNIT");
+      assertThat(parser.types).containsEntry("hyperfoil_requests_total", "counter")
+            .containsEntry("hyperfoil_blocked_seconds_total", "counter")
+            .doesNotContainKey("hyperfoil_requests")
+            .containsEntry("hyperfoil_response_time_seconds", "summary");
+      assertThat(single(parser, "hyperfoil_requests_total").value).isEqualTo(10);
+   }
+
+   @Test
+   public void testContentTypes() {
+      assertThat(OpenMetricsWriter.OPENMETRICS_CONTENT_TYPE).startsWith("application/openmetrics-text; version=1.0.0");
+      assertThat(OpenMetricsWriter.PROMETHEUS_CONTENT_TYPE).startsWith("text/plain; version=0.0.4");
+   }
+
+   @Test
+   public void testCompleteIntervalsOnly() {
+      store.record("a", phaseId, 0, "foo", snapshot(0, 10));
+      store.record("b", phaseId, 0, "foo", snapshot(0, 20));
+      store.record("a", phaseId, 0, "foo", snapshot(1, 100));
+      // agent b might still send statistics for interval 0
+      assertThat(OpenMetricsParser.parse(write(true), true).samples("hyperfoil_request_rate")).isEmpty();
+
+      store.record("b", phaseId, 0, "foo", snapshot(1, 200));
+      OpenMetricsParser parser = OpenMetricsParser.parse(write(true), true);
+      assertThat(single(parser, "hyperfoil_request_rate").value).isEqualTo(30);
+      assertThat(single(parser, "hyperfoil_requests_total").value).isEqualTo(330);
+
+      // late agent does not move the interval back
+      store.record("c", phaseId, 0, "foo", snapshot(0, 1));
+      parser = OpenMetricsParser.parse(write(true), true);
+      assertThat(single(parser, "hyperfoil_request_rate").value).isEqualTo(30);
+   }
+
+   private String write(boolean openMetrics) {
+      OpenMetricsWriter writer = new OpenMetricsWriter(openMetrics);
+      writer.addRun("0001", "my\\\"benchmark\"\n", store);
+      return writer.write();
+   }
+
+   private static Sample single(OpenMetricsParser parser, String name) {
+      List<Sample> samples = parser.samples(name);
+      assertThat(samples).hasSize(1);
+      return samples.get(0);
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId, int requests) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      for (int i = 0; i < requests; ++i) {
+         snapshot.histogram.recordValue(1_000_000L * (i + 1));
+      }
+      snapshot.histogram.setStartTimeStamp(sequenceId * 1000L);
+      snapshot.histogram.setEndTimeStamp((sequenceId + 1) * 1000L);
+      snapshot.requestCount = requests;
+      snapshot.responseCount = requests;
+      return snapshot;
+   }
+}
@@ -0,0 +1,103 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.controller.model.MetricComparison;
+import io.hyperfoil.controller.model.RunComparison;
+
+public class RunComparatorTest {
+   private static final long SECOND_NANOS = 1_000_000_000L;
+
+   @Test
+   public void testSameDistribution() {
+      Random random = new Random(42);
+      List<RunComparator.RunData> baseline = new ArrayList<>();
+      for (int i = 0; i < 5; ++i) {
+         baseline.add(new RunComparator.RunData("b" + i).add("main", "foo", snapshot(random, 10_000, 1.0, 1.0)));
+      }
+      RunComparator.RunData candidate = new RunComparator.RunData("c").add("main", "foo", snapshot(random, 10_000, 1.0, 1.0));
+      RunComparison comparison = new RunComparator(0.05, 0.95, 1000, 0).compare(baseline, candidate);
+      assertThat(comparison.verdict).isEqualTo(RunComparator.PASS);
+      assertThat(comparison.comparisons).hasSize(RunComparator.PERCENTILES.length + 1);
+      MetricComparison p50 = comparison.comparisons.get(0);
+      assertThat(p50.statistic).isEqualTo("p50");
+      assertThat(p50.verdict).isEqualTo(RunComparator.NO_CHANGE);
+      assertThat(p50.changeLow).isLessThanOrEqualTo(p50.change);
+      assertThat(p50.changeHigh).isGreaterThanOrEqualTo(p50.change);
+   }
+
+   @Test
+   public void testRegression() {
+      Random random = new Random(42);
+      List<RunComparator.RunData> baseline = new ArrayList<>();
+      for (int i = 0; i < 3; ++i) {
+         baseline.add(new RunComparator.RunData("b" + i).add("main", "foo", snapshot(random, 10_000, 1.0, 1.0)));
+      }
+      RunComparator.RunData candidate = new RunComparator.RunData("c").add("main", "foo", snapshot(random, 10_000, 1.3, 0.7));
+      RunComparison comparison = new RunComparator(0.05, 0.95, 1000, 0).compare(baseline, candidate);
+      assertThat(comparison.verdict).isEqualTo(RunComparator.FAIL);
+      assertThat(comparison.comparisons).filteredOn(c -> "p50".equals(c.statistic) || RunComparator.THROUGHPUT.equals(c.statistic))
+            .allMatch(c -> RunComparator.REGRESSION.equals(c.verdict));
+   }
+
+   @Test
+   public void testMissingMetric() {
+      Random random = new Random(42);
+      List<RunComparator.RunData> baseline = List.of(new RunComparator.RunData("b")
+            .add("main", "foo", snapshot(random, 1000, 1.0, 1.0))
+            .add("main", "bar", snapshot(random, 1000, 1.0, 1.0)));
+      RunComparator.RunData candidate = new RunComparator.RunData("c").add("main", "foo", snapshot(random, 1000, 1.0, 1.0));
+      RunComparison comparison = new RunComparator(0.05, 0.95, 100, 0).compare(baseline, candidate);
+      assertThat(comparison.comparisons).filteredOn(c -> "bar".equals(c.metric))
+            .extracting(c -> c.verdict).containsExactly(RunComparator.MISSING);
+   }
+
+   @Test
+   public void testManyRuns() {
+      Random random = new Random(42);
+      int metrics = 200;
+      StatisticsSnapshot[] snapshots = new StatisticsSnapshot[metrics];
+      for (int i = 0; i < metrics; ++i) {
+         snapshots[i] = snapshot(random, 100_000, 1.0, 1.0);
+      }
+      List<RunComparator.RunData> baseline = new ArrayList<>();
+      for (int run = 0; run < 50; ++run) {
+         RunComparator.RunData data = new RunComparator.RunData("b" + run);
+         for (int i = 0; i < metrics; ++i) {
+            data.add("main", "metric-" + i, snapshots[(i + run) % metrics]);
+         }
+         baseline.add(data);
+      }
+      RunComparator.RunData candidate = new RunComparator.RunData("c");
+      for (int i = 0; i < metrics; ++i) {
+         candidate.add("main", "metric-" + i, snapshots[i]);
+      }
+      long start = System.nanoTime();
+      RunComparison comparison = new RunComparator(0.05, 0.95, 1000, 0).compare(baseline, candidate);
+      long durationMillis = (System.nanoTime() - start) / 1_000_000;
+      assertThat(comparison.comparisons).hasSize(metrics * (RunComparator.PERCENTILES.length + 1));
+      // Takes about 4.8 s on a single core; metrics are compared in parallel on more cores
+      assertThat(durationMillis).isLessThan(7_500);
+   }
+
+   private static StatisticsSnapshot snapshot(Random random, int requests, double latencyFactor, double throughputFactor) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      for (int i = 0; i < requests; ++i) {
+         // log-normal distribution with median 1 ms
+         long value = (long) (latencyFactor * 1_000_000 * Math.exp(0.5 * random.nextGaussian()));
+         snapshot.histogram.recordValue(Math.min(value, 60 * SECOND_NANOS));
+      }
+      snapshot.requestCount = requests;
+      snapshot.responseCount = requests;
+      snapshot.histogram.setStartTimeStamp(0);
+      snapshot.histogram.setEndTimeStamp((long) (requests / throughputFactor));
+      return snapshot;
+   }
+}
@@ -0,0 +1,129 @@
+package io.hyperfoil.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+
+public class SpilledSeriesTest {
+   private static final int COUNT = 5 * SpilledSeries.FLUSH_THRESHOLD + 3;
+
+   private Path dir;
+   private ExecutorService executor;
+
+   @Before
+   public void before() throws IOException {
+      dir = Files.createTempDirectory("series");
+      executor = Executors.newSingleThreadExecutor();
+   }
+
+   @After
+   public void after() throws IOException, InterruptedException {
+      executor.shutdown();
+      assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+      try (Stream<Path> files = Files.list(dir)) {
+         for (Path file : files.collect(Collectors.toList())) {
+            Files.delete(file);
+         }
+      }
+      Files.delete(dir);
+   }
+
+   @Test
+   public void testReadBack() {
+      Path file = dir.resolve("0.jsonl");
+      SpilledSeries series = new SpilledSeries(file, executor);
+      for (int i = 0; i < COUNT; ++i) {
+         series.add(summary(i));
+      }
+      assertThat(series.requestCount()).isEqualTo((long) COUNT * (COUNT + 1) / 2);
+
+      // the stream must include the summaries that were not flushed yet
+      List<StatisticsSummary> list;
+      try (Stream<StatisticsSummary> stream = series.stream()) {
+         list = stream.collect(Collectors.toList());
+      }
+      assertThat(list).hasSize(COUNT);
+      for (int i = 0; i < COUNT; ++i) {
+         StatisticsSummary summary = list.get(i);
+         assertThat(summary.startTime).isEqualTo(i * 1000L);
+         assertThat(summary.endTime).isEqualTo((i + 1) * 1000L);
+         assertThat(summary.requestCount).isEqualTo(i + 1);
+         assertThat(summary.responseCount).isEqualTo(i + 1);
+         assertThat(summary.maxResponseTime).isGreaterThanOrEqualTo(i * 1_000_000L);
+      }
+      assertThat(file).exists();
+
+      // further additions are appended after the spilled ones
+      series.add(summary(COUNT));
+      try (Stream<StatisticsSummary> stream = series.stream()) {
+         assertThat(stream.mapToLong(s -> s.startTime).toArray())
+               .hasSize(COUNT + 1).isSorted().endsWith(COUNT * 1000L);
+      }
+   }
+
+   @Test
+   public void testPartialIteration() {
+      Path file = dir.resolve("1.jsonl");
+      SpilledSeries series = new SpilledSeries(file, executor);
+      for (int i = 0; i < COUNT; ++i) {
+         series.add(summary(i));
+      }
+      long openFiles = openFileDescriptors();
+      for (int round = 0; round < 20; ++round) {
+         try (Stream<StatisticsSummary> stream = series.stream()) {
+            Iterator<StatisticsSummary> it = stream.iterator();
+            for (int i = 0; i < 3; ++i) {
+               assertThat(it.next().startTime).isEqualTo(i * 1000L);
+            }
+         }
+      }
+      // partially read streams must not leak the reader
+      assertThat(openFileDescriptors()).isLessThan(openFiles + 10);
+      try (Stream<StatisticsSummary> stream = series.stream()) {
+         assertThat(stream.filter(s -> s.requestCount > COUNT / 2).findFirst())
+               .hasValueSatisfying(s -> assertThat(s.requestCount).isEqualTo(COUNT / 2 + 1));
+      }
+   }
+
+   @Test
+   public void testEmpty() {
+      SpilledSeries series = new SpilledSeries(dir.resolve("2.jsonl"), executor);
+      try (Stream<StatisticsSummary> stream = series.stream()) {
+         assertThat(stream.count()).isZero();
+      }
+      assertThat(series.requestCount()).isZero();
+   }
+
+   private static long openFileDescriptors() {
+      return ((UnixOperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getOpenFileDescriptorCount();
+   }
+
+   private static StatisticsSummary summary(int index) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.histogram.recordValue(index * 1_000_000L + 1);
+      snapshot.histogram.setStartTimeStamp(index * 1000L);
+      snapshot.histogram.setEndTimeStamp((index + 1) * 1000L);
+      snapshot.requestCount = index + 1;
+      snapshot.responseCount = index + 1;
+      return snapshot.summary(StatisticsStore.PERCENTILES);
+   }
+}
@@ -0,0 +1,158 @@
+package io.hyperfoil.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares two object graphs field by field, following the same rules as Java serialization: static and transient
+ * fields are ignored, serializable lambdas are compared through their {@link SerializedLambda} form
+ * and shared references in the expected graph must stay shared in the actual graph.
+ */
+public final class ObjectGraphAssert {
+   private final IdentityHashMap<Object, Object> visited = new IdentityHashMap<>();
+
+   private ObjectGraphAssert() {
+   }
+
+   public static void assertSameGraph(Object expected, Object actual) {
+      new ObjectGraphAssert().compare("root", expected, actual);
+   }
+
+   private void compare(String path, Object expected, Object actual) {
+      if (expected == null || actual == null) {
+         assertThat(actual).as(path).isSameAs(expected);
+         return;
+      }
+      Class<?> clazz = expected.getClass();
+      if (isValue(clazz)) {
+         assertThat(actual).as(path).isEqualTo(expected);
+         return;
+      }
+      Object previous = visited.putIfAbsent(expected, actual);
+      if (previous != null) {
+         assertThat(actual).as(path + " (shared reference)").isSameAs(previous);
+         return;
+      }
+      if (isLambda(clazz)) {
+         assertThat(isLambda(actual.getClass())).as(path + " is lambda").isTrue();
+         compareLambda(path, serializedLambda(expected), serializedLambda(actual));
+         return;
+      }
+      assertThat(actual.getClass()).as(path + " class").isEqualTo(clazz);
+      if (clazz.isArray()) {
+         int length = Array.getLength(expected);
+         assertThat(Array.getLength(actual)).as(path + " length").isEqualTo(length);
+         for (int i = 0; i < length; ++i) {
+            compare(path + "[" + i + "]", Array.get(expected, i), Array.get(actual, i));
+         }
+      } else if (expected instanceof Map) {
+         compareMaps(path, (Map<?, ?>) expected, (Map<?, ?>) actual);
+      } else if (expected instanceof Set) {
+         compareSets(path, (Set<?>) expected, (Set<?>) actual);
+      } else if (expected instanceof Collection) {
+         compareIterables(path, (Collection<?>) expected, (Collection<?>) actual);
+      } else if (clazz.getName().startsWith("java.")) {
+         // JDK internals are not accessible through reflection
+         assertThat(actual.toString()).as(path).isEqualTo(expected.toString());
+      } else {
+         for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+               if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                  continue;
+               }
+               field.setAccessible(true);
+               try {
+                  compare(path + "." + field.getName(), field.get(expected), field.get(actual));
+               } catch (IllegalAccessException e) {
+                  throw new AssertionError(e);
+               }
+            }
+         }
+      }
+   }
+
+   private void compareMaps(String path, Map<?, ?> expected, Map<?, ?> actual) {
+      assertThat(actual.size()).as(path + " size").isEqualTo(expected.size());
+      if (expected.keySet().stream().allMatch(k -> k == null || isValue(k.getClass()))) {
+         for (Map.Entry<?, ?> entry : expected.entrySet()) {
+            assertThat(actual.containsKey(entry.getKey())).as(path + " contains " + entry.getKey()).isTrue();
+            compare(path + "[" + entry.getKey() + "]", entry.getValue(), actual.get(entry.getKey()));
+         }
+      } else {
+         compareIterables(path, expected.entrySet(), actual.entrySet());
+      }
+   }
+
+   private void compareSets(String path, Set<?> expected, Set<?> actual) {
+      if (expected.stream().allMatch(e -> e == null || isValue(e.getClass()))) {
+         assertThat(actual).as(path).isEqualTo(expected);
+      } else {
+         compareIterables(path, expected, actual);
+      }
+   }
+
+   private void compareIterables(String path, Collection<?> expected, Collection<?> actual) {
+      assertThat(actual.size()).as(path + " size").isEqualTo(expected.size());
+      Iterator<?> it = actual.iterator();
+      int i = 0;
+      for (Object item : expected) {
+         if (item instanceof Map.Entry) {
+            Map.Entry<?, ?> expectedEntry = (Map.Entry<?, ?>) item;
+            Map.Entry<?, ?> actualEntry = (Map.Entry<?, ?>) it.next();
+            compare(path + "{" + i + "}.key", expectedEntry.getKey(), actualEntry.getKey());
+            compare(path + "{" + i + "}.value", expectedEntry.getValue(), actualEntry.getValue());
+         } else {
+            compare(path + "[" + i + "]", item, it.next());
+         }
+         ++i;
+      }
+   }
+
+   private void compareLambda(String path, SerializedLambda expected, SerializedLambda actual) {
+      assertThat(actual.getCapturingClass()).as(path + " capturing class").isEqualTo(expected.getCapturingClass());
+      assertThat(actual.getImplClass() + "." + actual.getImplMethodName() + actual.getImplMethodSignature())
+            .as(path + " implementation")
+            .isEqualTo(expected.getImplClass() + "." + expected.getImplMethodName() + expected.getImplMethodSignature());
+      List<Object> expectedArgs = new ArrayList<>();
+      List<Object> actualArgs = new ArrayList<>();
+      for (int i = 0; i < expected.getCapturedArgCount(); ++i) {
+         expectedArgs.add(expected.getCapturedArg(i));
+      }
+      for (int i = 0; i < actual.getCapturedArgCount(); ++i) {
+         actualArgs.add(actual.getCapturedArg(i));
+      }
+      compareIterables(path + " captured", expectedArgs, actualArgs);
+   }
+
+   private static boolean isValue(Class<?> clazz) {
+      return clazz == String.class || clazz.isPrimitive() || Number.class.isAssignableFrom(clazz) && clazz.getName().startsWith("java.lang.")
+            || clazz == Boolean.class || clazz == Character.class || clazz.isEnum() || clazz.getSuperclass() != null && clazz.getSuperclass().isEnum()
+            || clazz == Class.class;
+   }
+
+   private static boolean isLambda(Class<?> clazz) {
+      return clazz.isSynthetic() && clazz.getName().contains("$$Lambda");
+   }
+
+   private static SerializedLambda serializedLambda(Object lambda) {
+      try {
+         Method writeReplace = lambda.getClass().getDeclaredMethod("writeReplace");
+         writeReplace.setAccessible(true);
+         return (SerializedLambda) writeReplace.invoke(lambda);
+      } catch (ReflectiveOperationException e) {
+         throw new AssertionError("Cannot get serialized form of " + lambda, e);
+      }
+   }
+}
@@ -44,8 +44,10 @@ import org.assertj.core.api.Condition;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -166,6 +168,22 @@ public class YamlParserTest {
       assertCondition((RangeStatusValidator) statusHandlers2[1], v -> v.max == 210);
    }
 
+   @Test
+   public void testCompactSerialization() throws IOException, ClassNotFoundException {
+      Benchmark benchmark = buildBenchmark("scenarios/complex.hf.yaml");
+      byte[] compact = Util.serialize(benchmark);
+      ByteArrayOutputStream plain = new ByteArrayOutputStream();
+      try (ObjectOutputStream outputStream = new ObjectOutputStream(plain)) {
+         outputStream.writeObject(benchmark);
+      }
+      assertThat(compact.length).isLessThan(plain.size() / 3);
+      // Benchmarks serialized by older versions are still accepted
+      Benchmark deserialized = Util.deserialize(plain.toByteArray());
+      ObjectGraphAssert.assertSameGraph(benchmark, deserialized);
+      assertThat(deserialized.agents()).extracting(a -> a.name).containsExactly("client1", "client2", "client3");
+      assertThat(deserialized.plugin(HttpPluginConfig.class).http()).hasSize(2);
+   }
+
    @Test
    public void testAgents1() {
       Benchmark benchmark = buildBenchmark("scenarios/agents1.hf.yaml");
@@ -178,6 +196,14 @@ public class YamlParserTest {
       assertThat(benchmark.agents().length).isEqualTo(3);
    }
 
+   @Test
+   public void testAgentAffinity() {
+      Benchmark benchmark = buildBenchmark("scenarios/agents3.hf.yaml");
+      assertThat(benchmark.agents().length).isEqualTo(2);
+      assertThat(benchmark.affinity(0)).containsExactly(0, 1, 2, 6);
+      assertThat(benchmark.affinity(1)).isNull();
+   }
+
    @Test
    public void testValidAuthorities() {
       Benchmark benchmark = buildBenchmark("scenarios/valid-authorities.hf.yaml");
@@ -273,7 +299,9 @@ public class YamlParserTest {
          try {
             byte[] bytes = Util.serialize(benchmark);
             assertThat(bytes).isNotNull();
-         } catch (IOException e) {
+            Benchmark deserialized = Util.deserialize(bytes);
+            ObjectGraphAssert.assertSameGraph(benchmark, deserialized);
+         } catch (IOException | ClassNotFoundException e) {
             throw new AssertionError(e);
          }
          return benchmark;
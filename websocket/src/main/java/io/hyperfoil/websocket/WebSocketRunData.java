@@ -0,0 +1,16 @@
+package io.hyperfoil.websocket;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.core.connection.ConnectionPoolsRunData;
+import io.hyperfoil.websocket.config.WebSocketEndpoint;
+import io.hyperfoil.websocket.config.WebSocketPluginConfig;
+import io.hyperfoil.websocket.connection.WebSocketConnectionPool;
+import io.hyperfoil.websocket.connection.WebSocketConnectionPools;
+import io.netty.channel.EventLoop;
+
+public class WebSocketRunData extends ConnectionPoolsRunData<WebSocketEndpoint, WebSocketConnectionPool, WebSocketConnectionPools> {
+   public WebSocketRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
+      super(benchmark, executors, agentId, benchmark.plugin(WebSocketPluginConfig.class).endpoints(),
+            WebSocketConnectionPool::new, WebSocketConnectionPools::new, WebSocketConnectionPools.KEY);
+   }
+}
@@ -0,0 +1,81 @@
+package io.hyperfoil.websocket.config;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.core.connection.PooledEndpoint;
+
+public class WebSocketEndpoint implements PooledEndpoint, Serializable {
+   private final String url;
+   private final boolean secure;
+   private final String host;
+   private final int port;
+   private final String path;
+   private final int connections;
+   private final int maxInFlight;
+
+   public WebSocketEndpoint(String url, int connections, int maxInFlight) {
+      if (url == null) {
+         throw new BenchmarkDefinitionException("Endpoint must define the url.");
+      }
+      URI uri;
+      try {
+         uri = new URI(url);
+      } catch (URISyntaxException e) {
+         throw new BenchmarkDefinitionException("Invalid url " + url, e);
+      }
+      if (!"ws".equals(uri.getScheme()) && !"wss".equals(uri.getScheme())) {
+         throw new BenchmarkDefinitionException("Unsupported scheme in url " + url + ": only ws:// and wss:// are supported.");
+      } else if (uri.getHost() == null) {
+         throw new BenchmarkDefinitionException("Url " + url + " does not define host.");
+      }
+      if (connections < 0) {
+         throw new BenchmarkDefinitionException("Number of connections must not be negative.");
+      } else if (maxInFlight <= 0) {
+         throw new BenchmarkDefinitionException("Maximum number of in-flight messages must be positive.");
+      }
+      this.url = url;
+      this.secure = "wss".equals(uri.getScheme());
+      this.host = uri.getHost();
+      this.port = uri.getPort() < 0 ? (secure ? 443 : 80) : uri.getPort();
+      String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+      this.path = uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+      this.connections = connections;
+      this.maxInFlight = maxInFlight;
+   }
+
+   @Override
+   public String url() {
+      return url;
+   }
+
+   @Override
+   public String host() {
+      return host;
+   }
+
+   @Override
+   public int port() {
+      return port;
+   }
+
+   @Override
+   public boolean secure() {
+      return secure;
+   }
+
+   public String path() {
+      return path;
+   }
+
+   @Override
+   public int connections() {
+      return connections;
+   }
+
+   public int maxInFlight() {
+      return maxInFlight;
+   }
+}
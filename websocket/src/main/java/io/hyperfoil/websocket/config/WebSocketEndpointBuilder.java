@@ -0,0 +1,46 @@
+package io.hyperfoil.websocket.config;
+
+public class WebSocketEndpointBuilder {
+   private String url;
+   private int connections;
+   private int maxInFlight = 16;
+
+   /**
+    * URL of the endpoint, e.g. <code>ws://localhost:8080/echo</code>.
+    *
+    * @param url Endpoint URL.
+    * @return Self.
+    */
+   public WebSocketEndpointBuilder url(String url) {
+      this.url = url;
+      return this;
+   }
+
+   /**
+    * Number of connections opened by the benchmark; these are divided between agents and their executors.
+    * Default is 1 connection per executor.
+    *
+    * @param connections Number of connections.
+    * @return Self.
+    */
+   public WebSocketEndpointBuilder connections(int connections) {
+      this.connections = connections;
+      return this;
+   }
+
+   /**
+    * Maximum number of messages sent through single connection that are awaiting a response. Sending further messages
+    * blocks until some response arrives. Default is 16.
+    *
+    * @param maxInFlight Number of messages.
+    * @return Self.
+    */
+   public WebSocketEndpointBuilder maxInFlight(int maxInFlight) {
+      this.maxInFlight = maxInFlight;
+      return this;
+   }
+
+   public WebSocketEndpoint build() {
+      return new WebSocketEndpoint(url, connections, maxInFlight);
+   }
+}
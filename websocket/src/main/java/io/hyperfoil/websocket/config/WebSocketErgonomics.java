@@ -0,0 +1,4 @@
+package io.hyperfoil.websocket.config;
+
+public class WebSocketErgonomics {
+}
@@ -0,0 +1,42 @@
+package io.hyperfoil.websocket.config;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.PluginConfig;
+import io.hyperfoil.core.api.Plugin;
+import io.hyperfoil.core.api.PluginRunData;
+import io.hyperfoil.core.parser.ErgonomicsParser;
+import io.hyperfoil.core.parser.Parser;
+import io.hyperfoil.websocket.WebSocketRunData;
+import io.hyperfoil.websocket.parser.WebSocketParser;
+import io.netty.channel.EventLoop;
+
+@MetaInfServices(Plugin.class)
+public class WebSocketPlugin implements Plugin {
+
+   @Override
+   public Class<? extends PluginConfig> configClass() {
+      return WebSocketPluginConfig.class;
+   }
+
+   @Override
+   public String name() {
+      return "websocket";
+   }
+
+   @Override
+   public Parser<BenchmarkBuilder> parser() {
+      return new WebSocketParser();
+   }
+
+   @Override
+   public void enhanceErgonomics(ErgonomicsParser ergonomicsParser) {
+   }
+
+   @Override
+   public PluginRunData createRunData(Benchmark benchmark, EventLoop[] executors, int agentId) {
+      return new WebSocketRunData(benchmark, executors, agentId);
+   }
+}
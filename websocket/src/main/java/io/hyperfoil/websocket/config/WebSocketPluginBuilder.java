@@ -0,0 +1,45 @@
+package io.hyperfoil.websocket.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.PluginBuilder;
+import io.hyperfoil.api.config.PluginConfig;
+
+public class WebSocketPluginBuilder extends PluginBuilder<WebSocketErgonomics> {
+   private final List<WebSocketEndpointBuilder> endpoints = new ArrayList<>();
+
+   public WebSocketPluginBuilder(BenchmarkBuilder parent) {
+      super(parent);
+   }
+
+   @Override
+   public WebSocketErgonomics ergonomics() {
+      return null;
+   }
+
+   @Override
+   public void prepareBuild() {
+   }
+
+   @Override
+   public PluginConfig build() {
+      WebSocketEndpoint[] endpoints = this.endpoints.stream().map(WebSocketEndpointBuilder::build)
+            .toArray(WebSocketEndpoint[]::new);
+      if (endpoints.length == 0) {
+         throw new BenchmarkDefinitionException("No endpoints set!");
+      } else if (Stream.of(endpoints).map(WebSocketEndpoint::url).distinct().count() != endpoints.length) {
+         throw new BenchmarkDefinitionException("Endpoint definition with duplicate urls!");
+      }
+      return new WebSocketPluginConfig(endpoints);
+   }
+
+   public WebSocketEndpointBuilder addEndpoint() {
+      WebSocketEndpointBuilder builder = new WebSocketEndpointBuilder();
+      endpoints.add(builder);
+      return builder;
+   }
+}
@@ -0,0 +1,15 @@
+package io.hyperfoil.websocket.config;
+
+import io.hyperfoil.api.config.PluginConfig;
+
+public class WebSocketPluginConfig implements PluginConfig {
+   private final WebSocketEndpoint[] endpoints;
+
+   public WebSocketPluginConfig(WebSocketEndpoint[] endpoints) {
+      this.endpoints = endpoints;
+   }
+
+   public WebSocketEndpoint[] endpoints() {
+      return endpoints;
+   }
+}
@@ -0,0 +1,275 @@
+package io.hyperfoil.websocket.connection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.hyperfoil.core.connection.ExecutorConnectionPool;
+import io.hyperfoil.websocket.config.WebSocketEndpoint;
+import io.hyperfoil.websocket.resource.WebSocketResource;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * Performs the opening handshake and decodes incoming frames. Payload of data frames is not retained; the connection
+ * only notifies its current owner when a complete message arrives.
+ */
+public class WebSocketConnection extends ChannelInboundHandlerAdapter implements ExecutorConnectionPool.Connection {
+   private static final Logger log = LogManager.getLogger(WebSocketConnection.class);
+   private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+   private static final int MAX_CONTROL_PAYLOAD = 125;
+
+   private final WebSocketConnectionPool pool;
+   private ChannelHandlerContext ctx;
+   private String key;
+   private ByteBuf handshake;
+   private boolean open;
+   private boolean closeSent;
+   private WebSocketResource owner;
+
+   // decoder state
+   private int headerPos;
+   private int headerLength;
+   private boolean fin;
+   private int opcode;
+   private long payloadLength;
+   private long payloadRemaining;
+   private ByteBuf control;
+
+   WebSocketConnection(WebSocketConnectionPool pool) {
+      this.pool = pool;
+   }
+
+   public boolean isOpen() {
+      return open && ctx.channel().isActive();
+   }
+
+   public WebSocketResource owner() {
+      return owner;
+   }
+
+   public void owner(WebSocketResource owner) {
+      this.owner = owner;
+   }
+
+   public ByteBuf allocate() {
+      return WebSocketFrames.allocate(ctx.alloc());
+   }
+
+   public void send(ByteBuf buf, int opcode) {
+      ctx.writeAndFlush(WebSocketFrames.encode(buf, opcode), ctx.voidPromise());
+   }
+
+   @Override
+   public void close() {
+      ctx.close();
+   }
+
+   @Override
+   public void channelActive(ChannelHandlerContext ctx) {
+      this.ctx = ctx;
+      byte[] nonce = new byte[16];
+      ThreadLocalRandom.current().nextBytes(nonce);
+      key = Base64.getEncoder().encodeToString(nonce);
+      WebSocketEndpoint endpoint = pool.endpoint();
+      String request = "GET " + endpoint.path() + " HTTP/1.1\r\n" +
+            "Host: " + endpoint.host() + ":" + endpoint.port() + "\r\n" +
+            "Upgrade: websocket\r\n" +
+            "Connection: Upgrade\r\n" +
+            "Sec-WebSocket-Key: " + key + "\r\n" +
+            "Sec-WebSocket-Version: 13\r\n\r\n";
+      ByteBuf buf = ctx.alloc().buffer(request.length());
+      buf.writeCharSequence(request, StandardCharsets.US_ASCII);
+      ctx.writeAndFlush(buf, ctx.voidPromise());
+      handshake = ctx.alloc().buffer(256);
+   }
+
+   @Override
+   public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      ByteBuf buf = (ByteBuf) msg;
+      try {
+         if (!open) {
+            handshake.writeBytes(buf);
+            if (!completeHandshake()) {
+               return;
+            }
+            // the server might have sent some frames right after the handshake
+            buf.release();
+            buf = handshake;
+            handshake = null;
+         }
+         decode(buf);
+      } finally {
+         buf.release();
+      }
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) {
+      if (handshake != null) {
+         handshake.release();
+         handshake = null;
+      }
+      if (control != null) {
+         control.release();
+         control = null;
+      }
+      WebSocketResource owner = this.owner;
+      this.owner = null;
+      if (owner != null) {
+         owner.onConnectionClosed(this);
+      }
+      pool.onClosed(this, open);
+      open = false;
+   }
+
+   @Override
+   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      log.warn("Exception in connection to {}", pool.endpoint().url(), cause);
+      ctx.close();
+   }
+
+   private boolean completeHandshake() {
+      int end = -1;
+      for (int i = handshake.readerIndex(); i + 3 < handshake.writerIndex(); ++i) {
+         if (handshake.getInt(i) == 0x0D0A0D0A) {
+            end = i + 4;
+            break;
+         }
+      }
+      if (end < 0) {
+         return false;
+      }
+      String response = handshake.toString(handshake.readerIndex(), end - handshake.readerIndex(), StandardCharsets.ISO_8859_1);
+      handshake.readerIndex(end);
+      String[] lines = response.split("\r\n");
+      String[] status = lines[0].split(" ");
+      String accept = null;
+      for (int i = 1; i < lines.length; ++i) {
+         int colon = lines[i].indexOf(':');
+         if (colon > 0 && lines[i].substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Accept")) {
+            accept = lines[i].substring(colon + 1).trim();
+         }
+      }
+      if (status.length < 2 || !"101".equals(status[1])) {
+         pool.onHandshakeFailed(this, "Unexpected handshake response status: " + lines[0]);
+         return false;
+      } else if (!expectedAccept().equals(accept)) {
+         pool.onHandshakeFailed(this, "Invalid Sec-WebSocket-Accept header: " + accept);
+         return false;
+      }
+      open = true;
+      pool.onOpened(this);
+      return true;
+   }
+
+   private String expectedAccept() {
+      try {
+         MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+         return Base64.getEncoder().encodeToString(sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private void decode(ByteBuf buf) {
+      while (buf.isReadable()) {
+         if (headerPos < headerLength || headerLength == 0) {
+            readHeaderByte(buf.readUnsignedByte());
+         } else {
+            int n = (int) Math.min(buf.readableBytes(), payloadRemaining);
+            if (opcode == WebSocketFrames.OPCODE_PING || opcode == WebSocketFrames.OPCODE_CLOSE) {
+               control.writeBytes(buf, n);
+            } else {
+               buf.skipBytes(n);
+            }
+            payloadRemaining -= n;
+            if (payloadRemaining == 0) {
+               endFrame();
+            }
+         }
+         if (!ctx.channel().isActive()) {
+            return;
+         }
+      }
+   }
+
+   private void readHeaderByte(int b) {
+      if (headerPos == 0) {
+         fin = (b & 0x80) != 0;
+         opcode = b & 0x0F;
+         headerLength = 2;
+      } else if (headerPos == 1) {
+         if ((b & 0x80) != 0) {
+            log.error("Server {} sent masked frame, closing connection.", pool.endpoint().url());
+            ctx.close();
+            return;
+         }
+         payloadLength = b & 0x7F;
+         if (payloadLength == 126) {
+            headerLength += 2;
+            payloadLength = 0;
+         } else if (payloadLength == 127) {
+            headerLength += 8;
+            payloadLength = 0;
+         }
+      } else {
+         payloadLength = (payloadLength << 8) | b;
+      }
+      if (++headerPos == headerLength) {
+         payloadRemaining = payloadLength;
+         if (opcode >= WebSocketFrames.OPCODE_CLOSE) {
+            if (payloadLength > MAX_CONTROL_PAYLOAD) {
+               log.error("Server {} sent control frame with {} bytes payload, closing connection.", pool.endpoint().url(), payloadLength);
+               ctx.close();
+               return;
+            }
+            if (control == null) {
+               control = ctx.alloc().buffer(MAX_CONTROL_PAYLOAD);
+            }
+            control.clear();
+         }
+         if (payloadRemaining == 0) {
+            endFrame();
+         }
+      }
+   }
+
+   private void endFrame() {
+      headerPos = 0;
+      headerLength = 0;
+      switch (opcode) {
+         case WebSocketFrames.OPCODE_CONTINUATION:
+         case WebSocketFrames.OPCODE_TEXT:
+         case WebSocketFrames.OPCODE_BINARY:
+            if (fin && owner != null) {
+               owner.onMessage();
+            }
+            break;
+         case WebSocketFrames.OPCODE_PING:
+            sendControl(WebSocketFrames.OPCODE_PONG);
+            break;
+         case WebSocketFrames.OPCODE_CLOSE:
+            if (!closeSent) {
+               sendControl(WebSocketFrames.OPCODE_CLOSE);
+               closeSent = true;
+            }
+            ctx.close();
+            break;
+         default:
+            // pong or reserved opcodes are ignored
+      }
+   }
+
+   private void sendControl(int opcode) {
+      ByteBuf frame = allocate();
+      frame.writeBytes(control, control.readerIndex(), control.readableBytes());
+      send(frame, opcode);
+   }
+}
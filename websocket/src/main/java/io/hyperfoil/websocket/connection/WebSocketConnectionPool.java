@@ -0,0 +1,94 @@
+package io.hyperfoil.websocket.connection;
+
+import java.util.ArrayDeque;
+
+import io.hyperfoil.core.connection.ExecutorConnectionPool;
+import io.hyperfoil.websocket.config.WebSocketEndpoint;
+import io.hyperfoil.websocket.resource.WebSocketResource;
+import io.netty.channel.EventLoop;
+import io.netty.handler.ssl.SslContext;
+
+/**
+ * Each connection is used by single session at a time; the session acquires it when connecting
+ * and returns it back to the pool when done. Sessions that find all connections in use wait in a queue
+ * and are woken up one by one as the connections are returned or reopened.
+ */
+public class WebSocketConnectionPool extends ExecutorConnectionPool<WebSocketEndpoint, WebSocketConnection> {
+   private final ArrayDeque<WebSocketConnection> available = new ArrayDeque<>();
+   private final ArrayDeque<WebSocketResource> waiting = new ArrayDeque<>();
+
+   public WebSocketConnectionPool(WebSocketEndpoint endpoint, SslContext sslContext, EventLoop executor, int size) {
+      super(endpoint, sslContext, executor, size);
+   }
+
+   @Override
+   protected WebSocketConnection newConnection() {
+      return new WebSocketConnection(this);
+   }
+
+   @Override
+   public String describe() {
+      return String.format("%s: %d/%d available, %d waiting sessions", endpoint.url(), available.size(), connections(), waiting.size());
+   }
+
+   /**
+    * @return Available connection or <code>null</code> if all connections are in use.
+    */
+   public WebSocketConnection acquire() {
+      WebSocketConnection connection;
+      while ((connection = available.poll()) != null) {
+         if (connection.isOpen()) {
+            return connection;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Returns the connection to the pool. Connection with in-flight messages is closed as these would be received
+    * by the next owner, and a new connection is opened instead.
+    */
+   public void release(WebSocketConnection connection, boolean clean) {
+      connection.owner(null);
+      if (!clean) {
+         connection.close();
+      } else if (connection.isOpen()) {
+         available.add(connection);
+         onAvailable();
+      }
+   }
+
+   public void await(WebSocketResource resource) {
+      waiting.add(resource);
+   }
+
+   public void cancelAwait(WebSocketResource resource) {
+      waiting.remove(resource);
+   }
+
+   private void onAvailable() {
+      WebSocketResource resource = waiting.poll();
+      if (resource != null) {
+         resource.wakeUp();
+      }
+   }
+
+   public int available() {
+      return available.size();
+   }
+
+   @Override
+   public void onOpened(WebSocketConnection connection) {
+      available.add(connection);
+      super.onOpened(connection);
+      onAvailable();
+   }
+
+   @Override
+   public void onClosed(WebSocketConnection connection, boolean wasOpen) {
+      if (wasOpen) {
+         available.remove(connection);
+      }
+      super.onClosed(connection, wasOpen);
+   }
+}
@@ -0,0 +1,18 @@
+package io.hyperfoil.websocket.connection;
+
+import java.util.List;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.connection.ExecutorConnectionPools;
+
+public class WebSocketConnectionPools extends ExecutorConnectionPools<WebSocketConnectionPool> {
+   public static final Session.ResourceKey<WebSocketConnectionPools> KEY = new Session.ResourceKey<>() {};
+
+   public WebSocketConnectionPools(List<WebSocketConnectionPool> pools) {
+      super("WebSocket", pools);
+   }
+
+   public static WebSocketConnectionPools get(Session session) {
+      return session.getResource(KEY);
+   }
+}
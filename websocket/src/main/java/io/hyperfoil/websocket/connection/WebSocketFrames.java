@@ -0,0 +1,70 @@
+package io.hyperfoil.websocket.connection;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Client-side frame encoding. The payload is written into a pooled buffer after space reserved for the header;
+ * {@link #encode(ByteBuf, int)} then fills in the header in front of the payload and masks the payload in place,
+ * so that the frame is sent as a single buffer without any copying.
+ */
+public final class WebSocketFrames {
+   public static final int OPCODE_CONTINUATION = 0x0;
+   public static final int OPCODE_TEXT = 0x1;
+   public static final int OPCODE_BINARY = 0x2;
+   public static final int OPCODE_CLOSE = 0x8;
+   public static final int OPCODE_PING = 0x9;
+   public static final int OPCODE_PONG = 0xA;
+
+   // 2 bytes of fixed header, up to 8 bytes of extended length and 4 bytes of masking key
+   private static final int MAX_HEADER = 14;
+
+   private WebSocketFrames() {
+   }
+
+   /**
+    * @return Buffer where the caller should write the frame payload.
+    */
+   public static ByteBuf allocate(ByteBufAllocator allocator) {
+      ByteBuf buf = allocator.directBuffer();
+      buf.writerIndex(MAX_HEADER).readerIndex(MAX_HEADER);
+      return buf;
+   }
+
+   /**
+    * Turns buffer obtained from {@link #allocate(ByteBufAllocator)} with payload written into a final frame.
+    */
+   public static ByteBuf encode(ByteBuf buf, int opcode) {
+      int length = buf.writerIndex() - MAX_HEADER;
+      int lengthBytes = length < 126 ? 0 : (length < 65536 ? 2 : 8);
+      int start = MAX_HEADER - 6 - lengthBytes;
+      buf.setByte(start, 0x80 | opcode);
+      if (lengthBytes == 0) {
+         buf.setByte(start + 1, 0x80 | length);
+      } else if (lengthBytes == 2) {
+         buf.setByte(start + 1, 0x80 | 126);
+         buf.setShort(start + 2, length);
+      } else {
+         buf.setByte(start + 1, 0x80 | 127);
+         buf.setLong(start + 2, length);
+      }
+      int mask = ThreadLocalRandom.current().nextInt();
+      buf.setInt(MAX_HEADER - 4, mask);
+      mask(buf, MAX_HEADER, length, mask);
+      return buf.readerIndex(start);
+   }
+
+   static void mask(ByteBuf buf, int offset, int length, int mask) {
+      int end = offset + length;
+      int i = offset;
+      for (; i + 4 <= end; i += 4) {
+         buf.setInt(i, buf.getInt(i) ^ mask);
+      }
+      // the key is applied in network byte order
+      for (int shift = 24; i < end; ++i, shift -= 8) {
+         buf.setByte(i, buf.getByte(i) ^ (mask >>> shift));
+      }
+   }
+}
@@ -0,0 +1,22 @@
+package io.hyperfoil.websocket.parser;
+
+import io.hyperfoil.core.parser.AbstractParser;
+import io.hyperfoil.core.parser.Context;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.core.parser.PropertyParser;
+import io.hyperfoil.websocket.config.WebSocketEndpointBuilder;
+
+public class WebSocketEndpointParser extends AbstractParser<WebSocketEndpointBuilder, WebSocketEndpointBuilder> {
+   static WebSocketEndpointParser INSTANCE = new WebSocketEndpointParser();
+
+   public WebSocketEndpointParser() {
+      register("url", new PropertyParser.String<>(WebSocketEndpointBuilder::url));
+      register("connections", new PropertyParser.Int<>(WebSocketEndpointBuilder::connections));
+      register("maxInFlight", new PropertyParser.Int<>(WebSocketEndpointBuilder::maxInFlight));
+   }
+
+   @Override
+   public void parse(Context ctx, WebSocketEndpointBuilder target) throws ParserException {
+      callSubBuilders(ctx, target);
+   }
+}
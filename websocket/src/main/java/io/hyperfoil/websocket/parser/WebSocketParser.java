@@ -0,0 +1,21 @@
+package io.hyperfoil.websocket.parser;
+
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.core.parser.Context;
+import io.hyperfoil.core.parser.Parser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.websocket.config.WebSocketPluginBuilder;
+
+public class WebSocketParser implements Parser<BenchmarkBuilder> {
+   @Override
+   public void parse(Context ctx, BenchmarkBuilder target) throws ParserException {
+      WebSocketPluginBuilder plugin = target.addPlugin(WebSocketPluginBuilder::new);
+      if (ctx.peek() instanceof SequenceStartEvent) {
+         ctx.parseList(plugin, (ctx1, builder) -> WebSocketEndpointParser.INSTANCE.parse(ctx1, builder.addEndpoint()));
+      } else {
+         WebSocketEndpointParser.INSTANCE.parse(ctx, plugin.addEndpoint());
+      }
+   }
+}
@@ -0,0 +1,148 @@
+package io.hyperfoil.websocket.resource;
+
+import java.util.Objects;
+
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.websocket.connection.WebSocketConnection;
+import io.hyperfoil.websocket.connection.WebSocketConnectionPool;
+
+/**
+ * Connection acquired by the session (sequence) and a ring of messages sent through it that await a response.
+ * Responses are matched to the sent messages in order.
+ */
+public class WebSocketResource implements Session.Resource {
+   private final long[] startTimestampsMillis;
+   private final long[] startTimestampsNanos;
+   private final Statistics[] statistics;
+   private Session session;
+   private WebSocketConnectionPool pool;
+   private WebSocketConnection connection;
+   private WebSocketConnectionPool waitingFor;
+   private int head;
+   private int inFlight;
+   private int received;
+
+   public WebSocketResource(int maxInFlight) {
+      this.startTimestampsMillis = new long[maxInFlight];
+      this.startTimestampsNanos = new long[maxInFlight];
+      this.statistics = new Statistics[maxInFlight];
+   }
+
+   public WebSocketConnection connection() {
+      return connection;
+   }
+
+   public void acquire(Session session, WebSocketConnectionPool pool, WebSocketConnection connection) {
+      this.session = session;
+      this.pool = pool;
+      this.connection = connection;
+      connection.owner(this);
+   }
+
+   /**
+    * Registers the session to be woken up when a connection in the pool becomes available.
+    */
+   public void await(Session session, WebSocketConnectionPool pool) {
+      if (waitingFor == null) {
+         this.session = session;
+         waitingFor = pool;
+         pool.await(this);
+      }
+   }
+
+   /**
+    * Invoked by the pool when a connection becomes available.
+    */
+   public void wakeUp() {
+      waitingFor = null;
+      session.proceed();
+   }
+
+   public boolean canSend() {
+      return inFlight < statistics.length;
+   }
+
+   public void onSend(Statistics statistics, long startTimestampMillis, long startTimestampNanos) {
+      int index = (head + inFlight) % this.statistics.length;
+      this.statistics[index] = statistics;
+      startTimestampsMillis[index] = startTimestampMillis;
+      startTimestampsNanos[index] = startTimestampNanos;
+      inFlight++;
+   }
+
+   /**
+    * @return True if there was a message received and not consumed yet.
+    */
+   public boolean consumeMessage() {
+      if (received > 0) {
+         received--;
+         return true;
+      }
+      return false;
+   }
+
+   public void onMessage() {
+      if (inFlight > 0) {
+         long endTimestampNanos = System.nanoTime();
+         statistics[head].recordResponse(startTimestampsMillis[head], endTimestampNanos - startTimestampsNanos[head]);
+         statistics[head] = null;
+         head = (head + 1) % statistics.length;
+         inFlight--;
+      }
+      received++;
+      session.proceed();
+   }
+
+   public void onConnectionClosed(WebSocketConnection connection) {
+      assert this.connection == connection;
+      long now = System.currentTimeMillis();
+      for (; inFlight > 0; --inFlight) {
+         statistics[head].incrementConnectionErrors(now);
+         statistics[head] = null;
+         head = (head + 1) % statistics.length;
+      }
+      this.connection = null;
+      session.stop();
+   }
+
+   @Override
+   public void onSessionReset(Session session) {
+      if (waitingFor != null) {
+         waitingFor.cancelAwait(this);
+         waitingFor = null;
+      }
+      if (connection != null) {
+         pool.release(connection, inFlight == 0);
+         connection = null;
+      }
+      for (; inFlight > 0; --inFlight) {
+         statistics[head] = null;
+         head = (head + 1) % statistics.length;
+      }
+      received = 0;
+   }
+
+   public static class Key implements Session.ResourceKey<WebSocketResource> {
+      private final String url;
+
+      public Key(String url) {
+         this.url = url;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         } else if (o == null || getClass() != o.getClass()) {
+            return false;
+         }
+         return Objects.equals(url, ((Key) o).url);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(url);
+      }
+   }
+}
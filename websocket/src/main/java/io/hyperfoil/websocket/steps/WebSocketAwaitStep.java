@@ -0,0 +1,59 @@
+package io.hyperfoil.websocket.steps;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.builders.BaseStepBuilder;
+import io.hyperfoil.websocket.resource.WebSocketResource;
+
+public class WebSocketAwaitStep implements Step, ResourceUtilizer {
+   private final WebSocketResource.Key key;
+   private final String url;
+
+   public WebSocketAwaitStep(String url) {
+      this.key = new WebSocketResource.Key(url);
+      this.url = url;
+   }
+
+   @Override
+   public boolean invoke(Session session) {
+      return session.getResource(key).consumeMessage();
+   }
+
+   @Override
+   public void reserve(Session session) {
+      WebSocketConnectStep.reserve(session, key, url);
+   }
+
+   /**
+    * Blocks current sequence until a message is received through the connection.
+    */
+   @MetaInfServices(StepBuilder.class)
+   @Name("websocketAwait")
+   public static class Builder extends BaseStepBuilder<Builder> {
+      private String url;
+
+      /**
+       * URL of the endpoint. Can be omitted if there's only single endpoint defined.
+       *
+       * @param url Endpoint URL.
+       * @return Self.
+       */
+      public Builder url(String url) {
+         this.url = url;
+         return this;
+      }
+
+      @Override
+      public List<Step> build() {
+         return Collections.singletonList(new WebSocketAwaitStep(url));
+      }
+   }
+}
@@ -0,0 +1,80 @@
+package io.hyperfoil.websocket.steps;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.builders.BaseStepBuilder;
+import io.hyperfoil.websocket.connection.WebSocketConnection;
+import io.hyperfoil.websocket.connection.WebSocketConnectionPool;
+import io.hyperfoil.websocket.connection.WebSocketConnectionPools;
+import io.hyperfoil.websocket.resource.WebSocketResource;
+
+public class WebSocketConnectStep implements Step, ResourceUtilizer {
+   private final WebSocketResource.Key key;
+   private final String url;
+
+   public WebSocketConnectStep(String url) {
+      this.key = new WebSocketResource.Key(url);
+      this.url = url;
+   }
+
+   @Override
+   public boolean invoke(Session session) {
+      WebSocketResource resource = session.getResource(key);
+      if (resource.connection() != null) {
+         return true;
+      }
+      WebSocketConnectionPool pool = WebSocketConnectionPools.get(session).pool(url);
+      WebSocketConnection connection = pool.acquire();
+      if (connection == null) {
+         resource.await(session, pool);
+         return false;
+      }
+      resource.acquire(session, pool, connection);
+      return true;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      reserve(session, key, url);
+   }
+
+   static void reserve(Session session, WebSocketResource.Key key, String url) {
+      int maxInFlight = WebSocketConnectionPools.get(session).pool(url).endpoint().maxInFlight();
+      session.declareResource(key, () -> new WebSocketResource(maxInFlight));
+   }
+
+   /**
+    * Acquires a connection from the pool for exclusive use by this sequence; blocks until there's a connection available.
+    * The connection is returned to the pool when the session is reset. Does nothing if a connection to this endpoint
+    * was already acquired.
+    */
+   @MetaInfServices(StepBuilder.class)
+   @Name("websocketConnect")
+   public static class Builder extends BaseStepBuilder<Builder> {
+      private String url;
+
+      /**
+       * URL of the endpoint. Can be omitted if there's only single endpoint defined.
+       *
+       * @param url Endpoint URL.
+       * @return Self.
+       */
+      public Builder url(String url) {
+         this.url = url;
+         return this;
+      }
+
+      @Override
+      public List<Step> build() {
+         return Collections.singletonList(new WebSocketConnectStep(url));
+      }
+   }
+}
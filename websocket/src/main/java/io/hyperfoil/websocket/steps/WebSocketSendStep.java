@@ -0,0 +1,143 @@
+package io.hyperfoil.websocket.steps;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.BenchmarkExecutionException;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.InitFromParam;
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.builders.BaseStepBuilder;
+import io.hyperfoil.core.generators.Pattern;
+import io.hyperfoil.core.steps.StatisticsStep;
+import io.hyperfoil.websocket.connection.WebSocketConnection;
+import io.hyperfoil.websocket.connection.WebSocketFrames;
+import io.hyperfoil.websocket.resource.WebSocketResource;
+import io.netty.buffer.ByteBuf;
+
+public class WebSocketSendStep extends StatisticsStep implements ResourceUtilizer {
+   private final WebSocketResource.Key key;
+   private final String url;
+   private final Pattern message;
+   private final int opcode;
+   private final String metric;
+
+   public WebSocketSendStep(int id, String url, Pattern message, boolean binary, String metric) {
+      super(id);
+      this.key = new WebSocketResource.Key(url);
+      this.url = url;
+      this.message = message;
+      this.opcode = binary ? WebSocketFrames.OPCODE_BINARY : WebSocketFrames.OPCODE_TEXT;
+      this.metric = metric;
+   }
+
+   @Override
+   public boolean invoke(Session session) {
+      WebSocketResource resource = session.getResource(key);
+      WebSocketConnection connection = resource.connection();
+      if (connection == null) {
+         session.fail(new BenchmarkExecutionException("No WebSocket connection acquired; use websocketConnect first."));
+         return false;
+      } else if (!resource.canSend()) {
+         return false;
+      }
+      ByteBuf buf = connection.allocate();
+      message.accept(session, buf);
+      Statistics statistics = session.statistics(id(), metric);
+      long startTimestampMillis = System.currentTimeMillis();
+      resource.onSend(statistics, startTimestampMillis, System.nanoTime());
+      statistics.incrementRequests(startTimestampMillis);
+      connection.send(buf, opcode);
+      return true;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      WebSocketConnectStep.reserve(session, key, url);
+      message.reserve(session);
+   }
+
+   /**
+    * Sends a message through the connection. The latency is recorded when the next message is received through
+    * the connection, therefore the server is expected to reply to each message in order.
+    */
+   @MetaInfServices(StepBuilder.class)
+   @Name("websocketSend")
+   public static class Builder extends BaseStepBuilder<Builder> implements InitFromParam<Builder> {
+      private String url;
+      private String message;
+      private boolean binary;
+      private String metric;
+
+      /**
+       * @param param Message <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+       * @return Self.
+       */
+      @Override
+      public Builder init(String param) {
+         return message(param);
+      }
+
+      /**
+       * URL of the endpoint. Can be omitted if there's only single endpoint defined.
+       *
+       * @param url Endpoint URL.
+       * @return Self.
+       */
+      public Builder url(String url) {
+         this.url = url;
+         return this;
+      }
+
+      /**
+       * Message contents. This can be a <a href="https://hyperfoil.io/userguide/benchmark/variables.html#string-interpolation">pattern</a>.
+       *
+       * @param message Message pattern.
+       * @return Self.
+       */
+      public Builder message(String message) {
+         this.message = message;
+         return this;
+      }
+
+      /**
+       * Send the message as binary rather than text frame. Default is <code>false</code>.
+       *
+       * @param binary Binary frame.
+       * @return Self.
+       */
+      public Builder binary(boolean binary) {
+         this.binary = binary;
+         return this;
+      }
+
+      /**
+       * Name of the metric used for message latency. Default is the sequence name.
+       *
+       * @param metric Metric name.
+       * @return Self.
+       */
+      public Builder metric(String metric) {
+         this.metric = metric;
+         return this;
+      }
+
+      @Override
+      public List<Step> build() {
+         if (message == null) {
+            throw new BenchmarkDefinitionException("Message must be set.");
+         }
+         String metric = this.metric != null ? this.metric : Locator.current().sequence().name();
+         return Collections.singletonList(new WebSocketSendStep(StatisticsStep.nextId(), url, new Pattern(message, false),
+               binary, metric));
+      }
+   }
+}
@@ -0,0 +1,107 @@
+package io.hyperfoil.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
+import io.hyperfoil.core.session.BaseScenarioTest;
+import io.hyperfoil.core.test.TestUtil;
+import io.hyperfoil.websocket.config.WebSocketEndpoint;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.net.JksOptions;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class WebSocketTest extends BaseScenarioTest {
+   private HttpServer server;
+   private HttpServer tlsServer;
+
+   @Before
+   public void before(TestContext ctx) {
+      super.before(ctx);
+      server = vertx.createHttpServer().webSocketHandler(this::echo);
+      server.listen(0, "localhost", ctx.asyncAssertSuccess());
+      HttpServerOptions tlsOptions = new HttpServerOptions().setSsl(true)
+            .setKeyStoreOptions(new JksOptions().setPath("keystore.jks").setPassword("test123"));
+      tlsServer = vertx.createHttpServer(tlsOptions).webSocketHandler(this::echo);
+      tlsServer.listen(0, "localhost", ctx.asyncAssertSuccess());
+   }
+
+   private void echo(ServerWebSocket ws) {
+      if (!"/echo".equals(ws.path())) {
+         ws.reject();
+         return;
+      }
+      ws.textMessageHandler(ws::writeTextMessage);
+      ws.binaryMessageHandler(ws::writeBinaryMessage);
+   }
+
+   @Test
+   public void testEcho() {
+      Benchmark benchmark = loadScenario("scenarios/WebSocketEchoTest.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      StatisticsSnapshot echo = stats.get("echo");
+      assertThat(echo.requestCount).isGreaterThan(0);
+      assertThat(echo.responseCount).isEqualTo(echo.requestCount);
+      assertThat(echo.connectionErrors).isZero();
+      StatisticsSnapshot pipelined = stats.get("pipelined");
+      assertThat(pipelined.requestCount).isEqualTo(2 * echo.requestCount);
+      assertThat(pipelined.responseCount).isEqualTo(pipelined.requestCount);
+   }
+
+   @Test
+   public void testWaitingForConnection() {
+      // 30 sessions share 3 connections; each must get one before the phase hits maxDuration
+      Benchmark benchmark = loadScenario("scenarios/WebSocketEchoTest_waiting.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      StatisticsSnapshot echo = stats.get("echo");
+      assertThat(echo.requestCount).isEqualTo(30);
+      assertThat(echo.responseCount).isEqualTo(30);
+      assertThat(echo.connectionErrors).isZero();
+   }
+
+   @Test
+   public void testTls() {
+      Benchmark benchmark = loadScenario("scenarios/WebSocketEchoTest_tls.hf.yaml");
+      Map<String, StatisticsSnapshot> stats = runScenario(benchmark);
+      StatisticsSnapshot echo = stats.get("echo");
+      assertThat(echo.requestCount).isGreaterThan(0);
+      assertThat(echo.responseCount).isEqualTo(echo.requestCount);
+      assertThat(echo.connectionErrors).isZero();
+   }
+
+   @Test
+   public void testEndpoint() {
+      assertThatThrownBy(() -> new WebSocketEndpoint("http://localhost/echo", 1, 1))
+            .isInstanceOf(BenchmarkDefinitionException.class).hasMessageContaining("wss://");
+      WebSocketEndpoint secure = new WebSocketEndpoint("wss://localhost/echo?foo=bar", 1, 1);
+      assertThat(secure.secure()).isTrue();
+      assertThat(secure.port()).isEqualTo(443);
+      assertThat(secure.path()).isEqualTo("/echo?foo=bar");
+      WebSocketEndpoint plain = new WebSocketEndpoint("ws://localhost", 1, 1);
+      assertThat(plain.secure()).isFalse();
+      assertThat(plain.port()).isEqualTo(80);
+      assertThat(plain.path()).isEqualTo("/");
+   }
+
+   @Override
+   protected Benchmark loadBenchmark(InputStream config) throws IOException, ParserException {
+      return BenchmarkParser.instance().buildBenchmark(
+            config, TestUtil.benchmarkData(), Map.of("PORT", String.valueOf(server.actualPort()), "TLS_PORT", String.valueOf(tlsServer.actualPort())));
+   }
+}